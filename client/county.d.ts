@@ -45,6 +45,8 @@ declare namespace County {
 
     interface CVRImportStatus {
         error?: string;
+        estimatedCompletion?: Date;
+        queuePosition?: number;
         state: CVRImportState;
         timestamp: Date;
     }
@@ -9,10 +9,24 @@ declare namespace DOS {
         election?: Election;
         publicMeetingDate?: Date;
         riskLimit?: number;
+        roundStart?: DOS.RoundStart;
         seed?: string;
         type: 'DOS';
     }
 
+    interface RoundStart {
+        countyCount: number;
+        failures: RoundStartFailures;
+        inProgress: boolean;
+        round: number;
+        startTime: Date;
+        startedCount: number;
+    }
+
+    interface RoundStartFailures {
+        [countyId: number]: string;
+    }
+
     interface DiscrepancyCount {
         audited: number;
         unaudited: number;
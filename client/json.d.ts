@@ -72,7 +72,9 @@ declare namespace JSON {
 
     interface CVRImportStatus {
         error_message?: string;
+        estimated_completion?: string;
         import_state: County.CVRImportState;
+        queue_position?: number;
         timestamp: string;
     }
 
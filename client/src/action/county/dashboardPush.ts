@@ -0,0 +1,13 @@
+import createPushChannel from 'corla/action/createPushChannel';
+
+import fetchAuditBoardASMState from 'corla/action/county/fetchAuditBoardASMState';
+import fetchCountyASMState from 'corla/action/county/fetchCountyASMState';
+
+
+export default createPushChannel({
+    okType: 'COUNTY_DASHBOARD_REFRESH_OK',
+    onUpdate: () => {
+        fetchAuditBoardASMState();
+        fetchCountyASMState();
+    },
+});
@@ -0,0 +1,176 @@
+import { endpoint } from 'corla/config';
+
+import action from '.';
+
+
+interface CreatePushConfig {
+    okType: string;
+    onUpdate?: (patch: any) => void;
+}
+
+export interface PushChannel {
+    close: () => void;
+    connected: () => boolean;
+    open: () => void;
+}
+
+
+const ticketUrl = endpoint('dashboard-push-ticket');
+
+const MIN_RETRY_DELAY = 1000;
+const MAX_RETRY_DELAY = 1000 * 60;
+
+
+function socketUrl(ticket: string) {
+    const url = `${endpoint('dashboard-push')}?ticket=${encodeURIComponent(ticket)}`;
+
+    if (/^https?:/.test(url)) {
+        return url.replace(/^http/, 'ws');
+    }
+
+    // The production endpoint prefix is a path on the page's own host.
+    const { host, protocol } = window.location;
+    const scheme = protocol === 'https:' ? 'wss:' : 'ws:';
+
+    return `${scheme}//${host}${url}`;
+}
+
+// Applies a JSON merge patch (RFC 7386), without modifying the target.
+function applyMergePatch(target: any, patch: any): any {
+    if (patch === null || typeof patch !== 'object' || Array.isArray(patch)) {
+        return patch;
+    }
+
+    const isObject = target !== null
+        && typeof target === 'object'
+        && !Array.isArray(target);
+    const result: any = isObject ? { ...target } : {};
+
+    Object.keys(patch).forEach(key => {
+        if (patch[key] === null) {
+            delete result[key];
+        } else {
+            result[key] = applyMergePatch(result[key], patch[key]);
+        }
+    });
+
+    return result;
+}
+
+// Keeps a WebSocket open to the dashboard push endpoint while any poll
+// saga uses it, dispatching the pushed dashboard as if it had been fetched
+// with `okType`. The socket is reopened after it closes, with backoff.
+function createPushChannel(config: CreatePushConfig): PushChannel {
+    const { okType, onUpdate } = config;
+
+    let users = 0;
+    let socket: WebSocket | null = null;
+    let isConnected = false;
+    let retryDelay = MIN_RETRY_DELAY;
+    let retryTimer: number | null = null;
+    let doc: any = null;
+
+    function scheduleRetry() {
+        if (users > 0 && retryTimer === null) {
+            retryTimer = window.setTimeout(() => {
+                retryTimer = null;
+                connect();
+            }, retryDelay);
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+        }
+    }
+
+    function receive(e: MessageEvent) {
+        const message = JSON.parse(e.data);
+
+        if (message.snapshot) {
+            doc = message.snapshot;
+            isConnected = true;
+            retryDelay = MIN_RETRY_DELAY;
+        } else if (message.patch && doc) {
+            doc = applyMergePatch(doc, message.patch);
+        } else {
+            return;
+        }
+
+        action(okType, doc);
+
+        if (onUpdate) {
+            onUpdate(message.patch || message.snapshot);
+        }
+    }
+
+    async function connect() {
+        if (users === 0 || socket) {
+            return;
+        }
+
+        try {
+            const r = await fetch(ticketUrl, { credentials: 'include', method: 'get' });
+
+            if (!r.ok) {
+                throw new Error(`dashboard push ticket refused: ${r.status}`);
+            }
+
+            const { ticket } = await r.json();
+
+            // The channel may have been closed while the ticket was fetched.
+            if (users === 0 || socket) {
+                return;
+            }
+
+            const s = new WebSocket(socketUrl(ticket));
+
+            s.onmessage = receive;
+            s.onclose = () => {
+                if (socket === s) {
+                    socket = null;
+                    isConnected = false;
+                    doc = null;
+                    scheduleRetry();
+                }
+            };
+
+            socket = s;
+        } catch (e) {
+            scheduleRetry();
+        }
+    }
+
+    function open() {
+        users += 1;
+
+        connect();
+    }
+
+    function close() {
+        users = Math.max(0, users - 1);
+
+        if (users > 0) {
+            return;
+        }
+
+        if (retryTimer !== null) {
+            window.clearTimeout(retryTimer);
+            retryTimer = null;
+        }
+
+        if (socket) {
+            const s = socket;
+
+            socket = null;
+            isConnected = false;
+            doc = null;
+            s.close();
+        }
+    }
+
+    return {
+        close,
+        connected: () => isConnected,
+        open,
+    };
+}
+
+
+export default createPushChannel;
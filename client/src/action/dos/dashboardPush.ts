@@ -0,0 +1,29 @@
+import * as _ from 'lodash';
+
+import createPushChannel from 'corla/action/createPushChannel';
+
+import fetchContests from 'corla/action/dos/fetchContests';
+
+
+// Contests are listed for counties that have uploaded both of their files,
+// so they only need to be fetched again when an upload changes.
+function uploadChanged(patch: any) {
+    const countyStatus = patch.county_status;
+
+    if (!countyStatus) {
+        return false;
+    }
+
+    return _.some(countyStatus, (c: any) => c && (c.ballot_manifest_file
+                                                 || c.cvr_export_file));
+}
+
+
+export default createPushChannel({
+    okType: 'DOS_DASHBOARD_REFRESH_OK',
+    onUpdate: (patch: any) => {
+        if (uploadChanged(patch)) {
+            fetchContests();
+        }
+    },
+});
@@ -131,6 +131,10 @@ function parseFile(file: JSON.UploadedFile): Option<UploadedFile> {
 function parseCVRImportStatus(data: JSON.CVRImportStatus): County.CVRImportStatus {
     return {
         error: data.error_message,
+        estimatedCompletion: data.estimated_completion
+            ? new Date(data.estimated_completion)
+            : undefined,
+        queuePosition: data.queue_position,
         state: data.import_state,
         timestamp: new Date(data.timestamp),
     };
@@ -129,6 +129,21 @@ function parseRiskLimit(data: any): Option<number> {
     return info.risk_limit;
 }
 
+function parseRoundStart(data: any): Option<DOS.RoundStart> {
+    if (!data) {
+        return null;
+    }
+
+    return {
+        countyCount: data.county_count,
+        failures: data.failures || {},
+        inProgress: data.in_progress,
+        round: data.round,
+        startTime: new Date(data.start_time),
+        startedCount: data.started_count,
+    };
+}
+
 function parseASMState(data: any): any {
     return data.asm_state;
 }
@@ -168,6 +183,7 @@ export function parse(data: any) {
         handCountContests: data.hand_count_contests,
         publicMeetingDate: parsePublicMeetingDate(data),
         riskLimit: parseRiskLimit(data),
+        roundStart: parseRoundStart(data.round_start),
         seed: _.get(data, 'audit_info.seed'),
     };
 }
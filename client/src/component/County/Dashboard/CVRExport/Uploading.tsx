@@ -32,6 +32,32 @@ const Progress = (props: ProgressProps) => {
     );
 };
 
+interface QueuedProps {
+    status: County.CVRImportStatus;
+}
+
+const Queued = (props: QueuedProps) => {
+    const { estimatedCompletion, queuePosition } = props.status;
+
+    const completion = estimatedCompletion
+        ? (
+            <div>
+                <strong>Estimated completion:</strong>
+                { ' ' }{ estimatedCompletion.toLocaleTimeString() }
+            </div>
+        )
+        : null;
+
+    return (
+        <div className='rla-file-upload-progress'>
+            <div>
+                <strong>Waiting to import:</strong> position { queuePosition } in queue
+            </div>
+            { completion }
+        </div>
+    );
+};
+
 const UploadingFile = () => {
     return (
         <div className='pt-card'>
@@ -56,7 +82,13 @@ const Uploading = (props: UploadingProps) => {
         return <UploadingFile />;
     }
 
-    if (cvrImportStatus.state === 'IN_PROGRESS') {
+    if (cvrImportStatus.state === 'IN_PROGRESS' && cvrImportStatus.queuePosition) {
+        return (
+            <div className='pt-card'>
+                <Queued status={ cvrImportStatus } />
+            </div>
+        );
+    } else if (cvrImportStatus.state === 'IN_PROGRESS') {
         return (
             <div className='pt-card'>
                 <Progress file={ cvrExport } count={ cvrExportCount } />
@@ -0,0 +1,52 @@
+import * as React from 'react';
+
+import * as _ from 'lodash';
+
+import counties from 'corla/data/counties';
+
+
+interface StartProgressProps {
+    roundStart: DOS.RoundStart;
+}
+
+const StartProgress = (props: StartProgressProps) => {
+    const { countyCount, failures, inProgress, round, startedCount } = props.roundStart;
+
+    const failureRows = _.map(failures, (message: string, id: any) => {
+        const county = counties[id];
+        const name = county ? county.name : id;
+
+        return (
+            <li key={ id }>
+                <strong>{ name }:</strong> { message }
+            </li>
+        );
+    });
+
+    const failureList = _.isEmpty(failures)
+        ? null
+        : (
+            <div>
+                <div>Round { round } could not be started for these counties:</div>
+                <ul>{ failureRows }</ul>
+            </div>
+        );
+
+    const progress = inProgress
+        ? <div>Starting round { round }...</div>
+        : null;
+
+    return (
+        <div className='pt-card'>
+            <h4>Round start</h4>
+            { progress }
+            <div>
+                Round { round } started for { startedCount } of { countyCount } Counties.
+            </div>
+            { failureList }
+        </div>
+    );
+};
+
+
+export default StartProgress;
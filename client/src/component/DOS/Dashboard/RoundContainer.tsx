@@ -2,7 +2,10 @@ import * as React from 'react';
 
 import { connect } from 'react-redux';
 
+import * as _ from 'lodash';
+
 import Control from './Round/Control';
+import StartProgress from './Round/StartProgress';
 import Status from './Round/Status';
 
 import auditStartedSelector from 'corla/selector/dos/auditStarted';
@@ -23,6 +26,23 @@ interface ContainerProps {
 
 class RoundContainer extends React.Component<ContainerProps> {
     public render() {
+        const { roundStart } = this.props.dosState;
+
+        const round = this.renderRound();
+
+        if (roundStart && (roundStart.inProgress || !_.isEmpty(roundStart.failures))) {
+            return (
+                <div>
+                    <StartProgress roundStart={ roundStart } />
+                    { round }
+                </div>
+            );
+        }
+
+        return round;
+    }
+
+    private renderRound() {
         if (this.props.canStartNextRound) {
             return <Control { ...this.props } />;
         }
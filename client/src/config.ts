@@ -22,6 +22,9 @@ export const pollDelay
     ? 1000 * 5
     : 1000 * 30;
 
+// While dashboard changes are pushed, polling is only a fallback.
+export const pushPollDelay = pollDelay * 10;
+
 
 // Notification timeouts are in milliseconds.
 export const defaultOkTimeout = 10000;
@@ -12,6 +12,7 @@ export default function dashboardRefreshOk(
     const nextState = merge({}, state, newState);
     nextState.auditedContests = newState.auditedContests;
     nextState.countyStatus = newState.countyStatus;
+    nextState.roundStart = newState.roundStart || undefined;
 
     return nextState;
 }
@@ -6,6 +6,7 @@ import * as config from 'corla/config';
 
 import createPollSaga from 'corla/saga/createPollSaga';
 
+import dashboardPush from 'corla/action/county/dashboardPush';
 import dashboardRefresh from 'corla/action/county/dashboardRefresh';
 import fetchAuditBoardASMState from 'corla/action/county/fetchAuditBoardASMState';
 import fetchContests from 'corla/action/county/fetchContests';
@@ -16,6 +17,10 @@ import cvrExportUploadingSelector from 'corla/selector/county/cvrExportUploading
 
 const COUNTY_POLL_DELAY = config.pollDelay;
 
+function selectAuditPollDelay() {
+    return dashboardPush.connected() ? config.pushPollDelay : COUNTY_POLL_DELAY;
+}
+
 function* auditPoll() {
     const countyState = yield select();
 
@@ -34,7 +39,8 @@ const auditPollSaga = createPollSaga(
     [auditPoll],
     'COUNTY_AUDIT_POLL_START',
     'COUNTY_AUDIT_POLL_STOP',
-    () => COUNTY_POLL_DELAY,
+    selectAuditPollDelay,
+    dashboardPush,
 );
 
 function* boardSignInSaga() {
@@ -62,7 +68,12 @@ function* selectPollDelay() {
 
     const isUploading = cvrExportUploadingSelector(countyState);
 
-    const delay = isUploading ? 5000 : COUNTY_POLL_DELAY;
+    // an upload in progress is still followed closely by polling
+    if (isUploading) {
+        return 5000;
+    }
+
+    const delay = dashboardPush.connected() ? config.pushPollDelay : COUNTY_POLL_DELAY;
 
     return delay;
 }
@@ -72,6 +83,7 @@ const dashboardPollSaga = createPollSaga(
     'COUNTY_DASHBOARD_POLL_START',
     'COUNTY_DASHBOARD_POLL_STOP',
     selectPollDelay,
+    dashboardPush,
 );
 
 
@@ -2,6 +2,8 @@ import { delay } from 'redux-saga';
 import { SelectEffect } from 'redux-saga/effects';
 import { cancel, fork, take } from 'redux-saga/effects';
 
+import { PushChannel } from 'corla/action/createPushChannel';
+
 
 type SelectPollDelay = () => number | IterableIterator<number | SelectEffect>;
 
@@ -10,6 +12,7 @@ function createPollSaga(
     pollStart: string,
     pollStop: string,
     selectPollDelay: SelectPollDelay,
+    push?: PushChannel,
 ) {
     function* pollTask() {
         while (true) {
@@ -27,12 +30,20 @@ function createPollSaga(
         let poll = yield take(pollStart);
 
         while (poll) {
+            if (push) {
+                push.open();
+            }
+
             const task = yield fork(pollTask);
 
             yield take(pollStop);
 
             yield cancel(task);
 
+            if (push) {
+                push.close();
+            }
+
             poll = yield take(pollStart);
         }
     }
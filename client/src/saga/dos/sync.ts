@@ -4,6 +4,7 @@ import * as config from 'corla/config';
 
 import createPollSaga from 'corla/saga/createPollSaga';
 
+import dashboardPush from 'corla/action/dos/dashboardPush';
 import dashboardRefresh from 'corla/action/dos/dashboardRefresh';
 import fetchContests from 'corla/action/dos/fetchContests';
 
@@ -32,11 +33,16 @@ function* countyOverviewSaga() {
 
 const DOS_POLL_DELAY = config.pollDelay;
 
+function selectPollDelay() {
+    return dashboardPush.connected() ? config.pushPollDelay : DOS_POLL_DELAY;
+}
+
 const dashboardPollSaga = createPollSaga(
     [dashboardRefresh, fetchContests],
     'DOS_DASHBOARD_POLL_START',
     'DOS_DASHBOARD_POLL_STOP',
-    () => DOS_POLL_DELAY,
+    selectPollDelay,
+    dashboardPush,
 );
 
 function* defineAuditSaga() {
@@ -47,7 +53,8 @@ const selectContestsPollSaga = createPollSaga(
     [dashboardRefresh, fetchContests],
     'DOS_SELECT_CONTESTS_POLL_START',
     'DOS_SELECT_CONTESTS_POLL_STOP',
-    () => DOS_POLL_DELAY,
+    selectPollDelay,
+    dashboardPush,
 );
 
 function* randomSeedSaga() {
@@ -60,6 +60,7 @@ import us.freeandfair.corla.asm.DoSDashboardASM;
 import us.freeandfair.corla.asm.PersistentASMState;
 import us.freeandfair.corla.auth.AuthenticationInterface;
 import us.freeandfair.corla.endpoint.CORSFilter;
+import us.freeandfair.corla.endpoint.DashboardPush;
 import us.freeandfair.corla.endpoint.Endpoint;
 import us.freeandfair.corla.json.FreeAndFairNamingStrategy;
 import us.freeandfair.corla.json.InstantTypeAdapter;
@@ -69,6 +70,7 @@ import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.PersistentASMStateQueries;
+import us.freeandfair.corla.util.ImportScheduler;
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
 /**
@@ -601,6 +603,11 @@ public final class Main {
     // static files location
     staticFileLocation("/us/freeandfair/corla/static");
 
+    // the dashboard push WebSocket, which must be set up before any routes
+    webSocket(DashboardPush.PATH, DashboardPush.instance());
+    // queue changes move the import estimates on other counties' dashboards
+    ImportScheduler.instance().setListener(DashboardPush::changed);
+
     // start the endpoints
     activateEndpoints();
   }
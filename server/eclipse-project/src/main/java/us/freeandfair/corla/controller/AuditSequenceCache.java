@@ -0,0 +1,359 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.PersistenceException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.crypto.PseudoRandomNumberGenerator;
+import us.freeandfair.corla.model.AuditSequence;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.AuditSequenceQueries;
+import us.freeandfair.corla.query.CastVoteRecordQueries;
+import us.freeandfair.corla.util.IntList;
+
+/**
+ * A cache of the counties' audit sequences and CVR counts. The audit 
+ * sequence of a county depends only on the random seed and the number of 
+ * CVRs the county uploaded, so each county's generated sequence is kept, 
+ * in memory and in the database, and is extended only by the positions 
+ * that have not been generated yet. Cached CVR counts and sequences must 
+ * be invalidated whenever a county's CVRs change.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class AuditSequenceCache {
+  /**
+   * The audit sequences, by county ID.
+   */
+  private static final Map<Long, Sequence> SEQUENCES = new ConcurrentHashMap<>();
+  
+  /**
+   * The numbers of uploaded CVRs, by county ID.
+   */
+  private static final Map<Long, Long> CVR_COUNTS = new ConcurrentHashMap<>();
+  
+  /**
+   * The number of invalidations so far; a CVR count is cached only if no
+   * invalidation happened while it was being counted, since it may then
+   * have been counted before the CVRs changed.
+   */
+  private static long generation;
+  
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private AuditSequenceCache() {
+    // empty
+  }
+  
+  /**
+   * Gets the number of uploaded CVRs for a county.
+   * 
+   * @param the_county_id The county ID.
+   * @return the number of uploaded CVRs, or an empty OptionalLong if they
+   * cannot be counted.
+   */
+  public static OptionalLong cvrCount(final Long the_county_id) {
+    final Long cached = CVR_COUNTS.get(the_county_id);
+    if (cached != null) {
+      return OptionalLong.of(cached);
+    }
+    final long counted_generation = generation();
+    final OptionalLong result = 
+        CastVoteRecordQueries.countMatching(the_county_id, RecordType.UPLOADED);
+    if (result.isPresent()) {
+      cacheCVRCount(the_county_id, result.getAsLong(), counted_generation);
+    }
+    return result;
+  }
+  
+  /**
+   * Gets a range of a county's audit sequence, generating and storing any
+   * part of it that has not yet been generated.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_seed The random seed.
+   * @param the_min_index The minimum index to return.
+   * @param the_max_index The maximum index to return.
+   * @return the positions, in the county's list of uploaded CVRs, in the
+   * specified range of the audit sequence.
+   * @exception IllegalStateException if the county's CVRs cannot be counted.
+   */
+  public static List<Integer> positions(final Long the_county_id, final String the_seed,
+                                        final int the_min_index, final int the_max_index) {
+    final OptionalLong count = cvrCount(the_county_id);
+    if (!count.isPresent()) {
+      throw new IllegalStateException("unable to count CVRs for county " + the_county_id);
+    }
+    final Sequence sequence = sequence(the_county_id, the_seed, (int) count.getAsLong());
+    final List<Integer> result = sequence.positions(the_min_index, the_max_index);
+    save(the_county_id, sequence);
+    return result;
+  }
+  
+  /**
+   * Invalidates the cached CVR count and audit sequence of a county; this 
+   * must be called when the county's CVRs change.
+   * 
+   * @param the_county_id The county ID.
+   */
+  public static synchronized void invalidate(final Long the_county_id) {
+    generation = generation + 1;
+    CVR_COUNTS.remove(the_county_id);
+    SEQUENCES.remove(the_county_id);
+  }
+  
+  /**
+   * Invalidates all cached CVR counts and audit sequences.
+   */
+  public static synchronized void clear() {
+    generation = generation + 1;
+    CVR_COUNTS.clear();
+    SEQUENCES.clear();
+  }
+  
+  /**
+   * @return the number of invalidations so far.
+   */
+  private static synchronized long generation() {
+    return generation;
+  }
+  
+  /**
+   * Caches a county's CVR count, unless there has been an invalidation
+   * since it was counted.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_count The CVR count.
+   * @param the_generation The number of invalidations before it was counted.
+   */
+  private static synchronized void cacheCVRCount(final Long the_county_id,
+                                                 final long the_count,
+                                                 final long the_generation) {
+    if (generation == the_generation) {
+      CVR_COUNTS.put(the_county_id, the_count);
+    }
+  }
+  
+  /**
+   * Gets a county's audit sequence, loading it if it is not cached.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_seed The random seed.
+   * @param the_cvr_count The number of CVRs.
+   * @return the sequence.
+   */
+  private static Sequence sequence(final Long the_county_id, final String the_seed,
+                                   final int the_cvr_count) {
+    Sequence result = SEQUENCES.get(the_county_id);
+    if (result == null || !result.matches(the_seed, the_cvr_count)) {
+      result = load(the_county_id, the_seed, the_cvr_count);
+      SEQUENCES.put(the_county_id, result);
+    }
+    return result;
+  }
+  
+  /**
+   * Stores the part of a county's audit sequence that has not been stored,
+   * in the current transaction; the sequence is marked as stored only when
+   * the transaction commits.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_sequence The sequence.
+   */
+  private static void save(final Long the_county_id, final Sequence the_sequence) {
+    final AuditSequence extended = the_sequence.unsaved(the_county_id);
+    if (extended != null) {
+      try {
+        AuditSequenceQueries.save(extended);
+        Persistence.currentSession().getTransaction().registerSynchronization(
+            new Synchronization() {
+              @Override
+              public void beforeCompletion() {
+                // nothing to do
+              }
+
+              @Override
+              public void afterCompletion(final int the_status) {
+                if (the_status == Status.STATUS_COMMITTED) {
+                  the_sequence.saved(extended.length());
+                }
+              }
+            });
+      } catch (final PersistenceException e) {
+        // the sequence is still unsaved, so the next request that uses it
+        // stores it again
+        Main.LOGGER.error("could not store audit sequence for county " + 
+                          the_county_id + ": " + e);
+      }
+    }
+  }
+  
+  /**
+   * Loads a county's stored audit sequence.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_seed The random seed.
+   * @param the_cvr_count The number of CVRs.
+   * @return the stored sequence, if it has the specified seed and CVR count, 
+   * or an empty sequence otherwise.
+   */
+  private static Sequence load(final Long the_county_id, final String the_seed,
+                               final int the_cvr_count) {
+    final AuditSequence stored = AuditSequenceQueries.get(the_county_id);
+    if (stored != null && stored.seed().equals(the_seed) && 
+        stored.cvrCount() == the_cvr_count) {
+      Main.LOGGER.debug("loaded " + stored);
+      return new Sequence(the_seed, the_cvr_count, stored.positions());
+    }
+    return new Sequence(the_seed, the_cvr_count, new int[0]);
+  }
+  
+  /**
+   * The generated prefix of an audit sequence.
+   */
+  static class Sequence {
+    /**
+     * The random seed.
+     */
+    private final String my_seed;
+    
+    /**
+     * The number of CVRs.
+     */
+    private final int my_cvr_count;
+    
+    /**
+     * The positions; only the first my_length are generated, and those are
+     * never changed.
+     */
+    private int[] my_positions;
+    
+    /**
+     * The number of generated positions.
+     */
+    private int my_length;
+    
+    /**
+     * The number of generated positions that have been stored.
+     */
+    private int my_saved_length;
+    
+    /**
+     * The generator, created when it is first needed.
+     */
+    private PseudoRandomNumberGenerator my_prng;
+    
+    /**
+     * Constructs a new Sequence.
+     * 
+     * @param the_seed The random seed.
+     * @param the_cvr_count The number of CVRs.
+     * @param the_positions The already generated (and stored) positions.
+     */
+    Sequence(final String the_seed, final int the_cvr_count, final int... the_positions) {
+      my_seed = the_seed;
+      my_cvr_count = the_cvr_count;
+      my_positions = the_positions;
+      my_length = the_positions.length;
+      my_saved_length = my_length;
+    }
+    
+    /**
+     * Checks whether this sequence is the one for a seed and CVR count.
+     * 
+     * @param the_seed The random seed.
+     * @param the_cvr_count The number of CVRs.
+     * @return true if it is, false otherwise.
+     */
+    boolean matches(final String the_seed, final int the_cvr_count) {
+      return my_seed.equals(the_seed) && my_cvr_count == the_cvr_count;
+    }
+    
+    /**
+     * Gets a range of this sequence, extending it as necessary.
+     * 
+     * @param the_min_index The minimum index to return.
+     * @param the_max_index The maximum index to return.
+     * @return the positions in the range.
+     */
+    synchronized List<Integer> positions(final int the_min_index, final int the_max_index) {
+      extend(the_max_index + 1);
+      return new IntList(my_positions, the_min_index, the_max_index + 1);
+    }
+    
+    /**
+     * Extends this sequence to at least the specified length; the new
+     * positions are generated in parallel if there are enough of them.
+     * 
+     * @param the_length The length.
+     */
+    synchronized void extend(final int the_length) {
+      if (my_length < the_length) {
+        if (my_positions.length < the_length) {
+          my_positions = 
+              Arrays.copyOf(my_positions, Math.max(the_length, my_positions.length * 2));
+        }
+        if (my_prng == null) {
+          // the sequence numbers are 0 ... my_cvr_count - 1
+          my_prng = new PseudoRandomNumberGenerator(my_seed, true, 0, my_cvr_count - 1);
+        }
+        final int[] generated = my_prng.generateRange(my_length, the_length - 1);
+        System.arraycopy(generated, 0, my_positions, my_length, generated.length);
+        my_length = the_length;
+      }
+    }
+    
+    /**
+     * @return the number of generated positions.
+     */
+    synchronized int length() {
+      return my_length;
+    }
+    
+    /**
+     * Gets this sequence for storage, if it has been extended since it was
+     * last stored; it is not marked as stored until saved() is called.
+     * 
+     * @param the_county_id The county ID.
+     * @return the sequence to store, or null if there is nothing new to store.
+     */
+    synchronized AuditSequence unsaved(final Long the_county_id) {
+      AuditSequence result = null;
+      if (my_saved_length < my_length) {
+        result = new AuditSequence(the_county_id, my_seed, my_cvr_count, 
+                                   my_positions, my_length);
+      }
+      return result;
+    }
+    
+    /**
+     * Marks a prefix of this sequence as stored.
+     * 
+     * @param the_length The length of the stored prefix.
+     */
+    synchronized void saved(final int the_length) {
+      my_saved_length = Math.max(my_saved_length, the_length);
+    }
+  }
+}
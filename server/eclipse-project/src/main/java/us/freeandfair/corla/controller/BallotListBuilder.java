@@ -0,0 +1,109 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.json.CVRToAuditResponse;
+import us.freeandfair.corla.json.CVRToAuditResponse.BallotOrderComparator;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CountyDashboard;
+
+/**
+ * The builder of the ballot lists given to audit boards, for the CVR to
+ * audit download and list endpoints. A list is built with a constant number
+ * of queries, however many ballots it has: the CVRs are loaded in bulk,
+ * their audit flags come from the county's ballot audit map, and their
+ * locations from the county's manifest index.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class BallotListBuilder {
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private BallotListBuilder() {
+    // empty
+  }
+
+  /**
+   * Builds the ballot list for an audit round.
+   *
+   * @param the_cdb The county dashboard.
+   * @param the_round The round number (indexed from 1).
+   * @param the_audited true to include already-audited ballots, false otherwise.
+   * @return the ballot list, in ballot order.
+   * @exception PersistenceException if the list cannot be built.
+   */
+  public static List<CVRToAuditResponse> forRound(final CountyDashboard the_cdb,
+                                                  final int the_round,
+                                                  final boolean the_audited) {
+    return build(the_cdb,
+                 ComparisonAuditController.ballotsToAudit(the_cdb, the_round, the_audited));
+  }
+
+  /**
+   * Builds the ballot list for a range of the audit sequence.
+   *
+   * @param the_cdb The county dashboard.
+   * @param the_start_index The start index.
+   * @param the_ballot_count The number of ballots.
+   * @param the_duplicates true to include duplicates, false otherwise.
+   * @param the_audited true to include already-audited ballots, false otherwise.
+   * @return the ballot list, in ballot order.
+   * @exception PersistenceException if the list cannot be built.
+   */
+  public static List<CVRToAuditResponse> forRange(final CountyDashboard the_cdb,
+                                                  final int the_start_index,
+                                                  final int the_ballot_count,
+                                                  final boolean the_duplicates,
+                                                  final boolean the_audited) {
+    return build(the_cdb,
+                 ComparisonAuditController.computeBallotOrder(the_cdb, the_start_index,
+                                                              the_ballot_count,
+                                                              the_duplicates,
+                                                              the_audited));
+  }
+
+  /**
+   * Builds a ballot list from CVRs whose audit flags are set.
+   *
+   * @param the_cdb The county dashboard.
+   * @param the_cvrs The CVRs, in audit sequence order.
+   * @return the ballot list, in ballot order.
+   * @exception PersistenceException if the manifest index cannot be built.
+   */
+  private static List<CVRToAuditResponse> build(final CountyDashboard the_cdb,
+                                                final List<CastVoteRecord> the_cvrs) {
+    final List<CVRToAuditResponse> result = new ArrayList<>(the_cvrs.size());
+    if (the_cvrs.isEmpty()) {
+      return result;
+    }
+    final ManifestIndex manifest = ManifestIndex.forCounty(the_cdb);
+    for (int i = 0; i < the_cvrs.size(); i++) {
+      final CastVoteRecord cvr = the_cvrs.get(i);
+      final String location = manifest.location(cvr.scannerID(), cvr.batchID());
+      result.add(new CVRToAuditResponse(i, cvr.scannerID(),
+                                        cvr.batchID(), cvr.recordID(),
+                                        cvr.imprintedID(),
+                                        cvr.cvrNumber(), cvr.id(),
+                                        cvr.ballotType(), location,
+                                        cvr.auditFlag()));
+    }
+    result.sort(new BallotOrderComparator());
+    return result;
+  }
+}
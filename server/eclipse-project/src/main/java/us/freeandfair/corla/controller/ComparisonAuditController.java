@@ -13,7 +13,7 @@ package us.freeandfair.corla.controller;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,10 +24,12 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.persistence.PersistenceException;
+
 import us.freeandfair.corla.Main;
-import us.freeandfair.corla.crypto.PseudoRandomNumberGenerator;
 import us.freeandfair.corla.model.AuditReason;
 import us.freeandfair.corla.model.AuditType;
+import us.freeandfair.corla.model.BallotAuditMap;
 import us.freeandfair.corla.model.CVRAuditInfo;
 import us.freeandfair.corla.model.CVRContestInfo;
 import us.freeandfair.corla.model.CVRContestInfo.ConsensusValue;
@@ -42,8 +44,10 @@ import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.model.Round;
 import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.CVRAuditInfoQueries;
 import us.freeandfair.corla.query.CastVoteRecordQueries;
 import us.freeandfair.corla.query.CountyContestResultQueries;
+import us.freeandfair.corla.util.LongIntMap;
 
 /**
  * Controller methods relevant to comparison audits.
@@ -54,6 +58,11 @@ import us.freeandfair.corla.query.CountyContestResultQueries;
 @SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity", "PMD.ExcessiveImports",
     "PMD.ModifiedCyclomaticComplexity", "PMD.StdCyclomaticComplexity"})
 public final class ComparisonAuditController {
+  /**
+   * The maximum number of IDs in a single bulk query.
+   */
+  private static final int QUERY_CHUNK_SIZE = 4096;
+  
   /**
    * Private constructor to prevent instantiation.
    */
@@ -75,28 +84,12 @@ public final class ComparisonAuditController {
   public static List<Integer> getCVRSeqNumsInAuditSequence(final County the_county,
                                                            final int the_min_index,
                                                            final int the_max_index) {
-    final OptionalLong count = 
-        CastVoteRecordQueries.countMatching(the_county.id(), RecordType.UPLOADED);
-    
-    if (!count.isPresent()) {
-      throw new IllegalStateException("unable to count CVRs for county " + the_county.id());
-    }
-
     final String seed = 
         Persistence.getByID(DoSDashboard.ID, DoSDashboard.class).auditInfo().seed();
-    final boolean with_replacement = true;
-    // assuming that CVRs are indexed from 0
-    final int minimum = 0;
-    // the number of CVRs for the_contest_to_audit - note that the sequence
-    // generator generates a sequence of the numbers minimum ... maximum 
-    // inclusive, so we subtract 1 from the number of CVRs to give it the
-    // correct range for our actual list of CVRs (indexed from 0).
-    final int maximum = (int) count.getAsLong() - 1;
-
-    final PseudoRandomNumberGenerator prng = 
-        new PseudoRandomNumberGenerator(seed, with_replacement,
-                                        minimum, maximum);
-    return prng.getRandomNumbers(the_min_index, the_max_index);
+    // the sequence is generated with replacement, from the CVR positions
+    // 0 ... (number of CVRs - 1), and only its ungenerated part is generated
+    return AuditSequenceCache.positions(the_county.id(), seed, 
+                                        the_min_index, the_max_index);
   }
   
   /**
@@ -105,12 +98,25 @@ public final class ComparisonAuditController {
    * 
    * @param the_county The county.
    * @param the_seq_num_list The sequence number list.
+   * @exception PersistenceException if the CVRs cannot be loaded.
    */
   public static List<CastVoteRecord> 
       getCVRsForSequenceNumbers(final County the_county,
                                 final List<Integer> the_seq_num_list) {
-    final Map<Integer, CastVoteRecord> matching_cvrs = 
-        CastVoteRecordQueries.get(the_county.id(), RecordType.UPLOADED, the_seq_num_list);
+    final List<Integer> unique_numbers = new ArrayList<>(new HashSet<>(the_seq_num_list));
+    final Map<Integer, CastVoteRecord> matching_cvrs = new HashMap<>();
+    for (int from = 0; from < unique_numbers.size(); from = from + QUERY_CHUNK_SIZE) {
+      final Map<Integer, CastVoteRecord> chunk_cvrs = 
+          CastVoteRecordQueries.get(the_county.id(), RecordType.UPLOADED, 
+                                    unique_numbers.subList(from, 
+                                        Math.min(from + QUERY_CHUNK_SIZE, 
+                                                 unique_numbers.size())));
+      if (chunk_cvrs == null) {
+        throw new PersistenceException("could not load CVRs for county " + 
+                                       the_county.id());
+      }
+      matching_cvrs.putAll(chunk_cvrs);
+    }
     final List<CastVoteRecord> result = new ArrayList<>();
     
     for (final int index : the_seq_num_list) {
@@ -187,7 +193,8 @@ public final class ComparisonAuditController {
   /**
    * Compute the ballot (cards) for audit, for a particular county dashboard and 
    * start index. This returns the specified number of cards, with or without 
-   * duplicates (as requested).
+   * duplicates (as requested). The cards are chosen by their positions in the
+   * audit sequence, and only the chosen cards are loaded, in a single pass.
    * 
    * @param the_cdb The dashboard.
    * @param the_start_index The start index.
@@ -201,8 +208,7 @@ public final class ComparisonAuditController {
                                                         final int the_ballot_count,
                                                         final boolean the_duplicates,
                                                         final boolean the_audited) {
-    final OptionalLong county_ballots_found = 
-        CastVoteRecordQueries.countMatching(the_cdb.id(), RecordType.UPLOADED);
+    final OptionalLong county_ballots_found = AuditSequenceCache.cvrCount(the_cdb.id());
     final long county_ballots;
     if (county_ballots_found.isPresent() && 0 < county_ballots_found.getAsLong()) {
       county_ballots = county_ballots_found.getAsLong();
@@ -210,42 +216,39 @@ public final class ComparisonAuditController {
       // we can't generate a list for this county
       return new ArrayList<>();
     }
-    final Set<CastVoteRecord> cvr_set = new HashSet<>();
-    final List<CastVoteRecord> cvr_to_audit_list = new ArrayList<>();
+    final BallotAuditMap audit_map = currentBallotAuditMap(the_cdb);
+    final Set<Integer> seen_set = new HashSet<>();
+    final List<Integer> seq_nums_to_audit = new ArrayList<>();
     
-    // we need to get the CVRs for the county's sequence, starting at START, and 
-    // look up their locations; note we may have to ask for the sequence more than
-    // once because we may find duplicates in the sequence
+    // we walk the county's sequence, starting at START, until we have chosen 
+    // enough ballots; we may have to ask for the sequence more than once 
+    // because we may find duplicates in it
     
     int start = the_start_index;
-    int end = start + the_ballot_count - 1; // end is inclusive
-    
     final int possible_ballots = Math.min(the_ballot_count, (int) county_ballots);
     
     // if duplicates is set we go until the list has the right number; if not,
-    // we go until we hit the end of our CVR pool
-    while ((the_duplicates && cvr_to_audit_list.size() < the_ballot_count) || 
-           (!the_duplicates && cvr_set.size() < possible_ballots)) {
-      final List<CastVoteRecord> new_cvrs = 
-          getCVRsInAuditSequence(the_cdb.county(), start, end);
-      for (int i = 0; i < new_cvrs.size(); i++) {
-        final CastVoteRecord cvr = new_cvrs.get(i);
-        if (!cvr_set.contains(cvr)) {
-          cvr.setAuditFlag(audited(the_cdb, cvr));
-        }
-        if ((the_duplicates || !cvr_set.contains(cvr)) && 
-            (the_audited || !cvr.auditFlag())) {
-          cvr_to_audit_list.add(cvr);
+    // we go until we hit the end of our CVR pool; either way, we stop if we 
+    // have seen every ballot and none of them can be chosen
+    while (((the_duplicates && seq_nums_to_audit.size() < the_ballot_count) || 
+            (!the_duplicates && seen_set.size() < possible_ballots)) &&
+           !(seen_set.size() == county_ballots && seq_nums_to_audit.isEmpty())) {
+      final int end = start + Math.max(1, the_ballot_count - seq_nums_to_audit.size()) - 1;
+      for (final int seq_num : getCVRSeqNumsInAuditSequence(the_cdb.county(), start, end)) {
+        final boolean first = seen_set.add(seq_num);
+        if ((the_duplicates || first) && (the_audited || !audit_map.audited(seq_num))) {
+          seq_nums_to_audit.add(seq_num);
         }
-        cvr_set.add(cvr);
       }
       start = end + 1; // end is inclusive
-      end = start + (the_ballot_count - cvr_to_audit_list.size()) - 1; // end is inclusive
-      // at this point, if cvr_to_audit_list.size() < ballot_count, 
-      // this is an empty range
     }
     
-    return cvr_to_audit_list;
+    final List<CastVoteRecord> result = 
+        getCVRsForSequenceNumbers(the_cdb.county(), seq_nums_to_audit);
+    for (final CastVoteRecord cvr : result) {
+      cvr.setAuditFlag(audit_map.audited(cvr.sequenceNumber()));
+    }
+    return result;
   }
   
   /**
@@ -260,7 +263,6 @@ public final class ComparisonAuditController {
    * in any ballot (cards), as when the prefix length or start index is invalid,
    * the returned list is empty.
    */
-  @SuppressWarnings("PMD.UselessParentheses")
   public static List<CastVoteRecord> computeBallotOrder(final CountyDashboard the_cdb,
                                                         final int the_start_index,
                                                         final int the_desired_prefix_length,
@@ -270,37 +272,31 @@ public final class ComparisonAuditController {
       return new ArrayList<>();
     }
     
-    // we need to get the CVRs for the county's sequence, starting at the_start_index,
-    // and eliminate duplicates
-    
-    final List<CastVoteRecord> cvrs = 
-        getCVRsInAuditSequence(the_cdb.county(), the_start_index, 
-                               the_desired_prefix_length - 1); // end is inclusive
-    final Set<CastVoteRecord> cvr_set = new HashSet<>();
-    final Set<CastVoteRecord> previous_cvr_set = new HashSet<>();
-    final List<CastVoteRecord> cvr_to_audit_list = new ArrayList<>();
-    
     // we should always exclude records that occurred in the sequence before 
     // the_start_index, since they are no longer relevant to the requested
-    // stage of the audit
+    // stage of the audit; this only needs their positions, not their CVRs
     
+    final BallotAuditMap audit_map = currentBallotAuditMap(the_cdb);
+    final Set<Integer> seen_set = new HashSet<>();
     if (the_start_index > 0) {
-      previous_cvr_set.addAll(getCVRsInAuditSequence(the_cdb.county(), 0, 
-                                                     the_start_index - 1));
+      seen_set.addAll(getCVRSeqNumsInAuditSequence(the_cdb.county(), 0, 
+                                                   the_start_index - 1));
     }
-
-    for (int i = 0; i < cvrs.size(); i++) {
-      final CastVoteRecord cvr = cvrs.get(i);
-      if (!cvr_set.contains(cvr) && !previous_cvr_set.contains(cvr)) {
-        cvr.setAuditFlag(audited(the_cdb, cvr));
-        if (the_audited || !cvr.auditFlag()) {
-          cvr_to_audit_list.add(cvr);
-        }
+    final List<Integer> seq_nums_to_audit = new ArrayList<>();
+    for (final int seq_num : 
+         getCVRSeqNumsInAuditSequence(the_cdb.county(), the_start_index, 
+                                      the_desired_prefix_length - 1)) { // end is inclusive
+      if (seen_set.add(seq_num) && (the_audited || !audit_map.audited(seq_num))) {
+        seq_nums_to_audit.add(seq_num);
       }
-      cvr_set.add(cvr);
     }
     
-    return cvr_to_audit_list;
+    final List<CastVoteRecord> result = 
+        getCVRsForSequenceNumbers(the_cdb.county(), seq_nums_to_audit);
+    for (final CastVoteRecord cvr : result) {
+      cvr.setAuditFlag(audit_map.audited(cvr.sequenceNumber()));
+    }
+    return result;
   }
   
   /**
@@ -325,10 +321,21 @@ public final class ComparisonAuditController {
     final Round round = the_cdb.rounds().get(the_round - 1);
     
     // we already have the list of CVR IDs for the round
-    final List<CastVoteRecord> cvrs = CastVoteRecordQueries.get(round.ballotSequence());
+    final List<Long> ids = round.ballotSequence();
+    final List<CastVoteRecord> cvrs = new ArrayList<>(ids.size());
+    for (int from = 0; from < ids.size(); from = from + QUERY_CHUNK_SIZE) {
+      final List<CastVoteRecord> chunk_cvrs = 
+          CastVoteRecordQueries.get(ids.subList(from, Math.min(from + QUERY_CHUNK_SIZE,
+                                                               ids.size())));
+      if (chunk_cvrs == null) {
+        throw new PersistenceException("could not load CVRs for round " + the_round);
+      }
+      cvrs.addAll(chunk_cvrs);
+    }
     
+    final BallotAuditMap audit_map = currentBallotAuditMap(the_cdb);
     for (final CastVoteRecord cvr : cvrs) {
-      cvr.setAuditFlag(audited(the_cdb, cvr));
+      cvr.setAuditFlag(audit_map.audited(cvr.sequenceNumber()));
     }
 
     return cvrs;
@@ -408,6 +415,7 @@ public final class ComparisonAuditController {
                          to_audit, 0, 
                          ballot_ids_to_audit,
                          audit_subsequence_ids);
+      markSelected(ballotAuditMap(the_cdb), sorted_deduplicated_cvrs);
       updateRound(the_cdb, the_cdb.currentRound());
       updateCVRUnderAudit(the_cdb);
     } else {
@@ -466,18 +474,9 @@ public final class ComparisonAuditController {
       new_cvr_ids.add(cvr.id());
     }
     
-    // the unique IDs of the CVRs to audit
-    final Set<Long> unique_new_cvr_ids = new HashSet<>(new_cvr_ids);
-    
-    for (final Round round : the_cdb.rounds()) {
-      for (final Long cvr_id : round.ballotSequence()) {
-        if (unique_new_cvr_ids.contains(cvr_id)) {
-          unique_new_cvr_ids.remove(cvr_id);
-          sorted_deduplicated_new_cvrs.remove(Persistence.getByID(cvr_id, 
-                                                                  CastVoteRecord.class));
-        }
-      }
-    }
+    // ballots selected in earlier rounds are not audited again
+    final BallotAuditMap audit_map = ballotAuditMap(the_cdb);
+    sorted_deduplicated_new_cvrs.removeIf(cvr -> audit_map.selected(cvr.sequenceNumber()));
     
     if (sorted_deduplicated_new_cvrs.isEmpty()) {
       return false;
@@ -492,6 +491,7 @@ public final class ComparisonAuditController {
       the_cdb.startRound(sorted_deduplicated_new_cvrs.size(), 
                          start_index + new_cvrs.size(), 
                          start_index, ballot_ids_to_audit, new_cvr_ids);
+      markSelected(audit_map, sorted_deduplicated_new_cvrs);
       updateRound(the_cdb, the_cdb.currentRound());
       updateCVRUnderAudit(the_cdb);
       return true;
@@ -512,8 +512,7 @@ public final class ComparisonAuditController {
   public static boolean 
       startNewRoundFromEstimates(final CountyDashboard the_cdb,
                                  final BigDecimal the_multiplier) {
-    final OptionalLong cvr_count = 
-        CastVoteRecordQueries.countMatching(the_cdb.id(), RecordType.UPLOADED);
+    final OptionalLong cvr_count = AuditSequenceCache.cvrCount(the_cdb.id());
     if (!cvr_count.isPresent()) {
       throw new IllegalArgumentException("no cvrs");
     }
@@ -537,6 +536,7 @@ public final class ComparisonAuditController {
       final SortedSet<CastVoteRecord> sorted_deduplicated_new_cvrs = 
           new TreeSet<>(new CastVoteRecord.BallotOrderComparator());
       final List<CastVoteRecord> new_cvrs = new ArrayList<>();
+      final BallotAuditMap audit_map = ballotAuditMap(the_cdb);
       int expected_prefix_length = 0;
       while (sorted_deduplicated_new_cvrs.isEmpty()) {
         expected_prefix_length = computeEstimatedSamplesToAudit(the_cdb);
@@ -547,20 +547,9 @@ public final class ComparisonAuditController {
           new_cvrs.addAll(extra_cvrs);
           Persistence.saveOrUpdate(the_cdb);
           sorted_deduplicated_new_cvrs.addAll(new_cvrs);
-          
-          final Set<Long> unique_new_cvr_ids = new HashSet<>();
-          for (final CastVoteRecord cvr : sorted_deduplicated_new_cvrs) {
-            unique_new_cvr_ids.add(cvr.id());
-          }
-          for (final Round round : the_cdb.rounds()) {
-            for (final Long cvr_id : round.ballotSequence()) {
-              if (unique_new_cvr_ids.contains(cvr_id)) {
-                unique_new_cvr_ids.remove(cvr_id);
-                sorted_deduplicated_new_cvrs.remove(Persistence.getByID(cvr_id, 
-                                                                        CastVoteRecord.class));
-              }
-            }
-          }
+          // ballots selected in earlier rounds are not audited again
+          sorted_deduplicated_new_cvrs.removeIf(cvr -> 
+              audit_map.selected(cvr.sequenceNumber()));
         }
       }
 
@@ -582,6 +571,7 @@ public final class ComparisonAuditController {
           " with " + round_length + " ballots to audit");
       the_cdb.startRound(round_length, expected_prefix_length, 
                          start_index, ballot_ids_to_audit, new_cvr_ids);
+      markSelected(audit_map, sorted_deduplicated_new_cvrs);
       updateRound(the_cdb, the_cdb.currentRound());
       updateCVRUnderAudit(the_cdb);
       result = true;
@@ -591,6 +581,7 @@ public final class ComparisonAuditController {
   
   /**
    * Submit an audit CVR for a CVR under audit to the specified county dashboard.
+   * The audit CVR is saved if it is recorded, as described for recordAuditCVR.
    * 
    * @param the_cdb The dashboard.
    * @param the_cvr_under_audit The CVR under audit.
@@ -601,10 +592,36 @@ public final class ComparisonAuditController {
    */
   //@ require the_cvr_under_audit != null;
   //@ require the_acvr != null;
-  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.AvoidDeeplyNestedIfStmts"})
   public static boolean submitAuditCVR(final CountyDashboard the_cdb,
                                        final CastVoteRecord the_cvr_under_audit, 
                                        final CastVoteRecord the_audit_cvr) {
+    final boolean result = recordAuditCVR(the_cdb, the_cvr_under_audit, the_audit_cvr);
+    updateAuditProgress(the_cdb);
+    return result;
+  }
+  
+  /**
+   * Record an audit CVR for a CVR under audit on the specified county dashboard,
+   * without updating the audited prefix or the estimated samples to audit; 
+   * callers submitting several audit CVRs at once must call 
+   * updateAuditProgress after recording the last of them. This method saves
+   * the audit CVR when (and only when) it corresponds to the CVR under audit
+   * and is recorded, so callers must not save it themselves; a rejected 
+   * audit CVR is never stored.
+   * 
+   * @param the_cdb The dashboard.
+   * @param the_cvr_under_audit The CVR under audit.
+   * @param the_audit_cvr The corresponding audit CVR.
+   * @return true if the audit CVR is recorded successfully, false if it doesn't
+   * correspond to the CVR under audit, or the specified CVR under audit was
+   * not in fact under audit.
+   */
+  //@ require the_cvr_under_audit != null;
+  //@ require the_acvr != null;
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.AvoidDeeplyNestedIfStmts"})
+  public static boolean recordAuditCVR(final CountyDashboard the_cdb,
+                                       final CastVoteRecord the_cvr_under_audit, 
+                                       final CastVoteRecord the_audit_cvr) {
     // performs a sanity check to make sure the CVR under audit and the ACVR
     // are the same card
     boolean result = false;
@@ -617,6 +634,8 @@ public final class ComparisonAuditController {
                        the_cdb.id() + ", cvr " +
                        the_cvr_under_audit.id() + " not under audit");
     } else if (checkACVRSanity(the_cvr_under_audit, the_audit_cvr)) {
+      Persistence.saveOrUpdate(the_audit_cvr);
+      ballotAuditMap(the_cdb).setAudited(the_cvr_under_audit.sequenceNumber());
       // if the record is the current CVR under audit, or if it hasn't been
       // audited yet, we can just process it
       if (info.acvr() == null) {
@@ -643,6 +662,18 @@ public final class ComparisonAuditController {
                        the_audit_cvr.id() + " for county " + the_cdb.id() + 
                        ", cvr " + the_cvr_under_audit.id());
     }
+    return result;
+  }
+  
+  /**
+   * Updates the audited prefix, the estimated and optimistic samples to 
+   * audit, and the audit status of the specified county dashboard after 
+   * one or more audit CVRs have been recorded, and the county's contribution
+   * to the statewide audit aggregates.
+   * 
+   * @param the_cdb The dashboard.
+   */
+  public static void updateAuditProgress(final CountyDashboard the_cdb) {
     Persistence.flush();
     updateCVRUnderAudit(the_cdb);
     the_cdb.
@@ -652,7 +683,7 @@ public final class ComparisonAuditController {
         setOptimisticSamplesToAudit(computeOptimisticSamplesToAudit(the_cdb) -
                                     the_cdb.auditedSampleCount());
     the_cdb.updateAuditStatus();
-    return result;
+    ContestAuditAggregates.update(the_cdb);
   }
   
   /**
@@ -708,69 +739,231 @@ public final class ComparisonAuditController {
    */
   public static boolean audited(final CountyDashboard the_cdb, 
                                 final CastVoteRecord the_cvr) {
-    final CVRAuditInfo info = Persistence.getByID(the_cvr.id(), CVRAuditInfo.class);
     final boolean result;
-    if (info == null || info.acvr() == null) {
-      result = false;
+    if (the_cvr.recordType() == RecordType.UPLOADED && 
+        the_cdb.id().equals(the_cvr.countyID())) {
+      result = currentBallotAuditMap(the_cdb).audited(the_cvr.sequenceNumber());
     } else {
-      result = true;
+      final CVRAuditInfo info = Persistence.getByID(the_cvr.id(), CVRAuditInfo.class);
+      result = info != null && info.acvr() != null;
     }
     return result;
   }
   
+  /**
+   * Gets the ballot audit map of the specified county dashboard, building it
+   * from the dashboard's rounds and the submitted audit CVRs if it does not
+   * exist or does not match the county's CVRs (as when the audit was started
+   * before there were ballot audit maps). A map that is built is stored, so
+   * this must only be used by requests that change the audit, which
+   * conflict with each other anyway; requests that only read the audit use
+   * currentBallotAuditMap().
+   * 
+   * @param the_cdb The county dashboard.
+   * @return the ballot audit map.
+   * @exception PersistenceException if the map cannot be built.
+   */
+  private static BallotAuditMap ballotAuditMap(final CountyDashboard the_cdb) {
+    final int cvr_count = cvrCountForMap(the_cdb);
+    BallotAuditMap result = Persistence.getByID(the_cdb.id(), BallotAuditMap.class);
+    if (result == null || result.cvrCount() != cvr_count) {
+      if (result == null) {
+        result = new BallotAuditMap(the_cdb.id(), cvr_count);
+      } else {
+        result.reset(cvr_count);
+      }
+      fillBallotAuditMap(the_cdb, result);
+      Persistence.saveOrUpdate(result);
+    }
+    return result;
+  }
+  
+  /**
+   * Gets the ballot audit map of the specified county dashboard for reading.
+   * If the stored map does not exist or does not match the county's CVRs,
+   * an equivalent map is built but not stored, so that concurrent reads
+   * never try to store the same map; the next change to the audit stores
+   * it.
+   * 
+   * @param the_cdb The county dashboard.
+   * @return the ballot audit map, which must not be changed.
+   * @exception PersistenceException if the map cannot be built.
+   */
+  private static BallotAuditMap currentBallotAuditMap(final CountyDashboard the_cdb) {
+    final int cvr_count = cvrCountForMap(the_cdb);
+    BallotAuditMap result = Persistence.getByID(the_cdb.id(), BallotAuditMap.class);
+    if (result == null || result.cvrCount() != cvr_count) {
+      result = new BallotAuditMap(the_cdb.id(), cvr_count);
+      fillBallotAuditMap(the_cdb, result);
+    }
+    return result;
+  }
+  
+  /**
+   * @param the_cdb The county dashboard.
+   * @return the number of CVRs the county's ballot audit map covers.
+   * @exception PersistenceException if the CVRs cannot be counted.
+   */
+  private static int cvrCountForMap(final CountyDashboard the_cdb) {
+    final OptionalLong cvr_count = AuditSequenceCache.cvrCount(the_cdb.id());
+    if (!cvr_count.isPresent()) {
+      throw new PersistenceException("could not count CVRs for county " + the_cdb.id());
+    }
+    return (int) cvr_count.getAsLong();
+  }
+  
+  /**
+   * Marks the ballots selected in the dashboard's rounds and the audited
+   * ballots in an empty ballot audit map.
+   * 
+   * @param the_cdb The county dashboard.
+   * @param the_map The map.
+   * @exception PersistenceException if the selected or audited CVRs cannot
+   * be loaded.
+   */
+  private static void fillBallotAuditMap(final CountyDashboard the_cdb,
+                                         final BallotAuditMap the_map) {
+    final List<Long> selected_ids = new ArrayList<>();
+    for (final Round round : the_cdb.rounds()) {
+      selected_ids.addAll(round.ballotSequence());
+    }
+    for (int from = 0; from < selected_ids.size(); from = from + QUERY_CHUNK_SIZE) {
+      final List<CastVoteRecord> cvrs = CastVoteRecordQueries.get(
+          selected_ids.subList(from, Math.min(from + QUERY_CHUNK_SIZE, 
+                                              selected_ids.size())));
+      if (cvrs == null) {
+        throw new PersistenceException("could not load selected CVRs");
+      }
+      markSelected(the_map, cvrs);
+    }
+    final List<Integer> audited = CVRAuditInfoQueries.auditedSequenceNumbers(the_cdb.id());
+    if (audited == null) {
+      throw new PersistenceException("could not load audited CVRs");
+    }
+    for (final Integer sequence_number : audited) {
+      the_map.setAudited(sequence_number);
+    }
+  }
+  
+  /**
+   * Records in a ballot audit map that the specified CVRs have been 
+   * selected for audit.
+   * 
+   * @param the_map The map.
+   * @param the_cvrs The CVRs.
+   */
+  private static void markSelected(final BallotAuditMap the_map,
+                                   final Collection<CastVoteRecord> the_cvrs) {
+    for (final CastVoteRecord cvr : the_cvrs) {
+      the_map.setSelected(cvr.sequenceNumber());
+    }
+  }
+  
 
   /**
    * Updates a round object with the disagreements and discrepancies
    * that already exist for CVRs in its audit subsequence, creates
    * any CVRAuditInfo objects that don't exist but need to, and
    * increases the multiplicity of any CVRAuditInfo objects that already
-   * exist and are duplicated in this round.
+   * exist and are duplicated in this round. The multiplicity of each CVR
+   * in the round is counted in one pass, and the CVRAuditInfo objects
+   * (and the CVRs that don't have them yet) are loaded in bulk.
    * 
    * @param the_cdb The county dashboard to update.
    * @param the_round The round to update.
+   * @exception PersistenceException if the CVRAuditInfo objects or CVRs
+   * cannot be loaded.
    */
   private static void updateRound(final CountyDashboard the_cdb, 
                                   final Round the_round) {
-    for (final Long cvr_id : new HashSet<>(the_round.auditSubsequence())) {
-      final Map<Contest, AuditReason> audit_reasons = new HashMap<>();
-      final Set<AuditReason> discrepancies = new HashSet<>();
-      final Set<AuditReason> disagreements = new HashSet<>();
-      CVRAuditInfo cvrai = Persistence.getByID(cvr_id, CVRAuditInfo.class);
-      
-      if (cvrai == null) {
-        // create it if it doesn't exist
-        cvrai = new CVRAuditInfo(Persistence.getByID(cvr_id, CastVoteRecord.class));
-        cvrai.setMultiplicity(Collections.frequency(the_round.auditSubsequence(), cvr_id));
-        Persistence.saveOrUpdate(cvrai);
-      } else if (cvrai.acvr() != null) {
-        // update the round statistics as necessary
-        for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
-          audit_reasons.put(ca.contest(), ca.auditReason());
-          if (!discrepancies.contains(ca.auditReason()) && 
-              ca.computeDiscrepancy(cvrai.cvr(), cvrai.acvr()).isPresent()) {
-            discrepancies.add(ca.auditReason());
-          }
+    final List<Long> subsequence = the_round.auditSubsequence();
+    final LongIntMap multiplicities = new LongIntMap(subsequence.size());
+    for (final Long cvr_id : subsequence) {
+      multiplicities.add(cvr_id, 1);
+    }
+    
+    for (int from = 0; from < multiplicities.size(); from = from + QUERY_CHUNK_SIZE) {
+      final int to = Math.min(from + QUERY_CHUNK_SIZE, multiplicities.size());
+      final List<Long> ids = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        ids.add(multiplicities.key(i));
+      }
+      final Map<Long, CVRAuditInfo> infos = CVRAuditInfoQueries.get(ids);
+      if (infos == null) {
+        throw new PersistenceException("could not load CVR audit info for round");
+      }
+      final List<Long> missing = new ArrayList<>();
+      for (final Long cvr_id : ids) {
+        if (!infos.containsKey(cvr_id)) {
+          missing.add(cvr_id);
         }
-        for (final CVRContestInfo ci : cvrai.acvr().contestInfo()) {
-          final AuditReason reason = audit_reasons.get(ci.contest());
-          if (ci.consensus() == ConsensusValue.NO) {
-            disagreements.add(reason);
-          }
+      }
+      if (!missing.isEmpty()) {
+        final List<CastVoteRecord> cvrs = CastVoteRecordQueries.get(missing);
+        if (cvrs == null || cvrs.size() != missing.size()) {
+          throw new PersistenceException("could not load CVRs for round");
         }
-        
-        final int multiplicity = Collections.frequency(the_round.auditSubsequence(),
-                                                       cvr_id);
-        for (int i = 0; i < multiplicity; i++) {
-          the_round.addDiscrepancy(discrepancies);
-          the_round.addDisagreement(disagreements);
+        for (final CastVoteRecord cvr : cvrs) {
+          // create it if it doesn't exist
+          final CVRAuditInfo cvrai = new CVRAuditInfo(cvr);
+          cvrai.setMultiplicity(multiplicities.get(cvr.id()));
+          Persistence.saveOrUpdate(cvrai);
+        }
+      }
+      for (final CVRAuditInfo cvrai : infos.values()) {
+        if (cvrai.acvr() != null) {
+          updateRound(the_cdb, the_round, cvrai, multiplicities.get(cvrai.id()));
         }
-        
-        cvrai.setMultiplicity(cvrai.multiplicity() + multiplicity);
-        cvrai.setCounted(cvrai.counted() + multiplicity);
       }
     }
   }
   
+  /**
+   * Updates a round object with the disagreements and discrepancies of an
+   * already audited CVR, and increases the multiplicity of its
+   * CVRAuditInfo object.
+   * 
+   * @param the_cdb The county dashboard.
+   * @param the_round The round to update.
+   * @param the_info The CVRAuditInfo.
+   * @param the_multiplicity The number of times the CVR is in the round.
+   */
+  private static void updateRound(final CountyDashboard the_cdb, 
+                                  final Round the_round,
+                                  final CVRAuditInfo the_info,
+                                  final int the_multiplicity) {
+    Set<AuditReason> discrepancies = the_info.discrepancy();
+    Set<AuditReason> disagreements = the_info.disagreement();
+    if (the_info.counted() == 0) {
+      // the stored results are only recorded when the CVR is counted
+      discrepancies = new HashSet<>();
+      disagreements = new HashSet<>();
+      final Set<Contest> contest_disagreements = new HashSet<>();
+      for (final CVRContestInfo ci : the_info.acvr().contestInfo()) {
+        if (ci.consensus() == ConsensusValue.NO) {
+          contest_disagreements.add(ci.contest());
+        }
+      }
+      for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
+        if (!discrepancies.contains(ca.auditReason()) && 
+            ca.computeDiscrepancy(the_info.cvr(), the_info.acvr()).isPresent()) {
+          discrepancies.add(ca.auditReason());
+        }
+        if (contest_disagreements.contains(ca.contest())) {
+          disagreements.add(ca.auditReason());
+        }
+      }
+    }
+    
+    for (int i = 0; i < the_multiplicity; i++) {
+      the_round.addDiscrepancy(discrepancies);
+      the_round.addDisagreement(disagreements);
+    }
+    
+    the_info.setMultiplicity(the_info.multiplicity() + the_multiplicity);
+    the_info.setCounted(the_info.counted() + the_multiplicity);
+  }
+  
   /**
    * Audits a CVR/ACVR pair by adding it to all the audits in progress.
    * This also updates the local audit counters, as appropriate.
@@ -0,0 +1,240 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import us.freeandfair.corla.model.CountyContestComparisonAudit;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * The statewide comparison audit aggregates shown on the DoS dashboard: for
+ * each contest, the largest numbers of ballots any county has left to audit
+ * and the total discrepancy counts across counties. Each county's
+ * contribution is computed when its audit changes (when it starts a round
+ * or audit CVRs are submitted) and published when that transaction commits,
+ * so a dashboard refresh only combines the contributions. A contribution
+ * records the version of the county dashboard it was computed from; if the
+ * dashboard has changed in some other way, the contribution is recomputed
+ * when it is next read.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class ContestAuditAggregates {
+  /**
+   * The lowest discrepancy type.
+   */
+  public static final int MIN_DISCREPANCY = -2;
+
+  /**
+   * The highest discrepancy type.
+   */
+  public static final int MAX_DISCREPANCY = 2;
+
+  /**
+   * The county contributions, by county ID.
+   */
+  private static final Map<Long, Contribution> CONTRIBUTIONS = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private ContestAuditAggregates() {
+    // empty
+  }
+
+  /**
+   * Computes the contribution of a county dashboard, as it stands, and
+   * publishes it when the current transaction commits. This must be called
+   * in a transaction, after the county's audit has been updated.
+   *
+   * @param the_cdb The county dashboard.
+   */
+  public static void update(final CountyDashboard the_cdb) {
+    Persistence.currentSession().getTransaction().registerSynchronization(
+        publisher(the_cdb));
+  }
+
+  /**
+   * Computes the contribution of a county dashboard, as it stands, and
+   * makes a transaction synchronization that publishes it if the
+   * transaction commits, and discards the county's contribution otherwise.
+   *
+   * @param the_cdb The county dashboard.
+   * @return the synchronization.
+   */
+  static Synchronization publisher(final CountyDashboard the_cdb) {
+    final Map<Long, ContestValues> contests = contestValues(the_cdb);
+    return new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+        // nothing to do
+      }
+
+      @Override
+      public void afterCompletion(final int the_status) {
+        if (the_status == Status.STATUS_COMMITTED) {
+          // the dashboard's version was incremented when it was flushed
+          CONTRIBUTIONS.put(the_cdb.id(),
+                            new Contribution(the_cdb.version(), contests));
+        } else {
+          CONTRIBUTIONS.remove(the_cdb.id());
+        }
+      }
+    };
+  }
+
+  /**
+   * Combines the contributions of the specified county dashboards, which
+   * should be all the county dashboards, recomputing any contributions that
+   * are missing or out of date. This must be called in a transaction.
+   *
+   * @param the_dashboards The county dashboards.
+   * @return the aggregates, by contest ID, for every contest under
+   * comparison audit in at least one county.
+   */
+  public static Map<Long, ContestValues> 
+      aggregates(final Collection<? extends CountyDashboard> the_dashboards) {
+    final Map<Long, ContestValues> result = new HashMap<>();
+    for (final CountyDashboard cdb : the_dashboards) {
+      Contribution contribution = CONTRIBUTIONS.get(cdb.id());
+      if (contribution == null || !Objects.equals(contribution.my_version, cdb.version())) {
+        contribution = new Contribution(cdb.version(), contestValues(cdb));
+        CONTRIBUTIONS.put(cdb.id(), contribution);
+      }
+      for (final Map.Entry<Long, ContestValues> e : contribution.my_contests.entrySet()) {
+        result.computeIfAbsent(e.getKey(), k -> new ContestValues()).combine(e.getValue());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Discards all contributions.
+   */
+  public static void clear() {
+    CONTRIBUTIONS.clear();
+  }
+
+  /**
+   * Computes the values of a county dashboard's comparison audits.
+   *
+   * @param the_cdb The county dashboard.
+   * @return the values, by contest ID.
+   */
+  static Map<Long, ContestValues> contestValues(final CountyDashboard the_cdb) {
+    final Map<Long, ContestValues> result = new HashMap<>();
+    for (final CountyContestComparisonAudit ccca : the_cdb.comparisonAudits()) {
+      final ContestValues values = new ContestValues();
+      values.my_optimistic =
+          Math.max(0, ccca.optimisticSamplesToAudit() - the_cdb.auditedPrefixLength());
+      values.my_estimated =
+          Math.max(0, ccca.estimatedSamplesToAudit() - the_cdb.auditedPrefixLength());
+      for (int i = MIN_DISCREPANCY; i <= MAX_DISCREPANCY; i++) {
+        values.my_discrepancies[i - MIN_DISCREPANCY] = ccca.discrepancyCount(i);
+      }
+      result.computeIfAbsent(ccca.contest().id(), k -> new ContestValues()).combine(values);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * The aggregate values for one contest.
+   */
+  public static final class ContestValues {
+    /**
+     * The largest optimistic number of ballots left to audit.
+     */
+    private int my_optimistic = Integer.MIN_VALUE;
+
+    /**
+     * The largest estimated number of ballots left to audit.
+     */
+    private int my_estimated = Integer.MIN_VALUE;
+
+    /**
+     * The discrepancy counts, from MIN_DISCREPANCY to MAX_DISCREPANCY.
+     */
+    private final int[] my_discrepancies = new int[MAX_DISCREPANCY - MIN_DISCREPANCY + 1];
+
+    /**
+     * @return the largest optimistic number of ballots left to audit.
+     */
+    public int optimistic() {
+      return my_optimistic;
+    }
+
+    /**
+     * @return the largest estimated number of ballots left to audit.
+     */
+    public int estimated() {
+      return my_estimated;
+    }
+
+    /**
+     * @param the_type The discrepancy type.
+     * @return the count of discrepancies of the type.
+     */
+    public int discrepancyCount(final int the_type) {
+      return my_discrepancies[the_type - MIN_DISCREPANCY];
+    }
+
+    /**
+     * Adds other values to these values.
+     *
+     * @param the_other The other values.
+     */
+    void combine(final ContestValues the_other) {
+      my_optimistic = Math.max(my_optimistic, the_other.my_optimistic);
+      my_estimated = Math.max(my_estimated, the_other.my_estimated);
+      for (int i = 0; i < my_discrepancies.length; i++) {
+        my_discrepancies[i] = my_discrepancies[i] + the_other.my_discrepancies[i];
+      }
+    }
+  }
+
+  /**
+   * A county's contribution to the aggregates.
+   */
+  private static final class Contribution {
+    /**
+     * The version of the county dashboard the contribution was computed from.
+     */
+    private final Long my_version;
+
+    /**
+     * The values of the county's comparison audits, by contest ID.
+     */
+    private final Map<Long, ContestValues> my_contests;
+
+    /**
+     * Constructs a new Contribution.
+     *
+     * @param the_version The dashboard version.
+     * @param the_contests The contest values.
+     */
+    Contribution(final Long the_version, final Map<Long, ContestValues> the_contests) {
+      my_version = the_version;
+      my_contests = the_contests;
+    }
+  }
+}
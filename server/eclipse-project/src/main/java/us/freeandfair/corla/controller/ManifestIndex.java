@@ -0,0 +1,197 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.model.BallotManifestInfo;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.UploadedFile;
+import us.freeandfair.corla.query.BallotManifestInfoQueries;
+
+/**
+ * An in-memory index of a county's ballot manifest, for finding the
+ * storage location of a batch and the batch that holds a manifest
+ * sequence number without querying the database. Indexes are cached by
+ * county, and each records the uploaded manifest file it was built from,
+ * so an index is rebuilt as soon as the county's dashboard refers to a
+ * different manifest.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class ManifestIndex {
+  /**
+   * The cached indexes, by county ID.
+   */
+  private static final Map<Long, ManifestIndex> INDEXES = new ConcurrentHashMap<>();
+
+  /**
+   * The ID of the manifest file this index was built from, or null if
+   * there was none.
+   */
+  private final Long my_file_id;
+
+  /**
+   * The storage locations, by scanner ID and then batch ID.
+   */
+  private final Map<Integer, Map<String, String>> my_locations;
+
+  /**
+   * The batches, in sequence order.
+   */
+  private final BallotManifestInfo[] my_batches;
+
+  /**
+   * The sequence number of the first ballot of each batch, in sequence order.
+   */
+  private final long[] my_starts;
+
+  /**
+   * The sequence number of the last ballot of each batch, in the same
+   * order as my_starts.
+   */
+  private final long[] my_ends;
+
+  /**
+   * Constructs a new ManifestIndex.
+   *
+   * @param the_file_id The ID of the manifest file, or null if there is none.
+   * @param the_batches The ballot manifest records, in any order.
+   */
+  ManifestIndex(final Long the_file_id, final List<BallotManifestInfo> the_batches) {
+    my_file_id = the_file_id;
+    final Map<Integer, Map<String, String>> locations = new HashMap<>();
+    final List<BallotManifestInfo> sequenced = new ArrayList<>();
+    for (final BallotManifestInfo bmi : the_batches) {
+      // there should never be more than one location for a batch, but if
+      // there is, we use the first one
+      locations.computeIfAbsent(bmi.scannerID(), k -> new HashMap<>())
+               .putIfAbsent(bmi.batchID(), bmi.storageLocation());
+      if (bmi.sequenceStart() != null && bmi.sequenceEnd() != null) {
+        sequenced.add(bmi);
+      }
+    }
+    sequenced.sort((the_first, the_second) ->
+                   Long.compare(the_first.sequenceStart(), the_second.sequenceStart()));
+    my_locations = locations;
+    my_batches = sequenced.toArray(new BallotManifestInfo[sequenced.size()]);
+    my_starts = new long[my_batches.length];
+    my_ends = new long[my_batches.length];
+    for (int i = 0; i < my_batches.length; i++) {
+      my_starts[i] = my_batches[i].sequenceStart();
+      my_ends[i] = my_batches[i].sequenceEnd();
+    }
+  }
+
+  /**
+   * Gets the manifest index for a county, building it if the cached index
+   * is missing or was built from a different manifest file.
+   *
+   * @param the_cdb The county dashboard.
+   * @return the index.
+   * @exception PersistenceException if the index cannot be built.
+   */
+  public static ManifestIndex forCounty(final CountyDashboard the_cdb) {
+    final UploadedFile file = the_cdb.manifestFile();
+    final Long file_id;
+    if (file == null) {
+      file_id = null;
+    } else {
+      file_id = file.id();
+    }
+    ManifestIndex result = INDEXES.get(the_cdb.id());
+    if (result == null || !Objects.equals(result.my_file_id, file_id)) {
+      result = build(the_cdb.id(), file_id);
+    }
+    return result;
+  }
+
+  /**
+   * Builds and caches the manifest index for a county from its ballot
+   * manifest records; this must be called in a transaction.
+   *
+   * @param the_county_id The county ID.
+   * @param the_file_id The ID of the manifest file the records came from,
+   * or null if there is none.
+   * @return the index.
+   * @exception PersistenceException if the records cannot be read.
+   */
+  public static ManifestIndex build(final Long the_county_id, final Long the_file_id) {
+    final List<BallotManifestInfo> batches =
+        BallotManifestInfoQueries.forCounty(the_county_id);
+    if (batches == null) {
+      throw new PersistenceException("could not read ballot manifest for county " +
+                                     the_county_id);
+    }
+    final ManifestIndex result = new ManifestIndex(the_file_id, batches);
+    INDEXES.put(the_county_id, result);
+    return result;
+  }
+
+  /**
+   * Discards the cached index for a county.
+   *
+   * @param the_county_id The county ID.
+   */
+  public static void invalidate(final Long the_county_id) {
+    INDEXES.remove(the_county_id);
+  }
+
+  /**
+   * Discards all cached indexes.
+   */
+  public static void clear() {
+    INDEXES.clear();
+  }
+
+  /**
+   * Gets the storage location of a batch.
+   *
+   * @param the_scanner_id The scanner ID.
+   * @param the_batch_id The batch ID.
+   * @return the storage location, or null if the batch is not in the manifest.
+   */
+  public String location(final Integer the_scanner_id, final String the_batch_id) {
+    return my_locations.getOrDefault(the_scanner_id, Collections.emptyMap())
+                       .get(the_batch_id);
+  }
+
+  /**
+   * Finds the batch that holds a manifest sequence number.
+   *
+   * @param the_sequence_number The sequence number (from 1).
+   * @return the batch, or an empty Optional if no batch holds it.
+   */
+  public Optional<BallotManifestInfo> holding(final long the_sequence_number) {
+    // the last batch that starts at or before the sequence number
+    int index = Arrays.binarySearch(my_starts, the_sequence_number);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    Optional<BallotManifestInfo> result = Optional.empty();
+    if (0 <= index && the_sequence_number <= my_ends[index]) {
+      result = Optional.of(my_batches[index]);
+    }
+    return result;
+  }
+}
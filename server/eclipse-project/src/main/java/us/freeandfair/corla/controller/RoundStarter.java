@@ -0,0 +1,474 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.util.ExponentialBackoffHelper;
+
+/**
+ * The runner for audit round starts. A round is started for each county by
+ * a separate job, in its own transaction, on a bounded pool of threads;
+ * jobs that fail because of database problems (such as conflicting
+ * updates) are retried. The progress of the most recent round start,
+ * including the counties for which it failed, is available for the DoS
+ * dashboard.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class RoundStarter {
+  /**
+   * The property that specifies the number of counties whose rounds are
+   * started at once.
+   */
+  public static final String THREADS_PROPERTY = "round_start_threads";
+
+  /**
+   * The default number of counties whose rounds are started at once.
+   */
+  public static final int DEFAULT_THREADS = 4;
+
+  /**
+   * The number of times to try a county's round start.
+   */
+  private static final int TRIES = 3;
+
+  /**
+   * The unit delay between tries, in milliseconds.
+   */
+  private static final long RETRY_DELAY_MSEC = 50;
+
+  /**
+   * The round starter instance, created when first used.
+   */
+  private static RoundStarter instance;
+
+  /**
+   * The executor that runs the county jobs. Its threads are daemon threads,
+   * so that they never delay shutdown.
+   */
+  private final ExecutorService my_executor;
+
+  /**
+   * A flag indicating whether the county jobs run in database transactions.
+   */
+  private final boolean my_transactional;
+
+  /**
+   * The status of the most recent round start, or null if there has been
+   * none.
+   */
+  private Status my_status;
+
+  /**
+   * Constructs a new RoundStarter.
+   *
+   * @param the_parallelism The number of counties whose rounds are started
+   * at once.
+   * @exception IllegalArgumentException if the_parallelism is not positive.
+   */
+  public RoundStarter(final int the_parallelism) {
+    this(the_parallelism, true);
+  }
+
+  /**
+   * Constructs a new RoundStarter whose county jobs may run without
+   * database transactions, for testing.
+   *
+   * @param the_parallelism The number of counties whose rounds are started
+   * at once.
+   * @param the_transactional true if the county jobs run in database
+   * transactions, false otherwise.
+   * @exception IllegalArgumentException if the_parallelism is not positive.
+   */
+  RoundStarter(final int the_parallelism, final boolean the_transactional) {
+    if (the_parallelism < 1) {
+      throw new IllegalArgumentException("round start parallelism must be positive");
+    }
+    my_executor = Executors.newFixedThreadPool(the_parallelism, the_runnable -> {
+      final Thread result = new Thread(the_runnable, "round-starter");
+      result.setDaemon(true);
+      return result;
+    });
+    my_transactional = the_transactional;
+  }
+
+  /**
+   * @return the round starter instance, configured from the system properties.
+   */
+  public static synchronized RoundStarter instance() {
+    if (instance == null) {
+      instance = new RoundStarter(parallelism(Main.properties()));
+    }
+    return instance;
+  }
+
+  /**
+   * Reads the round start parallelism from the specified properties.
+   *
+   * @param the_properties The properties.
+   * @return the round start parallelism.
+   */
+  public static int parallelism(final Properties the_properties) {
+    int result = DEFAULT_THREADS;
+    if (the_properties != null) {
+      try {
+        result = Integer.parseInt(the_properties.getProperty(THREADS_PROPERTY,
+                                                             String.valueOf(result)));
+      } catch (final NumberFormatException e) {
+        Main.LOGGER.error("invalid " + THREADS_PROPERTY + ", using " + DEFAULT_THREADS);
+      }
+    }
+    if (result < 1) {
+      Main.LOGGER.error("invalid " + THREADS_PROPERTY + ", using 1");
+      result = 1;
+    }
+    return result;
+  }
+
+  /**
+   * Starts a round for each of the specified counties, in parallel, and
+   * waits for all the counties to finish.
+   *
+   * @param the_round The round number.
+   * @param the_county_ids The county IDs.
+   * @param the_job The job that starts the round for a county; it runs in
+   * a transaction, which is committed if it returns normally and rolled back
+   * if it throws an exception.
+   * @return the results of the jobs that succeeded, by county ID; the
+   * counties for which the round start failed are missing, and the reasons
+   * are in status().
+   * @exception IllegalStateException if a round start is already running.
+   */
+  public Map<Long, Boolean> run(final int the_round, final List<Long> the_county_ids,
+                                final CountyJob the_job) {
+    synchronized (this) {
+      if (my_status != null && my_status.inProgress()) {
+        throw new IllegalStateException("a round start is already in progress");
+      }
+      my_status = new Status(the_round, the_county_ids.size());
+    }
+    final Map<Long, Boolean> result = new ConcurrentHashMap<>();
+    final List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (final Long id : the_county_ids) {
+        futures.add(my_executor.submit(() -> startCounty(id, the_job, result)));
+      }
+      for (final Future<?> f : futures) {
+        try {
+          f.get();
+        } catch (final ExecutionException e) {
+          // startCounty() records its own failures, so this cannot happen
+          Main.LOGGER.error("unexpected round start failure: " + e.getCause());
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } finally {
+      synchronized (this) {
+        my_status = my_status.finished();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the status of the most recent round start, or null if there
+   * has been none.
+   */
+  public synchronized Status status() {
+    return my_status;
+  }
+
+  /**
+   * Forgets the most recent round start, unless it is still running.
+   */
+  public synchronized void clear() {
+    if (my_status != null && !my_status.inProgress()) {
+      my_status = null;
+    }
+  }
+
+  /**
+   * Starts the round for a county, retrying if the database transaction
+   * fails. Every failure, including an unexpected exception thrown by the
+   * job, is recorded in the status.
+   *
+   * @param the_county_id The county ID.
+   * @param the_job The job.
+   * @param the_results The results map, to which the job's result is added
+   * if it succeeds.
+   */
+  private void startCounty(final Long the_county_id, final CountyJob the_job,
+                           final Map<Long, Boolean> the_results) {
+    String failure = null;
+    boolean done = false;
+    int tries = 0;
+    while (!done && failure == null) {
+      tries = tries + 1;
+      try {
+        if (my_transactional) {
+          Persistence.beginTransaction();
+        }
+        final boolean complete = the_job.start(the_county_id);
+        if (my_transactional) {
+          Persistence.commitTransaction();
+        }
+        the_results.put(the_county_id, complete);
+        done = true;
+      } catch (final PersistenceException e) {
+        if (tries < TRIES) {
+          final long delay =
+              ExponentialBackoffHelper.exponentialBackoff(tries, RETRY_DELAY_MSEC);
+          Main.LOGGER.info("retrying round start for county " + the_county_id +
+                           " in " + delay + "ms: " + e);
+          sleep(delay);
+        } else {
+          failure = "database problem: " + describe(e);
+        }
+      } catch (final IllegalArgumentException | IllegalStateException e) {
+        failure = describe(e);
+      } catch (final RuntimeException e) {
+        // any other exception is a bug in the job, but it is still a failure
+        Main.LOGGER.error("unexpected exception starting round for county " +
+                          the_county_id, e);
+        failure = "unexpected problem: " + describe(e);
+      } finally {
+        rollbackIfActive();
+      }
+    }
+    if (failure != null) {
+      Main.LOGGER.error("could not start round for county " + the_county_id +
+                        ": " + failure);
+    }
+    synchronized (this) {
+      my_status = my_status.countyFinished(the_county_id, failure);
+    }
+  }
+
+  /**
+   * Rolls back the current transaction, if there is one; pool threads are
+   * reused, so no transaction may outlive a job.
+   */
+  private void rollbackIfActive() {
+    if (my_transactional) {
+      try {
+        if (Persistence.isTransactionActive()) {
+          Persistence.rollbackTransaction();
+        }
+      } catch (final IllegalStateException | PersistenceException e) {
+        Main.LOGGER.error("could not roll back round start transaction: " + e);
+      }
+    }
+  }
+
+  /**
+   * Describes an exception; exceptions need not have messages.
+   *
+   * @param the_exception The exception.
+   * @return the description.
+   */
+  private String describe(final Exception the_exception) {
+    String result = the_exception.getMessage();
+    if (result == null) {
+      result = the_exception.toString();
+    }
+    return result;
+  }
+
+  /**
+   * Sleeps for the specified time.
+   *
+   * @param the_delay The time, in milliseconds.
+   */
+  private void sleep(final long the_delay) {
+    try {
+      Thread.sleep(the_delay);
+    } catch (final InterruptedException e) {
+      // it's OK to be interrupted
+    }
+  }
+
+  /**
+   * A job that starts a round for a county.
+   */
+  @FunctionalInterface
+  public interface CountyJob {
+    /**
+     * Starts a round for a county.
+     *
+     * @param the_county_id The county ID.
+     * @return true if the county's audit is complete, false otherwise.
+     * @exception PersistenceException if there is a database problem; the
+     * job is then retried in a new transaction.
+     * @exception IllegalArgumentException if the round cannot be started.
+     * @exception IllegalStateException if the round cannot be started
+     * because of the county's state.
+     */
+    boolean start(Long the_county_id);
+  }
+
+  /**
+   * The (immutable) status of a round start.
+   */
+  public static final class Status {
+    /**
+     * The round number.
+     */
+    private final int my_round;
+
+    /**
+     * The number of counties.
+     */
+    private final int my_county_count;
+
+    /**
+     * The number of counties whose rounds have been started.
+     */
+    private final int my_started_count;
+
+    /**
+     * The counties for which the round start failed, with the reasons.
+     */
+    private final SortedMap<Long, String> my_failures;
+
+    /**
+     * A flag indicating whether the round start is in progress.
+     */
+    private final boolean my_in_progress;
+
+    /**
+     * The time at which the round start began.
+     */
+    private final Instant my_start_time;
+
+    /**
+     * Constructs a new Status for a round start that has just begun.
+     *
+     * @param the_round The round number.
+     * @param the_county_count The number of counties.
+     */
+    Status(final int the_round, final int the_county_count) {
+      this(the_round, the_county_count, 0, new TreeMap<>(), true, Instant.now());
+    }
+
+    /**
+     * Constructs a new Status.
+     *
+     * @param the_round The round number.
+     * @param the_county_count The number of counties.
+     * @param the_started_count The number of counties whose rounds have
+     * been started.
+     * @param the_failures The counties for which the round start failed.
+     * @param the_in_progress true if the round start is in progress.
+     * @param the_start_time The time at which the round start began.
+     */
+    private Status(final int the_round, final int the_county_count,
+                   final int the_started_count, final SortedMap<Long, String> the_failures,
+                   final boolean the_in_progress, final Instant the_start_time) {
+      my_round = the_round;
+      my_county_count = the_county_count;
+      my_started_count = the_started_count;
+      my_failures = Collections.unmodifiableSortedMap(the_failures);
+      my_in_progress = the_in_progress;
+      my_start_time = the_start_time;
+    }
+
+    /**
+     * @return the round number.
+     */
+    public int round() {
+      return my_round;
+    }
+
+    /**
+     * @return the number of counties.
+     */
+    public int countyCount() {
+      return my_county_count;
+    }
+
+    /**
+     * @return the number of counties whose rounds have been started.
+     */
+    public int startedCount() {
+      return my_started_count;
+    }
+
+    /**
+     * @return the counties for which the round start failed, with the reasons.
+     */
+    public SortedMap<Long, String> failures() {
+      return my_failures;
+    }
+
+    /**
+     * @return true if the round start is in progress, false otherwise.
+     */
+    public boolean inProgress() {
+      return my_in_progress;
+    }
+
+    /**
+     * @return the time at which the round start began.
+     */
+    public Instant startTime() {
+      return my_start_time;
+    }
+
+    /**
+     * Records that a county has finished.
+     *
+     * @param the_county_id The county ID.
+     * @param the_failure The reason the round start failed, or null if it
+     * succeeded.
+     * @return the new status.
+     */
+    Status countyFinished(final Long the_county_id, final String the_failure) {
+      final SortedMap<Long, String> failures = new TreeMap<>(my_failures);
+      int started = my_started_count;
+      if (the_failure == null) {
+        started = started + 1;
+      } else {
+        failures.put(the_county_id, the_failure);
+      }
+      return new Status(my_round, my_county_count, started, failures,
+                        my_in_progress, my_start_time);
+    }
+
+    /**
+     * @return the status after the round start has finished.
+     */
+    Status finished() {
+      return new Status(my_round, my_county_count, my_started_count, my_failures,
+                        false, my_start_time);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.PersistenceException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.ImportStatus.ImportState;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * The sample planner. As soon as the random seed is published, everything
+ * needed to choose each county's ballots for the first audit round is known
+ * except how many ballots the round will need; so the planner generates
+ * (and stores) the first part of each county's audit sequence in the
+ * background, and round 1 then starts from already generated sequences.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class SamplePlanner {
+  /**
+   * The property that specifies the number of audit sequence positions to
+   * plan for each county.
+   */
+  public static final String LENGTH_PROPERTY = "sample_plan_length";
+
+  /**
+   * The default number of audit sequence positions to plan for each county.
+   */
+  public static final int DEFAULT_LENGTH = 2000;
+
+  /**
+   * The executor that runs the planner; plans are made one at a time, on a
+   * daemon thread, so that they never delay shutdown.
+   */
+  private static final ExecutorService EXECUTOR =
+      Executors.newSingleThreadExecutor(the_runnable -> {
+        final Thread result = new Thread(the_runnable, "sample-planner");
+        result.setDaemon(true);
+        return result;
+      });
+
+  /**
+   * The planning generation, which changes whenever planning is started
+   * or stopped, so that planning for an old seed stops.
+   */
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private SamplePlanner() {
+    // empty
+  }
+
+  /**
+   * Starts planning, in the background, the samples for the specified
+   * random seed. Any planning for a previous seed stops.
+   *
+   * @param the_seed The random seed.
+   */
+  public static void start(final String the_seed) {
+    final long generation = GENERATION.incrementAndGet();
+    final int length = length(Main.properties());
+    EXECUTOR.execute(() -> planAll(the_seed, length, generation));
+  }
+
+  /**
+   * Starts planning the samples for the specified random seed when the
+   * current transaction, which publishes the seed, commits. Nothing is
+   * planned if it rolls back.
+   *
+   * @param the_seed The random seed.
+   */
+  public static void startAfterCommit(final String the_seed) {
+    Persistence.currentSession().getTransaction().registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {
+            // nothing to do
+          }
+
+          @Override
+          public void afterCompletion(final int the_status) {
+            if (the_status == Status.STATUS_COMMITTED) {
+              start(the_seed);
+            }
+          }
+        });
+  }
+
+  /**
+   * Stops any planning in progress.
+   */
+  public static void clear() {
+    GENERATION.incrementAndGet();
+  }
+
+  /**
+   * Reads the plan length from the specified properties.
+   *
+   * @param the_properties The properties.
+   * @return the plan length.
+   */
+  public static int length(final Properties the_properties) {
+    int result = DEFAULT_LENGTH;
+    if (the_properties != null) {
+      try {
+        result = Integer.parseInt(the_properties.getProperty(LENGTH_PROPERTY,
+                                                             String.valueOf(result)));
+      } catch (final NumberFormatException e) {
+        Main.LOGGER.error("invalid " + LENGTH_PROPERTY + ", using " + DEFAULT_LENGTH);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Plans the samples of all the counties that have successfully imported
+   * CVRs, each in its own transaction.
+   *
+   * @param the_seed The random seed.
+   * @param the_length The number of positions to plan.
+   * @param the_generation The planning generation.
+   */
+  private static void planAll(final String the_seed, final int the_length,
+                              final long the_generation) {
+    final List<Long> county_ids = new ArrayList<>();
+    try {
+      Persistence.beginTransaction();
+      for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
+        if (imported(cdb)) {
+          county_ids.add(cdb.id());
+        }
+      }
+      Persistence.commitTransaction();
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not find counties for sample planning: " + e);
+    } finally {
+      if (Persistence.isTransactionActive()) {
+        Persistence.rollbackTransaction();
+      }
+    }
+
+    final long start = System.currentTimeMillis();
+    for (final Long county_id : county_ids) {
+      if (GENERATION.get() != the_generation) {
+        Main.LOGGER.info("sample planning for seed " + the_seed + " stopped");
+        return;
+      }
+      try {
+        Persistence.beginTransaction();
+        plan(county_id, the_seed, the_length);
+        Persistence.commitTransaction();
+      } catch (final PersistenceException | IllegalStateException e) {
+        Main.LOGGER.error("could not plan sample for county " + county_id + ": " + e);
+      } finally {
+        if (Persistence.isTransactionActive()) {
+          Persistence.rollbackTransaction();
+        }
+      }
+    }
+    Main.LOGGER.info("planned samples of " + the_length + " for " + county_ids.size() +
+                     " counties in " + (System.currentTimeMillis() - start) + "ms");
+  }
+
+  /**
+   * Plans the sample of a county: generates and stores the first part of
+   * its audit sequence. A county whose CVRs are not (or are no longer)
+   * successfully imported is skipped, since its CVR count is not final.
+   *
+   * @param the_county_id The county ID.
+   * @param the_seed The random seed.
+   * @param the_length The number of positions to plan.
+   */
+  private static void plan(final Long the_county_id, final String the_seed,
+                           final int the_length) {
+    final CountyDashboard cdb = Persistence.getByID(the_county_id, CountyDashboard.class);
+    if (cdb == null || !imported(cdb)) {
+      Main.LOGGER.debug("CVRs of county " + the_county_id + 
+                        " not imported, skipping sample planning");
+      return;
+    }
+    final OptionalLong count = AuditSequenceCache.cvrCount(the_county_id);
+    if (!count.isPresent() || count.getAsLong() == 0) {
+      return;
+    }
+    AuditSequenceCache.positions(the_county_id, the_seed, 0, the_length - 1);
+  }
+
+  /**
+   * @param the_cdb A county dashboard.
+   * @return true if the county's CVRs have been successfully imported,
+   * false otherwise.
+   */
+  private static boolean imported(final CountyDashboard the_cdb) {
+    return the_cdb.cvrFile() != null && 
+           the_cdb.cvrImportStatus().importState() == ImportState.SUCCESSFUL;
+  }
+}
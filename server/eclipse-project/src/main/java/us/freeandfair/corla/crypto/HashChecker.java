@@ -37,6 +37,11 @@ public final class HashChecker {
    */
   public static final int BUFFER_SIZE = 8192;
   
+  /**
+   * The digest algorithm.
+   */
+  public static final String ALGORITHM = "SHA-256";
+  
   /**
    * Private constructor to prevent instantiation.
    */
@@ -64,7 +69,7 @@ public final class HashChecker {
     String result = null;
     try {
       final byte[] buffer = new byte[BUFFER_SIZE];
-      final MessageDigest md = MessageDigest.getInstance("SHA-256");
+      final MessageDigest md = MessageDigest.getInstance(ALGORITHM);
       final InputStream is = new FileInputStream(a_file);
       final DigestInputStream dis = new DigestInputStream(is, md);
       try {
@@ -72,8 +77,7 @@ public final class HashChecker {
         do {
           bytes = dis.read(buffer);
         } while (bytes != -1);
-        final BigInteger bi = new BigInteger(1, md.digest());
-        result = String.format("%0" + (md.digest().length << 1) + "X", bi);
+        result = hexDigest(md);
       } finally {
         dis.close();
       }
@@ -90,4 +94,18 @@ public final class HashChecker {
     
     return result;
   }
+  
+  /**
+   * Completes a digest computation and encodes the result.
+   * 
+   * @trace cryptography.sha256
+   * @param the_digest The digest, which has been updated with all the data
+   * to hash; it is reset by this method.
+   * @return the digest, encoded as an uppercase hexadecimal string.
+   */
+  public static String hexDigest(final MessageDigest the_digest) {
+    final byte[] digest = the_digest.digest();
+    final BigInteger bi = new BigInteger(1, digest);
+    return String.format("%0" + (digest.length << 1) + "X", bi);
+  }
 }
@@ -11,12 +11,16 @@
 
 package us.freeandfair.corla.crypto;
 
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import us.freeandfair.corla.util.IntList;
 
 /**
  * A pseudo-random number generator based on Philip Stark's pseudo-random number
@@ -24,11 +28,20 @@ import java.util.List;
  * <a href="https://www.stat.berkeley.edu/~stark/Java/Html/sha256Rand.htm">
  * https://www.stat.berkeley.edu/~stark/Java/Html/sha256Rand.htm</a>.
  * 
+ * <p>The i-th number drawn is the SHA-256 hash of the string "seed,i", read
+ * as an unsigned 256-bit integer, reduced modulo the size of the range. The
+ * hash input is built in place in a reusable buffer, the reduction is done
+ * 32 bits at a time in a long (giving exactly the result of BigInteger.mod),
+ * the numbers drawn are kept in an int array, and, when drawing without 
+ * replacement, the numbers already drawn are found in an open-addressing 
+ * hash set; so drawing a number allocates nothing.</p>
+ * 
  * @author Joey Dodds <jdodds@freeandfair.us>
  * @author Joseph R. Kiniry <kiniry@freeandfair.us>
  * @version 1.0.0
  * @review kiniry Why is this not just a static class?
  */
+@SuppressWarnings("PMD.TooManyFields")
 public class PseudoRandomNumberGenerator {
   /**
    * The minimum seed length specified in CRLS, and hence our formal specification,
@@ -37,15 +50,84 @@ public class PseudoRandomNumberGenerator {
    */
   public static final int MINIMUM_SEED_LENGTH = 20;
   
+  /**
+   * The length of a SHA-256 hash, in bytes.
+   */
+  private static final int HASH_LENGTH = 32;
+  
+  /**
+   * The maximum number of decimal digits in a count.
+   */
+  private static final int MAX_COUNT_DIGITS = 10;
+  
+  /**
+   * The radix of counts in hash inputs.
+   */
+  private static final int RADIX = 10;
+  
+  /**
+   * The number of bits reduced at a time.
+   */
+  private static final int WORD_BITS = 32;
+  
+  /**
+   * The mask for an unsigned byte.
+   */
+  private static final int BYTE_MASK = 0xFF;
+  
+  /**
+   * The mask for an unsigned int.
+   */
+  private static final long WORD_MASK = 0xFFFFFFFFL;
+  
+  /**
+   * The number of random numbers below which generateRange() generates them
+   * sequentially rather than splitting the work.
+   */
+  private static final int PARALLEL_THRESHOLD = 4096;
+  
+  /**
+   * The initial capacity of the list of random numbers.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+  
   /**
    * The message digest we will use for generating hashes.
    */
   private MessageDigest my_sha256_digest;
 
   /**
-   * The random numbers generated so far.
+   * The hash input buffer, which holds the seed and a comma followed by
+   * space for the count.
+   */
+  private final byte[] my_hash_input;
+  
+  /**
+   * The length of the seed and comma in the hash input buffer.
+   */
+  private final int my_prefix_length;
+  
+  /**
+   * The hash output buffer.
+   */
+  private final byte[] my_hash_output = new byte[HASH_LENGTH];
+  
+  /**
+   * The random numbers generated so far; only the first my_size are valid.
+   */
+  private int[] my_random_numbers = new int[INITIAL_CAPACITY];
+  
+  /**
+   * The number of random numbers generated so far.
+   */
+  private int my_size;
+  
+  /**
+   * The set of random numbers generated so far, used when generating 
+   * without replacement: an open-addressing hash table of (number - 
+   * my_minimum + 1), in which 0 marks an empty slot.
    */
-  private final List<Integer> my_random_numbers;
+  private int[] my_drawn = new int[INITIAL_CAPACITY];
 
   /**
    * The current number to use for generation.
@@ -79,6 +161,11 @@ public class PseudoRandomNumberGenerator {
   
   //@ private invariant my_minimum <= my_maximum;
 
+  /**
+   * The size of the range of values to generate.
+   */
+  private final long my_range;
+
   /**
    * The maximum index that can be generated without replacement.
    */
@@ -108,13 +195,16 @@ public class PseudoRandomNumberGenerator {
     } catch (final NoSuchAlgorithmException e) {
       assert false;
     }
-    my_random_numbers = new LinkedList<Integer>();
     my_with_replacement = the_with_replacement;
     my_seed = the_seed;
     assert the_minimum < the_maximum;
     my_minimum = the_minimum;
     my_maximum = the_maximum;
+    my_range = (long) my_maximum - my_minimum + 1;
     my_maximum_index = my_maximum - my_minimum + 1;
+    final byte[] prefix = (my_seed + ",").getBytes(StandardCharsets.UTF_8);
+    my_prefix_length = prefix.length;
+    my_hash_input = Arrays.copyOf(prefix, my_prefix_length + MAX_COUNT_DIGITS);
   }
 
   /**
@@ -131,11 +221,11 @@ public class PseudoRandomNumberGenerator {
   public List<Integer> getRandomNumbers(final int the_from, final int the_to) {
     assert the_from <= the_to;
     assert my_with_replacement || the_to <= my_maximum_index;
-    if (the_to + 1 > my_random_numbers.size()) {
+    if (the_to + 1 > my_size) {
       extendList(the_to + 1);
     }
-    // subList has an exclusive upper bound, but we have an inclusive one
-    return my_random_numbers.subList(the_from, the_to + 1);
+    // the list has an exclusive upper bound, but we have an inclusive one
+    return new IntList(my_random_numbers, the_from, the_to + 1);
   }
 
   /**
@@ -144,9 +234,13 @@ public class PseudoRandomNumberGenerator {
    */
   //@ private behavior
   //@   requires 0 <= the_length;
-  //@   ensures my_random_numbers.size() == the_length;
+  //@   ensures my_size == the_length;
   private void extendList(final int the_length) {
-    while (my_random_numbers.size() < the_length) {
+    if (my_random_numbers.length < the_length) {
+      my_random_numbers = 
+          Arrays.copyOf(my_random_numbers, Math.max(the_length, my_size * 2));
+    }
+    while (my_size < the_length) {
       generateNext();
     }
   }
@@ -160,21 +254,164 @@ public class PseudoRandomNumberGenerator {
     my_count++;
     assert my_with_replacement || my_count <= my_maximum_index;
 
-    final String hash_input = my_seed + "," + my_count;
-
-    final byte[] hash_output =
-        my_sha256_digest.digest(hash_input.getBytes(StandardCharsets.UTF_8));
-    final BigInteger int_output = new BigInteger(1, hash_output);
+    final int pick = pick(my_count);
 
-    final BigInteger in_range =
-        int_output.mod(BigInteger.valueOf(my_maximum - my_minimum + 1));
-    final int pick = my_minimum + in_range.intValueExact();
-
-    if (my_with_replacement || !my_random_numbers.contains(pick)) {
-      my_random_numbers.add(pick);
+    if (my_with_replacement || addDrawn(pick)) {
+      if (my_size == my_random_numbers.length) {
+        my_random_numbers = Arrays.copyOf(my_random_numbers, my_size * 2);
+      }
+      my_random_numbers[my_size] = pick;
+      my_size = my_size + 1;
     }
   }
   
+  /**
+   * Generates the random number at the specified index, without generating
+   * any of the numbers before it. This is only possible with replacement, 
+   * where the number at each index depends only on the seed and the index; 
+   * it allows a stored sequence to be extended without regenerating it.
+   * 
+   * @param the_index The index.
+   * @return the random number at the_index, which is the same number that
+   * getRandomNumbers(the_index, the_index) returns.
+   */
+  //@ requires my_with_replacement;
+  //@ requires 0 <= the_index;
+  public int generateAt(final int the_index) {
+    assert my_with_replacement;
+    // the number at index i is generated from count i + 1
+    return pick(the_index + 1);
+  }
+  
+  /**
+   * Generates the random numbers at a range of indices, without generating
+   * any of the numbers before them. Like generateAt(), this is only possible
+   * with replacement. Since each number depends only on the seed and its 
+   * index, large ranges are split into chunks that are generated in parallel 
+   * (each by its own generator) in the common fork-join pool; the result is
+   * the same as that of generating the numbers one at a time.
+   * 
+   * @param the_from The first index.
+   * @param the_to The last index.
+   * @return an array containing the_to - the_from + 1 random numbers, the
+   * first of which is the random number at the_from.
+   */
+  //@ requires my_with_replacement;
+  //@ requires 0 <= the_from && the_from <= the_to + 1;
+  public int[] generateRange(final int the_from, final int the_to) {
+    assert my_with_replacement;
+    final int[] result = new int[the_to - the_from + 1];
+    if (result.length < PARALLEL_THRESHOLD) {
+      generateInto(result, the_from, 0, result.length);
+    } else {
+      ForkJoinPool.commonPool().invoke(new RangeTask(result, the_from, 0, result.length));
+    }
+    return result;
+  }
+  
+  /**
+   * Generates random numbers into part of an array.
+   * 
+   * @param the_array The array.
+   * @param the_first_index The index of the random number for array 
+   * element 0.
+   * @param the_start The first array element to generate.
+   * @param the_end The array element after the last to generate.
+   */
+  private void generateInto(final int[] the_array, final int the_first_index,
+                            final int the_start, final int the_end) {
+    for (int i = the_start; i < the_end; i++) {
+      the_array[i] = generateAt(the_first_index + i);
+    }
+  }
+  
+  /**
+   * Computes the number picked for the specified count: the SHA-256 hash of
+   * "seed,count", as an unsigned integer, modulo the size of the range, 
+   * plus the minimum.
+   * 
+   * @param the_count The count.
+   * @return the number picked.
+   */
+  private int pick(final int the_count) {
+    // write the count's digits after the seed prefix
+    int digits = 1;
+    for (int c = the_count / RADIX; c > 0; c = c / RADIX) {
+      digits = digits + 1;
+    }
+    int c = the_count;
+    for (int i = my_prefix_length + digits - 1; i >= my_prefix_length; i--) {
+      my_hash_input[i] = (byte) ('0' + c % RADIX);
+      c = c / RADIX;
+    }
+    my_sha256_digest.update(my_hash_input, 0, my_prefix_length + digits);
+    try {
+      my_sha256_digest.digest(my_hash_output, 0, HASH_LENGTH);
+    } catch (final DigestException e) {
+      // this cannot happen, since the output buffer is large enough
+      throw new IllegalStateException(e);
+    }
+    
+    // reduce the 256-bit big-endian hash modulo the range, one 32-bit word 
+    // at a time; the remainder is always less than the range (at most 2^32), 
+    // so shifting it left 32 bits and adding the next word never overflows 
+    // an unsigned long
+    long remainder = 0;
+    for (int i = 0; i < HASH_LENGTH; i = i + Integer.BYTES) {
+      final long word = 
+          ((my_hash_output[i] & BYTE_MASK) << 24 | 
+           (my_hash_output[i + 1] & BYTE_MASK) << 16 |
+           (my_hash_output[i + 2] & BYTE_MASK) << 8 | 
+           my_hash_output[i + 3] & BYTE_MASK) & WORD_MASK;
+      remainder = Long.remainderUnsigned(remainder << WORD_BITS | word, my_range);
+    }
+    return (int) (my_minimum + remainder);
+  }
+  
+  /**
+   * Adds a number to the set of drawn numbers, if it is not already there.
+   * 
+   * @param the_pick The number.
+   * @return true if the number was added, false if it was already there.
+   */
+  private boolean addDrawn(final int the_pick) {
+    // leave at least half the table empty, so probe sequences stay short
+    if ((my_size + 1) * 2 > my_drawn.length) {
+      final int[] old = my_drawn;
+      my_drawn = new int[old.length * 2];
+      for (final int key : old) {
+        if (key != 0) {
+          my_drawn[slot(key)] = key;
+        }
+      }
+    }
+    final int key = the_pick - my_minimum + 1;
+    final int slot = slot(key);
+    if (my_drawn[slot] == key) {
+      return false;
+    }
+    my_drawn[slot] = key;
+    return true;
+  }
+  
+  /**
+   * Finds the slot in the set of drawn numbers that holds a key, or the
+   * empty slot where it belongs.
+   * 
+   * @param the_key The key.
+   * @return the slot.
+   */
+  private int slot(final int the_key) {
+    final int mask = my_drawn.length - 1;
+    // spread the bits of the key with a multiplicative hash
+    final int hash = the_key * 0x9E3779B9;
+    int result = (hash ^ hash >>> 16) & mask;
+    while (my_drawn[result] != 0 && my_drawn[result] != the_key) {
+      result = result + 1 & mask;
+    }
+    return result;
+  }
+  
   /**
    * Checks to see if the passed potential seed only contains digits.
    * @param the_seed is the seed to check.
@@ -191,4 +428,65 @@ public class PseudoRandomNumberGenerator {
     }
     return true;
   }
+  
+  /**
+   * A fork-join task that generates random numbers into part of an array,
+   * splitting the work in half until it is small enough to do sequentially.
+   */
+  @SuppressWarnings("serial")
+  private class RangeTask extends RecursiveAction {
+    /**
+     * The array.
+     */
+    private final int[] my_array;
+    
+    /**
+     * The index of the random number for array element 0.
+     */
+    private final int my_first_index;
+    
+    /**
+     * The first array element to generate.
+     */
+    private final int my_start;
+    
+    /**
+     * The array element after the last to generate.
+     */
+    private final int my_end;
+    
+    /**
+     * Constructs a new RangeTask.
+     * 
+     * @param the_array The array.
+     * @param the_first_index The index of the random number for array 
+     * element 0.
+     * @param the_start The first array element to generate.
+     * @param the_end The array element after the last to generate.
+     */
+    RangeTask(final int[] the_array, final int the_first_index,
+              final int the_start, final int the_end) {
+      super();
+      my_array = the_array;
+      my_first_index = the_first_index;
+      my_start = the_start;
+      my_end = the_end;
+    }
+    
+    /**
+     * Generates the random numbers.
+     */
+    @Override
+    protected void compute() {
+      if (my_end - my_start <= PARALLEL_THRESHOLD) {
+        // message digests are not thread-safe, so each chunk has a generator
+        new PseudoRandomNumberGenerator(my_seed, true, my_minimum, my_maximum)
+            .generateInto(my_array, my_first_index, my_start, my_end);
+      } else {
+        final int middle = (my_start + my_end) >>> 1;
+        invokeAll(new RangeTask(my_array, my_first_index, my_start, middle),
+                  new RangeTask(my_array, my_first_index, middle, my_end));
+      }
+    }
+  }
 }
@@ -0,0 +1,335 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte-level scanner for CSV files, which reads records in the format
+ * CSVFormat.DEFAULT reads them (comma separated, optionally double quoted,
+ * "\n", "\r" or "\r\n" terminated, with empty lines ignored) without
+ * decoding characters or allocating per field. Each record's field values
+ * are kept, unquoted, in a buffer that is reused for the next record, and
+ * can be examined byte by byte or decoded as UTF-8 strings.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+class CSVByteScanner {
+  /**
+   * The size of the input buffer.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The initial size of the field buffers.
+   */
+  private static final int INITIAL_FIELDS = 64;
+
+  /**
+   * The end of input marker.
+   */
+  private static final int EOF = -1;
+
+  /**
+   * The input stream.
+   */
+  private final InputStream my_stream;
+
+  /**
+   * The input buffer.
+   */
+  private final byte[] my_buffer = new byte[BUFFER_SIZE];
+
+  /**
+   * The position of the next byte in the input buffer.
+   */
+  private int my_position;
+
+  /**
+   * The number of bytes in the input buffer.
+   */
+  private int my_limit;
+
+  /**
+   * The unquoted field values of the current record, concatenated.
+   */
+  private byte[] my_values = new byte[BUFFER_SIZE];
+
+  /**
+   * The number of bytes of field values in the current record.
+   */
+  private int my_values_length;
+
+  /**
+   * The end offsets, in the field values, of the fields of the current record.
+   */
+  private int[] my_ends = new int[INITIAL_FIELDS];
+
+  /**
+   * The number of fields in the current record.
+   */
+  private int my_size;
+
+  /**
+   * The current line number (1-based).
+   */
+  private int my_line = 1;
+
+  /**
+   * The line number on which the current record starts.
+   */
+  private int my_record_line;
+
+  /**
+   * A description of the malformation that stopped the scan, or null.
+   */
+  private String my_malformation;
+
+  /**
+   * Constructs a new CSVByteScanner.
+   *
+   * @param the_stream The stream to scan.
+   */
+  CSVByteScanner(final InputStream the_stream) {
+    my_stream = the_stream;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return true if a record was read, false at the end of the input or if
+   * the input is malformed (in which case malformation() describes why).
+   * @exception IOException if the input cannot be read.
+   */
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.ModifiedCyclomaticComplexity",
+      "PMD.StdCyclomaticComplexity", "PMD.NPathComplexity"})
+  boolean next() throws IOException {
+    if (my_malformation != null) {
+      return false;
+    }
+    int b = read();
+    // skip empty lines
+    while (b == '\r' || b == '\n') {
+      b = endLine(b);
+    }
+    if (b == EOF) {
+      return false;
+    }
+    my_record_line = my_line;
+    my_values_length = 0;
+    my_size = 0;
+    boolean record_done = false;
+    while (!record_done) {
+      if (b == '"') {
+        b = quotedField();
+        // whitespace between a closing quote and a delimiter is ignored
+        while (b == ' ' || b == '\t') {
+          b = read();
+        }
+        if (b != ',' && b != '\r' && b != '\n' && b != EOF) {
+          my_malformation = "invalid character after quoted field";
+          return false;
+        }
+      } else {
+        while (b != ',' && b != '\r' && b != '\n' && b != EOF) {
+          append(b);
+          b = read();
+        }
+      }
+      endField();
+      if (b == ',') {
+        b = read();
+      } else {
+        if (b != EOF) {
+          unread(endLine(b));
+        }
+        record_done = true;
+      }
+    }
+    return my_malformation == null;
+  }
+
+  /**
+   * @return the number of fields in the current record.
+   */
+  int size() {
+    return my_size;
+  }
+
+  /**
+   * @return the line number on which the current record starts.
+   */
+  int line() {
+    return my_record_line;
+  }
+
+  /**
+   * @return a description of the malformation that stopped the scan, or
+   * null if there was none.
+   */
+  String malformation() {
+    return my_malformation;
+  }
+
+  /**
+   * @return the line number at which the scan stopped.
+   */
+  int currentLine() {
+    return my_line;
+  }
+
+  /**
+   * @param the_index The field index.
+   * @return the offset, in the field values, at which the field starts.
+   */
+  int start(final int the_index) {
+    int result = 0;
+    if (the_index > 0) {
+      result = my_ends[the_index - 1];
+    }
+    return result;
+  }
+
+  /**
+   * @param the_index The field index.
+   * @return the length of the field, in bytes.
+   */
+  int length(final int the_index) {
+    return my_ends[the_index] - start(the_index);
+  }
+
+  /**
+   * @param the_offset An offset in the field values.
+   * @return the byte at the offset.
+   */
+  byte byteAt(final int the_offset) {
+    return my_values[the_offset];
+  }
+
+  /**
+   * @param the_index The field index.
+   * @return the field, decoded as UTF-8.
+   */
+  String get(final int the_index) {
+    return new String(my_values, start(the_index), length(the_index),
+                      StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the rest of a quoted field, whose opening quote has been read.
+   *
+   * @return the byte after the closing quote, or EOF if there is none (in
+   * which case the malformation is recorded).
+   * @exception IOException if the input cannot be read.
+   */
+  private int quotedField() throws IOException {
+    int b = read();
+    boolean closed = false;
+    while (!closed && b != EOF) {
+      if (b == '"') {
+        b = read();
+        if (b == '"') {
+          // an escaped quote
+          append(b);
+          b = read();
+        } else {
+          closed = true;
+        }
+      } else {
+        append(b);
+        final int next = read();
+        if (b == '\n' || b == '\r' && next != '\n') {
+          // a line break within the field
+          my_line = my_line + 1;
+        }
+        b = next;
+      }
+    }
+    if (!closed) {
+      my_malformation = "end of file in quoted field";
+    }
+    return b;
+  }
+
+  /**
+   * Ends a line.
+   *
+   * @param the_terminator The line terminator just read.
+   * @return the first byte after the line terminator.
+   * @exception IOException if the input cannot be read.
+   */
+  private int endLine(final int the_terminator) throws IOException {
+    my_line = my_line + 1;
+    int b = read();
+    if (the_terminator == '\r' && b == '\n') {
+      b = read();
+    }
+    return b;
+  }
+
+  /**
+   * Ends the current field.
+   */
+  private void endField() {
+    if (my_size == my_ends.length) {
+      my_ends = Arrays.copyOf(my_ends, my_size * 2);
+    }
+    my_ends[my_size] = my_values_length;
+    my_size = my_size + 1;
+  }
+
+  /**
+   * Appends a byte to the current field.
+   *
+   * @param the_byte The byte.
+   */
+  private void append(final int the_byte) {
+    if (my_values_length == my_values.length) {
+      my_values = Arrays.copyOf(my_values, my_values_length * 2);
+    }
+    my_values[my_values_length] = (byte) the_byte;
+    my_values_length = my_values_length + 1;
+  }
+
+  /**
+   * Pushes back the byte most recently read, so that it is read again.
+   *
+   * @param the_byte The byte, or EOF (which is not pushed back).
+   */
+  private void unread(final int the_byte) {
+    if (the_byte != EOF) {
+      my_position = my_position - 1;
+    }
+  }
+
+  /**
+   * @return the next byte of input, or EOF.
+   * @exception IOException if the input cannot be read.
+   */
+  private int read() throws IOException {
+    if (my_position == my_limit) {
+      my_limit = my_stream.read(my_buffer, 0, BUFFER_SIZE);
+      my_position = 0;
+      if (my_limit <= 0) {
+        my_limit = 0;
+        return EOF;
+      }
+    }
+    final int result = my_buffer[my_position] & 0xFF;
+    my_position = my_position + 1;
+    return result;
+  }
+}
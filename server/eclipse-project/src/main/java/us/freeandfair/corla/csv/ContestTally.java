@@ -0,0 +1,216 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import us.freeandfair.corla.model.Choice;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.CountyContestResult;
+
+/**
+ * An import-time vote tally for the contests in a CVR export. Choices are
+ * identified by their dense indexes within their contests, and counts are
+ * kept in primitive arrays, so tallying a CVR involves no map lookups and
+ * no boxing; the tally is added to the county contest results once, when
+ * the import is complete.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+final class ContestTally {
+  /**
+   * Our Gson instance, which does not do pretty-printing (unlike the global
+   * one defined in Main).
+   */
+  private static final Gson GSON = new Gson();
+
+  /**
+   * The contests, in index order.
+   */
+  private final List<Contest> my_contests;
+
+  /**
+   * The vote counts, indexed by contest and then choice.
+   */
+  private final int[][] my_votes;
+
+  /**
+   * The number of ballots containing each contest.
+   */
+  private final int[] my_contest_ballots;
+
+  /**
+   * The number of ballots tallied.
+   */
+  private int my_county_ballots;
+
+  /**
+   * Constructs a new, empty, tally.
+   *
+   * @param the_contests The contests to tally, in index order.
+   */
+  ContestTally(final List<Contest> the_contests) {
+    my_contests = the_contests;
+    my_votes = new int[the_contests.size()][];
+    my_contest_ballots = new int[the_contests.size()];
+    for (int i = 0; i < my_votes.length; i++) {
+      my_votes[i] = new int[the_contests.get(i).choices().size()];
+    }
+  }
+
+  /**
+   * Tallies a vote.
+   *
+   * @param the_contest The contest index.
+   * @param the_choice The choice index within the contest.
+   */
+  void addVote(final int the_contest, final int the_choice) {
+    my_votes[the_contest][the_choice]++;
+  }
+
+  /**
+   * Tallies a ballot containing a contest.
+   *
+   * @param the_contest The contest index.
+   */
+  void addContestBallot(final int the_contest) {
+    my_contest_ballots[the_contest]++;
+  }
+
+  /**
+   * Tallies a ballot.
+   */
+  void addCountyBallot() {
+    my_county_ballots++;
+  }
+
+  /**
+   * Adds another tally, for the same contests, to this one.
+   *
+   * @param the_tally The other tally.
+   */
+  void add(final ContestTally the_tally) {
+    for (int i = 0; i < my_votes.length; i++) {
+      for (int j = 0; j < my_votes[i].length; j++) {
+        my_votes[i][j] += the_tally.my_votes[i][j];
+      }
+      my_contest_ballots[i] += the_tally.my_contest_ballots[i];
+    }
+    my_county_ballots += the_tally.my_county_ballots;
+  }
+
+  /**
+   * @return the number of ballots tallied.
+   */
+  int countyBallots() {
+    return my_county_ballots;
+  }
+
+  /**
+   * @return an encoding of the counts in this tally, for checkpointing.
+   */
+  String encode() {
+    return GSON.toJson(new Counts(my_votes, my_contest_ballots, my_county_ballots));
+  }
+
+  /**
+   * Replaces the counts in this tally with encoded counts.
+   *
+   * @param the_encoding The encoded counts.
+   * @return true if the counts were replaced, false if the encoding is 
+   * malformed or is for different contests (in which case this tally is 
+   * unchanged).
+   */
+  boolean restore(final String the_encoding) {
+    Counts counts;
+    try {
+      counts = GSON.fromJson(the_encoding, Counts.class);
+    } catch (final JsonParseException e) {
+      counts = null;
+    }
+    boolean result = counts != null && counts.my_votes != null &&
+                     counts.my_contest_ballots != null &&
+                     counts.my_votes.length == my_votes.length &&
+                     counts.my_contest_ballots.length == my_contest_ballots.length;
+    for (int i = 0; result && i < my_votes.length; i++) {
+      result = counts.my_votes[i] != null && counts.my_votes[i].length == my_votes[i].length;
+    }
+    if (result) {
+      for (int i = 0; i < my_votes.length; i++) {
+        System.arraycopy(counts.my_votes[i], 0, my_votes[i], 0, my_votes[i].length);
+      }
+      System.arraycopy(counts.my_contest_ballots, 0, my_contest_ballots, 0,
+                       my_contest_ballots.length);
+      my_county_ballots = counts.my_county_ballots;
+    }
+    return result;
+  }
+
+  /**
+   * Adds this tally to the specified county contest results.
+   *
+   * @param the_results The results, in the same order as the contests.
+   */
+  void addTo(final List<CountyContestResult> the_results) {
+    for (int i = 0; i < my_votes.length; i++) {
+      final List<Choice> choices = my_contests.get(i).choices();
+      final Map<String, Integer> votes = new HashMap<>();
+      for (int j = 0; j < my_votes[i].length; j++) {
+        // fictitious choices never receive votes and have no vote totals
+        if (!choices.get(j).fictitious()) {
+          votes.merge(choices.get(j).name(), my_votes[i][j], Integer::sum);
+        }
+      }
+      the_results.get(i).addTally(votes, my_contest_ballots[i], my_county_ballots);
+    }
+  }
+
+  /**
+   * The counts of a tally, in the form in which they are encoded.
+   */
+  private static class Counts {
+    /**
+     * The vote counts.
+     */
+    protected int[][] my_votes;
+
+    /**
+     * The contest ballot counts.
+     */
+    protected int[] my_contest_ballots;
+
+    /**
+     * The county ballot count.
+     */
+    protected int my_county_ballots;
+
+    /**
+     * Constructs a new Counts.
+     *
+     * @param the_votes The vote counts.
+     * @param the_contest_ballots The contest ballot counts.
+     * @param the_county_ballots The county ballot count.
+     */
+    Counts(final int[][] the_votes, final int[] the_contest_ballots,
+           final int the_county_ballots) {
+      my_votes = the_votes;
+      my_contest_ballots = the_contest_ballots;
+      my_county_ballots = the_county_ballots;
+    }
+  }
+}
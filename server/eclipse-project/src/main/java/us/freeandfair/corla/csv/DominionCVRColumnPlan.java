@@ -0,0 +1,244 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVRecord;
+
+import us.freeandfair.corla.model.CVRContestInfo;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.model.Choice;
+import us.freeandfair.corla.model.Contest;
+
+/**
+ * The compiled layout of the cast vote record rows of a Dominion CVR export:
+ * the column offsets of the fixed fields and, for each contest, the range of
+ * columns holding its choices. A column plan is built once, after the header
+ * lines have been read, and is immutable, so it can extract CVRs from
+ * several threads at once.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+final class DominionCVRColumnPlan {
+  /**
+   * The prefix of a '="..."' column.
+   */
+  private static final String EQUAL_QUOTE = "=\"";
+
+  /**
+   * The county ID.
+   */
+  private final Long my_county_id;
+
+  /**
+   * The CVR number column.
+   */
+  private final int my_cvr_number_column;
+
+  /**
+   * The tabulator number column.
+   */
+  private final int my_tabulator_number_column;
+
+  /**
+   * The batch ID column.
+   */
+  private final int my_batch_id_column;
+
+  /**
+   * The record ID column.
+   */
+  private final int my_record_id_column;
+
+  /**
+   * The imprinted ID column.
+   */
+  private final int my_imprinted_id_column;
+
+  /**
+   * The ballot type column.
+   */
+  private final int my_ballot_type_column;
+
+  /**
+   * The contests, in column order.
+   */
+  private final Contest[] my_contests;
+
+  /**
+   * The first choice column of each contest.
+   */
+  private final int[] my_first_columns;
+
+  /**
+   * The choice names of each contest, in column order; fictitious choices
+   * (which can never receive votes) have null names.
+   */
+  private final String[][] my_choice_names;
+
+  /**
+   * The number of columns a CVR line must have.
+   */
+  private final int my_column_count;
+
+  /**
+   * Constructs a new column plan.
+   *
+   * @param the_county_id The ID of the county whose CVRs are extracted.
+   * @param the_columns The map from fixed column names to column numbers.
+   * @param the_first_contest_column The first contest column.
+   * @param the_contests The contests, in column order.
+   * @param the_names The names of the fixed columns, in the order CVR number,
+   * tabulator number, batch ID, record ID, imprinted ID, ballot type.
+   */
+  DominionCVRColumnPlan(final Long the_county_id, final Map<String, Integer> the_columns,
+                        final int the_first_contest_column,
+                        final List<Contest> the_contests, final String... the_names) {
+    my_county_id = the_county_id;
+    my_cvr_number_column = the_columns.get(the_names[0]);
+    my_tabulator_number_column = the_columns.get(the_names[1]);
+    my_batch_id_column = the_columns.get(the_names[2]);
+    my_record_id_column = the_columns.get(the_names[3]);
+    my_imprinted_id_column = the_columns.get(the_names[4]);
+    my_ballot_type_column = the_columns.get(the_names[5]);
+    my_contests = the_contests.toArray(new Contest[the_contests.size()]);
+    my_first_columns = new int[my_contests.length];
+    my_choice_names = new String[my_contests.length][];
+    int column = the_first_contest_column;
+    for (int i = 0; i < my_contests.length; i++) {
+      final List<Choice> choices = my_contests[i].choices();
+      my_first_columns[i] = column;
+      my_choice_names[i] = new String[choices.size()];
+      for (int j = 0; j < choices.size(); j++) {
+        if (!choices.get(j).fictitious()) {
+          my_choice_names[i][j] = choices.get(j).name();
+        }
+      }
+      column = column + choices.size();
+    }
+    my_column_count = column;
+  }
+
+  /**
+   * @return a new, empty, tally for the contests in this plan.
+   */
+  ContestTally newTally() {
+    return new ContestTally(Arrays.asList(my_contests));
+  }
+
+  /**
+   * Strip the '="..."' from a column, without using regular expressions.
+   *
+   * @param the_value The value to strip.
+   * @return the stripped value, as a String, or the original String if it
+   * does not have the '="..."' form.
+   */
+  static String stripEqualQuotes(final String the_value) {
+    String result = the_value;
+    final int length = the_value.length();
+    if (the_value.startsWith(EQUAL_QUOTE) && the_value.endsWith("\"")) {
+      if (length > EQUAL_QUOTE.length()) {
+        result = the_value.substring(EQUAL_QUOTE.length(), length - 1);
+      } else {
+        // the value is exactly '="', so only the trailing quote is stripped
+        result = the_value.substring(0, length - 1);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Extract a CVR from a line of the file, and add its votes to a tally. The
+   * tally is only modified if the CVR is extracted successfully.
+   *
+   * @param the_line The line representing the CVR.
+   * @param the_sequence_number The sequence number of the CVR.
+   * @param the_tally The tally.
+   * @return the resulting CVR.
+   * @exception NumberFormatException if a numeric column is malformed.
+   * @exception ArrayIndexOutOfBoundsException if the line is too short.
+   */
+  CastVoteRecord extract(final CSVRecord the_line, final int the_sequence_number,
+                         final ContestTally the_tally) {
+    if (the_line.size() < my_column_count) {
+      throw new ArrayIndexOutOfBoundsException(my_column_count - 1);
+    }
+    final int cvr_id =
+        Integer.parseInt(stripEqualQuotes(the_line.get(my_cvr_number_column)));
+    final int tabulator_id =
+        Integer.parseInt(stripEqualQuotes(the_line.get(my_tabulator_number_column)));
+    final String batch_id = stripEqualQuotes(the_line.get(my_batch_id_column));
+    final int record_id =
+        Integer.parseInt(stripEqualQuotes(the_line.get(my_record_id_column)));
+    final String imprinted_id = stripEqualQuotes(the_line.get(my_imprinted_id_column));
+    final String ballot_type = stripEqualQuotes(the_line.get(my_ballot_type_column));
+    final List<CVRContestInfo> contest_info = new ArrayList<>(my_contests.length);
+
+    // for each contest, see if choices exist on the CVR; "0" or "1" are
+    // votes or absences of votes; "" means that the contest is not in this style
+    for (int i = 0; i < my_contests.length; i++) {
+      final String[] names = my_choice_names[i];
+      final int first = my_first_columns[i];
+      boolean present = false;
+      List<String> votes = Collections.emptyList();
+      for (int j = 0; j < names.length; j++) {
+        final String mark_string = the_line.get(first + j);
+        final int length = mark_string.length();
+        present |= length > 0;
+        if (names[j] != null && length == 1 && mark_string.charAt(0) == '1') {
+          votes = addVote(votes, names[j]);
+          the_tally.addVote(i, j);
+        }
+      }
+      // if this contest was on the ballot, add it to the votes
+      if (present) {
+        contest_info.add(new CVRContestInfo(my_contests[i], null, null, votes));
+        the_tally.addContestBallot(i);
+      }
+    }
+    the_tally.addCountyBallot();
+
+    return new CastVoteRecord(RecordType.UPLOADED, null, my_county_id,
+                              cvr_id, the_sequence_number, tabulator_id,
+                              batch_id, record_id, imprinted_id,
+                              ballot_type, contest_info);
+  }
+
+  /**
+   * Adds a vote to a list of votes, allocating as little as possible: most
+   * contests have no votes or a single vote on a given ballot.
+   *
+   * @param the_votes The votes so far.
+   * @param the_vote The vote to add.
+   * @return the list of votes with the new vote added.
+   */
+  private static List<String> addVote(final List<String> the_votes, final String the_vote) {
+    final List<String> result;
+    if (the_votes.isEmpty()) {
+      result = Collections.singletonList(the_vote);
+    } else if (the_votes.size() == 1) {
+      result = new ArrayList<>(the_votes);
+      result.add(the_vote);
+    } else {
+      result = the_votes;
+      result.add(the_vote);
+    }
+    return result;
+  }
+}
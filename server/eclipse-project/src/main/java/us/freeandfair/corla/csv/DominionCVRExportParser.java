@@ -34,15 +34,16 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 import us.freeandfair.corla.Main;
-import us.freeandfair.corla.model.CVRContestInfo;
+import us.freeandfair.corla.model.CVRImportCheckpoint;
 import us.freeandfair.corla.model.CastVoteRecord;
-import us.freeandfair.corla.model.CastVoteRecord.RecordType;
 import us.freeandfair.corla.model.Choice;
 import us.freeandfair.corla.model.Contest;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyContestResult;
 import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.CVRBulkLoader;
 import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.ContestQueries;
 import us.freeandfair.corla.query.CountyContestResultQueries;
 import us.freeandfair.corla.util.ExponentialBackoffHelper;
 
@@ -65,6 +66,22 @@ public class DominionCVRExportParser implements CVRExportParser {
    */
   public static final String BATCH_SIZE_PROPERTY = "cvr_import_batch_size";
 
+  /**
+   * The name of the import mode property.
+   */
+  public static final String IMPORT_MODE_PROPERTY = "cvr_import_mode";
+
+  /**
+   * The import mode value that selects PostgreSQL COPY bulk loading; any
+   * other value selects the default Hibernate import.
+   */
+  public static final String COPY_IMPORT_MODE = "copy";
+
+  /**
+   * The name of the parse threads property.
+   */
+  public static final String PARSE_THREADS_PROPERTY = "cvr_import_parse_threads";
+
   /**
    * The number of times to retry a county dashboard update operation.
    */
@@ -80,6 +97,11 @@ public class DominionCVRExportParser implements CVRExportParser {
    */
   private static final int PROGRESS_INTERVAL = 500;
 
+  /**
+   * The number of milliseconds in a second.
+   */
+  private static final long MSEC_PER_SEC = 1000;
+
   /**
    * The default size of a batch of CVRs to be flushed to the database.
    */
@@ -90,15 +112,21 @@ public class DominionCVRExportParser implements CVRExportParser {
    */
   private static final int DEFAULT_TRANSACTION_SIZE = 400;
 
+  /**
+   * The default number of threads used to build CVRs; 1 means that CVRs are
+   * built on the parsing thread, without a pipeline.
+   */
+  private static final int DEFAULT_PARSE_THREADS = 1;
+
   /**
    * The column containing the CVR number in a Dominion export file.
    */
-  private static final String CVR_NUMBER_HEADER = "CvrNumber";
+  static final String CVR_NUMBER_HEADER = "CvrNumber";
 
   /**
    * The column containing the tabulator number in a Dominion export file.
    */
-  private static final String TABULATOR_NUMBER_HEADER = "TabulatorNum";
+  static final String TABULATOR_NUMBER_HEADER = "TabulatorNum";
 
   /**
    * The column containing the batch ID in a Dominion export file.
@@ -108,7 +136,7 @@ public class DominionCVRExportParser implements CVRExportParser {
   /**
    * The column containing the record ID in a Dominion export file.
    */
-  private static final String RECORD_ID_HEADER = "RecordId";
+  static final String RECORD_ID_HEADER = "RecordId";
 
   /**
    * The column containing the imprinted ID in a Dominion export file.
@@ -134,12 +162,12 @@ public class DominionCVRExportParser implements CVRExportParser {
   /**
    * The prohibited headers.
    */
-  private static final String[] PROHIBITED_HEADERS = {COUNTING_GROUP_HEADER};
+  static final String[] PROHIBITED_HEADERS = {COUNTING_GROUP_HEADER};
 
   /**
-   * The required headers.
+   * The required headers, in the order expected by DominionCVRColumnPlan.
    */
-  private static final String[] REQUIRED_HEADERS = {
+  static final String[] REQUIRED_HEADERS = {
       CVR_NUMBER_HEADER, TABULATOR_NUMBER_HEADER, BATCH_ID_HEADER,
       RECORD_ID_HEADER, IMPRINTED_ID_HEADER, BALLOT_TYPE_HEADER
       };
@@ -186,6 +214,17 @@ public class DominionCVRExportParser implements CVRExportParser {
   private final List<CountyContestResult> my_results =
       new ArrayList<CountyContestResult>();
 
+  /**
+   * The column plan used to extract CVRs, built once the contests are known.
+   */
+  private DominionCVRColumnPlan my_column_plan;
+
+  /**
+   * The vote tally for the parsed CVRs, which is added to the contest
+   * results when parsing is complete.
+   */
+  private ContestTally my_tally;
+
   /**
    * The county whose CVRs we are parsing.
    */
@@ -217,6 +256,44 @@ public class DominionCVRExportParser implements CVRExportParser {
    */
   private final boolean my_multi_transaction;
 
+  /**
+   * The bulk loader used to write CVRs, or null if CVRs are written
+   * through Hibernate.
+   */
+  private final CVRBulkLoader my_bulk_loader;
+
+  /**
+   * The number of threads used to build CVRs.
+   */
+  private final int my_parse_threads;
+
+  /**
+   * The import checkpoint, or null if the import is not checkpointed.
+   */
+  private CVRImportCheckpoint my_checkpoint;
+
+  /**
+   * The number of CVRs covered by the last committed checkpoint.
+   */
+  private int my_checkpointed_count;
+
+  /**
+   * The number of CVRs that were skipped because a previous import
+   * committed them.
+   */
+  private int my_first_record;
+
+  /**
+   * The character position of the last parsed CVR.
+   */
+  private long my_last_position;
+
+  /**
+   * A flag indicating whether all the CVRs and results have been parsed,
+   * so that the next commit completes the import.
+   */
+  private boolean my_complete;
+
   /**
    * Construct a new Dominion CVR export parser using the specified Reader,
    * for CVRs provided by the specified county.
@@ -242,6 +319,13 @@ public class DominionCVRExportParser implements CVRExportParser {
                                   DEFAULT_BATCH_SIZE);
     my_transaction_size = parseProperty(the_properties, TRANSACTION_SIZE_PROPERTY,
                                         DEFAULT_TRANSACTION_SIZE);
+    my_parse_threads = parseProperty(the_properties, PARSE_THREADS_PROPERTY,
+                                     DEFAULT_PARSE_THREADS);
+    if (COPY_IMPORT_MODE.equals(the_properties.getProperty(IMPORT_MODE_PROPERTY))) {
+      my_bulk_loader = new CVRBulkLoader();
+    } else {
+      my_bulk_loader = null;
+    }
   }
 
   /**
@@ -259,6 +343,33 @@ public class DominionCVRExportParser implements CVRExportParser {
     my_multi_transaction = false;
     my_batch_size = DEFAULT_BATCH_SIZE;
     my_transaction_size = DEFAULT_TRANSACTION_SIZE;
+    my_parse_threads = DEFAULT_PARSE_THREADS;
+    my_bulk_loader = null;
+  }
+
+  /**
+   * Checkpoints this parser's import: at each commit, the checkpoint is
+   * updated to describe the committed CVRs and saved in the same transaction;
+   * when the import is complete, it is deleted. If the checkpoint already 
+   * covers some CVRs of the file, the parse resumes after them, provided the 
+   * contests in the file match the contests previously imported. Checkpoints
+   * are only used in multi-transaction mode.
+   *
+   * @param the_checkpoint The checkpoint.
+   */
+  public synchronized void checkpointTo(final CVRImportCheckpoint the_checkpoint) {
+    if (my_multi_transaction) {
+      my_checkpoint = the_checkpoint;
+      my_checkpointed_count = the_checkpoint.recordCount();
+    }
+  }
+
+  /**
+   * @return the number of CVRs covered by the last committed checkpoint; 
+   * these CVRs are in the database even if the parse fails.
+   */
+  public synchronized int checkpointedRecordCount() {
+    return my_checkpointed_count;
   }
 
   /**
@@ -284,21 +395,6 @@ public class DominionCVRExportParser implements CVRExportParser {
     return result;
   }
 
-  /**
-   * Strip the '="..."' from a column.
-   *
-   * @param the_value The value to strip.
-   * @return the stripped value, as a String, or the original String if it
-   * does not have the '="..."' form.
-   */
-  private String stripEqualQuotes(final String the_value) {
-    String result = the_value;
-    if (the_value.startsWith("=\"") && the_value.endsWith("\"")) {
-      result = the_value.substring(0, the_value.length() - 1).replaceFirst("=\"", "");
-    }
-    return result;
-  }
-
   /**
    * Updates the contest names, max selections, and choice counts structures.
    *
@@ -345,12 +441,14 @@ public class DominionCVRExportParser implements CVRExportParser {
    * @param the_contest_names The list of contest names.
    * @param the_votes_allowed The table of votes allowed values.
    * @param the_choice_counts The table of contest choice counts.
+   * @return true if the contests were added, false if the import resumes
+   * and the contests do not match the previously imported ones.
    */
-  private void addContests(final CSVRecord the_choice_line,
-                           final CSVRecord the_expl_line,
-                           final List<String> the_contest_names,
-                           final Map<String, Integer> the_votes_allowed,
-                           final Map<String, Integer> the_choice_counts) {
+  private boolean addContests(final CSVRecord the_choice_line,
+                              final CSVRecord the_expl_line,
+                              final List<String> the_contest_names,
+                              final Map<String, Integer> the_votes_allowed,
+                              final Map<String, Integer> the_choice_counts) {
     int index = my_first_contest_column;
     int contest_count = 0;
     for (final String cn : the_contest_names) {
@@ -381,11 +479,105 @@ public class DominionCVRExportParser implements CVRExportParser {
                                     the_votes_allowed.get(cn), the_votes_allowed.get(cn),
                                     contest_count);
       contest_count = contest_count + 1;
-      Persistence.saveOrUpdate(c);
-      final CountyContestResult r =
-          CountyContestResultQueries.matching(my_county, c);
       my_contests.add(c);
-      my_results.add(r);
+    }
+    // a resumed import must use the contests it previously imported
+    final boolean result = !resuming() || resumeContests();
+    if (result) {
+      for (final Contest c : my_contests) {
+        if (c.id() == null) {
+          Persistence.saveOrUpdate(c);
+        }
+        my_results.add(CountyContestResultQueries.matching(my_county, c));
+      }
+      my_column_plan =
+          new DominionCVRColumnPlan(my_county.id(), my_columns, my_first_contest_column,
+                                    my_contests, REQUIRED_HEADERS);
+      my_tally = my_column_plan.newTally();
+    }
+    return result;
+  }
+
+  /**
+   * @return true if this parse resumes a checkpointed import, false otherwise.
+   */
+  private boolean resuming() {
+    return my_checkpoint != null && my_checkpoint.recordCount() > 0;
+  }
+
+  /**
+   * Replaces the parsed contests with the equivalent contests imported 
+   * before the checkpoint.
+   *
+   * @return true if every parsed contest has an equivalent imported contest,
+   * false otherwise.
+   */
+  private boolean resumeContests() {
+    final Set<Contest> imported = ContestQueries.forCounty(my_county);
+    boolean result = imported != null && imported.size() == my_contests.size();
+    for (int i = 0; result && i < my_contests.size(); i++) {
+      result = false;
+      for (final Contest c : imported) {
+        // the imported contest is the receiver, so that its persistent
+        // choice list is compared element by element
+        if (c.equals(my_contests.get(i))) {
+          my_contests.set(i, c);
+          result = true;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Skips the CVRs committed before the checkpoint, checking that the file
+   * is still positioned where it was when the checkpoint was taken, and 
+   * restores the vote tally of those CVRs.
+   *
+   * @param the_records The records.
+   * @return true if the parse can resume, false otherwise.
+   */
+  private boolean resumeRecords(final Iterator<CSVRecord> the_records) {
+    final int count = my_checkpoint.recordCount();
+    CSVRecord last = null;
+    for (int i = 0; i < count && the_records.hasNext(); i++) {
+      last = the_records.next();
+    }
+    final boolean result = 
+        last != null && last.getCharacterPosition() == my_checkpoint.characterOffset() &&
+        my_tally.restore(my_checkpoint.tally()) && my_tally.countyBallots() == count;
+    if (result) {
+      my_record_count = count;
+      my_first_record = count;
+      my_last_position = last.getCharacterPosition();
+      Main.LOGGER.info("resuming CVR import for county " + my_county.id() + 
+                       " after " + count + " committed CVRs");
+    }
+    return result;
+  }
+
+  /**
+   * Updates the import checkpoint, if there is one, to describe the CVRs 
+   * about to be committed; if the import is complete, the checkpoint is
+   * deleted instead.
+   *
+   * @exception IllegalStateException if the vote tally does not cover exactly
+   * the parsed CVRs.
+   */
+  private void checkpoint() {
+    if (my_checkpoint == null) {
+      return;
+    }
+    if (my_complete) {
+      if (my_checkpoint.version() != null) {
+        Persistence.delete(my_checkpoint);
+      }
+    } else if (my_tally.countyBallots() == my_record_count) {
+      my_checkpoint.update(my_record_count, my_last_position, my_tally.encode());
+      Persistence.saveOrUpdate(my_checkpoint);
+    } else {
+      throw new IllegalStateException("vote tally does not match parsed CVRs");
     }
   }
 
@@ -398,7 +590,9 @@ public class DominionCVRExportParser implements CVRExportParser {
       commitCVRsAndUpdateCountyDashboard();
     }
 
-    if (my_record_count % my_batch_size == 0) {
+    if (my_record_count % my_batch_size == 0 && my_bulk_loader != null) {
+      my_bulk_loader.flush();
+    } else if (my_record_count % my_batch_size == 0) {
       Persistence.flush();
       for (final CastVoteRecord cvr : my_parsed_cvrs) {
         Persistence.evict(cvr);
@@ -412,8 +606,19 @@ public class DominionCVRExportParser implements CVRExportParser {
    * accordingly.
    */
   private void commitCVRsAndUpdateCountyDashboard() {
-    // commit all the CVR records and contest tracking data
+    // write any CVRs still buffered for bulk loading
+    if (my_bulk_loader != null) {
+      my_bulk_loader.flush();
+    }
+    // commit all the CVR records and contest tracking data, along with the
+    // checkpoint that describes them
+    checkpoint();
     Persistence.commitTransaction();
+    if (my_checkpoint != null && my_complete) {
+      my_checkpointed_count = 0;
+    } else if (my_checkpoint != null) {
+      my_checkpointed_count = my_checkpoint.recordCount();
+    }
 
     boolean success = false;
     int retries = 0;
@@ -468,71 +673,57 @@ public class DominionCVRExportParser implements CVRExportParser {
   }
 
   /**
-   * Extract a CVR from a line of the file.
+   * Extract a CVR from a line of the file, persist it, and add it to the
+   * vote tally.
    *
    * @param the_line The line representing the CVR.
    * @return the resulting CVR.
    */
-  @SuppressWarnings("PMD.CyclomaticComplexity")
   private CastVoteRecord extractCVR(final CSVRecord the_line) {
-    try {
-      final int cvr_id =
-              Integer.parseInt(
-                      stripEqualQuotes(the_line.get(my_columns.get(CVR_NUMBER_HEADER))));
-      final int tabulator_id =
-              Integer.parseInt(
-                      stripEqualQuotes(
-                              the_line.get(my_columns.get(TABULATOR_NUMBER_HEADER))));
-      final String batch_id =
-              stripEqualQuotes(the_line.get(my_columns.get(BATCH_ID_HEADER)));
-      final int record_id =
-              Integer.parseInt(
-                      stripEqualQuotes(the_line.get(my_columns.get(RECORD_ID_HEADER))));
-      final String imprinted_id =
-              stripEqualQuotes(the_line.get(my_columns.get(IMPRINTED_ID_HEADER)));
-      final String ballot_type =
-              stripEqualQuotes(the_line.get(my_columns.get(BALLOT_TYPE_HEADER)));
-      final List<CVRContestInfo> contest_info = new ArrayList<CVRContestInfo>();
-
-      // for each contest, see if choices exist on the CVR; "0" or "1" are
-      // votes or absences of votes; "" means that the contest is not in this style
-      int index = my_first_contest_column;
-      for (final Contest co : my_contests) {
-        boolean present = false;
-        final List<String> votes = new ArrayList<String>();
-        for (final Choice ch : co.choices()) {
-          final String mark_string = the_line.get(index);
-          final boolean p = !mark_string.isEmpty();
-          final boolean mark = "1".equals(mark_string);
-          present |= p;
-          if (!ch.fictitious() && p && mark) {
-            votes.add(ch.name());
-          }
-          index = index + 1;
-        }
-        // if this contest was on the ballot, add it to the votes
-        if (present) {
-          contest_info.add(new CVRContestInfo(co, null, null, votes));
-        }
-      }
+    final CastVoteRecord new_cvr = buildCVR(the_line, my_record_count, my_tally);
+    if (new_cvr != null) {
+      persistCVR(new_cvr);
+    }
+    return new_cvr;
+  }
+
+  /**
+   * Persists a CVR, either through Hibernate or through the bulk loader.
+   *
+   * @param the_cvr The CVR.
+   */
+  private void persistCVR(final CastVoteRecord the_cvr) {
+    if (my_bulk_loader == null) {
+      Persistence.saveOrUpdate(the_cvr);
+      my_parsed_cvrs.add(the_cvr);
+    } else {
+      my_bulk_loader.add(the_cvr);
+    }
+  }
 
+  /**
+   * Build a CVR from a line of the file and add its votes to a tally. This
+   * method neither persists the CVR nor modifies any other state of the
+   * parser, so it may be called concurrently (with separate tallies) once
+   * the contests have been added.
+   *
+   * @param the_line The line representing the CVR.
+   * @param the_sequence_number The sequence number of the CVR.
+   * @param the_tally The tally to add the CVR's votes to.
+   * @return the resulting CVR, or null if the line is malformed.
+   */
+  private CastVoteRecord buildCVR(final CSVRecord the_line, final int the_sequence_number,
+                                  final ContestTally the_tally) {
+    try {
       // we don't need to look for an existing CVR with this data because,
       // by definition, there cannot be one unless the same line appears
       // twice in the CVR export file... and if it does, we need it to
       // appear twice here too.
       final CastVoteRecord new_cvr =
-          new CastVoteRecord(RecordType.UPLOADED, null, my_county.id(),
-                             cvr_id, my_record_count, tabulator_id,
-                             batch_id, record_id, imprinted_id,
-                             ballot_type, contest_info);
-      Persistence.saveOrUpdate(new_cvr);
-      my_parsed_cvrs.add(new_cvr);
-
-      // add the CVR to all of our results
-      for (final CountyContestResult r : my_results) {
-        r.addCVR(new_cvr);
+          my_column_plan.extract(the_line, the_sequence_number, the_tally);
+      if (Main.LOGGER.isDebugEnabled()) {
+        Main.LOGGER.debug("parsed CVR: " + new_cvr);
       }
-      Main.LOGGER.debug("parsed CVR: " + new_cvr);
       return new_cvr;
     } catch (final NumberFormatException e) {
       return null;
@@ -635,6 +826,142 @@ public class DominionCVRExportParser implements CVRExportParser {
     return sb.toString();
   }
 
+  /**
+   * Parses the cast vote records on the current thread.
+   *
+   * @param the_records The records.
+   * @return true if all the records were parsed, false otherwise; this method
+   * also sets the error message if necessary.
+   */
+  private boolean parseCVRs(final Iterator<CSVRecord> the_records) {
+    boolean result = true;
+    while (the_records.hasNext()) {
+      final CSVRecord cvr_line = the_records.next();
+      final CastVoteRecord cvr = extractCVR(cvr_line);
+      if (cvr == null) {
+        malformedRecord(cvr_line);
+        result = false;
+        break;
+      } else {
+        countParsedCVR();
+        my_last_position = cvr_line.getCharacterPosition();
+      }
+      checkForFlush();
+    }
+    return result;
+  }
+
+  /**
+   * Parses the cast vote records in a pipeline: CVRs and partial vote
+   * tallies are built concurrently on several threads, and are persisted
+   * and added to the vote tally on the current thread in file order,
+   * so that sequence numbers, flushes and commits happen exactly as they
+   * do when parsing on a single thread. Batches evenly divide both flushes
+   * and transactions, so every commit falls at the end of a batch, where
+   * the vote tally covers exactly the committed CVRs.
+   *
+   * @param the_records The records.
+   * @return true if all the records were parsed, false otherwise; this method
+   * also sets the error message if necessary.
+   */
+  private boolean parseCVRsInPipeline(final Iterator<CSVRecord> the_records) {
+    final RecordPipeline<ParsedBatch> pipeline =
+        new RecordPipeline<>(my_parse_threads, gcd(my_batch_size, my_transaction_size));
+    return pipeline.run(the_records, this::buildBatch, this::persistBatch);
+  }
+
+  /**
+   * Computes a greatest common divisor.
+   *
+   * @param the_first The first number.
+   * @param the_second The second number.
+   * @return the greatest common divisor of the numbers.
+   */
+  private static int gcd(final int the_first, final int the_second) {
+    int a = the_first;
+    int b = the_second;
+    while (b != 0) {
+      final int t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /**
+   * Builds the CVRs, and the partial vote tally, for a batch of records.
+   *
+   * @param the_records The records.
+   * @param the_first_index The index of the first record among all the
+   * cast vote records in the file.
+   * @return the parsed batch.
+   */
+  private ParsedBatch buildBatch(final List<CSVRecord> the_records,
+                                 final int the_first_index) {
+    final ParsedBatch result = new ParsedBatch(my_column_plan.newTally());
+    for (int i = 0; i < the_records.size(); i++) {
+      final CastVoteRecord cvr =
+          buildCVR(the_records.get(i), my_first_record + the_first_index + i,
+                   result.my_tally);
+      if (cvr == null) {
+        result.my_malformed_record = the_records.get(i);
+        break;
+      }
+      result.my_cvrs.add(cvr);
+      result.my_last_position = the_records.get(i).getCharacterPosition();
+    }
+    return result;
+  }
+
+  /**
+   * Persists a parsed batch and adds its partial vote tally to the vote
+   * tally.
+   *
+   * @param the_batch The batch.
+   * @return true if the batch was well-formed, false otherwise; this method
+   * also sets the error message if necessary.
+   */
+  private boolean persistBatch(final ParsedBatch the_batch) {
+    final List<CastVoteRecord> cvrs = the_batch.my_cvrs;
+    for (int i = 0; i < cvrs.size(); i++) {
+      persistCVR(cvrs.get(i));
+      countParsedCVR();
+      if (i == cvrs.size() - 1) {
+        // the batch's votes are tallied with its last CVR, so that a 
+        // checkpoint taken at the following flush is consistent
+        my_tally.add(the_batch.my_tally);
+        my_last_position = the_batch.my_last_position;
+      }
+      checkForFlush();
+    }
+    if (the_batch.my_malformed_record != null) {
+      malformedRecord(the_batch.my_malformed_record);
+    }
+    return the_batch.my_malformed_record == null;
+  }
+
+  /**
+   * Counts a successfully parsed CVR, logging progress if necessary.
+   */
+  private void countParsedCVR() {
+    my_record_count = my_record_count + 1;
+    if (my_record_count % PROGRESS_INTERVAL == 0) {
+      Main.LOGGER.info("parsed " + my_record_count +
+                       " CVRs for county " + my_county.id());
+    }
+  }
+
+  /**
+   * Records a malformed CVR record.
+   *
+   * @param the_line The malformed record.
+   */
+  private void malformedRecord(final CSVRecord the_line) {
+    // we don't record the CVR since it didn't parse
+    Main.LOGGER.error("Could not parse malformed CVR record (" + the_line + ")");
+    my_error_message = "malformed CVR record (" + the_line + ")";
+  }
+
   /**
    * Parse the supplied data export. If it has already been parsed, this
    * method returns immediately.
@@ -650,10 +977,12 @@ public class DominionCVRExportParser implements CVRExportParser {
 
     Main.LOGGER.info("parsing CVR export for county " + my_county.id() +
                      ", batch_size=" + my_batch_size +
-                     ", transaction_size=" + my_transaction_size);
+                     ", transaction_size=" + my_transaction_size +
+                     ", mode=" + importMode());
 
     boolean result = true; // presume the parse will succeed
     final Iterator<CSVRecord> records = my_parser.iterator();
+    final long start_time = System.currentTimeMillis();
 
     my_record_count = 0;
 
@@ -688,30 +1017,26 @@ public class DominionCVRExportParser implements CVRExportParser {
       final CSVRecord choice_line = records.next();
       final CSVRecord expl_line = records.next();
 
-      if (processHeaders(expl_line)) {
-        addContests(choice_line, expl_line, contest_names,
-                    contest_votes_allowed, contest_choice_counts);
-
+      if (!processHeaders(expl_line)) {
+        // error message was set when validating columns
+        result = false;
+      } else if (!addContests(choice_line, expl_line, contest_names,
+                              contest_votes_allowed, contest_choice_counts) ||
+                 resuming() && !resumeRecords(records)) {
+        Main.LOGGER.error("CVR file for county " + my_county.id() + 
+                          " does not match its import checkpoint");
+        my_error_message = "CVR file does not match the interrupted import";
+        result = false;
+      } else {
         // subsequent lines contain cast vote records
-        while (records.hasNext()) {
-          final CSVRecord cvr_line = records.next();
-          final CastVoteRecord cvr = extractCVR(cvr_line);
-          if (cvr == null) {
-            // we don't record the CVR since it didn't parse
-            Main.LOGGER.error("Could not parse malformed CVR record (" + cvr_line + ")");
-            my_error_message = "malformed CVR record (" + cvr_line + ")";
-            result = false;
-            break;
-          } else {
-            my_record_count = my_record_count + 1;
-            if (my_record_count % PROGRESS_INTERVAL == 0) {
-              Main.LOGGER.info("parsed " + my_record_count +
-                               " CVRs for county " + my_county.id());
-            }
-          }
-          checkForFlush();
+        if (my_parse_threads > 1) {
+          result = parseCVRsInPipeline(records);
+        } else {
+          result = parseCVRs(records);
         }
 
+        // the vote tally is added to the results only once, here
+        my_tally.addTo(my_results);
         for (final CountyContestResult r : my_results) {
           r.updateResults();
           Persistence.saveOrUpdate(r);
@@ -719,10 +1044,9 @@ public class DominionCVRExportParser implements CVRExportParser {
 
         // commit any uncommitted records
 
+        my_complete = result;
         commitCVRsAndUpdateCountyDashboard();
-      } else {
-        // error message was set when validating columns
-        result = false;
+        logThroughput(System.currentTimeMillis() - start_time);
       }
     } catch (final NoSuchElementException | StringIndexOutOfBoundsException |
                    ArrayIndexOutOfBoundsException e) {
@@ -739,6 +1063,33 @@ public class DominionCVRExportParser implements CVRExportParser {
     return result;
   }
 
+  /**
+   * @return a description of the import mode, for logging.
+   */
+  private String importMode() {
+    final String result;
+    if (my_bulk_loader == null) {
+      result = "hibernate";
+    } else {
+      result = COPY_IMPORT_MODE;
+    }
+    return result;
+  }
+
+  /**
+   * Logs the throughput of a completed import, so that the import modes
+   * can be compared.
+   *
+   * @param the_elapsed_msec The elapsed time of the import, in milliseconds.
+   */
+  private void logThroughput(final long the_elapsed_msec) {
+    final long rate = 
+        (my_record_count - my_first_record) * MSEC_PER_SEC / Math.max(1L, the_elapsed_msec);
+    Main.LOGGER.info("imported " + my_record_count + " CVRs for county " +
+                     my_county.id() + " in " + the_elapsed_msec + "ms (" + rate +
+                     " CVRs/sec, mode=" + importMode() + ")");
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -758,4 +1109,38 @@ public class DominionCVRExportParser implements CVRExportParser {
   public synchronized String errorMessage() {
     return my_error_message;
   }
+
+  /**
+   * The result of building the CVRs for a batch of records.
+   */
+  private static class ParsedBatch {
+    /**
+     * The CVRs built from the batch, in file order.
+     */
+    private final List<CastVoteRecord> my_cvrs = new ArrayList<>();
+
+    /**
+     * The partial vote tally for the batch.
+     */
+    private final ContestTally my_tally;
+
+    /**
+     * The character position of the last CVR built from the batch.
+     */
+    private long my_last_position;
+
+    /**
+     * The first malformed record in the batch, if any.
+     */
+    private CSVRecord my_malformed_record;
+
+    /**
+     * Constructs a new, empty, parsed batch.
+     *
+     * @param the_tally The (empty) partial vote tally for the batch.
+     */
+    ParsedBatch(final ContestTally the_tally) {
+      my_tally = the_tally;
+    }
+  }
 }
@@ -0,0 +1,414 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A read-only validator for Dominion CVR export files. It checks, in a
+ * single byte-level pass over the file and without any database access,
+ * the conditions under which DominionCVRExportParser would reject the file
+ * part way through an import: the structure of the header lines, the
+ * required and prohibited column headings, the width of each cast vote
+ * record row, the integer columns, and the vote marks. Every error found is
+ * counted, and the first MAX_REPORTED_ERRORS are reported with the line
+ * numbers on which they occur.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class DominionCVRExportValidator {
+  /**
+   * The maximum number of errors reported.
+   */
+  public static final int MAX_REPORTED_ERRORS = 100;
+
+  /**
+   * The string that introduces the number of votes allowed in a contest.
+   */
+  private static final String VOTE_FOR = "(Vote For=";
+
+  /**
+   * The radix of integer columns.
+   */
+  private static final int RADIX = 10;
+
+  /**
+   * The largest magnitude of an int.
+   */
+  private static final long MAX_MAGNITUDE = (long) Integer.MAX_VALUE + 1;
+
+  /**
+   * The scanner.
+   */
+  private final CSVByteScanner my_scanner;
+
+  /**
+   * The reported errors.
+   */
+  private final List<ValidationError> my_errors = new ArrayList<>();
+
+  /**
+   * The integer columns, by heading.
+   */
+  private final Map<String, Integer> my_integer_columns = new HashMap<>();
+
+  /**
+   * The number of errors found.
+   */
+  private int my_error_count;
+
+  /**
+   * The number of cast vote record rows.
+   */
+  private int my_record_count;
+
+  /**
+   * The number of columns in the file.
+   */
+  private int my_width;
+
+  /**
+   * The first contest column.
+   */
+  private int my_first_contest_column;
+
+  /**
+   * A flag indicating whether validate() has been run.
+   */
+  private boolean my_validated;
+
+  /**
+   * Constructs a new DominionCVRExportValidator.
+   *
+   * @param the_stream The stream containing the CVR export.
+   */
+  public DominionCVRExportValidator(final InputStream the_stream) {
+    my_scanner = new CSVByteScanner(the_stream);
+  }
+
+  /**
+   * Validates the CVR export. If it has already been validated, this method
+   * returns immediately.
+   *
+   * @return true if the CVR export is valid, false otherwise.
+   * @exception IOException if the CVR export cannot be read.
+   */
+  public synchronized boolean validate() throws IOException {
+    if (!my_validated) {
+      my_validated = true;
+      if (validateHeaders()) {
+        validateRecords();
+      }
+      if (my_scanner.malformation() != null) {
+        error(my_scanner.currentLine(), () -> "malformed CSV: " + my_scanner.malformation());
+      }
+    }
+    return my_error_count == 0;
+  }
+
+  /**
+   * @return the number of cast vote record rows read.
+   */
+  public synchronized int recordCount() {
+    return my_record_count;
+  }
+
+  /**
+   * @return the number of errors found.
+   */
+  public synchronized int errorCount() {
+    return my_error_count;
+  }
+
+  /**
+   * @return the reported errors, in file order; there are at most
+   * MAX_REPORTED_ERRORS of these.
+   */
+  public synchronized List<ValidationError> errors() {
+    return Collections.unmodifiableList(my_errors);
+  }
+
+  /**
+   * Summarizes the errors found.
+   *
+   * @param the_max_errors The maximum number of errors to describe.
+   * @return the summary.
+   */
+  public synchronized String summary(final int the_max_errors) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(my_error_count);
+    sb.append(" error");
+    if (my_error_count != 1) {
+      sb.append('s');
+    }
+    for (int i = 0; i < Math.min(the_max_errors, my_errors.size()); i++) {
+      if (i == 0) {
+        sb.append(": ");
+      } else {
+        sb.append("; ");
+      }
+      sb.append(my_errors.get(i));
+    }
+    if (my_error_count > the_max_errors) {
+      sb.append("; ...");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Validates the four header lines: the election name, the contest names,
+   * the choice names, and the column headings.
+   *
+   * @return true if the headers are valid, false otherwise.
+   * @exception IOException if the CVR export cannot be read.
+   */
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.ModifiedCyclomaticComplexity",
+      "PMD.StdCyclomaticComplexity", "PMD.NPathComplexity"})
+  private boolean validateHeaders() throws IOException {
+    if (!nextHeader("election name") || !nextHeader("contest names")) {
+      return false;
+    }
+    my_width = my_scanner.size();
+    while (my_first_contest_column < my_width &&
+           my_scanner.length(my_first_contest_column) == 0) {
+      my_first_contest_column = my_first_contest_column + 1;
+    }
+    if (my_first_contest_column == my_width) {
+      error(my_scanner.line(), () -> "no contest names");
+      return false;
+    }
+    String previous = null;
+    for (int i = my_first_contest_column; i < my_width; i++) {
+      final String name = my_scanner.get(i);
+      if (!name.equals(previous) && !name.contains(VOTE_FOR)) {
+        final int column = i + 1;
+        error(my_scanner.line(), () -> "contest name \"" + name + "\" in column " + column +
+                                       " has no \"" + VOTE_FOR + "\"");
+      }
+      previous = name;
+    }
+
+    if (!nextHeader("choice names")) {
+      return false;
+    }
+    checkWidth("choice names line");
+
+    if (!nextHeader("column headings")) {
+      return false;
+    }
+    checkWidth("column headings line");
+    final Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < Math.min(my_first_contest_column, my_scanner.size()); i++) {
+      columns.put(my_scanner.get(i), i);
+    }
+    for (final String h : DominionCVRExportParser.PROHIBITED_HEADERS) {
+      if (columns.containsKey(h)) {
+        error(my_scanner.line(), () -> "prohibited header " + h + " present");
+      }
+    }
+    for (final String h : DominionCVRExportParser.REQUIRED_HEADERS) {
+      if (!columns.containsKey(h)) {
+        error(my_scanner.line(), () -> "required header " + h + " missing");
+      }
+    }
+    for (final String h : new String[] {DominionCVRExportParser.CVR_NUMBER_HEADER,
+                                        DominionCVRExportParser.TABULATOR_NUMBER_HEADER,
+                                        DominionCVRExportParser.RECORD_ID_HEADER}) {
+      if (columns.containsKey(h)) {
+        my_integer_columns.put(h, columns.get(h));
+      }
+    }
+    return my_error_count == 0;
+  }
+
+  /**
+   * Validates the cast vote record rows.
+   *
+   * @exception IOException if the CVR export cannot be read.
+   */
+  private void validateRecords() throws IOException {
+    while (my_scanner.next()) {
+      my_record_count = my_record_count + 1;
+      if (checkWidth("row")) {
+        for (final Map.Entry<String, Integer> e : my_integer_columns.entrySet()) {
+          if (!isInteger(e.getValue())) {
+            error(my_scanner.line(), () -> e.getKey() + " \"" +
+                                           my_scanner.get(e.getValue()) +
+                                           "\" is not an integer");
+          }
+        }
+        for (int i = my_first_contest_column; i < my_width; i++) {
+          if (!isMark(i)) {
+            final int column = i;
+            error(my_scanner.line(), () -> "invalid vote mark \"" + my_scanner.get(column) +
+                                           "\" in column " + (column + 1));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the next header line.
+   *
+   * @param the_description A description of the header line.
+   * @return true if the header line was read, false otherwise.
+   * @exception IOException if the CVR export cannot be read.
+   */
+  private boolean nextHeader(final String the_description) throws IOException {
+    final boolean result = my_scanner.next();
+    if (!result && my_scanner.malformation() == null) {
+      error(my_scanner.currentLine(), () -> "missing " + the_description + " line");
+    }
+    return result;
+  }
+
+  /**
+   * Checks that the current line is at least as wide as the contest names line.
+   *
+   * @param the_description A description of the line.
+   * @return true if the line is wide enough, false otherwise.
+   */
+  private boolean checkWidth(final String the_description) {
+    final boolean result = my_scanner.size() >= my_width;
+    if (!result) {
+      error(my_scanner.line(), () -> the_description + " has " + my_scanner.size() +
+                                     " columns, expected " + my_width);
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether a column of the current line is a valid vote mark: empty
+   * (the contest is not on the ballot), "0" or "1".
+   *
+   * @param the_index The column index.
+   * @return true if the column is a valid vote mark, false otherwise.
+   */
+  private boolean isMark(final int the_index) {
+    final int length = my_scanner.length(the_index);
+    if (length == 0) {
+      return true;
+    }
+    final byte b = my_scanner.byteAt(my_scanner.start(the_index));
+    return length == 1 && (b == '0' || b == '1');
+  }
+
+  /**
+   * Checks whether a column of the current line, with any '="..."' quoting
+   * removed, is an integer that Integer.parseInt() accepts.
+   *
+   * @param the_index The column index.
+   * @return true if the column is an integer, false otherwise.
+   */
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.ModifiedCyclomaticComplexity",
+      "PMD.StdCyclomaticComplexity", "PMD.NPathComplexity"})
+  private boolean isInteger(final int the_index) {
+    int start = my_scanner.start(the_index);
+    int end = start + my_scanner.length(the_index);
+    if (end - start > 2 && my_scanner.byteAt(start) == '=' &&
+        my_scanner.byteAt(start + 1) == '"' && my_scanner.byteAt(end - 1) == '"') {
+      start = start + 2;
+      end = end - 1;
+    }
+    boolean negative = false;
+    if (start < end && (my_scanner.byteAt(start) == '-' || my_scanner.byteAt(start) == '+')) {
+      negative = my_scanner.byteAt(start) == '-';
+      start = start + 1;
+    }
+    if (start == end) {
+      return false;
+    }
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      final byte b = my_scanner.byteAt(i);
+      if (b < '0' || '9' < b) {
+        return false;
+      }
+      value = value * RADIX + b - '0';
+      if (value > MAX_MAGNITUDE) {
+        return false;
+      }
+    }
+    return value < MAX_MAGNITUDE || negative;
+  }
+
+  /**
+   * Records an error; only the first MAX_REPORTED_ERRORS are reported, and
+   * messages are only built for those.
+   *
+   * @param the_line The line number.
+   * @param the_message The error message.
+   */
+  private void error(final int the_line, final Supplier<String> the_message) {
+    my_error_count = my_error_count + 1;
+    if (my_errors.size() < MAX_REPORTED_ERRORS) {
+      my_errors.add(new ValidationError(the_line, the_message.get()));
+    }
+  }
+
+  /**
+   * An error found in a CVR export.
+   */
+  public static class ValidationError {
+    /**
+     * The line number.
+     */
+    private final int my_line;
+
+    /**
+     * The error message.
+     */
+    private final String my_message;
+
+    /**
+     * Constructs a new ValidationError.
+     *
+     * @param the_line The line number.
+     * @param the_message The error message.
+     */
+    public ValidationError(final int the_line, final String the_message) {
+      my_line = the_line;
+      my_message = the_message;
+    }
+
+    /**
+     * @return the line number.
+     */
+    public int line() {
+      return my_line;
+    }
+
+    /**
+     * @return the error message.
+     */
+    public String message() {
+      return my_message;
+    }
+
+    /**
+     * @return a String representation of this error.
+     */
+    @Override
+    public String toString() {
+      return "line " + my_line + ": " + my_message;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * A three-stage pipeline for processing the records of a CSV file: a single
+ * reader thread splits the records into batches, a pool of worker threads
+ * processes the batches concurrently, and the calling thread consumes the
+ * processed batches strictly in file order. The stages are connected by a
+ * bounded queue, so the reader never gets more than a few batches ahead of
+ * the consumer.
+ *
+ * @param <R> The type of a processed batch.
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class RecordPipeline<R> {
+  /**
+   * The number of batches that may be queued per worker thread.
+   */
+  private static final int BATCHES_PER_WORKER = 2;
+
+  /**
+   * The maximum time to wait for the reader thread to stop, in seconds.
+   */
+  private static final long READER_STOP_SECONDS = 10;
+
+  /**
+   * The number of worker threads.
+   */
+  private final int my_worker_count;
+
+  /**
+   * The number of records in a batch.
+   */
+  private final int my_batch_size;
+
+  /**
+   * Constructs a new pipeline.
+   *
+   * @param the_worker_count The number of worker threads.
+   * @param the_batch_size The number of records in a batch.
+   */
+  RecordPipeline(final int the_worker_count, final int the_batch_size) {
+    my_worker_count = Math.max(1, the_worker_count);
+    my_batch_size = Math.max(1, the_batch_size);
+  }
+
+  /**
+   * Runs the pipeline over the specified records. This method returns when
+   * all records have been consumed, or when the consumer asks to stop, and
+   * the reader thread has stopped using the records.
+   *
+   * @param the_records The records to process.
+   * @param the_worker The worker that processes a batch; it is called
+   * concurrently from several threads.
+   * @param the_consumer The consumer of processed batches; it is called
+   * only on the calling thread, in file order.
+   * @return true if all the records were consumed, false if the consumer
+   * asked to stop.
+   * @exception IllegalStateException if reading or processing the records
+   * fails, the cause being the original exception, or if the reader thread
+   * does not stop.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public boolean run(final Iterator<CSVRecord> the_records,
+                     final Worker<R> the_worker,
+                     final Consumer<R> the_consumer) {
+    final ExecutorService workers = Executors.newFixedThreadPool(my_worker_count);
+    final BlockingQueue<Future<R>> queue =
+        new ArrayBlockingQueue<>(my_worker_count * BATCHES_PER_WORKER);
+    // a reader failure is both queued, for the consumer, and recorded, in
+    // case the consumer stops before it gets to it
+    final AtomicReference<Throwable> reader_failure = new AtomicReference<>();
+    final AtomicBoolean stopping = new AtomicBoolean();
+    // the end of the records is signalled by a future with a null result
+    final Thread reader = new Thread(() -> {
+      int index = 0;
+      try {
+        while (the_records.hasNext() && !Thread.currentThread().isInterrupted()) {
+          final List<CSVRecord> batch = new ArrayList<>(my_batch_size);
+          while (batch.size() < my_batch_size && the_records.hasNext()) {
+            batch.add(the_records.next());
+          }
+          final int first_index = index;
+          queue.put(workers.submit(() -> the_worker.process(batch, first_index)));
+          index = index + batch.size();
+        }
+        queue.put(CompletableFuture.completedFuture(null));
+      } catch (final InterruptedException e) {
+        // the consumer has stopped, so there is nobody to tell
+      } catch (final RuntimeException | Error e) {
+        if (!stopping.get()) {
+          // a failure after the consumer stopped is caused by the stop
+          reader_failure.set(e);
+        }
+        final CompletableFuture<R> failure = new CompletableFuture<>();
+        failure.completeExceptionally(e);
+        try {
+          queue.put(failure);
+        } catch (final InterruptedException ex) {
+          // the consumer has stopped, so there is nobody to tell
+        }
+      }
+    }, "record-pipeline-reader");
+
+    boolean result = true;
+    reader.start();
+    try {
+      R batch = queue.take().get();
+      while (batch != null) {
+        if (!the_consumer.consume(batch)) {
+          result = false;
+          break;
+        }
+        batch = queue.take().get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("record pipeline interrupted", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("record pipeline failed", e.getCause());
+    } finally {
+      stopping.set(true);
+      reader.interrupt();
+      workers.shutdownNow();
+      awaitStop(reader);
+    }
+    if (reader.isAlive()) {
+      throw new IllegalStateException("record pipeline reader did not stop");
+    }
+    if (reader_failure.get() != null) {
+      throw new IllegalStateException("record pipeline failed", reader_failure.get());
+    }
+    return result;
+  }
+
+  /**
+   * Waits, for a bounded time, for the reader thread to stop; the records
+   * must not be used after run() returns.
+   *
+   * @param the_reader The reader thread.
+   */
+  private void awaitStop(final Thread the_reader) {
+    try {
+      the_reader.join(TimeUnit.SECONDS.toMillis(READER_STOP_SECONDS));
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The interface for processing a batch of records.
+   *
+   * @param <R> The type of a processed batch.
+   */
+  @FunctionalInterface
+  interface Worker<R> {
+    /**
+     * Processes a batch of records.
+     *
+     * @param the_records The records.
+     * @param the_first_index The index, within the whole pipeline input, of
+     * the first record in the batch.
+     * @return the processed batch, which must not be null.
+     */
+    R process(List<CSVRecord> the_records, int the_first_index);
+  }
+
+  /**
+   * The interface for consuming processed batches.
+   *
+   * @param <R> The type of a processed batch.
+   */
+  @FunctionalInterface
+  interface Consumer<R> {
+    /**
+     * Consumes a processed batch.
+     *
+     * @param the_batch The batch.
+     * @return true to continue consuming batches, false to stop.
+     */
+    boolean consume(R the_batch);
+  }
+}
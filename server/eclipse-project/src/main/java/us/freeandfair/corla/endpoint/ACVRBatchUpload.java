@@ -0,0 +1,229 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import static us.freeandfair.corla.asm.ASMEvent.AuditBoardDashboardEvent.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.PersistenceException;
+
+import com.google.gson.JsonParseException;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.asm.ASMEvent;
+import us.freeandfair.corla.controller.ComparisonAuditController;
+import us.freeandfair.corla.json.AuditCVRSubmissionResult;
+import us.freeandfair.corla.json.SubmittedAuditCVR;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * The "audit CVR batch upload" endpoint, which submits a list of audit CVRs
+ * in a single transaction. Each audit CVR is checked and recorded as it 
+ * would be by the "audit CVR upload" endpoint, but the audited prefix and the
+ * estimated samples to audit are updated only once, after the whole batch.
+ * The response lists, in submission order, whether each audit CVR was 
+ * accepted; rejected audit CVRs do not prevent the others from being 
+ * recorded.
+ * 
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.CyclomaticComplexity"})
+public class ACVRBatchUpload extends AbstractAuditBoardDashboardEndpoint {
+  /**
+   * The event we will return for the ASM.
+   */
+  private final ThreadLocal<ASMEvent> my_event = new ThreadLocal<ASMEvent>();
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.POST;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/upload-audit-cvrs";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected ASMEvent endpointEvent() {
+    return my_event.get();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void reset() {
+    my_event.set(null);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointBody(final Request the_request, final Response the_response) {
+    try {
+      final SubmittedAuditCVR[] submissions =
+          Main.GSON.fromJson(the_request.body(), SubmittedAuditCVR[].class);
+      if (submissions == null || submissions.length == 0) {
+        Main.LOGGER.error("empty audit CVR batch upload");
+        badDataContents(the_response, "empty audit CVR batch upload");
+      } else {
+        final CountyDashboard cdb = 
+            Persistence.getByID(Main.authentication().authenticatedCounty(the_request).id(),
+                                CountyDashboard.class);
+        if (cdb == null) {
+          Main.LOGGER.error("could not get audit board dashboard");
+          serverError(the_response, "Could not save ACVRs to dashboard");
+        } else {
+          final List<AuditCVRSubmissionResult> results = submitAll(cdb, submissions);
+          boolean recorded = false;
+          for (final AuditCVRSubmissionResult result : results) {
+            recorded = recorded || result.accepted();
+          }
+          if (recorded) {
+            ComparisonAuditController.updateAuditProgress(cdb);
+            Persistence.saveOrUpdate(cdb);
+          }
+          Main.LOGGER.info(results.size() + " audit CVRs uploaded for county " + 
+                           cdb.id());
+          okJSON(the_response, Main.GSON.toJson(results));
+          if (cdb.ballotsRemainingInCurrentRound() == 0) {
+            // the round is over
+            my_event.set(ROUND_COMPLETE_EVENT);
+          } else {
+            my_event.set(REPORT_MARKINGS_EVENT);
+          }
+        }
+      }
+    } catch (final JsonParseException e) {
+      Main.LOGGER.error("malformed audit CVR batch upload");
+      badDataContents(the_response, "malformed audit CVR batch upload");
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not save audit CVRs");
+      serverError(the_response, "Unable to save audit CVRs");
+    }
+    return my_endpoint_result.get();
+  }
+  
+  /**
+   * Records the audit CVRs of a batch, without updating the audit progress.
+   * 
+   * @param the_cdb The county dashboard.
+   * @param the_submissions The submitted audit CVRs.
+   * @return the results, in submission order.
+   * @exception PersistenceException if an audit CVR cannot be recorded.
+   */
+  List<AuditCVRSubmissionResult> submitAll(final CountyDashboard the_cdb,
+                                           final SubmittedAuditCVR... the_submissions) {
+    final List<AuditCVRSubmissionResult> result = new ArrayList<>();
+    for (final SubmittedAuditCVR submission : the_submissions) {
+      final String rejection = submit(the_cdb, submission);
+      final Long cvr_id;
+      if (submission == null) {
+        cvr_id = null;
+      } else {
+        cvr_id = submission.cvrID();
+      }
+      result.add(new AuditCVRSubmissionResult(cvr_id, rejection == null,
+                                              rejection == null ? 
+                                              "ACVR submitted" : rejection));
+    }
+    return result;
+  }
+  
+  /**
+   * Loads a CVR under audit.
+   * 
+   * @param the_cvr_id The CVR ID.
+   * @return the CVR, or null if there is none with that ID.
+   */
+  CastVoteRecord cvrUnderAudit(final Long the_cvr_id) {
+    return Persistence.getByID(the_cvr_id, CastVoteRecord.class);
+  }
+  
+  /**
+   * Records an audit CVR, which is saved if it is recorded.
+   * 
+   * @param the_cdb The county dashboard.
+   * @param the_cvr_under_audit The CVR under audit.
+   * @param the_audit_cvr The audit CVR.
+   * @return true if the audit CVR was recorded, false otherwise.
+   */
+  boolean record(final CountyDashboard the_cdb, final CastVoteRecord the_cvr_under_audit,
+                 final CastVoteRecord the_audit_cvr) {
+    return ComparisonAuditController.recordAuditCVR(the_cdb, the_cvr_under_audit, 
+                                                    the_audit_cvr);
+  }
+  
+  /**
+   * Records one audit CVR of a batch.
+   * 
+   * @param the_cdb The county dashboard.
+   * @param the_submission The submitted audit CVR.
+   * @return null if the audit CVR was recorded, or the reason it was rejected.
+   * @exception PersistenceException if the audit CVR cannot be recorded.
+   */
+  private String submit(final CountyDashboard the_cdb, 
+                        final SubmittedAuditCVR the_submission) {
+    String result = null;
+    CastVoteRecord cvr = null;
+    if (the_submission == null || the_submission.auditCVR() == null || 
+        the_submission.cvrID() == null) {
+      result = "empty audit CVR upload";
+    } else if (the_cdb.ballotsRemainingInCurrentRound() <= 0) {
+      result = "ballot submission with no remaining ballots in round";
+    } else {
+      cvr = cvrUnderAudit(the_submission.cvrID());
+      if (cvr == null) {
+        result = "could not find original CVR";
+      }
+    }
+    if (result == null) {
+      final CastVoteRecord acvr = the_submission.auditCVR();
+      final CastVoteRecord real_acvr = 
+          new CastVoteRecord(RecordType.AUDITOR_ENTERED, Instant.now(), 
+                             acvr.countyID(), acvr.cvrNumber(), null, acvr.scannerID(), 
+                             acvr.batchID(), acvr.recordID(), acvr.imprintedID(), 
+                             acvr.ballotType(), acvr.contestInfo());
+      if (record(the_cdb, cvr, real_acvr)) {
+        Main.LOGGER.info("Audit CVR for CVR id " + the_submission.cvrID() + 
+                         " parsed and stored as id " + real_acvr.id());
+      } else {
+        result = "invalid audit CVR uploaded";
+      }
+    }
+    if (result != null) {
+      Main.LOGGER.error(result + " in batch for county " + the_cdb.id());
+    }
+    return result;
+  }
+}
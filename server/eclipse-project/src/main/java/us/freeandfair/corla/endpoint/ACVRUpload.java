@@ -103,17 +103,16 @@ public class ACVRUpload extends AbstractAuditBoardDashboardEndpoint {
                                  acvr.countyID(), acvr.cvrNumber(), null, acvr.scannerID(), 
                                  acvr.batchID(), acvr.recordID(), acvr.imprintedID(), 
                                  acvr.ballotType(), acvr.contestInfo());
-          Persistence.saveOrUpdate(real_acvr);
-          Main.LOGGER.info("Audit CVR for CVR id " + submission.cvrID() + 
-                           " parsed and stored as id " + real_acvr.id());
-
           final CastVoteRecord cvr = Persistence.getByID(submission.cvrID(), 
                                                          CastVoteRecord.class);
           if (cvr == null) {
             Main.LOGGER.error("could not find original CVR");
             this.badDataContents(the_response, "could not find original CVR");
           } else {
+            // the audit CVR is saved by the controller, if it is recorded
             if (ComparisonAuditController.submitAuditCVR(cdb, cvr, real_acvr)) {
+              Main.LOGGER.info("Audit CVR for CVR id " + submission.cvrID() + 
+                               " parsed and stored as id " + real_acvr.id());
               Persistence.saveOrUpdate(cdb);
               ok(the_response, "ACVR submitted");
             } else {
@@ -36,6 +36,7 @@ import us.freeandfair.corla.asm.AbstractStateMachine;
 import us.freeandfair.corla.auth.AuthenticationInterface;
 import us.freeandfair.corla.json.Result;
 import us.freeandfair.corla.model.Administrator;
+import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.LogEntry;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.LogEntryQueries;
@@ -136,6 +137,32 @@ public abstract class AbstractEndpoint implements Endpoint {
   protected ASMEvent endpointEvent() {
     return null;
   }
+
+  /**
+   * Does a successful request to this endpoint change what the dashboards
+   * show? By default, every endpoint except a GET endpoint does.
+   * 
+   * @return true if it does, false otherwise.
+   */
+  protected boolean changesDashboards() {
+    return endpointType() != EndpointType.GET;
+  }
+
+  /**
+   * Computes an entity tag for the response this endpoint would send to a
+   * GET request, without building the response. The tag must change
+   * whenever the response would change; if it matches the request's
+   * If-None-Match header, the endpoint responds with "304 Not Modified"
+   * instead of building the response. By default, the endpoint has no
+   * entity tag.
+   * 
+   * @param the_request The request.
+   * @return the entity tag, or null if there is none.
+   */
+  // this method is not empty!
+  protected String entityTag(final Request the_request) {
+    return null;
+  }
   
   /**
    * The endpoint method. Delegates immediately to the child class
@@ -205,6 +232,19 @@ public abstract class AbstractEndpoint implements Endpoint {
     my_endpoint_result.set("");
   }
   
+  /**
+   * Indicate and log that the client's copy of the response is current, so
+   * no response body is sent.
+   * 
+   * @param the_response the HTTP response.
+   */
+  public void notModified(final Response the_response) {
+    my_log_entries.get().add(new LogEntry(HttpStatus.NOT_MODIFIED_304, endpointName(), 
+                                          Instant.now()));
+    my_status.set(HttpStatus.NOT_MODIFIED_304);
+    my_endpoint_result.set("");
+  }
+  
   /**
    * Indicate and log that the operation completed successfully.
    * @param the_response the HTTP response.
@@ -453,7 +493,11 @@ public abstract class AbstractEndpoint implements Endpoint {
     String result = null;
     
     try {
-      result = endpointBody(the_request, the_response);
+      if (endpointType() == EndpointType.GET && checkEntityTag(the_request, the_response)) {
+        result = my_endpoint_result.get();
+      } else {
+        result = endpointBody(the_request, the_response);
+      }
     } catch (final HaltException e) {
       // a HaltException should just be propagated, as that is an expected exception
       // that is properly dealt with by Spark
@@ -477,6 +521,29 @@ public abstract class AbstractEndpoint implements Endpoint {
     return result;
   }
   
+  /**
+   * Sends the entity tag of the response, if there is one, and responds 
+   * with "304 Not Modified" if it matches the request's If-None-Match header. 
+   * 
+   * @param the_request The request.
+   * @param the_response The response.
+   * @return true if the response was not modified, false otherwise.
+   */
+  private boolean checkEntityTag(final Request the_request, final Response the_response) {
+    final String tag = entityTag(the_request);
+    boolean result = false;
+    if (tag != null) {
+      the_response.header("ETag", tag);
+      // clients must check with us before using their copies
+      the_response.header("Cache-Control", "no-cache");
+      if (EntityTags.matches(the_request.headers("If-None-Match"), tag)) {
+        notModified(the_response);
+        result = true;
+      }
+    }
+    return result;
+  }
+  
   /**
    * The main body of the endpoint to be executed in child classes.
    * 
@@ -506,7 +573,7 @@ public abstract class AbstractEndpoint implements Endpoint {
                       the_log_entry.information() + " by " + 
                       the_log_entry.authenticationData() + " from " + 
                       the_log_entry.clientHost());
-    } else if (HttpStatus.isSuccess(the_log_entry.resultCode())) {
+    } else if (succeeded(the_log_entry.resultCode())) {
       Main.LOGGER.log(logLevel(), 
                       "successful " + the_log_entry.information() + " by " + 
                       the_log_entry.authenticationData() + " from " + 
@@ -548,8 +615,17 @@ public abstract class AbstractEndpoint implements Endpoint {
    */
   private boolean successful() {
     return !my_log_entries.get().isEmpty() &&
-           HttpStatus.isSuccess(my_log_entries.
-                                get().get(my_log_entries.get().size() - 1).resultCode());
+           succeeded(my_log_entries.
+                     get().get(my_log_entries.get().size() - 1).resultCode());
+  }
+  
+  /**
+   * @param the_status An HTTP status code.
+   * @return true if the status indicates success, including "304 Not Modified",
+   * false otherwise.
+   */
+  private static boolean succeeded(final int the_status) {
+    return HttpStatus.isSuccess(the_status) || the_status == HttpStatus.NOT_MODIFIED_304;
   }
   
   /**
@@ -568,7 +644,7 @@ public abstract class AbstractEndpoint implements Endpoint {
         Persistence.commitTransaction();
         my_log_entries.get().clear();
       } catch (final PersistenceException e) {
-        Main.LOGGER.error("could not persist log entries for error response after " + 
+        Main.LOGGER.error("could not persist log entries for error response after " +
                           log_commit_retries + " attempt(s)");
       }
     } else if (!my_log_entries.get().isEmpty()) {
@@ -576,6 +652,22 @@ public abstract class AbstractEndpoint implements Endpoint {
     }
   }
   
+  /**
+   * Reports a committed change to the dashboard push: a change made by a
+   * county administrator to that county's dashboard, and any other change
+   * to all dashboards.
+   *
+   * @param the_request The request.
+   */
+  private void reportDashboardChange(final Request the_request) {
+    final County county = Main.authentication().authenticatedCounty(the_request);
+    if (county == null) {
+      DashboardPush.changedAll();
+    } else {
+      DashboardPush.changed(county.id());
+    }
+  }
+
   /**
    * The afterAfter filter for this endpoint. By default, it attempts to commit 
    * any open transaction (this makes writing endpoint code more straightforward,
@@ -593,6 +685,9 @@ public abstract class AbstractEndpoint implements Endpoint {
         persistLogEntries(the_request);
         Persistence.commitTransaction();
         my_log_entries.get().clear();
+        if (changesDashboards()) {
+          reportDashboardChange(the_request);
+        }
       } catch (final PersistenceException e) {
         // this is an internal server error because we don't know what didn't
         // get committed
@@ -29,6 +29,7 @@ import spark.Response;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.asm.ASMEvent;
+import us.freeandfair.corla.controller.ManifestIndex;
 import us.freeandfair.corla.csv.BallotManifestParser;
 import us.freeandfair.corla.csv.ColoradoBallotManifestParser;
 import us.freeandfair.corla.model.County;
@@ -38,6 +39,7 @@ import us.freeandfair.corla.model.UploadedFile.FileStatus;
 import us.freeandfair.corla.model.UploadedFile.HashStatus;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.BallotManifestInfoQueries;
+import us.freeandfair.corla.util.UploadStaging;
 
 /**
  * The "ballot manifest import" endpoint.
@@ -123,6 +125,7 @@ public class BallotManifestImport extends AbstractCountyDashboardEndpoint {
           new ColoradoBallotManifestParser(bmi_isr, 
                                            the_file.county().id());
       final int deleted = BallotManifestInfoQueries.deleteMatching(the_file.county().id());
+      ManifestIndex.invalidate(the_file.county().id());
       if (parser.parse()) {
         final int imported = parser.recordCount().getAsInt();
         Main.LOGGER.info(imported + " ballot manifest records parsed from file " + 
@@ -132,6 +135,7 @@ public class BallotManifestImport extends AbstractCountyDashboardEndpoint {
                               parser.ballotCount().getAsInt());
         the_file.setStatus(FileStatus.IMPORTED_AS_BALLOT_MANIFEST);
         Persistence.saveOrUpdate(the_file);
+        ManifestIndex.build(the_file.county().id(), the_file.id());
         final Map<String, Integer> response = new HashMap<String, Integer>();
         response.put("records_imported", imported);
         if (deleted > 0) {
@@ -181,7 +185,12 @@ public class BallotManifestImport extends AbstractCountyDashboardEndpoint {
                                    "file " + file.filename() + " uploaded by county " + 
                                    file.county().id());
       } else if (file.hashStatus() == HashStatus.VERIFIED) {
+        // manifests are small, and the client expects the import result in
+        // the response, so they are imported within this request rather than
+        // waiting in the import scheduler's queue behind CVR exports
         parseFile(the_response, file);
+        // manifests are read from the database, so any staged copy is unused
+        UploadStaging.discard(file);
       } else {
         badDataContents(the_response, "attempt to import a file without a verified hash");
       }
@@ -13,12 +13,14 @@ package us.freeandfair.corla.endpoint;
 
 import static us.freeandfair.corla.asm.ASMEvent.CountyDashboardEvent.IMPORT_CVRS_EVENT;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,9 +42,13 @@ import us.freeandfair.corla.asm.ASMState;
 import us.freeandfair.corla.asm.ASMState.CountyDashboardState;
 import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.CountyDashboardASM;
+import us.freeandfair.corla.controller.AuditSequenceCache;
 import us.freeandfair.corla.csv.DominionCVRExportParser;
+import us.freeandfair.corla.csv.DominionCVRExportValidator;
 import us.freeandfair.corla.model.AuditReason;
 import us.freeandfair.corla.model.AuditType;
+import us.freeandfair.corla.model.BallotAuditMap;
+import us.freeandfair.corla.model.CVRImportCheckpoint;
 import us.freeandfair.corla.model.CastVoteRecord.RecordType;
 import us.freeandfair.corla.model.ContestToAudit;
 import us.freeandfair.corla.model.County;
@@ -55,9 +61,13 @@ import us.freeandfair.corla.model.UploadedFile;
 import us.freeandfair.corla.model.UploadedFile.FileStatus;
 import us.freeandfair.corla.model.UploadedFile.HashStatus;
 import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.AuditSequenceQueries;
 import us.freeandfair.corla.query.CastVoteRecordQueries;
 import us.freeandfair.corla.query.CountyContestResultQueries;
 import us.freeandfair.corla.util.ExponentialBackoffHelper;
+import us.freeandfair.corla.util.ImportScheduler;
+import us.freeandfair.corla.util.ImportScheduler.Kind;
+import us.freeandfair.corla.util.UploadStaging;
 import us.freeandfair.corla.util.UploadedFileStreamer;
 
 /**
@@ -70,13 +80,6 @@ import us.freeandfair.corla.util.UploadedFileStreamer;
     "PMD.CyclomaticComplexity", "PMD.ModifiedCyclomaticComplexity",
     "PMD.StdCyclomaticComplexity", "PMD.GodClass", "PMD.DoNotUseThreads"})
 public class CVRExportImport extends AbstractCountyDashboardEndpoint {
-  /**
-   * The static set of counties that are currently running imports. This is
-   * used to prevent multiple counties from importing CVRs at the same time, 
-   * which would cause issues since this endpoint is not a single transaction.
-   */
-  private static final Set<Long> COUNTIES_RUNNING = new HashSet<Long>();
-  
   /**
    * {@inheritDoc}
    */
@@ -116,13 +119,8 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
     }
     
     // check to be sure that the same county isn't in the middle of a CVR import
-    synchronized (COUNTIES_RUNNING) {
-      if (COUNTIES_RUNNING.contains(county.id())) {
-        transactionFailure(the_response, 
-                           "county " + county.id() + " is already importing CVRs, try later");
-        // for a transaction failure, we have to halt explicitly
-        halt(the_response);
-      }
+    if (ImportScheduler.instance().scheduled(county.id(), Kind.CVR_EXPORT)) {
+      alreadyImporting(the_response, county);
     }
     
     try {
@@ -144,13 +142,12 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
         }
         final Map<String, Instant> result = new HashMap<>();
         result.put("import_start_time", Instant.now());
-        // spawn a thread to do the import; this endpoint always immediately 
-        // returns a successful result if we get to this point
-        synchronized (COUNTIES_RUNNING) {
-          // signal that we're starting the import
-          COUNTIES_RUNNING.add(county.id());
+        // queue the import; this endpoint always immediately returns a 
+        // successful result if we get to this point
+        if (!ImportScheduler.instance().submit(county.id(), Kind.CVR_EXPORT, 
+                                               file.size(), new CVRImporter(file))) {
+          alreadyImporting(the_response, county);
         }
-        (new Thread(new CVRImporter(file))).start();
         
         okJSON(the_response, Main.GSON.toJson(result));
       } else {
@@ -164,10 +161,17 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
   }
   
   /**
-   * @return the COUNTIES_RUNNING set.
+   * Fails the request because the specified county already has a CVR
+   * import queued or running.
+   * 
+   * @param the_response The response.
+   * @param the_county The county.
    */
-  protected static final Set<Long> countiesRunning() {
-    return COUNTIES_RUNNING;
+  private void alreadyImporting(final Response the_response, final County the_county) {
+    transactionFailure(the_response, 
+                       "county " + the_county.id() + " is already importing CVRs, try later");
+    // for a transaction failure, we have to halt explicitly
+    halt(the_response);
   }
   
   /**
@@ -176,13 +180,37 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
   private static class CVRImportException extends RuntimeException {
     private static final long serialVersionUID = 1;
     
+    /**
+     * A flag indicating whether the import can be resumed.
+     */
+    private final boolean my_resumable;
+    
     /**
      * Constructs a new CVRImportException with the specified description.
      * 
      * @param the_description The description.
      */
     CVRImportException(final String the_description) {
+      this(the_description, false);
+    }
+    
+    /**
+     * Constructs a new CVRImportException with the specified description.
+     * 
+     * @param the_description The description.
+     * @param the_resumable_flag true if the CVRs committed so far should be
+     * kept so that the import can be resumed, false otherwise.
+     */
+    CVRImportException(final String the_description, final boolean the_resumable_flag) {
       super(the_description);
+      my_resumable = the_resumable_flag;
+    }
+    
+    /**
+     * @return true if the import can be resumed, false otherwise.
+     */
+    public boolean resumable() {
+      return my_resumable;
     }
   }
   
@@ -227,6 +255,11 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
      */
     private static final String PAREN_ID = " (id ";
     
+    /**
+     * The number of validation errors included in an import failure message.
+     */
+    private static final int PREFLIGHT_ERRORS = 5;
+    
     /**
      * The file that this importer is importing.
      */
@@ -261,10 +294,13 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
           updateStateMachine(false);
           Persistence.commitTransaction();
         } catch (final CVRImportException e) {
-          // we intentionally failed the import, so clean up
+          // we intentionally failed the import, so clean up, unless it can be
+          // resumed from its checkpoint
           Main.LOGGER.error("CVR import failed for county " + my_file.county().id() + ": " + 
               ExceptionUtils.getStackTrace(e));
-          cleanup(my_file.county(), true, e.getMessage());
+          if (!e.resumable()) {
+            cleanup(my_file.county(), true, e.getMessage());
+          }
           updateStateMachine(false);
           Persistence.commitTransaction();
         } 
@@ -279,12 +315,11 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
           Persistence.rollbackTransaction();
         }
       } finally {
-        // release the lock on CVR imports for this county
-        final Set<Long> counties_running = countiesRunning();
-        synchronized (counties_running) {
-          // signal that we're ending the import
-          counties_running.remove(my_file.county().id());
+        // import threads are reused, so no transaction may outlive the import
+        if (Persistence.isTransactionActive()) {
+          Persistence.rollbackTransaction();
         }
+        DashboardPush.changed(my_file.county().id());
       }
     }
     
@@ -384,6 +419,57 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
       } 
     }
     
+    /**
+     * Aborts the import with the specified error description, keeping the
+     * CVRs committed so far so that a later import of the same file can
+     * resume after them.
+     * 
+     * @param the_file The file being imported.
+     * @param the_committed The number of committed CVRs.
+     * @param the_description The error description.
+     * @exception CVRImportException always, to cancel execution
+     */
+    private void suspend(final UploadedFile the_file, final int the_committed,
+                         final String the_description) 
+        throws CVRImportException {
+      final String description = the_description + "; " + the_committed + 
+                                 " CVRs were imported, importing the same file " +
+                                 "again will resume the import";
+      // the failed transaction holds only work done after the checkpoint
+      if (Persistence.canTransactionRollback()) {
+        try {
+          Persistence.rollbackTransaction();
+        } catch (final PersistenceException ex) {
+          // not much we can do about it
+        }
+      }
+      updateCountyDashboard(the_file, new ImportStatus(ImportState.FAILED, description), 
+                            the_committed);
+      throw new CVRImportException(description, true);
+    }
+    
+    /**
+     * Finds the checkpoint of an interrupted import of the specified file.
+     * 
+     * @param the_file The file.
+     * @return the checkpoint, or null if there is no interrupted import of 
+     * the file that can be resumed.
+     */
+    private CVRImportCheckpoint resumableCheckpoint(final UploadedFile the_file) {
+      CVRImportCheckpoint result = null;
+      try {
+        result = Persistence.getByID(the_file.county().id(), CVRImportCheckpoint.class);
+      } catch (final PersistenceException e) {
+        Main.LOGGER.info("could not read CVR import checkpoint for county " + 
+                         the_file.county().id() + ": " + e);
+      }
+      if (result != null && 
+          (!the_file.id().equals(result.fileID()) || result.recordCount() == 0)) {
+        result = null;
+      }
+      return result;
+    }
+    
     /**
      * Updates the appropriate county dashboard to reflect a new 
      * CVR export upload.
@@ -418,6 +504,7 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
           } 
           Persistence.commitTransaction();
           success = true;
+          DashboardPush.changed(the_file.county().id());
         } catch (final PersistenceException e) {
           // something went wrong, let's try again
           if (Persistence.canTransactionRollback()) {
@@ -452,38 +539,62 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
     
     /**
      * Parses an uploaded CVR export and attempts to persist it to the database.
+     * If the file was staged when it was uploaded, the staged copy is parsed; 
+     * otherwise, the file is streamed from the database.
      * 
      * @param the_file The uploaded file.
      */
     @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.AvoidRethrowingException"})
     private void parseFile(final UploadedFile the_file) {
-      final UploadedFileStreamer ufs = new UploadedFileStreamer(the_file);
-      (new Thread(ufs)).start();
+      final File staged = UploadStaging.claim(the_file);
+      UploadedFileStreamer ufs = null;
+      InputStream stream = null;
+      DominionCVRExportParser parser = null;
         
       try {
-        final InputStreamReader bmi_isr = new InputStreamReader(ufs.inputStream(), "UTF-8");
-        final DominionCVRExportParser parser = 
+        preflight(the_file, staged);
+        if (staged == null) {
+          ufs = new UploadedFileStreamer(the_file);
+          ImportScheduler.instance().runHelper(ufs);
+          stream = ufs.inputStream();
+        } else {
+          Main.LOGGER.info("importing staged copy of file " + the_file.id());
+          stream = new FileInputStream(staged);
+        }
+        final InputStreamReader bmi_isr = new InputStreamReader(stream, "UTF-8");
+        parser = 
             new DominionCVRExportParser(bmi_isr, 
                                         Persistence.getByID(the_file.county().id(), 
                                                             County.class),
                                         Main.properties(),
                                         true);
-        try {
-          final int deleted = cleanup(the_file.county());
-          if (deleted > 0) {
-            Main.LOGGER.info("deleted " + deleted + " previously-uploaded CVRs");
+        CVRImportCheckpoint checkpoint = resumableCheckpoint(the_file);
+        if (checkpoint == null) {
+          try {
+            final int deleted = cleanup(the_file.county());
+            if (deleted > 0) {
+              Main.LOGGER.info("deleted " + deleted + " previously-uploaded CVRs");
+            }
+          } catch (final PersistenceException ex) {
+            error("unable to delete previously uploaded CVRs");
           }
-        } catch (final PersistenceException ex) {
-          error("unable to delete previously uploaded CVRs");
+          checkpoint = new CVRImportCheckpoint(the_file.county().id(), the_file.id());
+        } else {
+          Main.LOGGER.info("resuming import of file " + the_file.id() + " for county " + 
+                           the_file.county().id() + " from " + checkpoint);
         }
+        parser.checkpointTo(checkpoint);
         
-        updateCountyDashboard(the_file, new ImportStatus(ImportState.IN_PROGRESS), 0);
+        updateCountyDashboard(the_file, new ImportStatus(ImportState.IN_PROGRESS), 
+                              checkpoint.recordCount());
                 
         if (parser.parse()) {
           final int imported = parser.recordCount().getAsInt();
           Main.LOGGER.info(imported + " CVRs parsed from file " + the_file.id() + 
                            " for county " + the_file.county().id());
           updateCountyDashboard(the_file, new ImportStatus(ImportState.SUCCESSFUL), imported);
+          // the county's CVRs may have been counted while they were imported
+          AuditSequenceCache.invalidate(the_file.county().id());
           handleTies(the_file.county());
           the_file.setStatus(FileStatus.IMPORTED_AS_CVR_EXPORT);
           Persistence.saveOrUpdate(the_file);
@@ -498,6 +609,14 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
                 the_file.filename() + PAREN_ID + the_file.id() + ")]");
         }
       } catch (final PersistenceException e) {
+        if (parser != null && parser.checkpointedRecordCount() > 0) {
+          // the committed CVRs are intact, so keep them for a resumed import
+          Main.LOGGER.info("parse transactions did not complete successfully, " + 
+                           "keeping " + parser.checkpointedRecordCount() + 
+                           " checkpointed CVRs");
+          suspend(the_file, parser.checkpointedRecordCount(), 
+                  "cvr import transaction failed: " + e.getMessage());
+        }
         Main.LOGGER.info("parse transactions did not complete successfully, " + 
                          "attempting cleanup");
         try {
@@ -506,7 +625,7 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
           // if we couldn't clean up, there's not much we can do about it
         }
         error("cvr import transaction failed: " + e.getMessage());
-      } catch (final HaltException e) {
+      } catch (final HaltException | CVRImportException e) {
         // we don't want to intercept these, so we just rethrow it
         throw e;
       } catch (final RuntimeException | IOException e) {
@@ -521,7 +640,75 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
         error("malformed CVR export file " + 
               the_file.filename() + PAREN_ID + the_file.id() + ")");
       } finally {
-        ufs.stop();
+        if (ufs == null) {
+          closeStaged(stream, staged);
+        } else {
+          ufs.stop();
+        }
+      }
+    }
+    
+    /**
+     * Validates an uploaded CVR export in a read-only pass, before anything
+     * is deleted from or written to the database, so that a malformed file
+     * is rejected with all its errors rather than with the first error
+     * found part way through an import.
+     * 
+     * @param the_file The uploaded file.
+     * @param the_staged The staged copy of the file, or null if there is none.
+     * @exception IOException if the file cannot be read.
+     * @exception CVRImportException if the file is malformed.
+     */
+    private void preflight(final UploadedFile the_file, final File the_staged) 
+        throws IOException {
+      UploadedFileStreamer ufs = null;
+      InputStream stream = null;
+      final DominionCVRExportValidator validator;
+      try {
+        if (the_staged == null) {
+          ufs = new UploadedFileStreamer(the_file);
+          ImportScheduler.instance().runHelper(ufs);
+          stream = ufs.inputStream();
+        } else {
+          stream = new FileInputStream(the_staged);
+        }
+        validator = new DominionCVRExportValidator(stream);
+        validator.validate();
+      } finally {
+        if (ufs == null) {
+          closeStaged(stream, null);
+        } else {
+          ufs.stop();
+        }
+      }
+      if (validator.errorCount() > 0) {
+        for (final DominionCVRExportValidator.ValidationError e : validator.errors()) {
+          Main.LOGGER.info("CVR export file " + the_file.id() + ", " + e);
+        }
+        error("malformed CVR export file " + the_file.filename() + PAREN_ID + 
+              the_file.id() + "): " + validator.summary(PREFLIGHT_ERRORS));
+      }
+      Main.LOGGER.info("validated " + validator.recordCount() + " CVRs in file " + 
+                       the_file.id() + " for county " + the_file.county().id());
+    }
+    
+    /**
+     * Closes and deletes the staged copy of a file, if there is one.
+     * 
+     * @param the_stream The stream reading the staged copy, or null if it
+     * was never opened.
+     * @param the_staged The staged copy, or null if there is none.
+     */
+    private void closeStaged(final InputStream the_stream, final File the_staged) {
+      if (the_stream != null) {
+        try {
+          the_stream.close();
+        } catch (final IOException e) {
+          // ignored, since we're already done with it
+        }
+      }
+      if (the_staged != null) {
+        UploadStaging.delete(the_staged);
       }
     }
     
@@ -573,6 +760,18 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
           result = 
               CastVoteRecordQueries.deleteMatching(the_county.id(), RecordType.UPLOADED);
           CountyContestResultQueries.deleteForCounty(the_county.id());
+          AuditSequenceQueries.delete(the_county.id());
+          // an import that has been cleaned up can no longer be resumed
+          final CVRImportCheckpoint checkpoint = 
+              Persistence.getByID(the_county.id(), CVRImportCheckpoint.class);
+          if (checkpoint != null) {
+            Persistence.delete(checkpoint);
+          }
+          final BallotAuditMap audit_map = 
+              Persistence.getByID(the_county.id(), BallotAuditMap.class);
+          if (audit_map != null) {
+            Persistence.delete(audit_map);
+          }
           final CountyDashboard cdb = 
               Persistence.getByID(the_county.id(), CountyDashboard.class);
           cdb.setCVRFile(null);
@@ -581,6 +780,7 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
             cdb.setCVRImportStatus(new ImportStatus(ImportState.FAILED, the_failure_message));
           }
           Persistence.commitTransaction();
+          AuditSequenceCache.invalidate(the_county.id());
           success = true;
         } catch (final PersistenceException e) {
           // something went wrong, let's try again
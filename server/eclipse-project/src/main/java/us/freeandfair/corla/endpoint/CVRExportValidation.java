@@ -0,0 +1,134 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonParseException;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.csv.DominionCVRExportValidator;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.UploadedFile;
+import us.freeandfair.corla.model.UploadedFile.HashStatus;
+
+/**
+ * The "CVR export validation" endpoint, which checks an uploaded CVR export
+ * for the problems that would make its import fail, without importing it.
+ * The same validation is the first step of every CVR export import.
+ * 
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// endpoints don't need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class CVRExportValidation extends AbstractCountyDashboardEndpoint {
+  /**
+   * The " (id " string.
+   */
+  private static final String PAREN_ID = " (id ";
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.POST;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/validate-cvr-export";
+  }
+  
+  /**
+   * Validation only reads the file, so it changes no dashboard.
+   * 
+   * @return false.
+   */
+  @Override
+  protected boolean changesDashboards() {
+    return false;
+  }
+  
+  /**
+   * Validates an uploaded CVR export, and responds with the number of CVRs
+   * in it and the errors found, with their line numbers.
+   * 
+   * @param the_response The response.
+   * @param the_file The uploaded file.
+   */
+  private void validateFile(final Response the_response, final UploadedFile the_file) {
+    try (InputStream stream = the_file.file().getBinaryStream()) {
+      final DominionCVRExportValidator validator = new DominionCVRExportValidator(stream);
+      final Map<String, Object> response = new HashMap<String, Object>();
+      response.put("valid", validator.validate());
+      response.put("record_count", validator.recordCount());
+      response.put("error_count", validator.errorCount());
+      response.put("errors", validator.errors());
+      Main.LOGGER.info("validated CVR export file " + the_file.filename() + PAREN_ID + 
+                       the_file.id() + ") for county " + the_file.county().id() + ": " + 
+                       validator.summary(0));
+      okJSON(the_response, Main.GSON.toJson(response));
+    } catch (final IOException | SQLException e) {
+      Main.LOGGER.info("could not read file " + the_file.filename() + 
+                       PAREN_ID + the_file.id() + ") from persistent storage: " + e);
+      serverError(the_response, "could not read file " + the_file.filename() + 
+                                PAREN_ID + the_file.id() + ")");
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings({"PMD.ConfusingTernary"})
+  public String endpointBody(final Request the_request, final Response the_response) {    
+    // we know we have county authorization, so let's find out which county
+    final County county = Main.authentication().authenticatedCounty(the_request);
+
+    if (county == null) {
+      unauthorized(the_response, "unauthorized administrator for CVR validation");
+      return my_endpoint_result.get();
+    }
+    
+    try {
+      final UploadedFile file =
+          Main.GSON.fromJson(the_request.body(), UploadedFile.class);
+      if (file == null) {
+        badDataContents(the_response, "nonexistent file");
+      } else if (!file.county().id().equals(county.id())) {
+        unauthorized(the_response, "county " + county.id() + " attempted to validate " + 
+                                   "file " + file.filename() + " uploaded by county " + 
+                                   file.county().id());
+      } else if (file.hashStatus() == HashStatus.VERIFIED) {
+        validateFile(the_response, file);
+      } else {
+        badDataContents(the_response, "attempt to validate a file without a verified hash");
+      }
+    } catch (final JsonParseException e) {
+      badDataContents(the_response, "malformed request: " + e.getMessage());
+    }
+    
+    return my_endpoint_result.get();
+  }
+}
@@ -11,7 +11,6 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalInt;
 
@@ -21,14 +20,11 @@ import spark.Request;
 import spark.Response;
 
 import us.freeandfair.corla.Main;
-import us.freeandfair.corla.controller.ComparisonAuditController;
+import us.freeandfair.corla.controller.BallotListBuilder;
 import us.freeandfair.corla.json.CVRToAuditResponse;
-import us.freeandfair.corla.json.CVRToAuditResponse.BallotOrderComparator;
-import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.query.BallotManifestInfoQueries;
 
 /**
  * The CVR to audit list endpoint.
@@ -137,6 +133,22 @@ public class CVRToAuditList extends AbstractEndpoint {
     return result;
   }
 
+  /**
+   * The entity tag is that of the county's data.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    // parameters have been validated, so a DoS user specified a county
+    final County county = Main.authentication().authenticatedCounty(the_request);
+    final Long county_id;
+    if (county == null) {
+      county_id = Long.valueOf(the_request.queryParams(COUNTY));
+    } else {
+      county_id = county.id();
+    }
+    return EntityTags.county(county_id);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -187,8 +199,7 @@ public class CVRToAuditList extends AbstractEndpoint {
       }
       // get other things we need
       final CountyDashboard cdb = Persistence.getByID(county.id(), CountyDashboard.class);
-      final List<CastVoteRecord> cvr_to_audit_list;
-      final List<CVRToAuditResponse> response_list = new ArrayList<>();
+      final List<CVRToAuditResponse> response_list;
 
       // compute the round, if any
       OptionalInt round = OptionalInt.empty();
@@ -203,25 +214,11 @@ public class CVRToAuditList extends AbstractEndpoint {
       }
 
       if (round.isPresent()) {
-        cvr_to_audit_list =
-            ComparisonAuditController.ballotsToAudit(cdb, round.getAsInt(), audited);
+        response_list = BallotListBuilder.forRound(cdb, round.getAsInt(), audited);
       } else {
-        cvr_to_audit_list =
-            ComparisonAuditController.computeBallotOrder(cdb, index, ballot_count,
-                                                         duplicates, audited);
-      }
-
-      for (int i = 0; i < cvr_to_audit_list.size(); i++) {
-        final CastVoteRecord cvr = cvr_to_audit_list.get(i);
-        final String location = BallotManifestInfoQueries.locationFor(cvr);
-        response_list.add(new CVRToAuditResponse(i, cvr.scannerID(),
-                                                 cvr.batchID(), cvr.recordID(),
-                                                 cvr.imprintedID(),
-                                                 cvr.cvrNumber(), cvr.id(),
-                                                 cvr.ballotType(), location,
-                                                 cvr.auditFlag()));
+        response_list = 
+            BallotListBuilder.forRange(cdb, index, ballot_count, duplicates, audited);
       }
-      response_list.sort(new BallotOrderComparator());
       okJSON(the_response, Main.GSON.toJson(response_list));
     } catch (final PersistenceException e) {
       serverError(the_response, "could not generate cvr list");
@@ -64,6 +64,14 @@ public class ContestDownload extends AbstractEndpoint {
     return AuthorizationType.EITHER;
   }
   
+  /**
+   * The entity tag is that of the available contests.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    return EntityTags.contests();
+  }
+
   /**
    * {@inheritDoc}
    */
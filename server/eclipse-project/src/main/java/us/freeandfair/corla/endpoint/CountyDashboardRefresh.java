@@ -57,6 +57,14 @@ public class CountyDashboardRefresh extends AbstractCountyDashboardEndpoint {
     return Level.DEBUG;
   }
   
+  /**
+   * The entity tag is that of the county's data.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    return EntityTags.county(Main.authentication().authenticatedCounty(the_request).id());
+  }
+
   /**
    * Provides information about the County and Audit Board dashboards.
    * 
@@ -107,6 +107,22 @@ public class CountyReportDownload extends AbstractEndpoint {
     return result;
   }
   
+  /**
+   * The entity tag is that of the county's data.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    // parameters have been validated, so a DoS user specified a county
+    final County county = Main.authentication().authenticatedCounty(the_request);
+    final Long county_id;
+    if (county == null) {
+      county_id = Long.valueOf(the_request.queryParams(COUNTY));
+    } else {
+      county_id = county.id();
+    }
+    return EntityTags.county(county_id);
+  }
+
   /**
    * {@inheritDoc}
    */
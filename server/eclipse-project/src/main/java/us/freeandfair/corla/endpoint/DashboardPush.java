@@ -0,0 +1,490 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.PersistenceException;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.json.CountyDashboardRefreshResponse;
+import us.freeandfair.corla.json.DoSDashboardRefreshResponse;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.DoSDashboard;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.util.JsonMergePatch;
+
+/**
+ * The WebSocket through which dashboard changes are pushed to clients, so
+ * that they need not poll the dashboard refresh endpoints as often. A
+ * client connects with a ticket obtained from the dashboard push ticket
+ * endpoint, because WebSocket connections do not share the HTTP session;
+ * it is then sent a snapshot of its dashboard, the same document that
+ * DoSDashboardRefresh or CountyDashboardRefresh would return, followed by
+ * a JSON merge patch (RFC 7386) each time that document changes.
+ *
+ * Changes are reported by calling changed() after the transactions that
+ * make them commit. Reports are collected for an interval, then the
+ * affected dashboards are recomputed once each, on a single thread, and
+ * compared to the documents last sent; nothing is computed for dashboards
+ * that no client is watching.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@WebSocket
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class DashboardPush {
+  /**
+   * The path of the WebSocket.
+   */
+  public static final String PATH = "/dashboard-push";
+
+  /**
+   * The request parameter that holds the ticket.
+   */
+  public static final String TICKET_PARAMETER = "ticket";
+
+  /**
+   * The property that specifies the interval over which changes are
+   * collected before they are pushed, in milliseconds.
+   */
+  public static final String INTERVAL_PROPERTY = "dashboard_push_interval";
+
+  /**
+   * The default push interval, in milliseconds.
+   */
+  public static final long DEFAULT_INTERVAL = 1000;
+
+  /**
+   * The time for which a ticket is valid, in milliseconds.
+   */
+  private static final long TICKET_LIFETIME_MSEC = 30_000;
+
+  /**
+   * The number of random bits in a ticket.
+   */
+  private static final int TICKET_BITS = 128;
+
+  /**
+   * The radix of a ticket string.
+   */
+  private static final int TICKET_RADIX = 16;
+
+  /**
+   * The name of the DoS dashboard channel.
+   */
+  private static final String DOS_CHANNEL = "dos";
+
+  /**
+   * The dashboard push instance, created when first used.
+   */
+  private static DashboardPush instance;
+
+  /**
+   * The random number generator for tickets.
+   */
+  private final SecureRandom my_random = new SecureRandom();
+
+  /**
+   * The unused tickets, with the channels they are for.
+   */
+  private final Map<String, Ticket> my_tickets = new ConcurrentHashMap<>();
+
+  /**
+   * The channels, by name.
+   */
+  private final Map<String, Channel> my_channels = new ConcurrentHashMap<>();
+
+  /**
+   * The channel of each connected session.
+   */
+  private final Map<Session, Channel> my_subscriptions = new ConcurrentHashMap<>();
+
+  /**
+   * The names of the channels that have changed since the last push.
+   */
+  private final Set<String> my_changed = ConcurrentHashMap.newKeySet();
+
+  /**
+   * A flag indicating whether a push is scheduled.
+   */
+  private final AtomicBoolean my_scheduled = new AtomicBoolean();
+
+  /**
+   * The executor that computes and sends all documents.
+   */
+  private final ScheduledExecutorService my_executor;
+
+  /**
+   * The push interval, in milliseconds.
+   */
+  private final long my_interval;
+
+  /**
+   * Constructs a new DashboardPush.
+   *
+   * @param the_interval The push interval, in milliseconds.
+   */
+  public DashboardPush(final long the_interval) {
+    my_interval = Math.max(0, the_interval);
+    my_executor = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  /**
+   * @return the dashboard push instance, configured from the system
+   * properties.
+   */
+  public static synchronized DashboardPush instance() {
+    if (instance == null) {
+      instance = new DashboardPush(interval(Main.properties()));
+    }
+    return instance;
+  }
+
+  /**
+   * @return the dashboard push instance, or null if it has not been created
+   * (because the server has not been started).
+   */
+  private static synchronized DashboardPush existingInstance() {
+    return instance;
+  }
+
+  /**
+   * Reads the push interval from the specified properties.
+   *
+   * @param the_properties The properties.
+   * @return the push interval, in milliseconds.
+   */
+  public static long interval(final Properties the_properties) {
+    long result = DEFAULT_INTERVAL;
+    if (the_properties != null) {
+      try {
+        result = Long.parseLong(the_properties.getProperty(INTERVAL_PROPERTY,
+                                                           String.valueOf(result)));
+      } catch (final NumberFormatException e) {
+        Main.LOGGER.error("invalid " + INTERVAL_PROPERTY + ", using " + DEFAULT_INTERVAL);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reports that a county's dashboard, and therefore the DoS dashboard, may
+   * have changed. This must be called after the change is committed.
+   *
+   * @param the_county_id The county ID.
+   */
+  public static void changed(final Long the_county_id) {
+    final DashboardPush push = existingInstance();
+    if (push != null) {
+      push.markChanged(countyChannel(the_county_id));
+      push.markChanged(DOS_CHANNEL);
+    }
+  }
+
+  /**
+   * Reports that any dashboard may have changed. This must be called after
+   * the change is committed.
+   */
+  public static void changedAll() {
+    final DashboardPush push = existingInstance();
+    if (push != null) {
+      for (final String name : push.my_channels.keySet()) {
+        push.markChanged(name);
+      }
+    }
+  }
+
+  /**
+   * Issues a ticket with which a client can connect to the WebSocket.
+   *
+   * @param the_county The county whose dashboard the client is shown, or
+   * null for the DoS dashboard.
+   * @return the ticket.
+   */
+  public String issueTicket(final County the_county) {
+    final long now = System.currentTimeMillis();
+    my_tickets.values().removeIf(t -> t.my_expiry < now);
+    final String channel;
+    if (the_county == null) {
+      channel = DOS_CHANNEL;
+    } else {
+      channel = countyChannel(the_county.id());
+    }
+    final String result = new BigInteger(TICKET_BITS, my_random).toString(TICKET_RADIX);
+    my_tickets.put(result, new Ticket(channel, now + TICKET_LIFETIME_MSEC));
+    return result;
+  }
+
+  /**
+   * Accepts a WebSocket connection if it presents a valid ticket, and sends
+   * it a snapshot of its dashboard.
+   *
+   * @param the_session The WebSocket session.
+   */
+  @OnWebSocketConnect
+  public void connect(final Session the_session) {
+    final List<String> values =
+        the_session.getUpgradeRequest().getParameterMap().get(TICKET_PARAMETER);
+    Ticket ticket = null;
+    if (values != null && values.size() == 1) {
+      ticket = my_tickets.remove(values.get(0));
+    }
+    if (ticket == null || ticket.my_expiry < System.currentTimeMillis()) {
+      the_session.close(StatusCode.POLICY_VIOLATION, "invalid ticket");
+    } else {
+      final Channel channel =
+          my_channels.computeIfAbsent(ticket.my_channel, Channel::new);
+      my_subscriptions.put(the_session, channel);
+      my_executor.execute(() -> subscribe(channel, the_session));
+    }
+  }
+
+  /**
+   * Forgets a closed WebSocket connection.
+   *
+   * @param the_session The WebSocket session.
+   * @param the_status The close status code.
+   * @param the_reason The close reason.
+   */
+  @OnWebSocketClose
+  public void close(final Session the_session, final int the_status,
+                    final String the_reason) {
+    final Channel channel = my_subscriptions.remove(the_session);
+    if (channel != null) {
+      channel.my_sessions.remove(the_session);
+    }
+  }
+
+  /**
+   * @param the_county_id A county ID.
+   * @return the name of the county's channel.
+   */
+  private static String countyChannel(final Long the_county_id) {
+    return "county-" + the_county_id;
+  }
+
+  /**
+   * Marks a channel as changed, if any client is watching it, and schedules
+   * a push if none is scheduled.
+   *
+   * @param the_name The channel name.
+   */
+  private void markChanged(final String the_name) {
+    final Channel channel = my_channels.get(the_name);
+    if (channel != null && channel.my_document != null) {
+      my_changed.add(the_name);
+      if (my_scheduled.compareAndSet(false, true)) {
+        my_executor.schedule(this::push, my_interval, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Pushes the changes to all changed channels. This runs on the executor.
+   */
+  private void push() {
+    // changes reported from now on need another push
+    my_scheduled.set(false);
+    for (final String name : my_changed) {
+      my_changed.remove(name);
+      final Channel channel = my_channels.get(name);
+      if (channel != null) {
+        refresh(channel);
+      }
+    }
+  }
+
+  /**
+   * Adds a session to a channel and sends it a snapshot. This runs on the
+   * executor.
+   *
+   * @param the_channel The channel.
+   * @param the_session The session.
+   */
+  private void subscribe(final Channel the_channel, final Session the_session) {
+    if (the_channel.my_document == null) {
+      the_channel.my_document = document(the_channel);
+    }
+    if (the_channel.my_document == null) {
+      the_session.close(StatusCode.SERVER_ERROR, "could not obtain dashboard state");
+    } else if (the_session.isOpen()) {
+      the_channel.my_sessions.add(the_session);
+      send(the_session, "snapshot", the_channel.my_document);
+    }
+  }
+
+  /**
+   * Recomputes a channel's document and sends the changes to its sessions.
+   * This runs on the executor.
+   *
+   * @param the_channel The channel.
+   */
+  private void refresh(final Channel the_channel) {
+    the_channel.my_sessions.removeIf(s -> !s.isOpen());
+    if (the_channel.my_sessions.isEmpty()) {
+      // nobody is watching, so stop tracking the document
+      the_channel.my_document = null;
+      return;
+    }
+    final JsonElement document = document(the_channel);
+    if (document != null) {
+      final JsonElement patch = JsonMergePatch.diff(the_channel.my_document, document);
+      the_channel.my_document = document;
+      if (patch != null) {
+        for (final Session s : the_channel.my_sessions) {
+          send(s, "patch", patch);
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes a channel's document, in its own transaction.
+   *
+   * @param the_channel The channel.
+   * @return the document, or null if it could not be computed.
+   */
+  private JsonElement document(final Channel the_channel) {
+    JsonElement result = null;
+    try {
+      Persistence.beginTransaction();
+      final Object response;
+      if (the_channel.my_county_id == null) {
+        response = DoSDashboardRefreshResponse.createResponse
+            (Persistence.getByID(DoSDashboard.ID, DoSDashboard.class));
+      } else {
+        response = CountyDashboardRefreshResponse.createResponse
+            (Persistence.getByID(the_channel.my_county_id, CountyDashboard.class));
+      }
+      result = Main.GSON.toJsonTree(response);
+      Persistence.commitTransaction();
+    } catch (final PersistenceException | IllegalStateException e) {
+      Main.LOGGER.error("could not compute dashboard for push channel " +
+                        the_channel.my_name + ": " + e);
+      result = null;
+    } finally {
+      // the executor thread is reused, so no transaction may outlive this
+      if (Persistence.isTransactionActive()) {
+        Persistence.rollbackTransaction();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sends a message to a session, without waiting for it to be delivered.
+   *
+   * @param the_session The session.
+   * @param the_kind The kind of message, "snapshot" or "patch".
+   * @param the_content The content of the message.
+   */
+  private void send(final Session the_session, final String the_kind,
+                    final JsonElement the_content) {
+    final JsonObject message = new JsonObject();
+    message.add(the_kind, the_content);
+    try {
+      the_session.getRemote().sendStringByFuture(message.toString());
+    } catch (final IllegalStateException e) {
+      // the session closed, and will be removed on the next refresh
+      Main.LOGGER.debug("could not push to closed session: " + e);
+    }
+  }
+
+  /**
+   * A push channel: the sessions watching one dashboard, and the document
+   * they were last sent.
+   */
+  private static final class Channel {
+    /**
+     * The name of the channel.
+     */
+    private final String my_name;
+
+    /**
+     * The county ID, or null for the DoS dashboard.
+     */
+    private final Long my_county_id;
+
+    /**
+     * The sessions watching the channel.
+     */
+    private final Set<Session> my_sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The document last sent, or null if nobody is watching; this is only
+     * changed on the executor.
+     */
+    private volatile JsonElement my_document;
+
+    /**
+     * Constructs a new Channel.
+     *
+     * @param the_name The channel name.
+     */
+    Channel(final String the_name) {
+      my_name = the_name;
+      if (DOS_CHANNEL.equals(the_name)) {
+        my_county_id = null;
+      } else {
+        my_county_id = Long.valueOf(the_name.substring(the_name.indexOf('-') + 1));
+      }
+    }
+  }
+
+  /**
+   * A ticket for connecting to a channel.
+   */
+  private static final class Ticket {
+    /**
+     * The name of the channel.
+     */
+    private final String my_channel;
+
+    /**
+     * The expiry time, in milliseconds since the epoch.
+     */
+    private final long my_expiry;
+
+    /**
+     * Constructs a new Ticket.
+     *
+     * @param the_channel The channel name.
+     * @param the_expiry The expiry time.
+     */
+    Ticket(final String the_channel, final long the_expiry) {
+      my_channel = the_channel;
+      my_expiry = the_expiry;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.util.Collections;
+
+import org.apache.log4j.Level;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.Main;
+
+/**
+ * The endpoint that issues tickets for connecting to the dashboard push
+ * WebSocket. A ticket is for the dashboard of the authenticated
+ * administrator: the DoS dashboard for a state administrator, or the
+ * county's dashboard for a county administrator. It can be used once, and
+ * expires shortly after it is issued.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// endpoints don't need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class DashboardPushTicket extends AbstractEndpoint {
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.GET;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/dashboard-push-ticket";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Level logLevel() {
+    return Level.DEBUG;
+  }
+
+  /**
+   * This endpoint requires any kind of authentication.
+   */
+  @Override
+  public AuthorizationType requiredAuthorization() {
+    return AuthorizationType.EITHER;
+  }
+
+  /**
+   * Issues a dashboard push ticket.
+   *
+   * @param the_request The request.
+   * @param the_response The response.
+   */
+  @Override
+  public String endpointBody(final Request the_request, final Response the_response) {
+    final String ticket = DashboardPush.instance().
+        issueTicket(Main.authentication().authenticatedCounty(the_request));
+    okJSON(the_response, Main.GSON.toJson(Collections.singletonMap(
+        DashboardPush.TICKET_PARAMETER, ticket)));
+    return my_endpoint_result.get();
+  }
+}
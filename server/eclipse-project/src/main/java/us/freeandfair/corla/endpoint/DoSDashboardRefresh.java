@@ -56,6 +56,14 @@ public class DoSDashboardRefresh extends AbstractDoSDashboardEndpoint {
     return Level.DEBUG;
   }
   
+  /**
+   * The entity tag is that of the state's data.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    return EntityTags.state();
+  }
+
   /**
    * Provides information about the DoS dashboard.
    * 
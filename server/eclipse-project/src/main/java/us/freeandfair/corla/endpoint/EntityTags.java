@@ -0,0 +1,245 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.security.SecureRandom;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.asm.AuditBoardDashboardASM;
+import us.freeandfair.corla.asm.CountyDashboardASM;
+import us.freeandfair.corla.asm.DoSDashboardASM;
+import us.freeandfair.corla.asm.PersistentASMState;
+import us.freeandfair.corla.controller.RoundStarter;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.DoSDashboard;
+import us.freeandfair.corla.model.UploadedFile;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.PersistentASMStateQueries;
+import us.freeandfair.corla.query.VersionQueries;
+import us.freeandfair.corla.util.ImportScheduler;
+import us.freeandfair.corla.util.ImportScheduler.Kind;
+
+/**
+ * Entity tags for GET responses, computed from the versions of the entities
+ * the responses are built from, so that an unchanged response can be
+ * answered with "304 Not Modified" without building it. Each tag starts
+ * with an epoch that changes when the server starts and when the database
+ * is reset, since versions start over when the entities are recreated.
+ *
+ * No tag is computed while a response depends on something that has no
+ * version: the estimated completion times of scheduled imports, which
+ * change with the time, and the status of a round start in progress.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+final class EntityTags {
+  /**
+   * The separator between the parts of a tag.
+   */
+  private static final String SEPARATOR = "-";
+
+  /**
+   * The prefix of a weak tag.
+   */
+  private static final String WEAK_PREFIX = "W/";
+
+  /**
+   * The radix of the epoch.
+   */
+  private static final int EPOCH_RADIX = 36;
+
+  /**
+   * The random number generator for epochs.
+   */
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  /**
+   * The current epoch.
+   */
+  private static volatile String epoch = newEpoch();
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private EntityTags() {
+    // do nothing
+  }
+
+  /**
+   * Starts a new epoch, invalidating all tags issued so far.
+   */
+  static void reset() {
+    epoch = newEpoch();
+  }
+
+  /**
+   * Checks whether an If-None-Match header matches a tag, using the weak
+   * comparison that RFC 7232 specifies for If-None-Match.
+   *
+   * @param the_header The header value, or null if there is none.
+   * @param the_tag The tag.
+   * @return true if the header matches the tag, false otherwise.
+   */
+  static boolean matches(final String the_header, final String the_tag) {
+    boolean result = false;
+    if (the_header != null) {
+      final String opaque = opaque(the_tag);
+      for (final String candidate : the_header.split(",")) {
+        final String trimmed = candidate.trim();
+        if ("*".equals(trimmed) || opaque(trimmed).equals(opaque)) {
+          result = true;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the tag for a county's data: its dashboard, its ASMs, and the
+   * audit definition on the DoS dashboard.
+   *
+   * @param the_county_id The county ID.
+   * @return the tag, or null if none can be computed.
+   */
+  static String county(final Long the_county_id) {
+    if (ImportScheduler.instance().scheduled(the_county_id, Kind.CVR_EXPORT)) {
+      return null;
+    }
+    String result = null;
+    try {
+      final CountyDashboard cdb = Persistence.getByID(the_county_id, CountyDashboard.class);
+      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+      if (cdb != null && dosdb != null) {
+        final String id = the_county_id.toString();
+        result = tag("county", the_county_id, cdb.version(), cdb.rounds().size(),
+                     dosdb.version(),
+                     asmVersion(PersistentASMStateQueries.get(CountyDashboardASM.class, id)),
+                     asmVersion(PersistentASMStateQueries.get(AuditBoardDashboardASM.class,
+                                                              id)),
+                     asmVersion(PersistentASMStateQueries.get(DoSDashboardASM.class,
+                                                              DoSDashboardASM.IDENTITY)),
+                     VersionQueries.summary(UploadedFile.class));
+      }
+    } catch (final PersistenceException e) {
+      // without a tag, the response is built as usual
+      result = null;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the tag for the state's data: the DoS dashboard, every county
+   * dashboard, and all the ASMs.
+   *
+   * @return the tag, or null if none can be computed.
+   */
+  static String state() {
+    final RoundStarter.Status round_start = RoundStarter.instance().status();
+    if (!ImportScheduler.instance().idle() ||
+        round_start != null && round_start.inProgress()) {
+      return null;
+    }
+    final String round_start_part;
+    if (round_start == null) {
+      round_start_part = "none";
+    } else {
+      round_start_part = round_start.round() + SEPARATOR +
+                         round_start.startTime().toEpochMilli();
+    }
+    String result = null;
+    try {
+      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+      if (dosdb != null) {
+        result = tag("state", dosdb.version(), round_start_part,
+                     VersionQueries.summary(CountyDashboard.class),
+                     VersionQueries.summary(PersistentASMState.class),
+                     VersionQueries.summary(UploadedFile.class));
+      }
+    } catch (final PersistenceException e) {
+      // without a tag, the response is built as usual
+      result = null;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the tag for the contests of the counties that have completed
+   * their uploads.
+   *
+   * @return the tag, or null if none can be computed.
+   */
+  static String contests() {
+    if (!ImportScheduler.instance().idle()) {
+      return null;
+    }
+    String result = null;
+    try {
+      result = tag("contests", VersionQueries.completedUploads(),
+                   VersionQueries.summary(Contest.class));
+    } catch (final PersistenceException e) {
+      // without a tag, the response is built as usual
+      result = null;
+    }
+    return result;
+  }
+
+  /**
+   * @param the_state A persistent ASM state, or null.
+   * @return the version of the state, or null.
+   */
+  private static Long asmVersion(final PersistentASMState the_state) {
+    Long result = null;
+    if (the_state != null) {
+      result = the_state.version();
+    }
+    return result;
+  }
+
+  /**
+   * Builds a weak tag from the current epoch and some parts.
+   *
+   * @param the_parts The parts.
+   * @return the tag.
+   */
+  private static String tag(final Object... the_parts) {
+    final StringBuilder sb = new StringBuilder(WEAK_PREFIX);
+    sb.append('"').append(epoch);
+    for (final Object part : the_parts) {
+      sb.append(SEPARATOR).append(part);
+    }
+    sb.append('"');
+    return sb.toString();
+  }
+
+  /**
+   * @param the_tag A tag.
+   * @return the opaque part of the tag, without any weakness indicator.
+   */
+  private static String opaque(final String the_tag) {
+    String result = the_tag;
+    if (result.startsWith(WEAK_PREFIX)) {
+      result = result.substring(WEAK_PREFIX.length());
+    }
+    return result;
+  }
+
+  /**
+   * @return a new random epoch.
+   */
+  private static String newEpoch() {
+    return Long.toString(RANDOM.nextLong() & Long.MAX_VALUE, EPOCH_RADIX);
+  }
+}
@@ -25,6 +25,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Blob;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
@@ -55,8 +57,10 @@ import us.freeandfair.corla.model.UploadedFile.FileStatus;
 import us.freeandfair.corla.model.UploadedFile.HashStatus;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.util.FileHelper;
+import us.freeandfair.corla.util.IngestOutputStream;
 import us.freeandfair.corla.util.SparkHelper;
 import us.freeandfair.corla.util.SuppressFBWarnings;
+import us.freeandfair.corla.util.UploadStaging;
 
 /**
  * The file upload endpoint.
@@ -76,6 +80,17 @@ public class FileUpload extends AbstractEndpoint {
    */
   public static final String FILE = "file";
   
+  /**
+   * The name of the property that selects the upload ingest mode.
+   */
+  public static final String INGEST_MODE_PROPERTY = "upload_ingest_mode";
+  
+  /**
+   * The ingest mode that hashes, counts, archives and stages an upload 
+   * while it is being received, instead of re-reading it afterwards.
+   */
+  public static final String SINGLE_PASS_INGEST_MODE = "single_pass";
+  
   /**
    * The upload buffer size, in bytes.
    */
@@ -127,16 +142,17 @@ public class FileUpload extends AbstractEndpoint {
                                               final County the_county) {
     UploadedFile result = null;
     
-    try (FileInputStream is = new FileInputStream(the_info.my_file);
-         LineNumberReader lnr = 
-             new LineNumberReader(new InputStreamReader(new FileInputStream(the_info.my_file), 
-                                                        "UTF-8"))) {
+    try (FileInputStream is = new FileInputStream(the_info.my_file)) {
       final Blob blob = Persistence.blobFor(is, the_info.my_file.length());
       final HashStatus hash_status;
       
       // first, compute the approximate number of records in the file
-      lnr.skip(Integer.MAX_VALUE);
-      final int approx_records = lnr.getLineNumber();
+      final int approx_records;
+      if (the_info.my_ingest == null) {
+        approx_records = countLines(the_info.my_file);
+      } else {
+        approx_records = the_info.my_ingest.lineCount();
+      }
       
       if (the_info.my_computed_hash == null) {
         hash_status = HashStatus.NOT_CHECKED;
@@ -155,6 +171,12 @@ public class FileUpload extends AbstractEndpoint {
                                 approx_records);
       Persistence.save(result);
       Persistence.flush();
+      // only a verified upload can be imported, so only a verified upload
+      // is worth staging
+      if (the_info.my_ingest != null && hash_status == HashStatus.VERIFIED) {
+        UploadStaging.stage(result, the_info.my_file);
+        the_info.my_staged = true;
+      }
     } catch (final PersistenceException | IOException e) {
       badDataType(the_response, "could not persist file of size " + 
                                 the_info.my_file.length());
@@ -163,6 +185,82 @@ public class FileUpload extends AbstractEndpoint {
     return result;
   }
   
+  /**
+   * Counts the lines in a file.
+   * 
+   * @param the_file The file.
+   * @return the number of lines.
+   * @exception IOException if the file cannot be read.
+   */
+  // we are deliberately ignoring the return value of lnr.skip()
+  @SuppressFBWarnings("SR_NOT_CHECKED")
+  private int countLines(final File the_file) throws IOException {
+    try (LineNumberReader lnr = 
+             new LineNumberReader(new InputStreamReader(new FileInputStream(the_file), 
+                                                        "UTF-8"))) {
+      lnr.skip(Integer.MAX_VALUE);
+      return lnr.getLineNumber();
+    }
+  }
+  
+  /**
+   * Opens the stream to which an upload is copied. In single pass ingest
+   * mode, this tees the upload into the temp file, the digest, the line 
+   * counter and the archive; otherwise, it just writes the temp file.
+   * 
+   * @param the_info The upload information to update.
+   * @return the stream.
+   * @exception IOException if the temp file cannot be opened.
+   */
+  private OutputStream uploadStream(final UploadInformation the_info) 
+      throws IOException {
+    final OutputStream result;
+    final OutputStream os = new FileOutputStream(the_info.my_file);
+    final String mode = Main.properties().getProperty(INGEST_MODE_PROPERTY, "");
+    
+    if (SINGLE_PASS_INGEST_MODE.equalsIgnoreCase(mode.trim())) {
+      MessageDigest md = null;
+      try {
+        md = MessageDigest.getInstance(HashChecker.ALGORITHM);
+      } catch (final NoSuchAlgorithmException e) {
+        Main.LOGGER.error("No Java security framework installed.");
+      }
+      if (md == null) {
+        result = os;
+      } else {
+        the_info.my_ingest = new IngestOutputStream(os, archiveStream(the_info), md);
+        result = the_info.my_ingest;
+      }
+    } else {
+      result = os;
+    }
+    return result;
+  }
+  
+  /**
+   * Opens the archive copy of an upload for writing, so that it can be 
+   * archived while it is being received.
+   * 
+   * @param the_info The upload information to update.
+   * @return the stream, or null if the archive copy cannot be opened.
+   */
+  // we are deliberately ignoring the return value of archive_file_dir.mkdirs()
+  @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+  private OutputStream archiveStream(final UploadInformation the_info) {
+    final String archive_file_path = fetchArchiveFilePath();
+    new File(archive_file_path).mkdirs();
+    final String archive_file_name = archiveFileName(the_info.my_filename);
+    OutputStream result = null;
+    try {
+      result = new FileOutputStream(archive_file_path + archive_file_name);
+      the_info.my_archive_file_name = archive_file_name;
+    } catch (final IOException e) {
+      Main.LOGGER.info("Encountered exception while archiving file (" +
+                       archive_file_name + ")", e);
+    }
+    return result;
+  }
+  
   /**
    * Handles the upload of the file, updating the provided UploadInformation.
    * 
@@ -194,20 +292,20 @@ public class FileUpload extends AbstractEndpoint {
             // save the file
             the_info.my_filename = item.getName();
             the_info.my_file = File.createTempFile("upload", ".csv");
-            final OutputStream os = new FileOutputStream(the_info.my_file);
-            final int total =
-                FileHelper.bufferedCopy(stream, os, BUFFER_SIZE, MAX_UPLOAD_SIZE);
-
-            if (total >= MAX_UPLOAD_SIZE) {
-              Main.LOGGER.info("attempt to upload file greater than max size from " +
-                               raw.getRemoteHost());
-              badDataContents(the_response, "Upload Failed");
-              the_info.my_ok = false;
-            } else {
-              Main.LOGGER.info("successfully saved file of size " + total + " from " +
-                               raw.getRemoteHost());
+            try (OutputStream os = uploadStream(the_info)) {
+              final int total =
+                  FileHelper.bufferedCopy(stream, os, BUFFER_SIZE, MAX_UPLOAD_SIZE);
+
+              if (total >= MAX_UPLOAD_SIZE) {
+                Main.LOGGER.info("attempt to upload file greater than max size from " +
+                                 raw.getRemoteHost());
+                badDataContents(the_response, "Upload Failed");
+                the_info.my_ok = false;
+              } else {
+                Main.LOGGER.info("successfully saved file of size " + total + " from " +
+                                 raw.getRemoteHost());
+              }
             }
-            os.close();
           }
         }
       }
@@ -249,16 +347,20 @@ public class FileUpload extends AbstractEndpoint {
     // name of file that was uploaded
     final String uploaded_file_name = the_upload_information.my_filename;
 
-    // Prepend timestamp to file name.
-    // Not append timestamp as we can't assure if file names follow
-    // filename.ext format
-    // Example: 2018-05-17-T10-44-04.244-Arapahoe 2016 Primary Ballot Manifest.csv
-    // Cannot use ':' as in HH:mm:ss because, when running in Windows, it
-    // throws java.nio.file.InvalidPathException
-    final String archive_file_name =
-        new SimpleDateFormat("yyyy-MM-dd-'T'HH-mm-ss.SSS-",
-                             Locale.US).format(new Date()) +
-        uploaded_file_name;
+    // fetch location where file needs to be uploaded to for archival
+    final String archive_file_path = fetchArchiveFilePath();
+
+    // if the file was archived completely while it was uploaded, reuse its 
+    // archive name; otherwise, it still has to be copied
+    final boolean archived = 
+        the_upload_information.my_archive_file_name != null &&
+        !the_upload_information.my_ingest.secondaryFailed();
+    final String archive_file_name;
+    if (archived) {
+      archive_file_name = the_upload_information.my_archive_file_name;
+    } else {
+      archive_file_name = archiveFileName(uploaded_file_name);
+    }
 
     // create corresponding hash file name to archive. Prepend archive_file_name
     // so it is paired correctly
@@ -282,20 +384,38 @@ public class FileUpload extends AbstractEndpoint {
       archive_hash_file_name = archive_file_name + "-Hash.txt";
     }
 
-    // fetch location where file needs to be uploaded to for archival
-    final String archive_file_path = fetchArchiveFilePath();
     // create directory if not existing
     final File archive_file_dir = new File(archive_file_path);
     archive_file_dir.mkdirs();
 
     // archive file by copying it to destination
-    archiveFile(archive_file_path + archive_file_name,
-                the_upload_information.my_file.toPath());
+    if (!archived) {
+      archiveFile(archive_file_path + archive_file_name,
+                  the_upload_information.my_file.toPath());
+    }
     // create corresponding hash text file with hash value in it
     archiveHashFile(archive_file_path + archive_hash_file_name,
                     the_upload_information.my_uploaded_hash);
   }
 
+  /**
+   * Computes the archive name of an uploaded file.
+   * 
+   * @param the_uploaded_file_name The name of the uploaded file.
+   * @return the archive name.
+   */
+  private String archiveFileName(final String the_uploaded_file_name) {
+    // Prepend timestamp to file name.
+    // Not append timestamp as we can't assure if file names follow
+    // filename.ext format
+    // Example: 2018-05-17-T10-44-04.244-Arapahoe 2016 Primary Ballot Manifest.csv
+    // Cannot use ':' as in HH:mm:ss because, when running in Windows, it
+    // throws java.nio.file.InvalidPathException
+    return new SimpleDateFormat("yyyy-MM-dd-'T'HH-mm-ss.SSS-",
+                                Locale.US).format(new Date()) +
+           the_uploaded_file_name;
+  }
+
   /**
    * Copies passed in temporary file into archive destination, also renames it
    * to its original name.
@@ -398,7 +518,11 @@ public class FileUpload extends AbstractEndpoint {
       UploadedFile uploaded_file = null;
     
       if (info.my_ok) {
-        info.my_computed_hash = HashChecker.hashFile(info.my_file);
+        if (info.my_ingest == null) {
+          info.my_computed_hash = HashChecker.hashFile(info.my_file);
+        } else {
+          info.my_computed_hash = info.my_ingest.hash();
+        }
         info.my_uploaded_hash =
             info.my_form_fields.get(HASH).toUpperCase(Locale.US).trim();
         uploaded_file = attemptFilePersistence(the_response, info, county);
@@ -413,7 +537,7 @@ public class FileUpload extends AbstractEndpoint {
         try {
           // archive file before deleting
           archive(info);
-          if (!info.my_file.delete()) {
+          if (!info.my_staged && !info.my_file.delete()) {
             Main.LOGGER.error("Unable to delete temp file " + info.my_file);
           }
         } catch (final SecurityException e) {
@@ -462,5 +586,23 @@ public class FileUpload extends AbstractEndpoint {
      * The computed hash.
      */
     protected String my_computed_hash;
+    
+    /**
+     * The single pass ingest stream, or null if the upload was not ingested
+     * in a single pass.
+     */
+    protected IngestOutputStream my_ingest;
+    
+    /**
+     * The archive name of the copy written during the upload, or null if 
+     * none was written.
+     */
+    protected String my_archive_file_name;
+    
+    /**
+     * A flag indicating whether the uploaded file was staged for import, 
+     * in which case it must not be deleted.
+     */
+    protected boolean my_staged;
   }
 }
@@ -19,12 +19,18 @@ import us.freeandfair.corla.asm.AuditBoardDashboardASM;
 import us.freeandfair.corla.asm.CountyDashboardASM;
 import us.freeandfair.corla.asm.DoSDashboardASM;
 import us.freeandfair.corla.asm.PersistentASMState;
+import us.freeandfair.corla.controller.AuditSequenceCache;
+import us.freeandfair.corla.controller.ContestAuditAggregates;
+import us.freeandfair.corla.controller.ManifestIndex;
+import us.freeandfair.corla.controller.RoundStarter;
+import us.freeandfair.corla.controller.SamplePlanner;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.DatabaseResetQueries;
 import us.freeandfair.corla.query.PersistentASMStateQueries;
+import us.freeandfair.corla.util.UploadStaging;
 
 /**
  * Reset the database, except for authentication information and uploaded
@@ -87,6 +93,13 @@ public class ResetDatabase extends AbstractEndpoint {
     // delete everything
     
     DatabaseResetQueries.resetDatabase();
+    AuditSequenceCache.clear();
+    ContestAuditAggregates.clear();
+    EntityTags.reset();
+    ManifestIndex.clear();
+    SamplePlanner.clear();
+    UploadStaging.clear();
+    RoundStarter.instance().clear();
     
     // create new dashboards
     final DoSDashboard dosdb = new DoSDashboard();
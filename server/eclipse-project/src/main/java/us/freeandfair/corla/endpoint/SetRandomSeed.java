@@ -23,6 +23,7 @@ import spark.Response;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.asm.ASMEvent;
+import us.freeandfair.corla.controller.SamplePlanner;
 import us.freeandfair.corla.model.AuditInfo;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
@@ -98,6 +99,8 @@ public class SetRandomSeed extends AbstractDoSDashboardEndpoint {
             new AuditInfo(null, null, null, submitted.seed(), null);
         dosdb.updateAuditInfo(seed);
         Persistence.saveOrUpdate(dosdb);
+        // the audit sequences can be generated as soon as the seed is published
+        SamplePlanner.startAfterCommit(seed.seed());
         my_event.set(nextEvent(dosdb));
         ok(the_response, "random seed set to " + seed.seed());
       } else {
@@ -18,6 +18,7 @@ import static us.freeandfair.corla.asm.ASMState.DoSDashboardState.COMPLETE_AUDIT
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.PersistenceException;
 
@@ -33,6 +34,8 @@ import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.AuditBoardDashboardASM;
 import us.freeandfair.corla.asm.CountyDashboardASM;
 import us.freeandfair.corla.controller.ComparisonAuditController;
+import us.freeandfair.corla.controller.ContestAuditAggregates;
+import us.freeandfair.corla.controller.RoundStarter;
 import us.freeandfair.corla.json.SubmittedAuditRoundStart;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.persistence.Persistence;
@@ -116,7 +119,9 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   }
   
   /**
-   * Starts the first audit round.
+   * Starts the first audit round. The round is started for each county by
+   * a separate job, in its own transaction; the jobs run in parallel, and 
+   * this request waits for all of them to finish.
    * 
    * @param the_request The HTTP request.
    * @param the_response The HTTP response.
@@ -125,75 +130,19 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   public String startRoundOne(final Request the_request, final Response the_response) {
     // update every county dashboard with a list of ballots to audit
     try {
-      final List<CountyDashboard> cdbs = Persistence.getAll(CountyDashboard.class);
-      
-      // this flag starts off true if we're going to conjoin it with all the ASM
-      // states, and false otherwise as we just assume audit reasonableness in the 
-      // absence of ASMs
-      boolean audit_complete = !DISABLE_ASM;
-      
-      for (final CountyDashboard cdb : cdbs) {
-        try {
-          if (cdb.cvrFile() == null || cdb.manifestFile() == null) {
-            Main.LOGGER.info(COUNTY + cdb.id() + " missed the file upload deadline");
-          } else {
-            // find the initial window
-            final boolean started = ComparisonAuditController.initializeAuditData(cdb);
-            if (started) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " estimated to audit " + 
-                               cdb.estimatedSamplesToAudit() + " ballots in round 1");
-            } else if (cdb.drivingContests().isEmpty()) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " has no driving contests, its " +
-                               "audit is complete.");
-            } else if (cdb.estimatedSamplesToAudit() == 0) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " needs to audit 0 ballots to " +
-                               "achieve its risk limit, its audit is complete.");
-            } else {
-              Main.LOGGER.error("unable to start audit for county " + cdb.id());
-            }
-            Persistence.saveOrUpdate(cdb);
-          } 
-          // update the ASMs for the county and audit board
-          if (!DISABLE_ASM) {
-            final CountyDashboardASM asm = 
-                ASMUtilities.asmFor(CountyDashboardASM.class, String.valueOf(cdb.id()));
-            asm.stepEvent(COUNTY_START_AUDIT_EVENT);
-            final ASMEvent audit_event;
-            if (asm.currentState().equals(CountyDashboardState.COUNTY_AUDIT_UNDERWAY)) {
-              if (cdb.comparisonAudits().isEmpty()) {
-                // the county made its deadline but was assigned no contests to audit
-                audit_event = NO_CONTESTS_TO_AUDIT_EVENT;
-                asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
-              } else if (cdb.estimatedSamplesToAudit() <= 0) {
-                // the county made its deadline but has already achieved its risk limit
-                audit_event = RISK_LIMIT_ACHIEVED_EVENT;
-                asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
-              } else {
-                // the audit started normally
-                audit_event = ROUND_START_EVENT;
-              }
-            } else {
-              // the county missed its deadline
-              audit_event = COUNTY_DEADLINE_MISSED_EVENT;
-            }
-            ASMUtilities.step(audit_event, AuditBoardDashboardASM.class,
-                              String.valueOf(cdb.id()));
-            ASMUtilities.save(asm);
-            
-            // figure out whether this county is done, or whether there's an audit to run
-            audit_complete &= asm.isInFinalState();
-          }
-        } catch (final IllegalArgumentException e) {
-          e.printStackTrace(System.out);
-          serverError(the_response, "could not start round 1 for county " + 
-                      cdb.id());
-          Main.LOGGER.info("could not start round 1 for county " + cdb.id());
-        } catch (final IllegalStateException e) {
-          illegalTransition(the_response, e.getMessage());
-        }
+      final List<Long> county_ids = new ArrayList<>();
+      for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
+        county_ids.add(cdb.id());
       }
+      final Map<Long, Boolean> results = 
+          RoundStarter.instance().run(1, county_ids, this::startRoundOne);
       
-      if (audit_complete) {
+      if (results.size() < county_ids.size()) {
+        serverError(the_response, "could not start round 1 for " + 
+                                  failures(RoundStarter.instance().status()));
+      } else if (!DISABLE_ASM && !results.containsValue(false)) {
+        // we assume audit reasonableness in the absence of ASMs, and 
+        // otherwise the audit is complete if every county's audit is
         my_event.set(DOS_AUDIT_COMPLETE_EVENT);
         ok(the_response, "audit complete");
       } else {
@@ -201,13 +150,95 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
       }
     } catch (final PersistenceException e) {
       serverError(the_response, "could not start round 1");
+    } catch (final IllegalStateException e) {
+      illegalTransition(the_response, e.getMessage());
     }
     
     return my_endpoint_result.get();
   }
+  
+  /**
+   * Starts the first audit round for a county; this runs in its own
+   * transaction. If the county's round has already been started (by an 
+   * earlier attempt to start round 1 that failed for other counties), it 
+   * is not started again.
+   * 
+   * @param the_county_id The county ID.
+   * @return true if the county's audit is complete, false otherwise.
+   * @exception IllegalArgumentException if the round cannot be started.
+   * @exception IllegalStateException if the county's state machines do not
+   * allow the round to start.
+   */
+  private boolean startRoundOne(final Long the_county_id) {
+    final CountyDashboard cdb = Persistence.getByID(the_county_id, CountyDashboard.class);
+    final CountyDashboardASM asm;
+    if (DISABLE_ASM) {
+      asm = null;
+    } else {
+      asm = ASMUtilities.asmFor(CountyDashboardASM.class, String.valueOf(the_county_id));
+      if (!asm.enabledASMEvents().contains(COUNTY_START_AUDIT_EVENT)) {
+        // the round was started by an earlier attempt
+        return asm.isInFinalState();
+      }
+    }
+    
+    if (cdb.cvrFile() == null || cdb.manifestFile() == null) {
+      Main.LOGGER.info(COUNTY + cdb.id() + " missed the file upload deadline");
+    } else {
+      // find the initial window
+      final boolean started = ComparisonAuditController.initializeAuditData(cdb);
+      if (started) {
+        Main.LOGGER.info(COUNTY + cdb.id() + " estimated to audit " + 
+                         cdb.estimatedSamplesToAudit() + " ballots in round 1");
+      } else if (cdb.drivingContests().isEmpty()) {
+        Main.LOGGER.info(COUNTY + cdb.id() + " has no driving contests, its " +
+                         "audit is complete.");
+      } else if (cdb.estimatedSamplesToAudit() == 0) {
+        Main.LOGGER.info(COUNTY + cdb.id() + " needs to audit 0 ballots to " +
+                         "achieve its risk limit, its audit is complete.");
+      } else {
+        Main.LOGGER.error("unable to start audit for county " + cdb.id());
+      }
+      Persistence.saveOrUpdate(cdb);
+      ContestAuditAggregates.update(cdb);
+    } 
+    if (asm == null) {
+      return false;
+    }
+    
+    // update the ASMs for the county and audit board
+    asm.stepEvent(COUNTY_START_AUDIT_EVENT);
+    final ASMEvent audit_event;
+    if (asm.currentState().equals(CountyDashboardState.COUNTY_AUDIT_UNDERWAY)) {
+      if (cdb.comparisonAudits().isEmpty()) {
+        // the county made its deadline but was assigned no contests to audit
+        audit_event = NO_CONTESTS_TO_AUDIT_EVENT;
+        asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
+      } else if (cdb.estimatedSamplesToAudit() <= 0) {
+        // the county made its deadline but has already achieved its risk limit
+        audit_event = RISK_LIMIT_ACHIEVED_EVENT;
+        asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
+      } else {
+        // the audit started normally
+        audit_event = ROUND_START_EVENT;
+      }
+    } else {
+      // the county missed its deadline
+      audit_event = COUNTY_DEADLINE_MISSED_EVENT;
+    }
+    ASMUtilities.step(audit_event, AuditBoardDashboardASM.class, String.valueOf(cdb.id()));
+    ASMUtilities.save(asm);
+    
+    // figure out whether this county is done, or whether there's an audit to run
+    return asm.isInFinalState();
+  }
 
   /**
-   * Starts a subsequent audit round.
+   * Starts a subsequent audit round. The counties are checked first, and 
+   * then the round is started for each county by a separate job, in its 
+   * own transaction; the jobs run in parallel, and this request waits for 
+   * all of them to finish. Counties whose rounds have already been started
+   * (by an earlier attempt that failed for other counties) are skipped.
    * 
    * @param the_request The HTTP request.
    * @param the_response The HTTP response.
@@ -238,7 +269,9 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
           cdbs.add(Persistence.getByID(id, CountyDashboard.class));
         }
       }
-    
+      
+      final List<CountyDashboard> auditing = new ArrayList<>();
+      int round = 1;
       for (final CountyDashboard cdb : cdbs) {
         final AuditBoardDashboardASM asm = 
             ASMUtilities.asmFor(AuditBoardDashboardASM.class, cdb.id().toString());
@@ -248,47 +281,111 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
                            ", skipping round start");
           continue;
         }
-        // if the county is in the middle of a round, error out
-        if (cdb.currentRound() != null) {
-          invariantViolation(the_response, 
-                             "audit round already in progress for county " + cdb.id());
-        }
-        
-        final ASMEvent audit_event;
-        final boolean round_started;
-        final BigDecimal multiplier;
-        if (start.multiplier() == null) {
-          multiplier = BigDecimal.ONE;
-        } else {
-          multiplier = start.multiplier();
-        }
-        if (start.useEstimates()) {
-          round_started = 
-              ComparisonAuditController.startNewRoundFromEstimates(cdb, multiplier);
+        auditing.add(cdb);
+        if (cdb.currentRound() == null) {
+          round = Math.max(round, cdb.rounds().size() + 1);
         } else {
-          round_started = ComparisonAuditController.
-              startNewRoundOfLength(cdb, start.countyBallots().get(cdb.id()), multiplier);
+          round = Math.max(round, cdb.rounds().size());
         }
-        if (round_started) {
-          Main.LOGGER.debug("round started for county " + cdb.id());       
-          audit_event = ROUND_START_EVENT;
+      }
+      
+      final List<Long> county_ids = new ArrayList<>();
+      for (final CountyDashboard cdb : auditing) {
+        if (cdb.currentRound() == null) {
+          county_ids.add(cdb.id());
+        } else if (cdb.rounds().size() == round) {
+          // the round was started by an earlier attempt
+          Main.LOGGER.debug("round " + round + " already started in county " + 
+                            cdb.id() + ", skipping round start");
         } else {
-          // we don't know why the round didn't start, so we need to abort the audit
-          Main.LOGGER.debug("no round started for county " + cdb.id());       
-          audit_event = ABORT_AUDIT_EVENT;
-        }
-        
-        // update the ASM for the audit board
-        if (!DISABLE_ASM) {
-          asm.stepEvent(audit_event);
-          ASMUtilities.save(asm);
+          // the county is in the middle of an earlier round, so error out
+          invariantViolation(the_response, 
+                             "audit round already in progress for county " + cdb.id());
         }
-      }      
+      }
+      
+      final SubmittedAuditRoundStart submitted = start;
+      final Map<Long, Boolean> results = 
+          RoundStarter.instance().run(round, county_ids, 
+                                      id -> startSubsequentRound(id, submitted));
+      if (results.size() < county_ids.size()) {
+        serverError(the_response, "could not start new audit round for " + 
+                                  failures(RoundStarter.instance().status()));
+      }
       ok(the_response, "new audit round started");
     } catch (final PersistenceException e) {
       serverError(the_response, "could not start new audit round");
+    } catch (final IllegalStateException e) {
+      illegalTransition(the_response, e.getMessage());
     }
     
     return my_endpoint_result.get();
   }
+  
+  /**
+   * Starts a subsequent audit round for a county; this runs in its own
+   * transaction.
+   * 
+   * @param the_county_id The county ID.
+   * @param the_start The round start request.
+   * @return false, since a county's audit is never completed by starting
+   * a subsequent round.
+   * @exception IllegalArgumentException if the round cannot be started.
+   * @exception IllegalStateException if the audit board's state machine 
+   * does not allow the round to start.
+   */
+  private boolean startSubsequentRound(final Long the_county_id,
+                                       final SubmittedAuditRoundStart the_start) {
+    final CountyDashboard cdb = Persistence.getByID(the_county_id, CountyDashboard.class);
+    final ASMEvent audit_event;
+    final boolean round_started;
+    final BigDecimal multiplier;
+    if (the_start.multiplier() == null) {
+      multiplier = BigDecimal.ONE;
+    } else {
+      multiplier = the_start.multiplier();
+    }
+    if (the_start.useEstimates()) {
+      round_started = 
+          ComparisonAuditController.startNewRoundFromEstimates(cdb, multiplier);
+    } else {
+      round_started = ComparisonAuditController.
+          startNewRoundOfLength(cdb, the_start.countyBallots().get(cdb.id()), multiplier);
+    }
+    ContestAuditAggregates.update(cdb);
+    if (round_started) {
+      Main.LOGGER.debug("round started for county " + cdb.id());       
+      audit_event = ROUND_START_EVENT;
+    } else {
+      // we don't know why the round didn't start, so we need to abort the audit
+      Main.LOGGER.debug("no round started for county " + cdb.id());       
+      audit_event = ABORT_AUDIT_EVENT;
+    }
+    
+    // update the ASM for the audit board
+    if (!DISABLE_ASM) {
+      final AuditBoardDashboardASM asm = 
+          ASMUtilities.asmFor(AuditBoardDashboardASM.class, cdb.id().toString());
+      asm.stepEvent(audit_event);
+      ASMUtilities.save(asm);
+    }
+    return false;
+  }
+  
+  /**
+   * Describes the failures of a round start.
+   * 
+   * @param the_status The round start status.
+   * @return the description.
+   */
+  private String failures(final RoundStarter.Status the_status) {
+    final StringBuilder sb = new StringBuilder();
+    for (final Map.Entry<Long, String> e : the_status.failures().entrySet()) {
+      if (sb.length() > 0) {
+        sb.append("; ");
+      }
+      sb.append(COUNTY).append(e.getKey()).append(": ").append(e.getValue());
+    }
+    return sb.toString();
+  }
 }
@@ -74,6 +74,14 @@ public class StateReportDownload extends AbstractEndpoint {
     return AuthorizationType.STATE;
   }
   
+  /**
+   * The entity tag is that of the state's data.
+   */
+  @Override
+  protected String entityTag(final Request the_request) {
+    return EntityTags.state();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,70 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+/**
+ * The result of one audit CVR in a batch audit CVR upload.
+ * 
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class AuditCVRSubmissionResult {
+  /**
+   * The original CVR ID for the audit CVR.
+   */
+  private final Long my_cvr_id;
+  
+  /**
+   * A flag indicating whether the audit CVR was accepted.
+   */
+  private final boolean my_accepted;
+  
+  /**
+   * The result string.
+   */
+  private final String my_result;
+  
+  /**
+   * Constructs a new AuditCVRSubmissionResult.
+   * 
+   * @param the_cvr_id The original CVR ID.
+   * @param the_accepted true if the audit CVR was accepted, false otherwise.
+   * @param the_result The result.
+   */
+  public AuditCVRSubmissionResult(final Long the_cvr_id, final boolean the_accepted,
+                                  final String the_result) {
+    my_cvr_id = the_cvr_id;
+    my_accepted = the_accepted;
+    my_result = the_result;
+  }
+  
+  /**
+   * @return the original CVR ID.
+   */
+  public Long cvrID() {
+    return my_cvr_id;
+  }
+  
+  /**
+   * @return true if the audit CVR was accepted, false otherwise.
+   */
+  public boolean accepted() {
+    return my_accepted;
+  }
+  
+  /**
+   * @return the result.
+   */
+  public String result() {
+    return my_result;
+  }
+}
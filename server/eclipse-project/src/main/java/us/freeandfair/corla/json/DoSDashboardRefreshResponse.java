@@ -24,16 +24,17 @@ import javax.persistence.PersistenceException;
 import us.freeandfair.corla.asm.ASMState;
 import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.DoSDashboardASM;
+import us.freeandfair.corla.controller.ContestAuditAggregates;
+import us.freeandfair.corla.controller.ContestAuditAggregates.ContestValues;
+import us.freeandfair.corla.controller.RoundStarter;
 import us.freeandfair.corla.model.AuditInfo;
 import us.freeandfair.corla.model.AuditReason;
 import us.freeandfair.corla.model.AuditType;
 import us.freeandfair.corla.model.ContestToAudit;
 import us.freeandfair.corla.model.County;
-import us.freeandfair.corla.model.CountyContestComparisonAudit;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.query.CountyContestComparisonAuditQueries;
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
 /**
@@ -99,6 +100,12 @@ public class DoSDashboardRefreshResponse {
    */
   private final SortedMap<Long, AuditType> my_audit_types;
   
+  /**
+   * The status of the most recent audit round start, or null if no round
+   * has been started since the server started.
+   */
+  private final RoundStarter.Status my_round_start;
+  
   /**
    * Constructs a new DosDashboardRefreshResponse.
    * 
@@ -113,6 +120,9 @@ public class DoSDashboardRefreshResponse {
    * @param the_county_status The county statuses.
    * @param the_hand_count_contests The hand count contests.
    * @param the_audit_info The election info.
+   * @param the_audit_reasons The audit reasons, by contest.
+   * @param the_audit_types The audit types, by contest.
+   * @param the_round_start The status of the most recent round start.
    */
   @SuppressWarnings("PMD.ExcessiveParameterList")
   protected DoSDashboardRefreshResponse(final ASMState the_asm_state,
@@ -129,7 +139,8 @@ public class DoSDashboardRefreshResponse {
                                         final List<Long> the_hand_count_contests,
                                         final AuditInfo the_audit_info,
                                         final SortedMap<Long, AuditReason> the_audit_reasons,
-                                        final SortedMap<Long, AuditType> the_audit_types) {
+                                        final SortedMap<Long, AuditType> the_audit_types,
+                                        final RoundStarter.Status the_round_start) {
     my_asm_state = the_asm_state;
     my_audited_contests = the_audited_contests;
     my_estimated_ballots_to_audit = the_estimated_ballots_to_audit;
@@ -140,6 +151,7 @@ public class DoSDashboardRefreshResponse {
     my_audit_info = the_audit_info;
     my_audit_reasons = the_audit_reasons;
     my_audit_types = the_audit_types;
+    my_round_start = the_round_start;
   }
   
   /**
@@ -165,6 +177,14 @@ public class DoSDashboardRefreshResponse {
     final SortedMap<Long, AuditType> audit_types = 
         new TreeMap<Long, AuditType>();
     
+    // all the county dashboards, read at once
+    final Map<Long, CountyDashboard> dashboards = new HashMap<>();
+    for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
+      dashboards.put(cdb.id(), cdb);
+    }
+    final Map<Long, ContestValues> aggregates = 
+        ContestAuditAggregates.aggregates(dashboards.values());
+    
     for (final ContestToAudit cta : the_dashboard.contestsToAudit()) {
       if (cta.audit() != AuditType.NONE) {
         audit_reasons.put(cta.contest().id(), cta.reason());
@@ -176,24 +196,15 @@ public class DoSDashboardRefreshResponse {
           int optimistic = Integer.MIN_VALUE;
           int estimated = Integer.MIN_VALUE;
           audited_contests.put(cta.contest().id(), cta.reason());
-          for (final CountyContestComparisonAudit ccca : 
-               CountyContestComparisonAuditQueries.matching(cta.contest())) {
-            optimistic = 
-                Math.max(optimistic, 
-                         Math.max(0, ccca.optimisticSamplesToAudit() - 
-                                     ccca.dashboard().auditedPrefixLength()));
-            estimated = 
-                Math.max(estimated, 
-                         Math.max(0, ccca.estimatedSamplesToAudit() - 
-                                     ccca.dashboard().auditedPrefixLength()));
-            
+          final ContestValues values = aggregates.get(cta.contest().id());
+          if (values != null) {
+            optimistic = values.optimistic();
+            estimated = values.estimated();
             // possible discrepancy types range from -2 to 2 inclusive,
             // and we provide them all in the refresh response
-            for (int i = -2; i <= 2; i++) {
-              if (discrepancy.get(i) == null) {
-                discrepancy.put(i,  0);
-              }
-              discrepancy.put(i, discrepancy.get(i) + ccca.discrepancyCount(i));
+            for (int i = ContestAuditAggregates.MIN_DISCREPANCY; 
+                 i <= ContestAuditAggregates.MAX_DISCREPANCY; i++) {
+              discrepancy.put(i, values.discrepancyCount(i));
             }
           }
           estimated_ballots_to_audit.put(cta.contest().id(), optimistic);
@@ -222,25 +233,28 @@ public class DoSDashboardRefreshResponse {
                                            estimated_ballots_to_audit,
                                            optimistic_ballots_to_audit,
                                            discrepancy_count,
-                                           countyStatusMap(),
+                                           countyStatusMap(dashboards),
                                            hand_count_contests,
                                            the_dashboard.auditInfo(),
                                            audit_reasons,
-                                           audit_types);
+                                           audit_types,
+                                           RoundStarter.instance().status());
   }
   
   /**
    * Gets the county statuses for all counties in the database.
    * 
+   * @param the_dashboards The county dashboards, by county ID.
    * @return a map from county identifiers to statuses.
    */
-  private static SortedMap<Long, CountyDashboardRefreshResponse> countyStatusMap() {
+  private static SortedMap<Long, CountyDashboardRefreshResponse> 
+      countyStatusMap(final Map<Long, CountyDashboard> the_dashboards) {
     final SortedMap<Long, CountyDashboardRefreshResponse> status_map = 
         new TreeMap<Long, CountyDashboardRefreshResponse>();
     final List<County> counties = Persistence.getAll(County.class);
     
     for (final County c : counties) {
-      final CountyDashboard db = Persistence.getByID(c.id(), CountyDashboard.class);
+      final CountyDashboard db = the_dashboards.get(c.id());
       if (db == null) {
         throw new PersistenceException("unable to read county dashboard state.");
       } else {   
@@ -0,0 +1,202 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableEquals;
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableHashCode;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import us.freeandfair.corla.persistence.PersistentEntity;
+
+/**
+ * The generated prefix of a county's audit sequence: the positions, in the
+ * county's list of uploaded CVRs, of the first ballot cards to audit. The
+ * sequence is determined entirely by the random seed and the number of CVRs,
+ * so a stored prefix remains valid, and can be extended where it ends, for
+ * as long as neither changes.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@Entity
+@Cacheable(false) // sequences are cached in memory by AuditSequenceCache
+@Table(name = "audit_sequence")
+//this class has many fields that would normally be declared final, but
+//cannot be for compatibility with Hibernate and JPA.
+@SuppressWarnings("PMD.ImmutableField")
+public class AuditSequence implements PersistentEntity {
+  /**
+   * The database ID; this is always the county ID.
+   */
+  @Id
+  private Long my_id;
+
+  /**
+   * The version (for optimistic locking).
+   */
+  @Version
+  private Long my_version;
+
+  /**
+   * The random seed.
+   */
+  @Column(nullable = false, updatable = false)
+  private String my_seed;
+
+  /**
+   * The number of CVRs.
+   */
+  @Column(nullable = false, updatable = false)
+  private Integer my_cvr_count;
+
+  /**
+   * The positions, as big-endian 4-byte integers.
+   */
+  @Column(nullable = false, updatable = false)
+  private byte[] my_positions;
+
+  /**
+   * Constructs an empty AuditSequence, solely for persistence.
+   */
+  public AuditSequence() {
+    super();
+  }
+
+  /**
+   * Constructs a new AuditSequence.
+   *
+   * @param the_county_id The county ID.
+   * @param the_seed The random seed.
+   * @param the_cvr_count The number of CVRs.
+   * @param the_positions An array containing the positions.
+   * @param the_length The number of positions.
+   */
+  public AuditSequence(final Long the_county_id, final String the_seed,
+                       final int the_cvr_count, final int[] the_positions,
+                       final int the_length) {
+    super();
+    my_id = the_county_id;
+    my_seed = the_seed;
+    my_cvr_count = the_cvr_count;
+    final ByteBuffer buffer = ByteBuffer.allocate(the_length * Integer.BYTES);
+    buffer.asIntBuffer().put(the_positions, 0, the_length);
+    my_positions = buffer.array();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long id() {
+    return my_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setID(final Long the_id) {
+    my_id = the_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long version() {
+    return my_version;
+  }
+
+  /**
+   * @return the random seed.
+   */
+  public String seed() {
+    return my_seed;
+  }
+
+  /**
+   * @return the number of CVRs.
+   */
+  public Integer cvrCount() {
+    return my_cvr_count;
+  }
+
+  /**
+   * @return the number of positions.
+   */
+  public int length() {
+    return my_positions.length / Integer.BYTES;
+  }
+
+  /**
+   * @return the positions, in a new array.
+   */
+  public int[] positions() {
+    final int[] result = new int[length()];
+    ByteBuffer.wrap(my_positions).asIntBuffer().get(result);
+    return result;
+  }
+
+  /**
+   * @return the encoded positions.
+   */
+  public byte[] encodedPositions() {
+    return Arrays.copyOf(my_positions, my_positions.length);
+  }
+
+  /**
+   * @return a String representation of this sequence.
+   */
+  @Override
+  public String toString() {
+    return "AuditSequence [id=" + my_id + ", cvr_count=" + my_cvr_count +
+           ", length=" + length() + "]";
+  }
+
+  /**
+   * Compare this object with another for equivalence.
+   *
+   * @param the_other The other object.
+   * @return true if the objects are equivalent, false otherwise.
+   */
+  @Override
+  public boolean equals(final Object the_other) {
+    boolean result = true;
+    if (the_other instanceof AuditSequence) {
+      final AuditSequence other_sequence = (AuditSequence) the_other;
+      result &= nullableEquals(other_sequence.id(), id());
+      result &= nullableEquals(other_sequence.seed(), seed());
+      result &= nullableEquals(other_sequence.cvrCount(), cvrCount());
+      result &= Arrays.equals(other_sequence.my_positions, my_positions);
+    } else {
+      result = false;
+    }
+    return result;
+  }
+
+  /**
+   * @return a hash code for this object.
+   */
+  @Override
+  public int hashCode() {
+    return nullableHashCode(id());
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableEquals;
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableHashCode;
+
+import java.util.Arrays;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import us.freeandfair.corla.persistence.PersistentEntity;
+
+/**
+ * The audit state of each of a county's uploaded ballot cards, as two
+ * bitmaps indexed by CVR sequence number: whether the ballot card has been
+ * selected for audit in a round, and whether an audit CVR has been
+ * submitted for it. These make deduplicating new rounds against earlier
+ * ones, and flagging audited ballot cards, bit lookups rather than entity
+ * loads.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@Entity
+@Cacheable(true)
+@Table(name = "ballot_audit_map")
+//this class has many fields that would normally be declared final, but
+//cannot be for compatibility with Hibernate and JPA.
+@SuppressWarnings("PMD.ImmutableField")
+public class BallotAuditMap implements PersistentEntity {
+  /**
+   * The number of bits in a byte.
+   */
+  private static final int BITS = Byte.SIZE;
+
+  /**
+   * The database ID; this is always the county ID.
+   */
+  @Id
+  private Long my_id;
+
+  /**
+   * The version (for optimistic locking).
+   */
+  @Version
+  private Long my_version;
+
+  /**
+   * The number of CVRs the bitmaps cover.
+   */
+  @Column(nullable = false)
+  private Integer my_cvr_count;
+
+  /**
+   * The bitmap of ballot cards selected for audit; bit i is bit (i % 8) of
+   * byte (i / 8).
+   */
+  @Column(nullable = false)
+  private byte[] my_selected;
+
+  /**
+   * The bitmap of ballot cards with submitted audit CVRs, in the same
+   * format as my_selected.
+   */
+  @Column(nullable = false)
+  private byte[] my_audited;
+
+  /**
+   * Constructs an empty BallotAuditMap, solely for persistence.
+   */
+  public BallotAuditMap() {
+    super();
+  }
+
+  /**
+   * Constructs a new BallotAuditMap with no ballot cards selected or
+   * audited.
+   *
+   * @param the_county_id The county ID.
+   * @param the_cvr_count The number of CVRs.
+   */
+  public BallotAuditMap(final Long the_county_id, final int the_cvr_count) {
+    super();
+    my_id = the_county_id;
+    reset(the_cvr_count);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long id() {
+    return my_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setID(final Long the_id) {
+    my_id = the_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long version() {
+    return my_version;
+  }
+
+  /**
+   * @return the number of CVRs the bitmaps cover.
+   */
+  public int cvrCount() {
+    return my_cvr_count;
+  }
+
+  /**
+   * Clears both bitmaps, and resizes them for the specified number of CVRs.
+   *
+   * @param the_cvr_count The number of CVRs.
+   * @exception IllegalArgumentException if the_cvr_count is negative.
+   */
+  public final void reset(final int the_cvr_count) {
+    if (the_cvr_count < 0) {
+      throw new IllegalArgumentException("negative CVR count " + the_cvr_count);
+    }
+    my_cvr_count = the_cvr_count;
+    my_selected = new byte[(the_cvr_count + BITS - 1) / BITS];
+    my_audited = new byte[my_selected.length];
+  }
+
+  /**
+   * Checks whether a ballot card has been selected for audit.
+   *
+   * @param the_sequence_number The sequence number of the ballot card's CVR.
+   * @return true if it has been selected, false otherwise (including if
+   * the sequence number is out of range).
+   */
+  public boolean selected(final int the_sequence_number) {
+    return get(my_selected, the_sequence_number);
+  }
+
+  /**
+   * Records that a ballot card has been selected for audit.
+   *
+   * @param the_sequence_number The sequence number of the ballot card's CVR.
+   * @exception IllegalArgumentException if the sequence number is out of range.
+   */
+  public void setSelected(final int the_sequence_number) {
+    set(my_selected, the_sequence_number);
+  }
+
+  /**
+   * Checks whether an audit CVR has been submitted for a ballot card.
+   *
+   * @param the_sequence_number The sequence number of the ballot card's CVR.
+   * @return true if one has been submitted, false otherwise (including if
+   * the sequence number is out of range).
+   */
+  public boolean audited(final int the_sequence_number) {
+    return get(my_audited, the_sequence_number);
+  }
+
+  /**
+   * Records that an audit CVR has been submitted for a ballot card.
+   *
+   * @param the_sequence_number The sequence number of the ballot card's CVR.
+   * @exception IllegalArgumentException if the sequence number is out of range.
+   */
+  public void setAudited(final int the_sequence_number) {
+    set(my_audited, the_sequence_number);
+  }
+
+  /**
+   * Gets a bit from a bitmap.
+   *
+   * @param the_bitmap The bitmap.
+   * @param the_index The index of the bit.
+   * @return the bit, or false if the index is out of range.
+   */
+  private boolean get(final byte[] the_bitmap, final int the_index) {
+    return 0 <= the_index && the_index < my_cvr_count &&
+           (the_bitmap[the_index / BITS] & 1 << the_index % BITS) != 0;
+  }
+
+  /**
+   * Sets a bit in a bitmap.
+   *
+   * @param the_bitmap The bitmap.
+   * @param the_index The index of the bit.
+   * @exception IllegalArgumentException if the index is out of range.
+   */
+  private void set(final byte[] the_bitmap, final int the_index) {
+    if (the_index < 0 || my_cvr_count <= the_index) {
+      throw new IllegalArgumentException("sequence number " + the_index +
+                                         " out of range for " + my_cvr_count + " CVRs");
+    }
+    the_bitmap[the_index / BITS] |= 1 << the_index % BITS;
+  }
+
+  /**
+   * @return a String representation of this map.
+   */
+  @Override
+  public String toString() {
+    return "BallotAuditMap [id=" + my_id + ", cvr_count=" + my_cvr_count + "]";
+  }
+
+  /**
+   * Compare this object with another for equivalence.
+   *
+   * @param the_other The other object.
+   * @return true if the objects are equivalent, false otherwise.
+   */
+  @Override
+  public boolean equals(final Object the_other) {
+    boolean result = true;
+    if (the_other instanceof BallotAuditMap) {
+      final BallotAuditMap other_map = (BallotAuditMap) the_other;
+      result &= nullableEquals(other_map.id(), id());
+      result &= nullableEquals(other_map.my_cvr_count, my_cvr_count);
+      result &= Arrays.equals(other_map.my_selected, my_selected);
+      result &= Arrays.equals(other_map.my_audited, my_audited);
+    } else {
+      result = false;
+    }
+    return result;
+  }
+
+  /**
+   * @return a hash code for this object.
+   */
+  @Override
+  public int hashCode() {
+    return nullableHashCode(id());
+  }
+}
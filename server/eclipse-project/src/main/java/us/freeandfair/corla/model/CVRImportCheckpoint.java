@@ -0,0 +1,222 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableEquals;
+import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableHashCode;
+
+import java.time.Instant;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import us.freeandfair.corla.persistence.PersistentEntity;
+
+/**
+ * The last committed position of a county's CVR import. A checkpoint is
+ * written in the same transaction as each batch of CVRs committed by a
+ * multi-transaction import, so it always describes exactly the CVRs that
+ * are in the database; an interrupted import of the same file can resume
+ * after them instead of starting over.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@Entity
+@Cacheable(false) // checkpoints are written by import threads only
+@Table(name = "cvr_import_checkpoint")
+//this class has many fields that would normally be declared final, but
+//cannot be for compatibility with Hibernate and JPA.
+@SuppressWarnings("PMD.ImmutableField")
+public class CVRImportCheckpoint implements PersistentEntity {
+  /**
+   * The database ID; this is always the county ID.
+   */
+  @Id
+  private Long my_id;
+
+  /**
+   * The version (for optimistic locking).
+   */
+  @Version
+  private Long my_version;
+
+  /**
+   * The ID of the uploaded file being imported.
+   */
+  @Column(nullable = false)
+  private Long my_file_id;
+
+  /**
+   * The number of CVRs committed.
+   */
+  @Column(nullable = false)
+  private Integer my_record_count;
+
+  /**
+   * The character offset, in the file, of the last committed CVR.
+   */
+  @Column(nullable = false)
+  private Long my_character_offset;
+
+  /**
+   * The vote tally of the committed CVRs, in an encoding chosen by the
+   * CVR export parser.
+   */
+  @Column(nullable = false, columnDefinition = "text")
+  private String my_tally;
+
+  /**
+   * The timestamp of the checkpoint.
+   */
+  @Column(nullable = false)
+  private Instant my_timestamp;
+
+  /**
+   * Constructs an empty CVRImportCheckpoint, solely for persistence.
+   */
+  public CVRImportCheckpoint() {
+    super();
+  }
+
+  /**
+   * Constructs a new, empty, CVRImportCheckpoint for the specified county
+   * and file.
+   *
+   * @param the_county_id The county ID.
+   * @param the_file_id The uploaded file ID.
+   */
+  public CVRImportCheckpoint(final Long the_county_id, final Long the_file_id) {
+    super();
+    my_id = the_county_id;
+    my_file_id = the_file_id;
+    update(0, 0L, "");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long id() {
+    return my_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setID(final Long the_id) {
+    my_id = the_id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long version() {
+    return my_version;
+  }
+
+  /**
+   * @return the ID of the uploaded file being imported.
+   */
+  public Long fileID() {
+    return my_file_id;
+  }
+
+  /**
+   * @return the number of CVRs committed.
+   */
+  public Integer recordCount() {
+    return my_record_count;
+  }
+
+  /**
+   * @return the character offset, in the file, of the last committed CVR.
+   */
+  public Long characterOffset() {
+    return my_character_offset;
+  }
+
+  /**
+   * @return the encoded vote tally of the committed CVRs.
+   */
+  public String tally() {
+    return my_tally;
+  }
+
+  /**
+   * @return the timestamp of the checkpoint.
+   */
+  public Instant timestamp() {
+    return my_timestamp;
+  }
+
+  /**
+   * Moves this checkpoint forward.
+   *
+   * @param the_record_count The number of CVRs committed.
+   * @param the_character_offset The character offset of the last committed CVR.
+   * @param the_tally The encoded vote tally of the committed CVRs.
+   */
+  public final void update(final int the_record_count, final long the_character_offset,
+                           final String the_tally) {
+    my_record_count = the_record_count;
+    my_character_offset = the_character_offset;
+    my_tally = the_tally;
+    my_timestamp = Instant.now();
+  }
+
+  /**
+   * @return a String representation of this checkpoint.
+   */
+  @Override
+  public String toString() {
+    return "CVRImportCheckpoint [id=" + my_id + ", file_id=" + my_file_id +
+           ", record_count=" + my_record_count + ", character_offset=" +
+           my_character_offset + ", timestamp=" + my_timestamp + "]";
+  }
+
+  /**
+   * Compare this object with another for equivalence.
+   *
+   * @param the_other The other object.
+   * @return true if the objects are equivalent, false otherwise.
+   */
+  @Override
+  public boolean equals(final Object the_other) {
+    boolean result = true;
+    if (the_other instanceof CVRImportCheckpoint) {
+      final CVRImportCheckpoint other_checkpoint = (CVRImportCheckpoint) the_other;
+      result &= nullableEquals(other_checkpoint.id(), id());
+      result &= nullableEquals(other_checkpoint.fileID(), fileID());
+      result &= nullableEquals(other_checkpoint.recordCount(), recordCount());
+      result &= nullableEquals(other_checkpoint.characterOffset(), characterOffset());
+      result &= nullableEquals(other_checkpoint.tally(), tally());
+    } else {
+      result = false;
+    }
+    return result;
+  }
+
+  /**
+   * @return a hash code for this object.
+   */
+  @Override
+  public int hashCode() {
+    return nullableHashCode(id());
+  }
+}
@@ -18,7 +18,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
@@ -172,6 +174,12 @@ public class CastVoteRecord implements PersistentEntity, Serializable {
    */
   private transient boolean my_audit_flag;
 
+  /**
+   * A transient index of the contest information by contest, built when first
+   * needed so that lookups by contest do not scan the contest information.
+   */
+  private transient Map<Contest, CVRContestInfo> my_contest_info_index;
+
   /**
    * Constructs an empty cast vote record, solely for persistence.
    */
@@ -332,12 +340,15 @@ public class CastVoteRecord implements PersistentEntity, Serializable {
    * or null if none were made for the specified contest.
    */
   public CVRContestInfo contestInfoForContest(final Contest the_contest) {
-    for (final CVRContestInfo info : my_contest_info) {
-      if (info.contest().equals(the_contest)) {
-        return info;
+    if (my_contest_info_index == null) {
+      final Map<Contest, CVRContestInfo> index = new HashMap<>();
+      for (final CVRContestInfo info : my_contest_info) {
+        // if a contest appears more than once, the first appearance counts
+        index.putIfAbsent(info.contest(), info);
       }
+      my_contest_info_index = index;
     }
-    return null;
+    return my_contest_info_index.get(the_contest);
   }
 
   /**
@@ -0,0 +1,297 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * The winners and losers of a contest result compiled to bit positions, for
+ * computing the discrepancies between ballots with bit operations instead of
+ * pairwise set lookups. Contests with more than 64 winners and losers are
+ * handled with sets, as are ballots whose choices include names that are
+ * neither winners nor losers when those names decide whether the ballots
+ * differ.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class CompiledContestResult {
+  /**
+   * The largest number of winners and losers that fit in a mask.
+   */
+  private static final int MAX_BITS = Long.SIZE;
+
+  /**
+   * The name of the contest, for error messages.
+   */
+  private final String my_contest_name;
+
+  /**
+   * The number of votes allowed in the contest.
+   */
+  private final int my_votes_allowed;
+
+  /**
+   * The winners.
+   */
+  private final Set<String> my_winners;
+
+  /**
+   * The losers.
+   */
+  private final Set<String> my_losers;
+
+  /**
+   * The bit positions of the winners and losers, or null if there are too
+   * many of them.
+   */
+  private final Map<String, Integer> my_bits;
+
+  /**
+   * The mask of the winners.
+   */
+  private final long my_winner_mask;
+
+  /**
+   * The mask of the losers.
+   */
+  private final long my_loser_mask;
+
+  /**
+   * Constructs a new CompiledContestResult.
+   *
+   * @param the_contest_name The name of the contest.
+   * @param the_votes_allowed The number of votes allowed in the contest.
+   * @param the_winners The winners.
+   * @param the_losers The losers.
+   */
+  public CompiledContestResult(final String the_contest_name,
+                               final int the_votes_allowed,
+                               final Set<String> the_winners,
+                               final Set<String> the_losers) {
+    my_contest_name = the_contest_name;
+    my_votes_allowed = the_votes_allowed;
+    my_winners = new HashSet<>(the_winners);
+    my_losers = new HashSet<>(the_losers);
+    final Map<String, Integer> bits = new HashMap<>();
+    long winner_mask = 0;
+    long loser_mask = 0;
+    for (final String winner : my_winners) {
+      bits.putIfAbsent(winner, bits.size());
+    }
+    for (final String loser : my_losers) {
+      bits.putIfAbsent(loser, bits.size());
+    }
+    if (bits.size() <= MAX_BITS) {
+      for (final String winner : my_winners) {
+        winner_mask |= 1L << bits.get(winner);
+      }
+      for (final String loser : my_losers) {
+        loser_mask |= 1L << bits.get(loser);
+      }
+      my_bits = bits;
+    } else {
+      my_bits = null;
+    }
+    my_winner_mask = winner_mask;
+    my_loser_mask = loser_mask;
+  }
+
+  /**
+   * Computes the discrepancy between the choices on a CVR and on an ACVR
+   * for the contest. The result is as described for
+   * CountyContestComparisonAudit.computeDiscrepancy: the maximum change in
+   * any winner-loser pairwise margin, where a negative value is reported
+   * only if every pairwise margin widened.
+   *
+   * @param the_cvr_choices The choices on the CVR.
+   * @param the_acvr_choices The choices on the ACVR; if there are more than
+   * the votes allowed, it is an overvote and none of them count.
+   * @return an optional int that is present if there is a discrepancy and
+   * absent otherwise.
+   * @exception IllegalStateException if the contest has no winners.
+   */
+  public OptionalInt discrepancy(final Collection<String> the_cvr_choices,
+                                 final Collection<String> the_acvr_choices) {
+    if (my_bits == null) {
+      return discrepancyBySets(the_cvr_choices, the_acvr_choices);
+    }
+    final boolean overvote = the_acvr_choices.size() > my_votes_allowed;
+    boolean unmapped = false;
+    long cvr = 0;
+    for (final String choice : the_cvr_choices) {
+      final Integer bit = my_bits.get(choice);
+      if (bit == null) {
+        unmapped = true;
+      } else {
+        cvr |= 1L << bit;
+      }
+    }
+    long acvr = 0;
+    if (!overvote) {
+      for (final String choice : the_acvr_choices) {
+        final Integer bit = my_bits.get(choice);
+        if (bit == null) {
+          unmapped = true;
+        } else {
+          acvr |= 1L << bit;
+        }
+      }
+    }
+    if (cvr == acvr &&
+        (!unmapped || new HashSet<>(the_cvr_choices).equals(acvrSet(the_acvr_choices)))) {
+      // only names that are neither winners nor losers could differ
+      return OptionalInt.empty();
+    }
+    if (my_winner_mask == 0) {
+      throw new IllegalStateException("unable to compute discrepancy in contest " +
+                                      my_contest_name);
+    }
+
+    final long gained = acvr & ~cvr;
+    final long lost = cvr & ~acvr;
+    // the smallest change in any winner's votes
+    final int winner_change;
+    if ((my_winner_mask & lost) != 0) {
+      winner_change = -1;
+    } else if ((my_winner_mask & ~gained) != 0) {
+      winner_change = 0;
+    } else {
+      winner_change = 1;
+    }
+    if (my_loser_mask == 0) {
+      return OptionalInt.of(-winner_change);
+    }
+    // the largest change in any loser's votes
+    final int loser_change;
+    if ((my_loser_mask & gained) != 0) {
+      loser_change = 1;
+    } else if ((my_loser_mask & ~lost) != 0) {
+      loser_change = 0;
+    } else {
+      loser_change = -1;
+    }
+    // the largest pairwise discrepancy; it is negative, and therefore an
+    // understatement, exactly when every pairwise margin widened
+    return OptionalInt.of(loser_change - winner_change);
+  }
+
+  /**
+   * Computes the discrepancy between a phantom ballot and the choices on a
+   * CVR for the contest: a phantom ballot is assumed to be a vote for all
+   * the losers, so it is a 2-vote overstatement if the CVR has any vote
+   * that is not for a loser, and a 1-vote overstatement otherwise.
+   *
+   * @param the_cvr_choices The choices on the CVR.
+   * @return the discrepancy.
+   */
+  public int phantomDiscrepancy(final Collection<String> the_cvr_choices) {
+    int result = 1;
+    for (final String choice : the_cvr_choices) {
+      if (!my_losers.contains(choice)) {
+        result = 2;
+        break;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the discrepancy between the choices on a CVR and on an ACVR
+   * with sets and pairwise comparisons, as CountyContestComparisonAudit did
+   * before contest results were compiled. The parameters and result are as
+   * for discrepancy.
+   *
+   * @param the_cvr_choices The choices on the CVR.
+   * @param the_acvr_choices The choices on the ACVR.
+   * @return an optional int that is present if there is a discrepancy and
+   * absent otherwise.
+   * @exception IllegalStateException if the contest has no winners.
+   */
+  @SuppressWarnings({"PMD.ModifiedCyclomaticComplexity", "PMD.StdCyclomaticComplexity",
+                     "PMD.NPathComplexity"})
+  OptionalInt discrepancyBySets(final Collection<String> the_cvr_choices,
+                                final Collection<String> the_acvr_choices) {
+    final Set<String> acvr_choices = acvrSet(the_acvr_choices);
+    final Set<String> cvr_choices = new HashSet<>(the_cvr_choices);
+    if (cvr_choices.equals(acvr_choices)) {
+      return OptionalInt.empty();
+    }
+
+    int raw_result = Integer.MIN_VALUE;
+    boolean possible_understatement = true;
+    for (final String winner : my_winners) {
+      final int winner_change = change(winner, cvr_choices, acvr_choices);
+      if (my_losers.isEmpty()) {
+        raw_result = Math.max(raw_result, -winner_change);
+      } else {
+        for (final String loser : my_losers) {
+          final int discrepancy = change(loser, cvr_choices, acvr_choices) - winner_change;
+          raw_result = Math.max(raw_result, discrepancy);
+          if (discrepancy >= 0) {
+            possible_understatement = false;
+          }
+        }
+      }
+    }
+    if (raw_result == Integer.MIN_VALUE) {
+      throw new IllegalStateException("unable to compute discrepancy in contest " +
+                                      my_contest_name);
+    }
+
+    final OptionalInt result;
+    if (possible_understatement) {
+      result = OptionalInt.of(raw_result);
+    } else {
+      result = OptionalInt.of(Math.max(0, raw_result));
+    }
+    return result;
+  }
+
+  /**
+   * @param the_acvr_choices The choices on an ACVR.
+   * @return the set of choices that count, which is empty for an overvote.
+   */
+  private Set<String> acvrSet(final Collection<String> the_acvr_choices) {
+    final Set<String> result = new HashSet<>();
+    if (the_acvr_choices.size() <= my_votes_allowed) {
+      result.addAll(the_acvr_choices);
+    } // else overvote so don't count the votes
+    return result;
+  }
+
+  /**
+   * @param the_choice A choice.
+   * @param the_cvr_choices The choices on a CVR.
+   * @param the_acvr_choices The counted choices on an ACVR.
+   * @return 1 if the choice gained a vote on the ACVR, -1 if it lost one,
+   * and 0 otherwise.
+   */
+  private static int change(final String the_choice, final Set<String> the_cvr_choices,
+                            final Set<String> the_acvr_choices) {
+    final int result;
+    if (!the_cvr_choices.contains(the_choice) && the_acvr_choices.contains(the_choice)) {
+      result = 1;
+    } else if (the_cvr_choices.contains(the_choice) &&
+               !the_acvr_choices.contains(the_choice)) {
+      result = -1;
+    } else {
+      result = 0;
+    }
+    return result;
+  }
+}
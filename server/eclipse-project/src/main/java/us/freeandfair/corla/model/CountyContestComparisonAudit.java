@@ -40,7 +40,6 @@ import javax.persistence.MapKeyJoinColumn;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
-import ch.obermuhlner.math.big.BigDecimalMath;
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.CVRContestInfo.ConsensusValue;
 import us.freeandfair.corla.model.CastVoteRecord.RecordType;
@@ -288,6 +287,12 @@ public class CountyContestComparisonAudit implements PersistentEntity {
                                               referencedColumnName = "my_id"))
   private Set<CVRAuditInfo> my_disagreements = new HashSet<>();
   
+  /**
+   * The contest result compiled for discrepancy computation; this is built
+   * when first needed and is not serialized in the database.
+   */
+  private transient CompiledContestResult my_compiled_result;
+  
   /**
    * Constructs a new, empty CountyContestAudit (solely for persistence).
    */
@@ -365,6 +370,19 @@ public class CountyContestComparisonAudit implements PersistentEntity {
     return my_contest_result;
   }
   
+  /**
+   * @return the compiled contest result associated with this audit.
+   */
+  private CompiledContestResult compiledResult() {
+    if (my_compiled_result == null) {
+      my_compiled_result = 
+          new CompiledContestResult(my_contest.name(), my_contest.votesAllowed(),
+                                    my_contest_result.winners(), 
+                                    my_contest_result.losers());
+    }
+    return my_compiled_result;
+  }
+  
   /**
    * @return the gamma associated with this audit.
    */
@@ -515,37 +533,10 @@ public class CountyContestComparisonAudit implements PersistentEntity {
       // (for lack of a better number)
       result = BigDecimal.valueOf(my_contest_result.countyBallotCount());
     } else {
-      final BigDecimal invgamma = BigDecimal.ONE.divide(my_gamma, MathContext.DECIMAL128);
-      final BigDecimal twogamma = BigDecimal.valueOf(2).multiply(my_gamma);
-      final BigDecimal invtwogamma = 
-          BigDecimal.ONE.divide(twogamma, MathContext.DECIMAL128);
-      final BigDecimal two_under_bd = BigDecimal.valueOf(the_two_under);
-      final BigDecimal one_under_bd = BigDecimal.valueOf(the_one_under);
-      final BigDecimal one_over_bd = BigDecimal.valueOf(the_one_over);
-      final BigDecimal two_over_bd = BigDecimal.valueOf(the_two_over);
-
-      final BigDecimal over_under_sum = 
-          two_under_bd.add(one_under_bd).add(one_over_bd).add(two_over_bd);
-      final BigDecimal two_under = 
-          two_under_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.add(invgamma), 
-                                                   MathContext.DECIMAL128));
-      final BigDecimal one_under =
-          one_under_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.add(invtwogamma), 
-                                                   MathContext.DECIMAL128));
-      final BigDecimal one_over = 
-          one_over_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.subtract(invtwogamma), 
-                                                  MathContext.DECIMAL128));
-      final BigDecimal two_over =
-          two_over_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.subtract(invgamma),
-                                                  MathContext.DECIMAL128));
-      final BigDecimal numerator =
-          twogamma.negate().
-          multiply(BigDecimalMath.log(my_risk_limit, MathContext.DECIMAL128).
-                   add(two_under.add(one_under).add(one_over).add(two_over)));
-      final BigDecimal ceil =
-          numerator.divide(my_contest_result.countyDilutedMargin(),
-                           MathContext.DECIMAL128).setScale(0, RoundingMode.CEILING);
-      result = ceil.max(over_under_sum);
+      result = RiskMath.forParameters(my_gamma, my_risk_limit).
+          optimisticSamplesToAudit(my_contest_result.countyDilutedMargin(), 
+                                   the_two_under, the_one_under, 
+                                   the_one_over, the_two_over);
     }
     
     Main.LOGGER.info("estimate for contest " + contest().name() + 
@@ -827,106 +818,9 @@ public class CountyContestComparisonAudit implements PersistentEntity {
    * @return an optional int that is present if there is a discrepancy and absent
    * otherwise.
    */
-  @SuppressWarnings({"PMD.ModifiedCyclomaticComplexity", "PMD.StdCyclomaticComplexity",
-                     "PMD.NPathComplexity", "PMD.ExcessiveMethodLength",
-                     "checkstyle:methodlength"})
   private OptionalInt computeAuditedBallotDiscrepancy(final CVRContestInfo the_cvr_info,
                                                       final CVRContestInfo the_acvr_info) {
-    // check for overvotes
-    final Set<String> acvr_choices = new HashSet<>();
-    if (the_acvr_info.choices().size() <= my_contest.votesAllowed()) {
-      acvr_choices.addAll(the_acvr_info.choices());
-    } // else overvote so don't count the votes
-    
-    // avoid linear searches on CVR choices
-    final Set<String> cvr_choices = new HashSet<>(the_cvr_info.choices());
-    
-    // if the choices in the CVR and ACVR are identical now, we can simply return the
-    // fact that there's no discrepancy
-    if (cvr_choices.equals(acvr_choices)) {
-      return OptionalInt.empty();
-    }
-    
-    // we want to get the maximum pairwise update delta, because that's the "worst"
-    // change in a pairwise margin, and the discrepancy we record; we start with
-    // Integer.MIN_VALUE so our maximization algorithm works. it is also the case 
-    // that _every_ pairwise margin must be increased for an understatement to be
-    // reported
-    
-    int raw_result = Integer.MIN_VALUE;
-    
-    boolean possible_understatement = true;
-    
-    for (final String winner : my_contest_result.winners()) {
-      final int winner_change;
-      if (!cvr_choices.contains(winner) && acvr_choices.contains(winner)) {
-        // this winner gained a vote
-        winner_change = 1;
-      } else if (cvr_choices.contains(winner) && !acvr_choices.contains(winner)) {
-        // this winner lost a vote
-        winner_change = -1;
-      } else {
-        // this winner's votes didn't change
-        winner_change = 0;
-      }
-      if (my_contest_result.losers().isEmpty()) {
-        // if there are no losers, we'll just negate this number - even though in 
-        // real life, we wouldn't be auditing the contest at all
-        raw_result = Math.max(raw_result, -winner_change);
-      } else {
-        for (final String loser : my_contest_result.losers()) {
-          final int loser_change;
-          if (!cvr_choices.contains(loser) && acvr_choices.contains(loser)) {
-            // this loser gained a vote
-            loser_change = 1;
-          } else if (cvr_choices.contains(loser) && !acvr_choices.contains(loser)) {
-            // this loser lost a vote
-            loser_change = -1;
-          } else {
-            // this loser's votes didn't change
-            loser_change = 0;
-          }
-          // the discrepancy is the loser change minus the winner change (i.e., if this 
-          // loser lost a vote (-1) and this winner gained a vote (1), that's a 2-vote 
-          // understatement (-1 - 1 = -2). Overstatements are worse than understatements,
-          // as far as the audit is concerned, so we keep the highest discrepancy
-          final int discrepancy = loser_change - winner_change;
-          
-          // taking the max here does not cause a loss of information even if the
-          // discrepancy is 0; if the discrepancy is 0 we can no longer report an
-          // understatement, and we still know there was a discrepancy because we
-          // didn't short circuit earlier
-          raw_result = Math.max(raw_result, discrepancy);
-          
-          // if this discrepancy indicates a narrowing of, or no change in, this pairwise 
-          // margin, then an understatement is no longer possible because that would require 
-          // widening _every_ pairwise margin
-          if (discrepancy >= 0) {
-            possible_understatement = false;
-          }
-        }
-      }
-    }
-    
-    if (raw_result == Integer.MIN_VALUE) {
-      // this should only be possible if something went horribly wrong (like the contest
-      // has no winners)
-      throw new IllegalStateException("unable to compute discrepancy in contest " + 
-                                      contest().name());
-    }
-    
-    final OptionalInt result;
-    
-    if (possible_understatement) {
-      // we return the raw result unmodified
-      result = OptionalInt.of(raw_result);
-    } else {
-      // we return the raw result with a floor of 0, because we can't report an
-      // understatement
-      result = OptionalInt.of(Math.max(0, raw_result));
-    }
-    
-    return result;
+    return compiledResult().discrepancy(the_cvr_info.choices(), the_acvr_info.choices());
   }
   
   /**
@@ -948,13 +842,7 @@ public class CountyContestComparisonAudit implements PersistentEntity {
       result = 2;
     } else {
       // this contest does appear in the CVR, so we can actually check
-      final Set<String> winner_votes = new HashSet<>(the_info.choices());    
-      winner_votes.removeAll(my_contest_result.losers());
-      if (winner_votes.isEmpty()) {
-        result = 1;
-      } else { 
-        result = 2;
-      }
+      result = compiledResult().phantomDiscrepancy(the_info.choices());
     }
     
     return result;
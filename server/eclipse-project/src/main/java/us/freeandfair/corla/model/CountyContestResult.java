@@ -491,7 +491,30 @@ public class CountyContestResult implements PersistentEntity, Serializable {
     }
     my_county_ballot_count = Integer.valueOf(my_county_ballot_count + 1);
   }
-  
+
+  /**
+   * Update the vote totals and ballot counts with a tally computed
+   * separately from the CVRs, as is done during CVR import.
+   * 
+   * @param the_vote_totals A map from choices to votes; every choice must
+   * be a non-fictitious choice of this contest.
+   * @param the_contest_ballot_count The number of tallied ballots that
+   * contain this contest.
+   * @param the_county_ballot_count The number of tallied ballots.
+   */
+  public void addTally(final Map<String, Integer> the_vote_totals,
+                       final int the_contest_ballot_count,
+                       final int the_county_ballot_count) {
+    for (final Entry<String, Integer> e : the_vote_totals.entrySet()) {
+      my_vote_totals.put(e.getKey(), my_vote_totals.get(e.getKey()) + e.getValue());
+    }
+    my_contest_ballot_count = 
+        Integer.valueOf(my_contest_ballot_count + the_contest_ballot_count);
+    my_county_ballot_count = 
+        Integer.valueOf(my_county_ballot_count + the_county_ballot_count);
+  }
+
+
   /**
    * Updates the stored results.
    */
@@ -47,6 +47,9 @@ import javax.persistence.Version;
 import us.freeandfair.corla.model.ImportStatus.ImportState;
 import us.freeandfair.corla.persistence.AuditSelectionIntegerMapConverter;
 import us.freeandfair.corla.persistence.PersistentEntity;
+import us.freeandfair.corla.util.ImportScheduler;
+import us.freeandfair.corla.util.ImportScheduler.Kind;
+import us.freeandfair.corla.util.Pair;
 
 /**
  * The county dashboard.
@@ -647,10 +650,16 @@ public class CountyDashboard implements PersistentEntity {
   }
   
   /**
-   * @return the CVR import status.
+   * @return the CVR import status; while a CVR import is scheduled, this 
+   * includes its position in the import queue and estimated completion time.
    */
   public ImportStatus cvrImportStatus() {
-    return my_cvr_import_status;
+    final Pair<Integer, Instant> schedule = 
+        ImportScheduler.instance().status(my_id, Kind.CVR_EXPORT);
+    if (schedule == null) {
+      return my_cvr_import_status;
+    }
+    return my_cvr_import_status.scheduled(schedule.first(), schedule.second());
   }
   
   /**
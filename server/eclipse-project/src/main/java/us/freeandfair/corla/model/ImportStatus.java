@@ -17,6 +17,7 @@ import java.time.Instant;
 import javax.persistence.Embeddable;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Transient;
 
 /**
  * Status information for a file import.
@@ -50,6 +51,20 @@ public class ImportStatus implements Serializable {
    */
   private Instant my_timestamp;
   
+  /**
+   * The position of the import in the import queue (0 if it is running), 
+   * or null if it is not scheduled; this is never persisted.
+   */
+  @Transient
+  private Integer my_queue_position;
+  
+  /**
+   * The estimated completion time of the import, or null if it is not 
+   * scheduled; this is never persisted.
+   */
+  @Transient
+  private Instant my_estimated_completion;
+  
   /**
    * Constructs an empty ImportStatus, solely for persistence.
    */
@@ -116,6 +131,45 @@ public class ImportStatus implements Serializable {
     return my_timestamp;
   }
   
+  /**
+   * @return the position of the import in the import queue (0 if it is 
+   * running), or null if it is not scheduled.
+   */
+  public Integer queuePosition() {
+    return my_queue_position;
+  }
+  
+  /**
+   * @return the estimated completion time of the import, or null if it is
+   * not scheduled.
+   */
+  public Instant estimatedCompletion() {
+    return my_estimated_completion;
+  }
+  
+  /**
+   * Creates the status of a scheduled import, which is in progress even if
+   * it is still waiting in the import queue. The status keeps this status's 
+   * timestamp if this status already describes an import in progress.
+   * 
+   * @param the_queue_position The position of the import in the import 
+   * queue (0 if it is running).
+   * @param the_estimated_completion The estimated completion time.
+   * @return the new status.
+   */
+  public ImportStatus scheduled(final Integer the_queue_position,
+                                final Instant the_estimated_completion) {
+    final ImportStatus result;
+    if (my_import_state == ImportState.IN_PROGRESS) {
+      result = new ImportStatus(my_import_state, my_error_message, my_timestamp);
+    } else {
+      result = new ImportStatus(ImportState.IN_PROGRESS);
+    }
+    result.my_queue_position = the_queue_position;
+    result.my_estimated_completion = the_estimated_completion;
+    return result;
+  }
+  
   /**
    * The state of an import.
    */
@@ -0,0 +1,275 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+
+import us.freeandfair.corla.util.Pair;
+
+/**
+ * The risk math for comparison audits, with the logarithms that depend
+ * only on gamma and the risk limit computed once per (gamma, risk limit)
+ * pair. Sample sizes are first computed in double precision; the exact
+ * computation is used only when the double result is too close to an
+ * integer for its ceiling to be certain, so results are always identical
+ * to those of the exact computation.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+public final class RiskMath {
+  /**
+   * The kernels, by gamma and risk limit.
+   */
+  private static final Map<Pair<BigDecimal, BigDecimal>, RiskMath> KERNELS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The relative distance from an integer within which a double precision
+   * sample size is not trusted. Double precision results are accurate to
+   * within a small multiple of 1e-16 of the magnitude of their terms, so this
+   * leaves a wide margin.
+   */
+  private static final double TOLERANCE = 1e-9;
+
+  /**
+   * The largest double precision sample size that is trusted.
+   */
+  private static final double LIMIT = 1e12;
+
+  /**
+   * Twice gamma.
+   */
+  private final BigDecimal my_twogamma;
+
+  /**
+   * The log of the risk limit.
+   */
+  private final BigDecimal my_log_risk_limit;
+
+  /**
+   * The log of (1 + 1/gamma), the weight of a two-vote understatement.
+   */
+  private final BigDecimal my_log_two_under;
+
+  /**
+   * The log of (1 + 1/(2 gamma)), the weight of a one-vote understatement.
+   */
+  private final BigDecimal my_log_one_under;
+
+  /**
+   * The log of (1 - 1/(2 gamma)), the weight of a one-vote overstatement.
+   */
+  private final BigDecimal my_log_one_over;
+
+  /**
+   * The log of (1 - 1/gamma), the weight of a two-vote overstatement.
+   */
+  private final BigDecimal my_log_two_over;
+
+  /**
+   * Twice gamma, in double precision.
+   */
+  private final double my_twogamma_d;
+
+  /**
+   * The log of the risk limit, in double precision.
+   */
+  private final double my_log_risk_limit_d;
+
+  /**
+   * The two-vote understatement weight, in double precision.
+   */
+  private final double my_log_two_under_d;
+
+  /**
+   * The one-vote understatement weight, in double precision.
+   */
+  private final double my_log_one_under_d;
+
+  /**
+   * The one-vote overstatement weight, in double precision.
+   */
+  private final double my_log_one_over_d;
+
+  /**
+   * The two-vote overstatement weight, in double precision.
+   */
+  private final double my_log_two_over_d;
+
+  /**
+   * Constructs a new RiskMath.
+   *
+   * @param the_gamma The gamma.
+   * @param the_risk_limit The risk limit.
+   * @exception ArithmeticException if gamma is not greater than 1 or the
+   * risk limit is not positive.
+   */
+  private RiskMath(final BigDecimal the_gamma, final BigDecimal the_risk_limit) {
+    final BigDecimal invgamma = BigDecimal.ONE.divide(the_gamma, MathContext.DECIMAL128);
+    my_twogamma = BigDecimal.valueOf(2).multiply(the_gamma);
+    final BigDecimal invtwogamma =
+        BigDecimal.ONE.divide(my_twogamma, MathContext.DECIMAL128);
+    my_log_risk_limit = BigDecimalMath.log(the_risk_limit, MathContext.DECIMAL128);
+    my_log_two_under = BigDecimalMath.log(BigDecimal.ONE.add(invgamma),
+                                          MathContext.DECIMAL128);
+    my_log_one_under = BigDecimalMath.log(BigDecimal.ONE.add(invtwogamma),
+                                          MathContext.DECIMAL128);
+    my_log_one_over = BigDecimalMath.log(BigDecimal.ONE.subtract(invtwogamma),
+                                         MathContext.DECIMAL128);
+    my_log_two_over = BigDecimalMath.log(BigDecimal.ONE.subtract(invgamma),
+                                         MathContext.DECIMAL128);
+    my_twogamma_d = my_twogamma.doubleValue();
+    my_log_risk_limit_d = my_log_risk_limit.doubleValue();
+    my_log_two_under_d = my_log_two_under.doubleValue();
+    my_log_one_under_d = my_log_one_under.doubleValue();
+    my_log_one_over_d = my_log_one_over.doubleValue();
+    my_log_two_over_d = my_log_two_over.doubleValue();
+  }
+
+  /**
+   * Gets the kernel for a gamma and a risk limit.
+   *
+   * @param the_gamma The gamma.
+   * @param the_risk_limit The risk limit.
+   * @return the kernel.
+   * @exception ArithmeticException if gamma is not greater than 1 or the
+   * risk limit is not positive.
+   */
+  public static RiskMath forParameters(final BigDecimal the_gamma,
+                                       final BigDecimal the_risk_limit) {
+    final Pair<BigDecimal, BigDecimal> key = new Pair<>(the_gamma, the_risk_limit);
+    RiskMath result = KERNELS.get(key);
+    if (result == null) {
+      result = new RiskMath(the_gamma, the_risk_limit);
+      KERNELS.putIfAbsent(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the expected number of ballots to audit overall given the
+   * specified diluted margin and numbers of over- and understatements.
+   *
+   * @param the_diluted_margin The diluted margin, which must be positive.
+   * @param the_two_under The two-vote understatements.
+   * @param the_one_under The one-vote understatements.
+   * @param the_one_over The one-vote overstatements.
+   * @param the_two_over The two-vote overstatements.
+   * @return the expected number of ballots to audit, with a scale of 0.
+   * This is the stopping sample size as defined in the literature:
+   * https://www.stat.berkeley.edu/~stark/Preprints/gentle12.pdf
+   */
+  public BigDecimal optimisticSamplesToAudit(final BigDecimal the_diluted_margin,
+                                             final int the_two_under,
+                                             final int the_one_under,
+                                             final int the_one_over,
+                                             final int the_two_over) {
+    final OptionalLong ceil =
+        approximateCeiling(the_diluted_margin, the_two_under, the_one_under,
+                           the_one_over, the_two_over);
+    final BigDecimal result;
+    if (ceil.isPresent()) {
+      final long over_under_sum =
+          (long) the_two_under + the_one_under + the_one_over + the_two_over;
+      result = BigDecimal.valueOf(Math.max(ceil.getAsLong(), over_under_sum));
+    } else {
+      result = exactSamplesToAudit(the_diluted_margin, the_two_under, the_one_under,
+                                   the_one_over, the_two_over);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the expected number of ballots to audit overall in decimal
+   * arithmetic. The parameters and result are as for optimisticSamplesToAudit.
+   *
+   * @param the_diluted_margin The diluted margin.
+   * @param the_two_under The two-vote understatements.
+   * @param the_one_under The one-vote understatements.
+   * @param the_one_over The one-vote overstatements.
+   * @param the_two_over The two-vote overstatements.
+   * @return the expected number of ballots to audit.
+   */
+  BigDecimal exactSamplesToAudit(final BigDecimal the_diluted_margin,
+                                 final int the_two_under,
+                                 final int the_one_under,
+                                 final int the_one_over,
+                                 final int the_two_over) {
+    final BigDecimal two_under_bd = BigDecimal.valueOf(the_two_under);
+    final BigDecimal one_under_bd = BigDecimal.valueOf(the_one_under);
+    final BigDecimal one_over_bd = BigDecimal.valueOf(the_one_over);
+    final BigDecimal two_over_bd = BigDecimal.valueOf(the_two_over);
+
+    final BigDecimal over_under_sum =
+        two_under_bd.add(one_under_bd).add(one_over_bd).add(two_over_bd);
+    final BigDecimal two_under = two_under_bd.multiply(my_log_two_under);
+    final BigDecimal one_under = one_under_bd.multiply(my_log_one_under);
+    final BigDecimal one_over = one_over_bd.multiply(my_log_one_over);
+    final BigDecimal two_over = two_over_bd.multiply(my_log_two_over);
+    final BigDecimal numerator =
+        my_twogamma.negate().
+        multiply(my_log_risk_limit.add(two_under.add(one_under).add(one_over).add(two_over)));
+    final BigDecimal ceil =
+        numerator.divide(the_diluted_margin,
+                         MathContext.DECIMAL128).setScale(0, RoundingMode.CEILING);
+    return ceil.max(over_under_sum);
+  }
+
+  /**
+   * Computes the ceiling of the expected number of ballots to audit, before
+   * it is bounded below by the number of over- and understatements, in
+   * double precision. The parameters are as for optimisticSamplesToAudit.
+   *
+   * @param the_diluted_margin The diluted margin.
+   * @param the_two_under The two-vote understatements.
+   * @param the_one_under The one-vote understatements.
+   * @param the_one_over The one-vote overstatements.
+   * @param the_two_over The two-vote overstatements.
+   * @return the ceiling, or an empty OptionalLong if the double precision
+   * result is too close to an integer, or too large, to be trusted.
+   */
+  OptionalLong approximateCeiling(final BigDecimal the_diluted_margin,
+                                  final int the_two_under,
+                                  final int the_one_under,
+                                  final int the_one_over,
+                                  final int the_two_over) {
+    final double margin = the_diluted_margin.doubleValue();
+    final double two_under = the_two_under * my_log_two_under_d;
+    final double one_under = the_one_under * my_log_one_under_d;
+    final double one_over = the_one_over * my_log_one_over_d;
+    final double two_over = the_two_over * my_log_two_over_d;
+    final double samples =
+        -my_twogamma_d * (my_log_risk_limit_d + two_under + one_under + one_over + two_over) /
+        margin;
+    // the error is relative to the magnitude of the terms, not of their sum
+    final double magnitude =
+        my_twogamma_d * (Math.abs(my_log_risk_limit_d) + Math.abs(two_under) +
+                         Math.abs(one_under) + Math.abs(one_over) + Math.abs(two_over)) /
+        Math.abs(margin);
+    final double nearest = Math.rint(samples);
+    OptionalLong result = OptionalLong.empty();
+    if (Double.isFinite(magnitude) && magnitude < LIMIT && 0 < margin &&
+        TOLERANCE * Math.max(1.0, magnitude) < Math.abs(samples - nearest)) {
+      result = OptionalLong.of((long) Math.ceil(samples));
+    }
+    return result;
+  }
+}
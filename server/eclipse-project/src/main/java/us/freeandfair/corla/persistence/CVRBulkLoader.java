@@ -0,0 +1,286 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.PersistenceException;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import us.freeandfair.corla.model.CVRContestInfo;
+import us.freeandfair.corla.model.CastVoteRecord;
+
+/**
+ * Bulk loader that writes cast vote records (and their contest information)
+ * directly into the database using the PostgreSQL COPY protocol, bypassing
+ * the Hibernate session entirely. The loader uses the connection of the
+ * current session, so the rows it writes are committed or rolled back along
+ * with the transaction that is running when it is flushed.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class CVRBulkLoader {
+  /**
+   * The COPY statement for the cast_vote_record table.
+   */
+  private static final String CVR_COPY =
+      "COPY cast_vote_record (id, version, record_type, timestamp, county_id, " +
+      "cvr_number, sequence_number, scanner_id, batch_id, record_id, imprinted_id, " +
+      "ballot_type) FROM STDIN";
+
+  /**
+   * The COPY statement for the cvr_contest_info table.
+   */
+  private static final String CONTEST_INFO_COPY =
+      "COPY cvr_contest_info (cvr_id, index, contest_id, comment, consensus, choices) " +
+      "FROM STDIN";
+
+  /**
+   * The COPY text format representation of a null value.
+   */
+  private static final String NULL = "\\N";
+
+  /**
+   * The COPY text format column separator.
+   */
+  private static final char TAB = '\t';
+
+  /**
+   * The COPY text format row separator.
+   */
+  private static final char NEWLINE = '\n';
+
+  /**
+   * The converter used for contest choice lists, so that the stored
+   * representation is the same as the one Hibernate would write.
+   */
+  private static final StringListConverter CHOICES_CONVERTER = new StringListConverter();
+
+  /**
+   * The CVRs buffered since the last flush.
+   */
+  private final List<CastVoteRecord> my_buffer = new ArrayList<>();
+
+  /**
+   * The name of the database sequence used for CVR IDs.
+   */
+  private String my_sequence_name;
+
+  /**
+   * The total number of CVRs written by this loader.
+   */
+  private int my_written_count;
+
+  /**
+   * Adds a CVR to this loader; it will be written at the next flush.
+   *
+   * @param the_cvr The CVR.
+   */
+  public void add(final CastVoteRecord the_cvr) {
+    my_buffer.add(the_cvr);
+  }
+
+  /**
+   * @return the total number of CVRs written to the database by this loader.
+   */
+  public int writtenCount() {
+    return my_written_count;
+  }
+
+  /**
+   * Writes all buffered CVRs to the database. This method must be called
+   * within a transaction; the current Hibernate session is flushed first,
+   * so that any contests referenced by the CVRs exist in the database.
+   *
+   * @exception PersistenceException if the CVRs cannot be written.
+   */
+  public void flush() throws PersistenceException {
+    if (my_buffer.isEmpty()) {
+      return;
+    }
+
+    Persistence.flush();
+    final List<Long> ids = allocateIDs(my_buffer.size());
+    final StringBuilder cvr_rows = new StringBuilder();
+    final StringBuilder info_rows = new StringBuilder();
+
+    for (int i = 0; i < my_buffer.size(); i++) {
+      final CastVoteRecord cvr = my_buffer.get(i);
+      cvr.setID(ids.get(i));
+      appendCVR(cvr_rows, cvr);
+      int index = 0;
+      for (final CVRContestInfo ci : cvr.contestInfo()) {
+        appendContestInfo(info_rows, cvr.id(), index, ci);
+        index = index + 1;
+      }
+    }
+
+    Persistence.currentSession().doWork(the_connection -> {
+      try {
+        final CopyManager copy = the_connection.unwrap(PGConnection.class).getCopyAPI();
+        copy.copyIn(CVR_COPY, new StringReader(cvr_rows.toString()));
+        copy.copyIn(CONTEST_INFO_COPY, new StringReader(info_rows.toString()));
+      } catch (final IOException e) {
+        throw new SQLException("could not copy CVRs to database", e);
+      }
+    });
+
+    my_written_count = my_written_count + my_buffer.size();
+    my_buffer.clear();
+  }
+
+  /**
+   * Allocates the specified number of IDs from the CVR ID sequence,
+   * in a single query.
+   *
+   * @param the_count The number of IDs to allocate.
+   * @return the allocated IDs.
+   */
+  private List<Long> allocateIDs(final int the_count) {
+    final List<?> values =
+        Persistence.currentSession().
+        createNativeQuery("select nextval('" + sequenceName() +
+                          "') from generate_series(1, " + the_count + ")").
+        getResultList();
+    final List<Long> result = new ArrayList<>(values.size());
+    for (final Object o : values) {
+      result.add(((BigInteger) o).longValue());
+    }
+    return result;
+  }
+
+  /**
+   * @return the name of the sequence that Hibernate uses to generate CVR IDs.
+   * @exception PersistenceException if the CVR ID generator is not a sequence
+   * that hands out one ID per value.
+   */
+  private String sequenceName() {
+    if (my_sequence_name == null) {
+      final Session s = Persistence.currentSession();
+      final IdentifierGenerator generator =
+          ((SessionFactoryImplementor) s.getSessionFactory()).getMetamodel().
+          entityPersister(CastVoteRecord.class).getIdentifierGenerator();
+      if (generator instanceof SequenceStyleGenerator &&
+          ((SequenceStyleGenerator) generator).getDatabaseStructure().
+              getIncrementSize() == 1) {
+        my_sequence_name =
+            ((SequenceStyleGenerator) generator).getDatabaseStructure().getName();
+      } else {
+        throw new PersistenceException("CVR IDs are not generated by a unit sequence");
+      }
+    }
+    return my_sequence_name;
+  }
+
+  /**
+   * Appends a COPY row for the specified CVR.
+   *
+   * @param the_builder The builder to append to.
+   * @param the_cvr The CVR.
+   */
+  private void appendCVR(final StringBuilder the_builder, final CastVoteRecord the_cvr) {
+    the_builder.append(the_cvr.id()).append(TAB);
+    // Hibernate starts versions of new entities at 0
+    the_builder.append(0).append(TAB);
+    appendValue(the_builder, the_cvr.recordType().name());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.timestamp());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.countyID());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.cvrNumber());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.sequenceNumber());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.scannerID());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.batchID());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.recordID());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.imprintedID());
+    the_builder.append(TAB);
+    appendValue(the_builder, the_cvr.ballotType());
+    the_builder.append(NEWLINE);
+  }
+
+  /**
+   * Appends a COPY row for the specified contest information.
+   *
+   * @param the_builder The builder to append to.
+   * @param the_cvr_id The ID of the CVR containing the contest information.
+   * @param the_index The index of the contest information within the CVR.
+   * @param the_info The contest information.
+   */
+  private void appendContestInfo(final StringBuilder the_builder, final Long the_cvr_id,
+                                 final int the_index, final CVRContestInfo the_info) {
+    the_builder.append(the_cvr_id).append(TAB);
+    the_builder.append(the_index).append(TAB);
+    the_builder.append(the_info.contest().id()).append(TAB);
+    appendValue(the_builder, the_info.comment());
+    the_builder.append(TAB);
+    if (the_info.consensus() == null) {
+      the_builder.append(NULL);
+    } else {
+      appendValue(the_builder, the_info.consensus().name());
+    }
+    the_builder.append(TAB);
+    appendValue(the_builder,
+                CHOICES_CONVERTER.convertToDatabaseColumn(the_info.choices()));
+    the_builder.append(NEWLINE);
+  }
+
+  /**
+   * Appends a value in COPY text format, escaping it as necessary.
+   *
+   * @param the_builder The builder to append to.
+   * @param the_value The value; null values are written as NULL.
+   */
+  private void appendValue(final StringBuilder the_builder, final Object the_value) {
+    if (the_value == null) {
+      the_builder.append(NULL);
+      return;
+    }
+    final String s = the_value.toString();
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      switch (c) {
+        case '\\':
+          the_builder.append("\\\\");
+          break;
+        case '\t':
+          the_builder.append("\\t");
+          break;
+        case '\n':
+          the_builder.append("\\n");
+          break;
+        case '\r':
+          the_builder.append("\\r");
+          break;
+        default:
+          the_builder.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import javax.persistence.PersistenceException;
+
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.AuditSequence;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries having to do with AuditSequence entities.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class AuditSequenceQueries {
+  /**
+   * The statement that stores a sequence. Concurrent requests for the same
+   * county may extend its sequence at the same time, so this is an upsert
+   * that never replaces a sequence with a shorter one for the same seed and
+   * CVR count, rather than an optimistically locked update.
+   */
+  private static final String UPSERT =
+      "insert into audit_sequence (id, version, seed, cvr_count, positions) " +
+      "values (:id, 0, :seed, :cvr_count, :positions) " +
+      "on conflict (id) do update set version = audit_sequence.version + 1, " +
+      "seed = excluded.seed, cvr_count = excluded.cvr_count, " +
+      "positions = excluded.positions " +
+      "where audit_sequence.seed <> excluded.seed " +
+      "or audit_sequence.cvr_count <> excluded.cvr_count " +
+      "or length(audit_sequence.positions) < length(excluded.positions)";
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private AuditSequenceQueries() {
+    // do nothing
+  }
+
+  /**
+   * Gets the stored audit sequence for a county. The result is detached
+   * from the persistence session.
+   *
+   * @param the_county_id The county ID.
+   * @return the stored sequence, or null if there is none or it cannot
+   * be read.
+   */
+  public static AuditSequence get(final Long the_county_id) {
+    AuditSequence result = null;
+    try {
+      result = Persistence.getByID(the_county_id, AuditSequence.class);
+      if (result != null) {
+        Persistence.evict(result);
+      }
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not read audit sequence for county " + the_county_id);
+    }
+    return result;
+  }
+
+  /**
+   * Stores an audit sequence for a county, replacing any stored sequence
+   * with a different seed or CVR count, or with fewer positions.
+   *
+   * @param the_sequence The sequence.
+   * @exception PersistenceException if the sequence cannot be stored.
+   */
+  public static void save(final AuditSequence the_sequence) {
+    final Session s = Persistence.currentSession();
+    final NativeQuery<?> query = s.createNativeQuery(UPSERT);
+    query.addSynchronizedEntityClass(AuditSequence.class);
+    query.setParameter("id", the_sequence.id());
+    query.setParameter("seed", the_sequence.seed());
+    query.setParameter("cvr_count", the_sequence.cvrCount());
+    query.setParameter("positions", the_sequence.encodedPositions());
+    query.executeUpdate();
+  }
+
+  /**
+   * Deletes the stored audit sequence for a county.
+   *
+   * @param the_county_id The county ID.
+   * @return the number of sequences deleted.
+   * @exception PersistenceException if the sequence cannot be deleted.
+   */
+  public static int delete(final Long the_county_id) {
+    final Session s = Persistence.currentSession();
+    final NativeQuery<?> query =
+        s.createNativeQuery("delete from audit_sequence where id = :id");
+    query.addSynchronizedEntityClass(AuditSequence.class);
+    query.setParameter("id", the_county_id);
+    return query.executeUpdate();
+  }
+}
@@ -14,11 +14,8 @@ package us.freeandfair.corla.query;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.TypedQuery;
@@ -28,11 +25,10 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
-import org.hibernate.query.Query;
+import org.hibernate.query.NativeQuery;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.BallotManifestInfo;
-import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.persistence.Persistence;
 
 /**
@@ -80,57 +76,47 @@ public final class BallotManifestInfoQueries {
   }
 
   /**
-   * Returns the location for the specified CVR, assuming one can be found.
+   * Returns the ballot manifest records for the specified county, in
+   * sequence order.
    *
-   * @param the_cvr The CVR.
-   * @return the location for the CVR, or null if no location can be found.
+   * @param the_county_id The county ID.
+   * @return the ballot manifest records, or null if the query fails.
    */
-  public static String locationFor(final CastVoteRecord the_cvr) {
-    String result = null;
+  public static List<BallotManifestInfo> forCounty(final Long the_county_id) {
+    List<BallotManifestInfo> result = null;
 
     try {
       final Session s = Persistence.currentSession();
       final CriteriaBuilder cb = s.getCriteriaBuilder();
-      final CriteriaQuery<String> cq = cb.createQuery(String.class);
+      final CriteriaQuery<BallotManifestInfo> cq =
+          cb.createQuery(BallotManifestInfo.class);
       final Root<BallotManifestInfo> root = cq.from(BallotManifestInfo.class);
-      cq.select(root.get("my_storage_location"));
-      cq.where(cb.and(cb.equal(root.get("my_county_id"), the_cvr.countyID()),
-                      cb.equal(root.get("my_scanner_id"), the_cvr.scannerID()),
-                      cb.equal(root.get("my_batch_id"), the_cvr.batchID())));
-      final TypedQuery<String> query = s.createQuery(cq);
-      final List<String> query_result = query.getResultList();
-      // there should never be more than one result, but if there is, we'll
-      // return the first one
-      if (!query_result.isEmpty()) {
-        result = query_result.get(0);
-      }
+      cq.select(root).where(cb.equal(root.get("my_county_id"), the_county_id));
+      cq.orderBy(cb.asc(root.get("my_sequence_start")));
+      final TypedQuery<BallotManifestInfo> query = s.createQuery(cq);
+      result = query.getResultList();
     } catch (final PersistenceException e) {
-      Main.LOGGER.error("Exception when finding ballot location: " + e);
+      Main.LOGGER.error("Exception when reading ballot manifests from database: " + e);
     }
 
     return result;
   }
 
   /**
-   * Deletes the set of ballot manifests for the specified county ID.
+   * Deletes the set of ballot manifests for the specified county ID, with a
+   * single set-based native statement in the current transaction.
    *
    * @param the_county_id The county ID.
+   * @return the number of ballot manifest records deleted.
    * @exception PersistenceException if the ballot manifests cannot be deleted.
    */
   public static int deleteMatching(final Long the_county_id) {
-    final AtomicInteger count = new AtomicInteger();
     final Session s = Persistence.currentSession();
-    final CriteriaBuilder cb = s.getCriteriaBuilder();
-    final CriteriaQuery<BallotManifestInfo> cq = cb.createQuery(BallotManifestInfo.class);
-    final Root<BallotManifestInfo> root = cq.from(BallotManifestInfo.class);
-    cq.where(cb.equal(root.get("my_county_id"), the_county_id));
-    final Query<BallotManifestInfo> query = s.createQuery(cq);
-    final Stream<BallotManifestInfo> to_delete = query.stream();
-    to_delete.forEach((the_bmi) -> {
-      Persistence.delete(the_bmi);
-      count.incrementAndGet();
-    });
-    return count.get();
+    final NativeQuery<?> query = 
+        s.createNativeQuery("delete from ballot_manifest_info where county_id = :county_id");
+    query.addSynchronizedEntityClass(BallotManifestInfo.class);
+    query.setParameter("county_id", the_county_id);
+    return query.executeUpdate();
   }
 
   /**
@@ -155,35 +141,4 @@ public final class BallotManifestInfoQueries {
 
     return result;
   }
-
-  // public static Set<BallotManifestInfo> where (cond) {}
-
-  /**
-     Find the batch(bmi) that would hold the sequence number given.
-   */
-  public static Optional<BallotManifestInfo> holdingSequenceNumber(final Long the_n) {
-    Set<BallotManifestInfo> result = null;
-
-    try {
-      final Session s = Persistence.currentSession();
-      final CriteriaBuilder cb = s.getCriteriaBuilder();
-      final CriteriaQuery<BallotManifestInfo> cq =
-          cb.createQuery(BallotManifestInfo.class);
-      final Root<BallotManifestInfo> root = cq.from(BallotManifestInfo.class);
-      final List<Predicate> disjuncts = new ArrayList<Predicate>();
-      final Predicate start = cb.greaterThanOrEqualTo(root.get("my_sequence_start"), the_n);
-      final Predicate end = cb.lessThanOrEqualTo(root.get("my_sequence_end"), the_n);
-      disjuncts.add(start);
-      disjuncts.add(end);
-      cq.select(root).where(cb.or(disjuncts.toArray(new Predicate[disjuncts.size()])));
-      final TypedQuery<BallotManifestInfo> query = s.createQuery(cq);
-      result = new HashSet<BallotManifestInfo>(query.getResultList());
-    } catch (final PersistenceException e) {
-      Main.LOGGER.error("Exception when reading ballot manifests from database: ", e);
-    }
-    return result.stream().findFirst();
-  }
-
-
-
 }
@@ -0,0 +1,106 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.CVRAuditInfo;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries having to do with CVRAuditInfo entities.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class CVRAuditInfoQueries {
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CVRAuditInfoQueries() {
+    // do nothing
+  }
+
+  /**
+   * Obtain the CVRAuditInfo objects with the specified IDs (which are the
+   * IDs of the CVRs they audit).
+   *
+   * @param the_ids The IDs.
+   * @return the matching CVRAuditInfo objects, mapped by ID, an empty map
+   * if none are found, or null if the query fails.
+   */
+  public static Map<Long, CVRAuditInfo> get(final Collection<Long> the_ids) {
+    Map<Long, CVRAuditInfo> result = null;
+
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<CVRAuditInfo> cq = cb.createQuery(CVRAuditInfo.class);
+      final Root<CVRAuditInfo> root = cq.from(CVRAuditInfo.class);
+      cq.select(root).where(root.get("my_id").in(the_ids));
+      final TypedQuery<CVRAuditInfo> query = s.createQuery(cq);
+      final List<CVRAuditInfo> query_results = query.getResultList();
+      result = new HashMap<>();
+      for (final CVRAuditInfo cvrai : query_results) {
+        result.put(cvrai.id(), cvrai);
+      }
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for CVR audit info");
+    }
+    if (result == null) {
+      Main.LOGGER.debug("found no CVR audit info with ids " + the_ids);
+    } else {
+      Main.LOGGER.debug("found " + result.size() + " CVR audit info records");
+    }
+    return result;
+  }
+
+  /**
+   * Obtain the sequence numbers of a county's CVRs for which audit CVRs
+   * have been submitted.
+   *
+   * @param the_county_id The county ID.
+   * @return the sequence numbers, or null if the query fails.
+   */
+  public static List<Integer> auditedSequenceNumbers(final Long the_county_id) {
+    List<Integer> result = null;
+
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+      final Root<CVRAuditInfo> root = cq.from(CVRAuditInfo.class);
+      final Join<CVRAuditInfo, CastVoteRecord> cvr = root.join("my_cvr");
+      cq.select(cvr.<Integer>get("my_sequence_number"))
+        .where(cb.equal(cvr.get("my_county_id"), the_county_id),
+               cb.isNotNull(root.get("my_acvr")));
+      result = s.createQuery(cq).getResultList();
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for audited CVRs");
+    }
+    return result;
+  }
+}
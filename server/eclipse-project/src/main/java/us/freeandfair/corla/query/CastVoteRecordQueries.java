@@ -18,7 +18,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.OptionalLong;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import javax.persistence.PersistenceException;
@@ -29,6 +28,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 
 import us.freeandfair.corla.Main;
@@ -64,6 +64,23 @@ public final class CastVoteRecordQueries {
   private static final String COULD_NOT_QUERY_DATABASE =
       "could not query database for CVRs";
 
+  /**
+   * The native subquery that selects the IDs of the cast vote records with
+   * a given county ID and record type.
+   */
+  private static final String MATCHING_IDS =
+      "(select id from cast_vote_record where county_id = :county_id " +
+      "and record_type = :record_type)";
+
+  /**
+   * The tables affected by deleting cast vote records.
+   */
+  private static final String[] AFFECTED_TABLES = {
+      "cast_vote_record", "cvr_contest_info", "cvr_audit_info",
+      "county_contest_comparison_audit_discrepancy",
+      "county_contest_comparison_audit_disagreement"
+  };
+
   /**
    * Private constructor to prevent instantiation.
    */
@@ -220,7 +237,13 @@ public final class CastVoteRecordQueries {
 
   /**
    * Deletes the set of cast vote records for the specified county ID and
-   * record type.
+   * record type, along with their contest information and any audit
+   * information that refers to them (including the audit information's
+   * entries in comparison audit discrepancy and disagreement tables). This
+   * is done with a few set-based native statements in the current
+   * transaction, rather than one statement per row; cast vote records
+   * already loaded into the current session are not removed from it, and
+   * must not be used afterward.
    *
    * @param the_county_id The county ID.
    * @param the_type The record type.
@@ -229,20 +252,59 @@ public final class CastVoteRecordQueries {
    */
   public static int deleteMatching(final Long the_county_id,
                                     final RecordType the_type) {
-    final AtomicInteger count = new AtomicInteger();
     final Session s = Persistence.currentSession();
-    final CriteriaBuilder cb = s.getCriteriaBuilder();
-    final CriteriaQuery<CastVoteRecord> cq = cb.createQuery(CastVoteRecord.class);
-    final Root<CastVoteRecord> root = cq.from(CastVoteRecord.class);
-    cq.where(cb.and(cb.equal(root.get(COUNTY_ID), the_county_id),
-                    cb.equal(root.get(RECORD_TYPE), the_type)));
-    final Query<CastVoteRecord> query = s.createQuery(cq);
-    final Stream<CastVoteRecord> to_delete = query.stream();
-    to_delete.forEach((the_cvr) -> {
-      Persistence.delete(the_cvr);
-      count.incrementAndGet();
-    });
-    return count.get();
+    final String audit_info_ids =
+        "(select id from cvr_audit_info where cvr_id in " + MATCHING_IDS +
+        " or acvr_id in " + MATCHING_IDS + ")";
+    final int discrepancies =
+        bulkDelete(s, "delete from county_contest_comparison_audit_discrepancy " +
+                      "where cvr_audit_info_id in " + audit_info_ids,
+                   the_county_id, the_type);
+    final int disagreements =
+        bulkDelete(s, "delete from county_contest_comparison_audit_disagreement " +
+                      "where cvr_audit_info_id in " + audit_info_ids,
+                   the_county_id, the_type);
+    final int audit_infos =
+        bulkDelete(s, "delete from cvr_audit_info where cvr_id in " + MATCHING_IDS +
+                      " or acvr_id in " + MATCHING_IDS,
+                   the_county_id, the_type);
+    final int contest_infos =
+        bulkDelete(s, "delete from cvr_contest_info where cvr_id in " + MATCHING_IDS,
+                   the_county_id, the_type);
+    final int result =
+        bulkDelete(s, "delete from cast_vote_record where county_id = :county_id " +
+                      "and record_type = :record_type",
+                   the_county_id, the_type);
+    Main.LOGGER.debug("deleted " + result + " CVRs of type " + the_type +
+                      " for county " + the_county_id + ", with " + contest_infos +
+                      " contest info records, " + audit_infos + " audit info records, " +
+                      discrepancies + " discrepancies and " + disagreements +
+                      " disagreements");
+    return result;
+  }
+
+  /**
+   * Executes a native bulk delete statement for the cast vote records of a
+   * county and record type. The statement's effects are synchronized with
+   * all the tables that deleting cast vote records can affect, so that
+   * pending changes to them are flushed first and cached entries for them
+   * are invalidated afterward.
+   *
+   * @param the_session The session.
+   * @param the_sql The statement, with county_id and record_type parameters.
+   * @param the_county_id The county ID.
+   * @param the_type The record type.
+   * @return the number of rows deleted.
+   */
+  private static int bulkDelete(final Session the_session, final String the_sql,
+                                final Long the_county_id, final RecordType the_type) {
+    final NativeQuery<?> query = the_session.createNativeQuery(the_sql);
+    for (final String table : AFFECTED_TABLES) {
+      query.addSynchronizedQuerySpace(table);
+    }
+    query.setParameter("county_id", the_county_id);
+    query.setParameter("record_type", the_type.name());
+    return query.executeUpdate();
   }
 
   /**
@@ -55,6 +55,7 @@ public final class DatabaseResetQueries {
         "county_contest_comparison_audit", 
         "county_contest_result", "cvr_contest_info", 
         "driving_contest", "contest", "cvr_audit_info", "cast_vote_record", 
+        "cvr_import_checkpoint", "audit_sequence", "ballot_audit_map", 
         "dos_dashboard", "round", "audit_board", "county_dashboard",
         "uploaded_file"
     };
@@ -0,0 +1,116 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.UploadedFile;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries that summarize the versions of entities, for detecting whether
+ * any of them have changed without loading them. Since versions only
+ * increase and IDs are never reused, a summary changes whenever an entity
+ * is added, removed or updated.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class VersionQueries {
+  /**
+   * The separator between the parts of a summary.
+   */
+  private static final String SEPARATOR = ".";
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private VersionQueries() {
+    // do nothing
+  }
+
+  /**
+   * Summarizes the versions of all the entities of a class, which must
+   * have "my_id" and "my_version" fields.
+   *
+   * @param the_class The entity class.
+   * @return the summary: the number of entities and the sums of their IDs
+   * and versions.
+   * @exception PersistenceException if the summary cannot be obtained.
+   */
+  public static String summary(final Class<?> the_class) throws PersistenceException {
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+      final Root<?> root = cq.from(the_class);
+      cq.multiselect(cb.count(root),
+                     cb.coalesce(cb.sum(root.<Long>get("my_id")), 0L),
+                     cb.coalesce(cb.sum(root.<Long>get("my_version")), 0L));
+      return join(s.createQuery(cq).getSingleResult());
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for " + the_class.getSimpleName() +
+                        " versions");
+      throw e;
+    }
+  }
+
+  /**
+   * Summarizes the uploaded files of the counties that have both a ballot
+   * manifest and a CVR export, which determine the contests that are
+   * available.
+   *
+   * @return the summary: the number of such counties and the sums of the
+   * IDs of their files.
+   * @exception PersistenceException if the summary cannot be obtained.
+   */
+  public static String completedUploads() throws PersistenceException {
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+      final Root<CountyDashboard> root = cq.from(CountyDashboard.class);
+      final Join<CountyDashboard, UploadedFile> manifest = root.join("my_manifest_file");
+      final Join<CountyDashboard, UploadedFile> cvr = root.join("my_cvr_file");
+      cq.multiselect(cb.count(root),
+                     cb.coalesce(cb.sum(manifest.<Long>get("my_id")), 0L),
+                     cb.coalesce(cb.sum(cvr.<Long>get("my_id")), 0L));
+      return join(s.createQuery(cq).getSingleResult());
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for completed uploads");
+      throw e;
+    }
+  }
+
+  /**
+   * @param the_values Some values.
+   * @return the values, joined with separators.
+   */
+  private static String join(final Object... the_values) {
+    final StringBuilder sb = new StringBuilder();
+    for (final Object value : the_values) {
+      if (sb.length() > 0) {
+        sb.append(SEPARATOR);
+      }
+      sb.append(value);
+    }
+    return sb.toString();
+  }
+}
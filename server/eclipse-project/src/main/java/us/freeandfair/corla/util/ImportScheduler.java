@@ -0,0 +1,521 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import us.freeandfair.corla.Main;
+
+/**
+ * The scheduler for file imports. At most a fixed number of imports run at
+ * once, and at most one of each kind per county; waiting imports are queued
+ * per county, and counties take turns, so a county that submits many
+ * imports cannot hold up the others. The scheduler estimates when each
+ * waiting import will complete from the sizes of the queued files and the
+ * import rates of recently completed imports. A listener can be told which
+ * counties' queue positions or estimates may have changed each time the
+ * queue changes.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.TooManyMethods"})
+public final class ImportScheduler {
+  /**
+   * The property that specifies the number of imports that run at once.
+   */
+  public static final String THREADS_PROPERTY = "import_threads";
+
+  /**
+   * The default number of imports that run at once.
+   */
+  public static final int DEFAULT_THREADS = 4;
+
+  /**
+   * The weight of the most recently completed import in the import rate.
+   */
+  private static final double RATE_SMOOTHING = 0.5;
+
+  /**
+   * The scheduler instance, created when first used.
+   */
+  private static ImportScheduler instance;
+
+  /**
+   * The number of imports that run at once.
+   */
+  private final int my_parallelism;
+
+  /**
+   * The executor that runs background imports.
+   */
+  private final ExecutorService my_executor;
+
+  /**
+   * The executor that runs helper tasks (such as file streamers) for
+   * running imports.
+   */
+  private final ExecutorService my_helpers;
+
+  /**
+   * The waiting imports, by county ID, in the order in which the counties
+   * will next be served.
+   */
+  private final Map<Long, Deque<Job>> my_waiting = new LinkedHashMap<>();
+
+  /**
+   * The running imports, by county ID and kind.
+   */
+  private final Map<Pair<Long, Kind>, Job> my_running = new HashMap<>();
+
+  /**
+   * The estimated import rates, in milliseconds per byte, by kind.
+   */
+  private final Map<Kind, Double> my_rates = new EnumMap<>(Kind.class);
+
+  /**
+   * The listener told the IDs of the counties affected by queue changes,
+   * or null if there is none.
+   */
+  private volatile Consumer<Long> my_listener;
+
+  /**
+   * Constructs a new ImportScheduler.
+   *
+   * @param the_parallelism The number of imports that run at once.
+   * @exception IllegalArgumentException if the_parallelism is not positive.
+   */
+  public ImportScheduler(final int the_parallelism) {
+    if (the_parallelism < 1) {
+      throw new IllegalArgumentException("import parallelism must be positive");
+    }
+    my_parallelism = the_parallelism;
+    my_executor = Executors.newFixedThreadPool(the_parallelism);
+    my_helpers = Executors.newFixedThreadPool(the_parallelism);
+    for (final Kind k : Kind.values()) {
+      my_rates.put(k, k.defaultRate());
+    }
+  }
+
+  /**
+   * @return the scheduler instance, configured from the system properties.
+   */
+  public static synchronized ImportScheduler instance() {
+    if (instance == null) {
+      instance = new ImportScheduler(parallelism(Main.properties()));
+    }
+    return instance;
+  }
+
+  /**
+   * Reads the import parallelism from the specified properties.
+   *
+   * @param the_properties The properties.
+   * @return the import parallelism.
+   */
+  public static int parallelism(final Properties the_properties) {
+    int result = DEFAULT_THREADS;
+    if (the_properties != null) {
+      try {
+        result = Integer.parseInt(the_properties.getProperty(THREADS_PROPERTY,
+                                                             String.valueOf(result)));
+      } catch (final NumberFormatException e) {
+        Main.LOGGER.error("invalid " + THREADS_PROPERTY + ", using " + DEFAULT_THREADS);
+      }
+    }
+    if (result < 1) {
+      Main.LOGGER.error("invalid " + THREADS_PROPERTY + ", using 1");
+      result = 1;
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of imports that run at once.
+   */
+  public int parallelism() {
+    return my_parallelism;
+  }
+
+  /**
+   * Sets the listener that is told, outside the scheduler's lock, the ID of
+   * each county whose queue position or estimated completion time may have
+   * changed when an import is submitted, started or finished.
+   *
+   * @param the_listener The listener, or null for none.
+   */
+  public void setListener(final Consumer<Long> the_listener) {
+    my_listener = the_listener;
+  }
+
+  /**
+   * Submits an import to be run in the background.
+   *
+   * @param the_county_id The ID of the county importing.
+   * @param the_kind The kind of import.
+   * @param the_size The size of the file being imported, in bytes.
+   * @param the_import The import.
+   * @return true if the import was queued, false if the county already has
+   * an import of the same kind queued or running.
+   */
+  public boolean submit(final Long the_county_id, final Kind the_kind,
+                        final long the_size, final Runnable the_import) {
+    final Set<Long> affected;
+    synchronized (this) {
+      if (scheduled(the_county_id, the_kind)) {
+        return false;
+      }
+      enqueue(new Job(the_county_id, the_kind, the_size, the_import));
+      dispatch();
+      affected = scheduledCounties();
+    }
+    notifyListener(affected);
+    return true;
+  }
+
+  /**
+   * Runs a helper task, such as a file streamer, for a running import.
+   *
+   * @param the_task The task.
+   */
+  public void runHelper(final Runnable the_task) {
+    my_helpers.execute(the_task);
+  }
+
+  /**
+   * Checks whether a county has an import of the specified kind queued
+   * or running.
+   *
+   * @param the_county_id The county ID.
+   * @param the_kind The kind of import.
+   * @return true if it does, false otherwise.
+   */
+  public synchronized boolean scheduled(final Long the_county_id, final Kind the_kind) {
+    if (my_running.containsKey(new Pair<>(the_county_id, the_kind))) {
+      return true;
+    }
+    final Deque<Job> waiting = my_waiting.get(the_county_id);
+    if (waiting != null) {
+      for (final Job j : waiting) {
+        if (j.my_kind == the_kind) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if no imports are running or waiting, false otherwise.
+   */
+  public synchronized boolean idle() {
+    return my_running.isEmpty() && my_waiting.isEmpty();
+  }
+
+  /**
+   * Computes the queue position and estimated completion time of a county's
+   * import of the specified kind.
+   *
+   * @param the_county_id The county ID.
+   * @param the_kind The kind of import.
+   * @return the queue position (0 if the import is running) and estimated
+   * completion time, or null if the county has no such import scheduled.
+   */
+  public synchronized Pair<Integer, Instant> status(final Long the_county_id,
+                                                    final Kind the_kind) {
+    final long now = System.currentTimeMillis();
+    // worker availability, as of the end of each running import
+    final Queue<Long> free_at = new PriorityQueue<>();
+    final Map<Pair<Long, Kind>, Long> county_free_at = new HashMap<>();
+    Pair<Integer, Instant> result = null;
+    for (final Job j : my_running.values()) {
+      final long end = Math.max(now, j.my_start.toEpochMilli() + estimate(j));
+      free_at.add(end);
+      county_free_at.put(j.key(), end);
+      if (j.my_county_id.equals(the_county_id) && j.my_kind == the_kind) {
+        result = new Pair<>(0, Instant.ofEpochMilli(end));
+      }
+    }
+    while (free_at.size() < my_parallelism) {
+      free_at.add(now);
+    }
+    int position = 0;
+    for (final Job j : dispatchOrder()) {
+      position = position + 1;
+      final long start = Math.max(free_at.remove(),
+                                  county_free_at.getOrDefault(j.key(), now));
+      final long end = start + estimate(j);
+      free_at.add(end);
+      county_free_at.put(j.key(), end);
+      if (result == null && j.my_county_id.equals(the_county_id) &&
+          j.my_kind == the_kind) {
+        result = new Pair<>(position, Instant.ofEpochMilli(end));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Shuts down this scheduler; running imports are completed, but waiting
+   * background imports are not started.
+   */
+  public void shutdown() {
+    my_executor.shutdown();
+    my_helpers.shutdown();
+  }
+
+  /**
+   * Adds a job to the end of its county's queue.
+   *
+   * @param the_job The job.
+   */
+  private void enqueue(final Job the_job) {
+    my_waiting.computeIfAbsent(the_job.my_county_id, k -> new ArrayDeque<>()).add(the_job);
+  }
+
+  /**
+   * Starts waiting jobs while there are free workers. Each county whose
+   * job is started moves to the back of the line; within a county, jobs
+   * start in the order in which they were submitted, except that a job
+   * does not start while another of the same kind is running.
+   */
+  private void dispatch() {
+    final Iterator<Map.Entry<Long, Deque<Job>>> counties = my_waiting.entrySet().iterator();
+    final List<Map.Entry<Long, Deque<Job>>> served = new ArrayList<>();
+    while (my_running.size() < my_parallelism && counties.hasNext()) {
+      final Map.Entry<Long, Deque<Job>> county = counties.next();
+      final Iterator<Job> jobs = county.getValue().iterator();
+      Job job = null;
+      while (job == null && jobs.hasNext()) {
+        final Job j = jobs.next();
+        if (!my_running.containsKey(j.key())) {
+          job = j;
+          jobs.remove();
+        }
+      }
+      if (job != null) {
+        counties.remove();
+        if (!county.getValue().isEmpty()) {
+          served.add(county);
+        }
+        start(job);
+      }
+    }
+    for (final Map.Entry<Long, Deque<Job>> county : served) {
+      my_waiting.put(county.getKey(), county.getValue());
+    }
+  }
+
+  /**
+   * Starts a job.
+   *
+   * @param the_job The job.
+   */
+  private void start(final Job the_job) {
+    the_job.my_start = Instant.now();
+    my_running.put(the_job.key(), the_job);
+    my_executor.execute(() -> run(the_job));
+  }
+
+  /**
+   * Runs a started job, then frees its worker for the next one.
+   *
+   * @param the_job The job.
+   */
+  private void run(final Job the_job) {
+    try {
+      the_job.my_import.run();
+    } finally {
+      notifyListener(finish(the_job));
+    }
+  }
+
+  /**
+   * Records the completion of a job and starts the next waiting jobs.
+   *
+   * @param the_job The job.
+   * @return the IDs of the counties affected: the job's county, and every
+   * county that still has an import scheduled.
+   */
+  private synchronized Set<Long> finish(final Job the_job) {
+    my_running.remove(the_job.key());
+    final long elapsed = System.currentTimeMillis() - the_job.my_start.toEpochMilli();
+    if (the_job.my_size > 0) {
+      final double rate = (double) elapsed / the_job.my_size;
+      my_rates.put(the_job.my_kind, RATE_SMOOTHING * rate +
+                                    (1 - RATE_SMOOTHING) * my_rates.get(the_job.my_kind));
+    }
+    dispatch();
+    final Set<Long> result = scheduledCounties();
+    result.add(the_job.my_county_id);
+    return result;
+  }
+
+  /**
+   * @return the IDs of the counties that have imports running or waiting.
+   */
+  private Set<Long> scheduledCounties() {
+    final Set<Long> result = new LinkedHashSet<>();
+    for (final Job j : my_running.values()) {
+      result.add(j.my_county_id);
+    }
+    result.addAll(my_waiting.keySet());
+    return result;
+  }
+
+  /**
+   * Tells the listener, if there is one, about the affected counties.
+   *
+   * @param the_county_ids The IDs of the affected counties.
+   */
+  private void notifyListener(final Set<Long> the_county_ids) {
+    final Consumer<Long> listener = my_listener;
+    if (listener != null) {
+      for (final Long id : the_county_ids) {
+        listener.accept(id);
+      }
+    }
+  }
+
+  /**
+   * @return the waiting jobs, in the order in which they would start if no
+   * more jobs were submitted.
+   */
+  private List<Job> dispatchOrder() {
+    final List<Job> result = new ArrayList<>();
+    final List<Iterator<Job>> queues = new ArrayList<>();
+    for (final Deque<Job> waiting : my_waiting.values()) {
+      queues.add(waiting.iterator());
+    }
+    while (!queues.isEmpty()) {
+      final Iterator<Iterator<Job>> turns = queues.iterator();
+      while (turns.hasNext()) {
+        final Iterator<Job> queue = turns.next();
+        result.add(queue.next());
+        if (!queue.hasNext()) {
+          turns.remove();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Estimates the running time of a job.
+   *
+   * @param the_job The job.
+   * @return the estimated running time, in milliseconds.
+   */
+  private long estimate(final Job the_job) {
+    return Math.round(the_job.my_size * my_rates.get(the_job.my_kind));
+  }
+
+  /**
+   * The kinds of import.
+   */
+  public enum Kind {
+    CVR_EXPORT(0.005);
+
+    /**
+     * The import rate assumed before any import has completed, in
+     * milliseconds per byte.
+     */
+    private final double my_default_rate;
+
+    /**
+     * Constructs a new Kind.
+     *
+     * @param the_default_rate The default import rate.
+     */
+    Kind(final double the_default_rate) {
+      my_default_rate = the_default_rate;
+    }
+
+    /**
+     * @return the import rate assumed before any import has completed, in
+     * milliseconds per byte.
+     */
+    public double defaultRate() {
+      return my_default_rate;
+    }
+  }
+
+  /**
+   * A scheduled import.
+   */
+  private static class Job {
+    /**
+     * The county ID.
+     */
+    protected final Long my_county_id;
+
+    /**
+     * The kind of import.
+     */
+    protected final Kind my_kind;
+
+    /**
+     * The size of the file being imported, in bytes.
+     */
+    protected final long my_size;
+
+    /**
+     * The import.
+     */
+    protected final Runnable my_import;
+
+    /**
+     * The time at which the import started, or null if it has not.
+     */
+    protected Instant my_start;
+
+    /**
+     * Constructs a new Job.
+     *
+     * @param the_county_id The county ID.
+     * @param the_kind The kind of import.
+     * @param the_size The size of the file being imported.
+     * @param the_import The import.
+     */
+    Job(final Long the_county_id, final Kind the_kind, final long the_size,
+        final Runnable the_import) {
+      my_county_id = the_county_id;
+      my_kind = the_kind;
+      my_size = the_size;
+      my_import = the_import;
+    }
+
+    /**
+     * @return the county ID and kind of this job.
+     */
+    protected Pair<Long, Kind> key() {
+      return new Pair<>(my_county_id, my_kind);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.crypto.HashChecker;
+
+/**
+ * An output stream that ingests an upload in a single pass. Every byte
+ * written to it is written to a primary stream, added to a message digest,
+ * and scanned for line terminators; it is also copied, on a best-effort
+ * basis, to an optional secondary stream (such as an archive copy), which
+ * is abandoned rather than failing the upload if it cannot be written.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class IngestOutputStream extends OutputStream {
+  /**
+   * The primary stream.
+   */
+  private final OutputStream my_primary;
+
+  /**
+   * The secondary stream, or null if there is none (or it failed).
+   */
+  private OutputStream my_secondary;
+
+  /**
+   * A flag indicating whether the secondary stream failed.
+   */
+  private boolean my_secondary_failed;
+
+  /**
+   * The message digest.
+   */
+  private final MessageDigest my_digest;
+
+  /**
+   * The number of line terminators seen; "\n", "\r", and "\r\n" each end
+   * one line, as they do for a LineNumberReader.
+   */
+  private int my_line_count;
+
+  /**
+   * A flag indicating whether the last byte written was a carriage return.
+   */
+  private boolean my_last_cr;
+
+  /**
+   * Constructs a new IngestOutputStream.
+   *
+   * @param the_primary The primary stream.
+   * @param the_secondary The secondary stream, or null if there is none.
+   * @param the_digest The message digest to update.
+   */
+  public IngestOutputStream(final OutputStream the_primary,
+                            final OutputStream the_secondary,
+                            final MessageDigest the_digest) {
+    super();
+    my_primary = the_primary;
+    my_secondary = the_secondary;
+    my_digest = the_digest;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void write(final int the_byte) throws IOException {
+    write(new byte[] {(byte) the_byte}, 0, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void write(final byte[] the_bytes, final int the_offset, final int the_length)
+      throws IOException {
+    my_primary.write(the_bytes, the_offset, the_length);
+    my_digest.update(the_bytes, the_offset, the_length);
+    for (int i = the_offset; i < the_offset + the_length; i++) {
+      final byte b = the_bytes[i];
+      if (b == '\r' || b == '\n' && !my_last_cr) {
+        my_line_count = my_line_count + 1;
+      }
+      my_last_cr = b == '\r';
+    }
+    if (my_secondary != null) {
+      try {
+        my_secondary.write(the_bytes, the_offset, the_length);
+      } catch (final IOException e) {
+        Main.LOGGER.info("abandoning secondary copy of upload", e);
+        my_secondary_failed = true;
+        closeSecondary();
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void flush() throws IOException {
+    my_primary.flush();
+  }
+
+  /**
+   * Closes the primary and secondary streams.
+   *
+   * @exception IOException if the primary stream cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    closeSecondary();
+    my_primary.close();
+  }
+
+  /**
+   * @return true if the secondary stream was abandoned because it could not
+   * be written, false otherwise.
+   */
+  public boolean secondaryFailed() {
+    return my_secondary_failed;
+  }
+
+  /**
+   * @return the number of line terminators written so far.
+   */
+  public int lineCount() {
+    return my_line_count;
+  }
+
+  /**
+   * Completes the digest; this should only be called once, after all bytes
+   * have been written.
+   *
+   * @return the digest of the bytes written, encoded as a hexadecimal string.
+   */
+  public String hash() {
+    return HashChecker.hexDigest(my_digest);
+  }
+
+  /**
+   * Closes the secondary stream, ignoring any exceptions, and abandons it.
+   */
+  private void closeSecondary() {
+    if (my_secondary != null) {
+      try {
+        my_secondary.close();
+      } catch (final IOException e) {
+        Main.LOGGER.info("could not close secondary copy of upload", e);
+        my_secondary_failed = true;
+      }
+    }
+    my_secondary = null;
+  }
+}
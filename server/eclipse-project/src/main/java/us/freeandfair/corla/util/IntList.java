@@ -0,0 +1,65 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of ints, backed by a copy of (part of) an int array,
+ * with constant time positional access.
+ * 
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+  /**
+   * The array.
+   */
+  private final int[] my_array;
+  
+  /**
+   * Constructs a new IntList containing a range of an array.
+   * 
+   * @param the_array The array.
+   * @param the_from The index of the first element of the range.
+   * @param the_to The index after the last element of the range.
+   */
+  public IntList(final int[] the_array, final int the_from, final int the_to) {
+    super();
+    my_array = Arrays.copyOfRange(the_array, the_from, the_to);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Integer get(final int the_index) {
+    return my_array[the_index];
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size() {
+    return my_array.length;
+  }
+  
+  /**
+   * @return the elements, in a new array.
+   */
+  public int[] toIntArray() {
+    return my_array.clone();
+  }
+}
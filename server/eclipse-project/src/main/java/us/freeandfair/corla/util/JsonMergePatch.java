@@ -0,0 +1,104 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+/**
+ * JSON merge patches (RFC 7386), for sending changes to JSON documents.
+ * A patch replaces the members of an object that changed, recursively, and
+ * sets members that were removed to null; any other value that changed is
+ * replaced whole. Documents must not contain null members, since a null
+ * member in a patch means removal; Gson omits them by default.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class JsonMergePatch {
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private JsonMergePatch() {
+    // do nothing
+  }
+
+  /**
+   * Computes the merge patch that transforms one document into another.
+   *
+   * @param the_source The source document.
+   * @param the_target The target document.
+   * @return the patch, or null if the documents are equal.
+   */
+  public static JsonElement diff(final JsonElement the_source, final JsonElement the_target) {
+    JsonElement result = null;
+    if (the_source.isJsonObject() && the_target.isJsonObject()) {
+      final JsonObject source = the_source.getAsJsonObject();
+      final JsonObject target = the_target.getAsJsonObject();
+      final JsonObject patch = new JsonObject();
+      for (final Map.Entry<String, JsonElement> e : source.entrySet()) {
+        if (!target.has(e.getKey())) {
+          patch.add(e.getKey(), JsonNull.INSTANCE);
+        }
+      }
+      for (final Map.Entry<String, JsonElement> e : target.entrySet()) {
+        final JsonElement value = source.get(e.getKey());
+        final JsonElement member_patch;
+        if (value == null) {
+          member_patch = e.getValue();
+        } else {
+          member_patch = diff(value, e.getValue());
+        }
+        if (member_patch != null) {
+          patch.add(e.getKey(), member_patch);
+        }
+      }
+      if (patch.size() > 0) {
+        result = patch;
+      }
+    } else if (!the_source.equals(the_target)) {
+      result = the_target;
+    }
+    return result;
+  }
+
+  /**
+   * Applies a merge patch to a document.
+   *
+   * @param the_target The document, which is not modified.
+   * @param the_patch The patch.
+   * @return the patched document.
+   */
+  public static JsonElement apply(final JsonElement the_target, final JsonElement the_patch) {
+    if (!the_patch.isJsonObject()) {
+      return the_patch;
+    }
+    // a shallow copy suffices, since members are replaced rather than modified
+    final JsonObject result = new JsonObject();
+    if (the_target != null && the_target.isJsonObject()) {
+      for (final Map.Entry<String, JsonElement> e : the_target.getAsJsonObject().entrySet()) {
+        result.add(e.getKey(), e.getValue());
+      }
+    }
+    for (final Map.Entry<String, JsonElement> e : the_patch.getAsJsonObject().entrySet()) {
+      if (e.getValue().isJsonNull()) {
+        result.remove(e.getKey());
+      } else {
+        result.add(e.getKey(), apply(result.get(e.getKey()), e.getValue()));
+      }
+    }
+    return result;
+  }
+}
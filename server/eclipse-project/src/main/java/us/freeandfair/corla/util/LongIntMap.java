@@ -0,0 +1,188 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from longs to ints that stores its entries in primitive arrays,
+ * for counting large numbers of keys without boxing. Entries are kept in
+ * insertion order and can be visited by index; they cannot be removed.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public class LongIntMap {
+  /**
+   * The default initial capacity.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The keys, in insertion order.
+   */
+  private long[] my_keys;
+
+  /**
+   * The values, in the same order as the keys.
+   */
+  private int[] my_values;
+
+  /**
+   * The open-addressing hash table: each slot holds the index of an entry
+   * plus 1, or 0 if it is empty. Its length is a power of 2 that is at
+   * least twice the number of entries.
+   */
+  private int[] my_table;
+
+  /**
+   * The number of entries.
+   */
+  private int my_size;
+
+  /**
+   * Constructs a new, empty LongIntMap.
+   */
+  public LongIntMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a new, empty LongIntMap with room for the specified number
+   * of entries.
+   *
+   * @param the_capacity The number of entries.
+   * @exception IllegalArgumentException if the_capacity is negative.
+   */
+  public LongIntMap(final int the_capacity) {
+    if (the_capacity < 0) {
+      throw new IllegalArgumentException("negative capacity " + the_capacity);
+    }
+    final int capacity = Math.max(the_capacity, 1);
+    my_keys = new long[capacity];
+    my_values = new int[capacity];
+    my_table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+  }
+
+  /**
+   * Adds an amount to the value for a key; a key that is not in the map
+   * has the value 0.
+   *
+   * @param the_key The key.
+   * @param the_amount The amount.
+   * @return the new value for the key.
+   */
+  public int add(final long the_key, final int the_amount) {
+    int slot = slot(the_key);
+    if (my_table[slot] == 0) {
+      if (my_size == my_keys.length) {
+        grow();
+        slot = slot(the_key);
+      }
+      my_keys[my_size] = the_key;
+      my_size = my_size + 1;
+      my_table[slot] = my_size;
+    }
+    final int index = my_table[slot] - 1;
+    my_values[index] = my_values[index] + the_amount;
+    return my_values[index];
+  }
+
+  /**
+   * Gets the value for a key.
+   *
+   * @param the_key The key.
+   * @return the value, or 0 if the key is not in the map.
+   */
+  public int get(final long the_key) {
+    final int entry = my_table[slot(the_key)];
+    int result = 0;
+    if (entry != 0) {
+      result = my_values[entry - 1];
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of entries.
+   */
+  public int size() {
+    return my_size;
+  }
+
+  /**
+   * Gets the key of an entry.
+   *
+   * @param the_index The index of the entry, in insertion order.
+   * @return the key.
+   * @exception IndexOutOfBoundsException if there is no such entry.
+   */
+  public long key(final int the_index) {
+    checkIndex(the_index);
+    return my_keys[the_index];
+  }
+
+  /**
+   * Gets the value of an entry.
+   *
+   * @param the_index The index of the entry, in insertion order.
+   * @return the value.
+   * @exception IndexOutOfBoundsException if there is no such entry.
+   */
+  public int value(final int the_index) {
+    checkIndex(the_index);
+    return my_values[the_index];
+  }
+
+  /**
+   * Checks that an entry index is valid.
+   *
+   * @param the_index The index.
+   * @exception IndexOutOfBoundsException if there is no such entry.
+   */
+  private void checkIndex(final int the_index) {
+    if (the_index < 0 || my_size <= the_index) {
+      throw new IndexOutOfBoundsException("index " + the_index + ", size " + my_size);
+    }
+  }
+
+  /**
+   * Finds the slot in the hash table that holds a key, or the empty slot
+   * where it belongs.
+   *
+   * @param the_key The key.
+   * @return the slot.
+   */
+  private int slot(final long the_key) {
+    final int mask = my_table.length - 1;
+    // spread the bits of the key with a multiplicative hash
+    final long hash = the_key * 0x9E3779B97F4A7C15L;
+    int result = (int) (hash ^ hash >>> 32) & mask;
+    while (my_table[result] != 0 && my_keys[my_table[result] - 1] != the_key) {
+      result = (result + 1) & mask;
+    }
+    return result;
+  }
+
+  /**
+   * Doubles the capacity, and rebuilds the hash table.
+   */
+  private void grow() {
+    final int capacity = my_keys.length * 2;
+    my_keys = Arrays.copyOf(my_keys, capacity);
+    my_values = Arrays.copyOf(my_values, capacity);
+    my_table = new int[my_table.length * 2];
+    for (int i = 0; i < my_size; i++) {
+      my_table[slot(my_keys[i])] = i + 1;
+    }
+  }
+}
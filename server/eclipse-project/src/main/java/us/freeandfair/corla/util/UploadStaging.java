@@ -0,0 +1,197 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.crypto.HashChecker;
+import us.freeandfair.corla.model.UploadedFile;
+
+/**
+ * The staging area for uploaded files that were received in a single pass.
+ * A staged file is a local copy of a hash-verified upload; an import of
+ * that upload can read the staged copy instead of streaming the file back
+ * out of the database. Staged files are kept by uploaded file ID, at most
+ * a few per county (the most recent ones), and are handed out at most 
+ * once. Copies that are replaced, discarded or cleared are deleted.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+public final class UploadStaging {
+  /**
+   * The maximum number of staged files per county; a county may upload
+   * both a ballot manifest and a CVR export before importing either.
+   */
+  private static final int MAX_STAGED_PER_COUNTY = 2;
+
+  /**
+   * The staged files, by uploaded file ID, in the order they were staged.
+   */
+  private static final Map<Long, StagedFile> STAGED = new LinkedHashMap<>();
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private UploadStaging() {
+    // empty
+  }
+
+  /**
+   * Stages a local copy of an uploaded file. If its county then has too
+   * many staged files, the oldest ones are deleted.
+   *
+   * @param the_file The uploaded file.
+   * @param the_copy The local copy.
+   */
+  public static void stage(final UploadedFile the_file, final File the_copy) {
+    final Long county_id = the_file.county().id();
+    final List<File> evicted = new ArrayList<>();
+    synchronized (STAGED) {
+      STAGED.put(the_file.id(), new StagedFile(county_id, the_copy));
+      int county_count = 0;
+      for (final StagedFile staged : STAGED.values()) {
+        if (staged.my_county_id.equals(county_id)) {
+          county_count = county_count + 1;
+        }
+      }
+      final Iterator<StagedFile> iterator = STAGED.values().iterator();
+      while (county_count > MAX_STAGED_PER_COUNTY) {
+        final StagedFile staged = iterator.next();
+        if (staged.my_county_id.equals(county_id)) {
+          iterator.remove();
+          evicted.add(staged.my_copy);
+          county_count = county_count - 1;
+        }
+      }
+    }
+    for (final File f : evicted) {
+      delete(f);
+    }
+  }
+
+  /**
+   * Claims the staged local copy of an uploaded file, if there is one and it
+   * is intact (it has the uploaded file's size and hash). The caller becomes
+   * responsible for deleting the copy.
+   *
+   * @param the_file The uploaded file.
+   * @return the local copy, or null if the file has no intact staged copy.
+   */
+  public static File claim(final UploadedFile the_file) {
+    final StagedFile staged;
+    synchronized (STAGED) {
+      staged = STAGED.remove(the_file.id());
+    }
+    File result = null;
+    if (staged != null) {
+      if (intact(staged.my_copy, the_file)) {
+        result = staged.my_copy;
+      } else {
+        Main.LOGGER.warn("staged copy of file " + the_file.id() + " is not intact");
+        delete(staged.my_copy);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Discards the staged local copy of an uploaded file, if there is one;
+   * this is called when the file is imported without its staged copy.
+   *
+   * @param the_file The uploaded file.
+   */
+  public static void discard(final UploadedFile the_file) {
+    final StagedFile staged;
+    synchronized (STAGED) {
+      staged = STAGED.remove(the_file.id());
+    }
+    if (staged != null) {
+      delete(staged.my_copy);
+    }
+  }
+
+  /**
+   * Discards all staged copies.
+   */
+  public static void clear() {
+    final List<StagedFile> staged;
+    synchronized (STAGED) {
+      staged = new ArrayList<>(STAGED.values());
+      STAGED.clear();
+    }
+    for (final StagedFile s : staged) {
+      delete(s.my_copy);
+    }
+  }
+
+  /**
+   * Deletes a staged copy.
+   *
+   * @param the_copy The copy.
+   */
+  public static void delete(final File the_copy) {
+    if (the_copy.exists() && !the_copy.delete()) {
+      Main.LOGGER.error("Unable to delete staged file " + the_copy);
+    }
+  }
+
+  /**
+   * Checks whether a staged copy matches its uploaded file.
+   *
+   * @param the_copy The staged copy.
+   * @param the_file The uploaded file.
+   * @return true if the copy has the file's size and hash, false otherwise.
+   */
+  private static boolean intact(final File the_copy, final UploadedFile the_file) {
+    if (the_file.size() == null || the_copy.length() != the_file.size() || 
+        the_file.hash() == null) {
+      return false;
+    }
+    final String hash = HashChecker.hashFile(the_copy);
+    return hash != null &&
+           hash.equals(the_file.hash().toUpperCase(Locale.US).trim());
+  }
+
+  /**
+   * A staged local copy of an uploaded file.
+   */
+  private static class StagedFile {
+    /**
+     * The ID of the county that uploaded the file.
+     */
+    protected final Long my_county_id;
+
+    /**
+     * The local copy.
+     */
+    protected final File my_copy;
+
+    /**
+     * Constructs a new StagedFile.
+     *
+     * @param the_county_id The ID of the county that uploaded the file.
+     * @param the_copy The local copy.
+     */
+    StagedFile(final Long the_county_id, final File the_copy) {
+      my_county_id = the_county_id;
+      my_copy = the_copy;
+    }
+  }
+}
@@ -56,9 +56,10 @@ public class UploadedFileStreamer implements Runnable {
   /**
    * The run method. This opens up a new persistence session and database
    * transaction, and sets up the stream for reading. This method should 
-   * only be called as a result of Thread.start(), in a fresh thread; any
-   * other use may have unpredictable consequences due to the persistence 
-   * subsystem's handling of threads.
+   * only be called on a thread of its own, such as a fresh Thread or an 
+   * import helper thread, with no persistence session open; any other use 
+   * may have unpredictable consequences due to the persistence subsystem's 
+   * handling of threads.
    * 
    * @exception PersistenceException if there is a problem during the
    * execution.
@@ -74,6 +75,8 @@ public class UploadedFileStreamer implements Runnable {
       my_stream = my_file.file().getBinaryStream();
       notifyAll();
     } catch (final SQLException e) {
+      // helper threads are reused, so the transaction must not outlive this run
+      Persistence.rollbackTransaction();
       throw new PersistenceException(e);
     }
     while (my_running) {
@@ -0,0 +1,83 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import static org.testng.Assert.*;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.controller.AuditSequenceCache.Sequence;
+import us.freeandfair.corla.crypto.PseudoRandomNumberGenerator;
+import us.freeandfair.corla.model.AuditSequence;
+
+/**
+ * A test case for the AuditSequenceCache.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class AuditSequenceCacheTest {
+  /**
+   * The random seed.
+   */
+  private static final String SEED = "3546311556112163624615351222";
+
+  /**
+   * The number of CVRs.
+   */
+  private static final int CVR_COUNT = 876;
+
+  /**
+   * The county ID.
+   */
+  private static final Long COUNTY_ID = 3L;
+
+  /**
+   * Tests that a sequence extended a piece at a time, and a sequence
+   * restored from storage and then extended, are the same as the sequence
+   * generated from scratch.
+   */
+  @Test()
+  public void testIncrementalExtension() {
+    final List<Integer> expected =
+        new PseudoRandomNumberGenerator(SEED, true, 0, CVR_COUNT - 1).
+        getRandomNumbers(0, 199);
+
+    final Sequence sequence = new Sequence(SEED, CVR_COUNT);
+    assertTrue(sequence.matches(SEED, CVR_COUNT));
+    assertFalse(sequence.matches(SEED, CVR_COUNT + 1));
+    assertNull(sequence.unsaved(COUNTY_ID));
+    assertEquals(sequence.positions(10, 19), expected.subList(10, 20));
+    assertEquals(sequence.length(), 20);
+    assertEquals(sequence.positions(0, 4), expected.subList(0, 5));
+    assertEquals(sequence.length(), 20);
+
+    final AuditSequence stored = sequence.unsaved(COUNTY_ID);
+    assertNotNull(stored);
+    // until the store commits, the sequence is still unsaved
+    assertEquals(sequence.unsaved(COUNTY_ID).length(), 20);
+    sequence.saved(stored.length());
+    assertNull(sequence.unsaved(COUNTY_ID));
+    assertEquals(stored.length(), 20);
+    assertEquals(stored.cvrCount().intValue(), CVR_COUNT);
+
+    final Sequence restored = new Sequence(SEED, CVR_COUNT, stored.positions());
+    assertNull(restored.unsaved(COUNTY_ID));
+    assertEquals(restored.positions(0, 199), expected);
+    assertEquals(restored.unsaved(COUNTY_ID).length(), 200);
+    assertEquals(sequence.positions(150, 199), expected.subList(150, 200));
+  }
+}
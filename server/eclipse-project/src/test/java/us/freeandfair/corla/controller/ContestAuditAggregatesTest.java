@@ -0,0 +1,424 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.controller.ContestAuditAggregates.ContestValues;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.CountyContestComparisonAudit;
+import us.freeandfair.corla.model.CountyDashboard;
+
+/**
+ * A test case for ContestAuditAggregates, which checks the incrementally
+ * maintained aggregates against aggregates computed from scratch. The
+ * dashboards and audits are stand-ins whose values and versions the test
+ * sets, and transactions are simulated by completing the synchronizations
+ * that update() would register.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class ContestAuditAggregatesTest {
+  /**
+   * The number of counties.
+   */
+  private static final int COUNTIES = 6;
+
+  /**
+   * The number of contests.
+   */
+  private static final int CONTESTS = 4;
+
+  /**
+   * The number of random changes to make.
+   */
+  private static final int CHANGES = 500;
+
+  /**
+   * Discards the contributions of other tests.
+   */
+  @BeforeMethod()
+  public void clear() {
+    ContestAuditAggregates.clear();
+  }
+
+  /**
+   * Tests that contributions published by committed transactions are used,
+   * and give the same aggregates as a full recompute.
+   */
+  @Test()
+  public void testCommittedUpdates() {
+    final Random random = new Random(1L);
+    final List<TestDashboard> dashboards = dashboards(random);
+    assertAggregates(dashboards);
+
+    final TestDashboard cdb = dashboards.get(0);
+    cdb.change(random);
+    commit(cdb);
+    assertAggregates(dashboards);
+
+    // the published contribution is used as long as the version matches,
+    // so a change that no transaction reported is not seen...
+    final Map<Long, ContestValues> published = ContestAuditAggregates.aggregates(dashboards);
+    cdb.changeValues(random);
+    assertSameValues(ContestAuditAggregates.aggregates(dashboards), published);
+    // ...until it is published
+    commit(cdb);
+    assertAggregates(dashboards);
+  }
+
+  /**
+   * Tests that a contribution computed from an older version of a dashboard,
+   * which changed without publishing a contribution, is recomputed.
+   */
+  @Test()
+  public void testStaleVersion() {
+    final Random random = new Random(2L);
+    final List<TestDashboard> dashboards = dashboards(random);
+    for (final TestDashboard cdb : dashboards) {
+      commit(cdb);
+    }
+    assertAggregates(dashboards);
+
+    final TestDashboard cdb = dashboards.get(COUNTIES - 1);
+    cdb.change(random);
+    assertAggregates(dashboards);
+  }
+
+  /**
+   * Tests that a contribution computed in a transaction that rolls back is
+   * not published. The transaction fails before the dashboard's version is
+   * incremented, so the rolled back values would have the version of the
+   * restored dashboard if they were published.
+   */
+  @Test()
+  public void testRolledBackUpdate() {
+    final Random random = new Random(3L);
+    final List<TestDashboard> dashboards = dashboards(random);
+    final TestDashboard cdb = dashboards.get(1);
+    commit(cdb);
+    assertAggregates(dashboards);
+
+    final TestDashboard before = cdb.copy();
+    cdb.changeValues(random);
+    ContestAuditAggregates.publisher(cdb).afterCompletion(Status.STATUS_ROLLEDBACK);
+    cdb.restore(before);
+    assertAggregates(dashboards);
+  }
+
+  /**
+   * Tests that the aggregates match a full recompute after every one of a
+   * long random series of committed, unpublished and rolled back changes.
+   */
+  @Test()
+  public void testRandomChanges() {
+    final Random random = new Random(4L);
+    final List<TestDashboard> dashboards = dashboards(random);
+    for (int i = 0; i < CHANGES; i++) {
+      final TestDashboard cdb = dashboards.get(random.nextInt(COUNTIES));
+      switch (random.nextInt(3)) {
+        case 0:
+          cdb.change(random);
+          commit(cdb);
+          break;
+
+        case 1:
+          cdb.change(random);
+          break;
+
+        default:
+          final TestDashboard before = cdb.copy();
+          cdb.changeValues(random);
+          ContestAuditAggregates.publisher(cdb).afterCompletion(Status.STATUS_ROLLEDBACK);
+          cdb.restore(before);
+      }
+      assertAggregates(dashboards);
+    }
+  }
+
+  /**
+   * Simulates a transaction that updates a dashboard and commits; the
+   * dashboard's version is incremented when the transaction is flushed.
+   *
+   * @param the_cdb The dashboard.
+   */
+  private void commit(final TestDashboard the_cdb) {
+    final Synchronization publisher =
+        ContestAuditAggregates.publisher(the_cdb);
+    the_cdb.my_version = the_cdb.my_version + 1;
+    publisher.afterCompletion(Status.STATUS_COMMITTED);
+  }
+
+  /**
+   * Asserts that the aggregates of some dashboards are the same as those
+   * computed from scratch.
+   *
+   * @param the_dashboards The dashboards.
+   */
+  private void assertAggregates(final List<TestDashboard> the_dashboards) {
+    final Map<Long, ContestValues> expected = new HashMap<>();
+    for (final CountyDashboard cdb : the_dashboards) {
+      for (final Map.Entry<Long, ContestValues> e :
+           ContestAuditAggregates.contestValues(cdb).entrySet()) {
+        expected.computeIfAbsent(e.getKey(), k -> new ContestValues()).combine(e.getValue());
+      }
+    }
+    assertSameValues(ContestAuditAggregates.aggregates(the_dashboards), expected);
+  }
+
+  /**
+   * Asserts that two sets of aggregates are the same.
+   *
+   * @param the_actual The actual aggregates.
+   * @param the_expected The expected aggregates.
+   */
+  private void assertSameValues(final Map<Long, ContestValues> the_actual,
+                                final Map<Long, ContestValues> the_expected) {
+    assertEquals(the_actual.keySet(), the_expected.keySet());
+    for (final Map.Entry<Long, ContestValues> e : the_expected.entrySet()) {
+      final ContestValues actual = the_actual.get(e.getKey());
+      assertEquals(actual.optimistic(), e.getValue().optimistic());
+      assertEquals(actual.estimated(), e.getValue().estimated());
+      for (int i = ContestAuditAggregates.MIN_DISCREPANCY;
+           i <= ContestAuditAggregates.MAX_DISCREPANCY; i++) {
+        assertEquals(actual.discrepancyCount(i), e.getValue().discrepancyCount(i));
+      }
+    }
+  }
+
+  /**
+   * Makes dashboards with random audits.
+   *
+   * @param the_random The random number generator.
+   * @return the dashboards.
+   */
+  private List<TestDashboard> dashboards(final Random the_random) {
+    final List<Contest> contests = new ArrayList<>();
+    for (long i = 1; i <= CONTESTS; i++) {
+      final Contest contest = new Contest();
+      contest.setID(i);
+      contests.add(contest);
+    }
+    final List<TestDashboard> result = new ArrayList<>();
+    for (long i = 1; i <= COUNTIES; i++) {
+      final TestDashboard cdb = new TestDashboard(new County("County " + i, i), contests);
+      cdb.change(the_random);
+      result.add(cdb);
+    }
+    return result;
+  }
+
+  /**
+   * A county dashboard whose version, audited prefix length and audits are
+   * set by the test.
+   */
+  private static class TestDashboard extends CountyDashboard {
+    /**
+     * The contests that may be audited.
+     */
+    protected final List<Contest> my_contests;
+
+    /**
+     * The version.
+     */
+    protected Long my_version = 0L;
+
+    /**
+     * The audited prefix length.
+     */
+    protected int my_prefix;
+
+    /**
+     * The audits.
+     */
+    protected Set<CountyContestComparisonAudit> my_audits = new HashSet<>();
+
+    /**
+     * Constructs a new TestDashboard.
+     *
+     * @param the_county The county.
+     * @param the_contests The contests that may be audited.
+     */
+    TestDashboard(final County the_county, final List<Contest> the_contests) {
+      super(the_county);
+      my_contests = the_contests;
+    }
+
+    /**
+     * Changes this dashboard's values, as a transaction would before
+     * flushing it.
+     *
+     * @param the_random The random number generator.
+     */
+    void change(final Random the_random) {
+      changeValues(the_random);
+      my_version = my_version + 1;
+    }
+
+    /**
+     * Changes this dashboard's values without changing its version.
+     *
+     * @param the_random The random number generator.
+     */
+    void changeValues(final Random the_random) {
+      my_prefix = the_random.nextInt(20);
+      my_audits = new HashSet<>();
+      for (final Contest c : my_contests) {
+        if (the_random.nextInt(3) > 0) {
+          final int[] discrepancies = new int[5];
+          for (int i = 0; i < discrepancies.length; i++) {
+            discrepancies[i] = the_random.nextInt(3);
+          }
+          my_audits.add(new TestAudit(c, the_random.nextInt(50), the_random.nextInt(60),
+                                      discrepancies));
+        }
+      }
+    }
+
+    /**
+     * @return a copy of this dashboard's state.
+     */
+    TestDashboard copy() {
+      final TestDashboard result = new TestDashboard(county(), my_contests);
+      result.restore(this);
+      return result;
+    }
+
+    /**
+     * Restores this dashboard's state from a copy.
+     *
+     * @param the_copy The copy.
+     */
+    void restore(final TestDashboard the_copy) {
+      my_version = the_copy.my_version;
+      my_prefix = the_copy.my_prefix;
+      my_audits = the_copy.my_audits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Long version() {
+      return my_version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer auditedPrefixLength() {
+      return my_prefix;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<CountyContestComparisonAudit> comparisonAudits() {
+      return my_audits;
+    }
+  }
+
+  /**
+   * A comparison audit whose values are set by the test.
+   */
+  private static class TestAudit extends CountyContestComparisonAudit {
+    /**
+     * The contest.
+     */
+    private final Contest my_test_contest;
+
+    /**
+     * The optimistic samples to audit.
+     */
+    private final int my_optimistic;
+
+    /**
+     * The estimated samples to audit.
+     */
+    private final int my_estimated;
+
+    /**
+     * The discrepancy counts, from -2 to 2.
+     */
+    private final int[] my_discrepancies;
+
+    /**
+     * Constructs a new TestAudit.
+     *
+     * @param the_contest The contest.
+     * @param the_optimistic The optimistic samples to audit.
+     * @param the_estimated The estimated samples to audit.
+     * @param the_discrepancies The discrepancy counts, from -2 to 2.
+     */
+    TestAudit(final Contest the_contest, final int the_optimistic,
+              final int the_estimated, final int... the_discrepancies) {
+      super();
+      my_test_contest = the_contest;
+      my_optimistic = the_optimistic;
+      my_estimated = the_estimated;
+      my_discrepancies = Arrays.copyOf(the_discrepancies, the_discrepancies.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Contest contest() {
+      return my_test_contest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer optimisticSamplesToAudit() {
+      return my_optimistic;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer estimatedSamplesToAudit() {
+      return my_estimated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int discrepancyCount(final int the_type) {
+      return my_discrepancies[the_type - ContestAuditAggregates.MIN_DISCREPANCY];
+    }
+  }
+}
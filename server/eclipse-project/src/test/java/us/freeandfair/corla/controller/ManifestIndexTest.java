@@ -0,0 +1,71 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.model.BallotManifestInfo;
+
+/**
+ * A test case for the ManifestIndex.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class ManifestIndexTest {
+  /**
+   * Checks batch locations and sequence number lookups against a manifest
+   * whose records are not in sequence order.
+   */
+  @Test()
+  public void testLookups() {
+    final List<BallotManifestInfo> batches = new ArrayList<>();
+    batches.add(new BallotManifestInfo(1L, 2, "1", 5, "Box 3", 11L, 15L));
+    batches.add(new BallotManifestInfo(1L, 1, "1", 10, "Box 1", 1L, 10L));
+    batches.add(new BallotManifestInfo(1L, 1, "2", 1, "Box 2", 16L, 16L));
+    // a duplicate batch, whose location is ignored
+    batches.add(new BallotManifestInfo(1L, 1, "2", 1, "Box 4", 17L, 17L));
+    final ManifestIndex index = new ManifestIndex(7L, batches);
+
+    assertEquals(index.location(1, "1"), "Box 1");
+    assertEquals(index.location(1, "2"), "Box 2");
+    assertEquals(index.location(2, "1"), "Box 3");
+    assertNull(index.location(2, "2"));
+    assertNull(index.location(3, "1"));
+
+    assertFalse(index.holding(0).isPresent());
+    assertEquals(index.holding(1).get().storageLocation(), "Box 1");
+    assertEquals(index.holding(10).get().storageLocation(), "Box 1");
+    assertEquals(index.holding(11).get().storageLocation(), "Box 3");
+    assertEquals(index.holding(15).get().storageLocation(), "Box 3");
+    assertEquals(index.holding(16).get().storageLocation(), "Box 2");
+    assertEquals(index.holding(17).get().storageLocation(), "Box 4");
+    assertFalse(index.holding(18).isPresent());
+  }
+
+  /**
+   * Checks that an empty manifest holds nothing.
+   */
+  @Test()
+  public void testEmpty() {
+    final ManifestIndex index = new ManifestIndex(null, new ArrayList<>());
+    assertNull(index.location(1, "1"));
+    assertFalse(index.holding(1).isPresent());
+  }
+}
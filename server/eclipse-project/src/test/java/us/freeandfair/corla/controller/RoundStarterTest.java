@@ -0,0 +1,133 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.controller;
+
+import static org.testng.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.PersistenceException;
+
+import org.testng.annotations.Test;
+
+/**
+ * A test case for the RoundStarter.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class RoundStarterTest {
+  /**
+   * Tests that successful jobs report their results, that database problems
+   * are retried, and that every kind of failure is recorded.
+   */
+  @Test()
+  public void testRun() {
+    final RoundStarter starter = new RoundStarter(2, false);
+    final Map<Long, AtomicInteger> tries = new ConcurrentHashMap<>();
+    final List<Long> counties = Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L);
+    final Map<Long, Boolean> results = starter.run(3, counties, id -> {
+      final int attempt =
+          tries.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+      switch (id.intValue()) {
+        case 1:
+          return true;
+
+        case 2:
+          // fails once, then succeeds when retried
+          if (attempt == 1) {
+            throw new PersistenceException("conflict");
+          }
+          return false;
+
+        case 3:
+          throw new PersistenceException("database down");
+
+        case 4:
+          throw new IllegalArgumentException("no such county");
+
+        case 5:
+          // an unexpected exception without a message
+          throw new IllegalStateException();
+
+        default:
+          throw new UnsupportedOperationException("bug");
+      }
+    });
+
+    assertEquals(results.size(), 2);
+    assertEquals(results.get(1L), Boolean.TRUE);
+    assertEquals(results.get(2L), Boolean.FALSE);
+    assertEquals(tries.get(1L).get(), 1);
+    assertEquals(tries.get(2L).get(), 2);
+    assertEquals(tries.get(3L).get(), 3);
+    assertEquals(tries.get(4L).get(), 1);
+    assertEquals(tries.get(6L).get(), 1);
+
+    final RoundStarter.Status status = starter.status();
+    assertEquals(status.round(), 3);
+    assertEquals(status.countyCount(), 6);
+    assertEquals(status.startedCount(), 2);
+    assertFalse(status.inProgress());
+    assertEquals(status.failures().keySet(), Arrays.asList(3L, 4L, 5L, 6L));
+    assertEquals(status.failures().get(3L), "database problem: database down");
+    assertEquals(status.failures().get(4L), "no such county");
+    assertNotNull(status.failures().get(5L));
+    assertTrue(status.failures().get(6L).contains("bug"));
+  }
+
+  /**
+   * Tests that a finished round start can be cleared and another run.
+   */
+  @Test()
+  public void testRerun() {
+    final RoundStarter starter = new RoundStarter(1, false);
+    assertNull(starter.status());
+    starter.run(1, Arrays.asList(1L), id -> {
+      throw new IllegalArgumentException("not yet");
+    });
+    assertEquals(starter.status().failures().size(), 1);
+
+    final Map<Long, Boolean> results = starter.run(1, Arrays.asList(1L), id -> true);
+    assertEquals(results.get(1L), Boolean.TRUE);
+    assertTrue(starter.status().failures().isEmpty());
+    assertEquals(starter.status().startedCount(), 1);
+
+    starter.clear();
+    assertNull(starter.status());
+  }
+
+  /**
+   * Tests that invalid parallelism settings fall back to usable values.
+   */
+  @Test()
+  public void testParallelism() {
+    final Properties properties = new Properties();
+    assertEquals(RoundStarter.parallelism(null), RoundStarter.DEFAULT_THREADS);
+    assertEquals(RoundStarter.parallelism(properties), RoundStarter.DEFAULT_THREADS);
+    properties.setProperty(RoundStarter.THREADS_PROPERTY, "two");
+    assertEquals(RoundStarter.parallelism(properties), RoundStarter.DEFAULT_THREADS);
+    properties.setProperty(RoundStarter.THREADS_PROPERTY, "0");
+    assertEquals(RoundStarter.parallelism(properties), 1);
+    properties.setProperty(RoundStarter.THREADS_PROPERTY, "-3");
+    assertEquals(RoundStarter.parallelism(properties), 1);
+    properties.setProperty(RoundStarter.THREADS_PROPERTY, "8");
+    assertEquals(RoundStarter.parallelism(properties), 8);
+  }
+}
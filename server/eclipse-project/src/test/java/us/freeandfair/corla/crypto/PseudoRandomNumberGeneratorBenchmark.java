@@ -0,0 +1,97 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.crypto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A JMH benchmark comparing the PseudoRandomNumberGenerator with the original
+ * implementation (a string hash input, BigInteger reduction, LinkedList
+ * storage and linear membership checks). Each benchmark operation creates a
+ * generator and draws a sequence of the given length from a range of the
+ * given size, so scores are in sequences per second.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *   org.openjdk.jmh.Main PseudoRandomNumberGenerator
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class PseudoRandomNumberGeneratorBenchmark {
+  /**
+   * The seed.
+   */
+  private static final String SEED = "3546311556112163624615351222";
+
+  /**
+   * The number of random numbers to draw.
+   */
+  @Param({"100", "5000"})
+  public int length;
+
+  /**
+   * The size of the range to draw from.
+   */
+  @Param("100000")
+  public int range;
+
+  /**
+   * Whether to draw with replacement.
+   */
+  @Param({"true", "false"})
+  public boolean replacement;
+
+  /**
+   * Draws a sequence with the current generator.
+   *
+   * @return the sequence.
+   */
+  @Benchmark
+  public List<Integer> current() {
+    return new PseudoRandomNumberGenerator(SEED, replacement, 1, range)
+           .getRandomNumbers(0, length - 1);
+  }
+
+  /**
+   * Draws a sequence with the original generator.
+   *
+   * @return the sequence.
+   */
+  @Benchmark
+  public List<Integer> original() {
+    return new LegacyPseudoRandomNumberGenerator(SEED, replacement, 1, range)
+           .getRandomNumbers(0, length - 1);
+  }
+}
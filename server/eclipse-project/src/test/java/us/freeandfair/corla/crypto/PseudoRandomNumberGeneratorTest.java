@@ -12,6 +12,7 @@
 package us.freeandfair.corla.crypto;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.testng.Assert;
@@ -42,4 +43,85 @@ public class PseudoRandomNumberGeneratorTest {
         537, 197);
     Assert.assertEquals(numbers, expected);
   }
+  
+  /**
+   * Compares the generator with the original BigInteger and LinkedList 
+   * implementation, for several seeds and ranges (up to the largest range
+   * the original could handle) with and without replacement.
+   */
+  @Test()
+  public void testLegacyEquivalence() {
+    final String[] seeds = {"3546311556112163624615351222", 
+                            "01234567890123456789",
+                            "98765432109876543210987654321098765432109876543210"};
+    final int[][] ranges = {{1, 2}, {1, 876}, {-50, 50}, {1, 65_537}, 
+                            {-1_000_000_000, 1_000_000_000},
+                            {0, Integer.MAX_VALUE - 1}};
+    for (final String seed : seeds) {
+      for (final int[] range : ranges) {
+        for (final boolean replacement : new boolean[] {true, false}) {
+          final long size = (long) range[1] - range[0] + 1;
+          // without replacement, at most size numbers can be tried, so 
+          // only draw a quarter of the range
+          int count = (int) Math.min(size, 500);
+          if (!replacement) {
+            count = (int) Math.max(1, Math.min(size / 4, 500));
+          }
+          final List<Integer> legacy = 
+              new LegacyPseudoRandomNumberGenerator(seed, replacement, range[0], range[1])
+              .getRandomNumbers(0, count - 1);
+          final PseudoRandomNumberGenerator gen = 
+              new PseudoRandomNumberGenerator(seed, replacement, range[0], range[1]);
+          // request the numbers in pieces, to exercise extension
+          Assert.assertEquals(gen.getRandomNumbers(0, count / 3), 
+                              legacy.subList(0, count / 3 + 1));
+          Assert.assertEquals(gen.getRandomNumbers(0, count - 1), legacy);
+          if (replacement) {
+            for (int i = 0; i < count; i++) {
+              Assert.assertEquals(gen.generateAt(i), legacy.get(i).intValue());
+            }
+          }
+        }
+      }
+    }
+  }
+  
+  /**
+   * Tests that drawing half of a range without replacement gives distinct
+   * numbers, identical to the original implementation's.
+   */
+  @Test()
+  public void testWithoutReplacement() {
+    final String seed = "3546311556112163624615351222";
+    final int size = 4000;
+    final int count = size / 2;
+    final List<Integer> numbers = 
+        new PseudoRandomNumberGenerator(seed, false, 1, size).getRandomNumbers(0, count - 1);
+    Assert.assertEquals(numbers, 
+                        new LegacyPseudoRandomNumberGenerator(seed, false, 1, size)
+                        .getRandomNumbers(0, count - 1));
+    Assert.assertEquals(new HashSet<>(numbers).size(), count);
+  }
+  
+  /**
+   * Tests that ranges generated in parallel chunks are the same as ranges
+   * generated sequentially, including ranges that start part way through 
+   * the sequence and ranges small enough to be generated sequentially.
+   */
+  @Test()
+  public void testGenerateRange() {
+    final String seed = "3546311556112163624615351222";
+    final int count = 20_000;
+    final PseudoRandomNumberGenerator gen = 
+        new PseudoRandomNumberGenerator(seed, true, 0, 99_999);
+    final List<Integer> expected = gen.getRandomNumbers(0, count - 1);
+    final int[][] ranges = {{0, count - 1}, {12_345, count - 1}, {17, 99}, {5, 4}};
+    for (final int[] range : ranges) {
+      final int[] numbers = gen.generateRange(range[0], range[1]);
+      Assert.assertEquals(numbers.length, range[1] - range[0] + 1);
+      for (int i = 0; i < numbers.length; i++) {
+        Assert.assertEquals(numbers[i], expected.get(range[0] + i).intValue());
+      }
+    }
+  }
 }
@@ -0,0 +1,279 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.freeandfair.corla.model.CVRContestInfo;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.model.Choice;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.County;
+
+/**
+ * A JMH benchmark comparing CVR row extraction through a DominionCVRColumnPlan
+ * with the original per-row extraction (column map lookups, regular expression
+ * unwrapping, and a fresh vote list per contest). The rows of the sample
+ * Dominion export are replicated to build a larger synthetic file. Each
+ * benchmark operation extracts one row, so scores are in rows per second.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *   org.openjdk.jmh.Main ColumnPlan
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class DominionCVRColumnPlanBenchmark {
+  /**
+   * The sample CVR export, relative to the server project directory.
+   */
+  private static final String SAMPLE =
+      "../../test/dominion-2017-CVR_Export_20170310104116.csv";
+
+  /**
+   * The number of header lines in a Dominion export.
+   */
+  private static final int HEADER_LINES = 4;
+
+  /**
+   * The number of times to replicate the sample rows.
+   */
+  @Param("1000")
+  public int replicas;
+
+  /**
+   * The CVR rows.
+   */
+  private final List<CSVRecord> my_rows = new ArrayList<>();
+
+  /**
+   * The fixed column map.
+   */
+  private final Map<String, Integer> my_columns = new HashMap<>();
+
+  /**
+   * The contests.
+   */
+  private final List<Contest> my_contests = new ArrayList<>();
+
+  /**
+   * The first contest column.
+   */
+  private int my_first_contest_column;
+
+  /**
+   * The column plan.
+   */
+  private DominionCVRColumnPlan my_plan;
+
+  /**
+   * The tally used by the column plan.
+   */
+  private ContestTally my_tally;
+
+  /**
+   * The index of the next row to extract.
+   */
+  private int my_index;
+
+  /**
+   * Reads the sample file and builds the contests and the column plan,
+   * without any database access.
+   *
+   * @exception IOException if the sample file cannot be read.
+   */
+  @Setup
+  public void setup() throws IOException {
+    final List<String> lines =
+        Files.readAllLines(Paths.get(SAMPLE), StandardCharsets.UTF_8);
+    final StringBuilder sb = new StringBuilder();
+    for (final String line : lines.subList(0, HEADER_LINES)) {
+      sb.append(line).append('\n');
+    }
+    for (int r = 0; r < replicas; r++) {
+      for (final String line : lines.subList(HEADER_LINES, lines.size())) {
+        sb.append(line).append('\n');
+      }
+    }
+    final List<CSVRecord> records =
+        CSVParser.parse(sb.toString(), CSVFormat.DEFAULT).getRecords();
+    final CSVRecord contest_line = records.get(1);
+    final CSVRecord choice_line = records.get(2);
+    final CSVRecord expl_line = records.get(3);
+
+    while ("".equals(contest_line.get(my_first_contest_column))) {
+      my_first_contest_column = my_first_contest_column + 1;
+    }
+    for (int i = 0; i < my_first_contest_column; i++) {
+      my_columns.put(expl_line.get(i), i);
+    }
+    final County county = new County("Benchmark", 1L);
+    int index = my_first_contest_column;
+    while (index < contest_line.size()) {
+      final String name = contest_line.get(index);
+      final List<Choice> choices = new ArrayList<>();
+      boolean write_in = false;
+      while (index < contest_line.size() && name.equals(contest_line.get(index))) {
+        final String ch = choice_line.get(index).trim();
+        final boolean fictitious = "Write-in".equals(ch);
+        choices.add(new Choice(ch, expl_line.get(index).trim(), write_in, fictitious));
+        write_in |= fictitious;
+        index = index + 1;
+      }
+      my_contests.add(new Contest(name, county, "", choices, 1, 1, my_contests.size()));
+    }
+    my_plan = new DominionCVRColumnPlan(county.id(), my_columns, my_first_contest_column,
+                                        my_contests, "CvrNumber", "TabulatorNum",
+                                        "BatchId", "RecordId", "ImprintedId",
+                                        "BallotType");
+    my_tally = my_plan.newTally();
+    my_rows.addAll(records.subList(HEADER_LINES, records.size()));
+  }
+
+  /**
+   * @return the next row to extract.
+   */
+  private CSVRecord nextRow() {
+    final CSVRecord result = my_rows.get(my_index);
+    my_index = (my_index + 1) % my_rows.size();
+    return result;
+  }
+
+  /**
+   * Extracts a row with the column plan.
+   *
+   * @return the CVR.
+   */
+  @Benchmark
+  public CastVoteRecord columnPlan() {
+    return my_plan.extract(nextRow(), my_index, my_tally);
+  }
+
+  /**
+   * Extracts a row the way the parser did before column plans.
+   *
+   * @return the CVR.
+   */
+  @Benchmark
+  public CastVoteRecord original() {
+    return extractOriginal(nextRow(), my_index);
+  }
+
+  /**
+   * @return the CVR rows.
+   */
+  List<CSVRecord> rows() {
+    return my_rows;
+  }
+
+  /**
+   * @return the contests.
+   */
+  List<Contest> contests() {
+    return my_contests;
+  }
+
+  /**
+   * @return the column plan.
+   */
+  DominionCVRColumnPlan plan() {
+    return my_plan;
+  }
+
+  /**
+   * Extracts a row the way the parser did before column plans.
+   *
+   * @param the_line The row.
+   * @param the_sequence_number The sequence number.
+   * @return the CVR.
+   */
+  CastVoteRecord extractOriginal(final CSVRecord the_line, final int the_sequence_number) {
+    final int cvr_id = Integer.parseInt(strip(the_line.get(my_columns.get("CvrNumber"))));
+    final int tabulator_id =
+        Integer.parseInt(strip(the_line.get(my_columns.get("TabulatorNum"))));
+    final String batch_id = strip(the_line.get(my_columns.get("BatchId")));
+    final int record_id = Integer.parseInt(strip(the_line.get(my_columns.get("RecordId"))));
+    final String imprinted_id = strip(the_line.get(my_columns.get("ImprintedId")));
+    final String ballot_type = strip(the_line.get(my_columns.get("BallotType")));
+    final List<CVRContestInfo> contest_info = new ArrayList<CVRContestInfo>();
+    int index = my_first_contest_column;
+    for (final Contest co : my_contests) {
+      boolean present = false;
+      final List<String> votes = new ArrayList<String>();
+      for (final Choice ch : co.choices()) {
+        final String mark_string = the_line.get(index);
+        final boolean p = !mark_string.isEmpty();
+        final boolean mark = "1".equals(mark_string);
+        present |= p;
+        if (!ch.fictitious() && p && mark) {
+          votes.add(ch.name());
+        }
+        index = index + 1;
+      }
+      if (present) {
+        contest_info.add(new CVRContestInfo(co, null, null, votes));
+      }
+    }
+    return new CastVoteRecord(RecordType.UPLOADED, null, 1L, cvr_id, the_sequence_number,
+                              tabulator_id, batch_id, record_id, imprinted_id,
+                              ballot_type, contest_info);
+  }
+
+  /**
+   * The original '="..."' stripping, using a regular expression.
+   *
+   * @param the_value The value to strip.
+   * @return the stripped value.
+   */
+  private String strip(final String the_value) {
+    String result = the_value;
+    if (the_value.startsWith("=\"") && the_value.endsWith("\"")) {
+      result = the_value.substring(0, the_value.length() - 1).replaceFirst("=\"", "");
+    }
+    return result;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import static org.testng.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.CountyContestResult;
+
+/**
+ * A test case for the DominionCVRColumnPlan.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class DominionCVRColumnPlanTest {
+  /**
+   * Tests that '="..."' stripping matches the original regular expression
+   * based stripping.
+   */
+  @Test()
+  public void testStripEqualQuotes() {
+    final String[] values = {"=\"123\"", "123", "=\"\"", "=\"", "\"", "", "=\"a=\"b\""};
+    for (final String v : values) {
+      String expected = v;
+      if (v.startsWith("=\"") && v.endsWith("\"")) {
+        expected = v.substring(0, v.length() - 1).replaceFirst("=\"", "");
+      }
+      assertEquals(DominionCVRColumnPlan.stripEqualQuotes(v), expected);
+    }
+  }
+
+  /**
+   * Tests that the column plan extracts the same CVRs from the sample
+   * export as the original extraction.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testExtraction() throws IOException {
+    final DominionCVRColumnPlanBenchmark benchmark = new DominionCVRColumnPlanBenchmark();
+    benchmark.replicas = 1;
+    benchmark.setup();
+    assertFalse(benchmark.rows().isEmpty());
+    for (int i = 0; i < benchmark.rows().size(); i++) {
+      final CSVRecord row = benchmark.rows().get(i);
+      assertEquals(benchmark.plan().extract(row, i, benchmark.plan().newTally()),
+                   benchmark.extractOriginal(row, i));
+    }
+  }
+
+  /**
+   * Tests that tallying CVRs during extraction produces the same contest
+   * results as adding each CVR to the results.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testTally() throws IOException {
+    final DominionCVRColumnPlanBenchmark benchmark = new DominionCVRColumnPlanBenchmark();
+    benchmark.replicas = 2;
+    benchmark.setup();
+    final List<CountyContestResult> expected = new ArrayList<>();
+    final List<CountyContestResult> actual = new ArrayList<>();
+    for (final Contest c : benchmark.contests()) {
+      expected.add(new CountyContestResult(c.county(), c));
+      actual.add(new CountyContestResult(c.county(), c));
+    }
+    final ContestTally tally = benchmark.plan().newTally();
+    for (int i = 0; i < benchmark.rows().size(); i++) {
+      final CastVoteRecord cvr = benchmark.plan().extract(benchmark.rows().get(i), i, tally);
+      for (final CountyContestResult r : expected) {
+        r.addCVR(cvr);
+      }
+    }
+    tally.addTo(actual);
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(actual.get(i).voteTotals(), expected.get(i).voteTotals());
+      assertEquals(actual.get(i).contestBallotCount(), expected.get(i).contestBallotCount());
+      assertEquals(actual.get(i).countyBallotCount(), expected.get(i).countyBallotCount());
+    }
+  }
+
+  /**
+   * Tests that a tally restored from a checkpoint encoding, then continued,
+   * produces the same contest results as an uninterrupted tally.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testTallyCheckpoint() throws IOException {
+    final DominionCVRColumnPlanBenchmark benchmark = new DominionCVRColumnPlanBenchmark();
+    benchmark.replicas = 2;
+    benchmark.setup();
+    final List<CSVRecord> rows = benchmark.rows();
+    final int checkpoint = rows.size() / 2;
+    final ContestTally uninterrupted = benchmark.plan().newTally();
+    final ContestTally interrupted = benchmark.plan().newTally();
+    for (int i = 0; i < rows.size(); i++) {
+      benchmark.plan().extract(rows.get(i), i, uninterrupted);
+      if (i < checkpoint) {
+        benchmark.plan().extract(rows.get(i), i, interrupted);
+      }
+    }
+    final ContestTally resumed = benchmark.plan().newTally();
+    assertTrue(resumed.restore(interrupted.encode()));
+    assertEquals(resumed.countyBallots(), checkpoint);
+    for (int i = checkpoint; i < rows.size(); i++) {
+      benchmark.plan().extract(rows.get(i), i, resumed);
+    }
+    assertEquals(resumed.encode(), uninterrupted.encode());
+
+    // encodings for other contests, and malformed encodings, are rejected
+    final ContestTally other = new ContestTally(benchmark.contests().subList(0, 1));
+    assertFalse(other.restore(uninterrupted.encode()));
+    assertFalse(resumed.restore("not a tally"));
+    assertEquals(resumed.encode(), uninterrupted.encode());
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import static org.testng.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.csv.DominionCVRExportValidator.ValidationError;
+
+/**
+ * A test case for the DominionCVRExportValidator.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class DominionCVRExportValidatorTest {
+  /**
+   * The sample CVR export, relative to the server project directory.
+   */
+  private static final String SAMPLE =
+      "../../test/dominion-2017-CVR_Export_20170310104116.csv";
+
+  /**
+   * The number of header lines in a Dominion export.
+   */
+  private static final int HEADER_LINES = 4;
+
+  /**
+   * Reads the lines of the sample file.
+   *
+   * @return the lines.
+   * @exception IOException if the sample cannot be read.
+   */
+  private List<String> sampleLines() throws IOException {
+    return Files.readAllLines(Paths.get(SAMPLE), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Validates a CVR export.
+   *
+   * @param the_lines The lines of the export.
+   * @return the validator, after validation.
+   * @exception IOException never.
+   */
+  private DominionCVRExportValidator validate(final List<String> the_lines)
+      throws IOException {
+    final byte[] bytes = String.join("\r\n", the_lines).getBytes(StandardCharsets.UTF_8);
+    final DominionCVRExportValidator result =
+        new DominionCVRExportValidator(new ByteArrayInputStream(bytes));
+    result.validate();
+    return result;
+  }
+
+  /**
+   * Tests that the scanner reads the same records as the CSV parser used
+   * for imports, including quoted fields with embedded delimiters, quotes,
+   * line breaks, and trailing whitespace.
+   *
+   * @exception IOException never.
+   */
+  @Test()
+  public void testScanner() throws IOException {
+    final String text = new String(Files.readAllBytes(Paths.get(SAMPLE)),
+                                   StandardCharsets.UTF_8) +
+                        "\n\n\"a,b\",\"c\"\"d\",\"e\r\nf\"  ,=\"1\",\r\r\n" +
+                        "last,\"\"";
+    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    final CSVByteScanner scanner = new CSVByteScanner(new ByteArrayInputStream(bytes));
+    try (CSVParser parser =
+            new CSVParser(new InputStreamReader(new ByteArrayInputStream(bytes),
+                                                StandardCharsets.UTF_8),
+                          CSVFormat.DEFAULT)) {
+      final Iterator<CSVRecord> records = parser.iterator();
+      while (records.hasNext()) {
+        final CSVRecord record = records.next();
+        assertTrue(scanner.next());
+        assertEquals(scanner.size(), record.size());
+        for (int i = 0; i < record.size(); i++) {
+          assertEquals(scanner.get(i), record.get(i));
+        }
+      }
+      assertFalse(scanner.next());
+      assertNull(scanner.malformation());
+    }
+  }
+
+  /**
+   * Tests that the sample export is valid.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testValid() throws IOException {
+    final List<String> lines = sampleLines();
+    final DominionCVRExportValidator validator = validate(lines);
+    assertEquals(validator.errors(), Collections.emptyList());
+    assertEquals(validator.errorCount(), 0);
+    assertEquals(validator.recordCount(), lines.size() - HEADER_LINES);
+  }
+
+  /**
+   * Tests that malformed rows are all reported, with their line numbers.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testMalformedRows() throws IOException {
+    final List<String> lines = sampleLines();
+    // line 6: bad CVR number
+    lines.set(5, lines.get(5).replaceFirst("^=\"\\d+\"", "=\"x1\""));
+    // line 8: short row
+    lines.set(7, lines.get(7).substring(0, lines.get(7).lastIndexOf(',')));
+    // line 10: bad vote mark
+    final int last_mark = lines.get(9).lastIndexOf("\"0\"");
+    lines.set(9, lines.get(9).substring(0, last_mark) + "\"2\"" +
+                 lines.get(9).substring(last_mark + "\"0\"".length()));
+
+    final DominionCVRExportValidator validator = validate(lines);
+    final List<ValidationError> errors = validator.errors();
+    assertEquals(validator.errorCount(), 3);
+    assertEquals(errors.get(0).line(), 6);
+    assertTrue(errors.get(0).message().contains("CvrNumber"));
+    assertEquals(errors.get(1).line(), 8);
+    assertTrue(errors.get(1).message().contains("columns"));
+    assertEquals(errors.get(2).line(), 10);
+    assertTrue(errors.get(2).message().contains("\"2\""));
+    assertTrue(validator.summary(1).startsWith("3 errors: line 6: "));
+  }
+
+  /**
+   * Tests that header problems are reported and stop the validation.
+   *
+   * @exception IOException if the sample cannot be read.
+   */
+  @Test()
+  public void testMalformedHeaders() throws IOException {
+    final List<String> lines = sampleLines();
+    lines.set(HEADER_LINES - 1, lines.get(HEADER_LINES - 1)
+                                .replace("\"NotCountingGroup\"", "\"CountingGroup\"")
+                                .replace("\"BallotType\"", "\"Style\""));
+    final DominionCVRExportValidator validator = validate(lines);
+    assertEquals(validator.errorCount(), 2);
+    assertEquals(validator.errors().get(0).line(), HEADER_LINES);
+    assertEquals(validator.recordCount(), 0);
+
+    final DominionCVRExportValidator truncated = validate(lines.subList(0, 2));
+    assertEquals(truncated.errorCount(), 1);
+    assertTrue(truncated.errors().get(0).message().contains("choice names"));
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.csv;
+
+import static org.testng.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.Test;
+
+/**
+ * A test case for the RecordPipeline.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class RecordPipelineTest {
+  /**
+   * The number of records in the test input.
+   */
+  private static final int RECORDS = 1000;
+
+  /**
+   * @return a parser for a CSV string with one numbered record per line.
+   */
+  private CSVParser numberedRecords() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < RECORDS; i++) {
+      sb.append(i).append(",x\n");
+    }
+    return CSVParser.parse(sb.toString(), CSVFormat.DEFAULT);
+  }
+
+  /**
+   * Tests that batches are consumed in file order with correct indexes.
+   */
+  @Test()
+  public void testOrdering() throws IOException {
+    final List<Integer> consumed = new ArrayList<>();
+    final RecordPipeline<List<Integer>> pipeline = new RecordPipeline<>(4, 7);
+    final boolean result =
+        pipeline.run(numberedRecords().iterator(), (the_records, the_index) -> {
+          final List<Integer> values = new ArrayList<>();
+          for (int i = 0; i < the_records.size(); i++) {
+            assertEquals(Integer.parseInt(the_records.get(i).get(0)), the_index + i);
+            values.add(Integer.parseInt(the_records.get(i).get(0)));
+          }
+          return values;
+        }, (the_batch) -> consumed.addAll(the_batch));
+    assertTrue(result);
+    assertEquals(consumed.size(), RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      assertEquals(consumed.get(i).intValue(), i);
+    }
+  }
+
+  /**
+   * Tests that the pipeline stops when the consumer asks it to, and that
+   * the records are no longer read once it has stopped.
+   */
+  @Test()
+  public void testStop() throws IOException {
+    final List<List<CSVRecord>> consumed = new ArrayList<>();
+    final RecordPipeline<List<CSVRecord>> pipeline = new RecordPipeline<>(3, 10);
+    final CountingIterator records = new CountingIterator(numberedRecords().iterator(), -1);
+    final boolean result = pipeline.run(records,
+        (the_records, the_index) -> the_records,
+        (the_batch) -> consumed.add(the_batch) && consumed.size() < 5);
+    assertFalse(result);
+    assertEquals(consumed.size(), 5);
+    final int read = records.count();
+    Thread.yield();
+    assertEquals(records.count(), read);
+  }
+
+  /**
+   * Tests that a worker failure is reported to the caller.
+   */
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testFailure() throws IOException {
+    final RecordPipeline<Integer> pipeline = new RecordPipeline<>(2, 10);
+    pipeline.run(numberedRecords().iterator(), (the_records, the_index) -> {
+      if (the_index >= RECORDS / 2) {
+        throw new NumberFormatException("failed");
+      }
+      return the_index;
+    }, (the_batch) -> true);
+  }
+
+  /**
+   * Tests that a reader failure, even one that is not an exception, is
+   * reported to the caller with its cause.
+   */
+  @Test()
+  public void testReaderFailure() throws IOException {
+    final RecordPipeline<Integer> pipeline = new RecordPipeline<>(2, 10);
+    try {
+      pipeline.run(new CountingIterator(numberedRecords().iterator(), RECORDS / 2),
+                   (the_records, the_index) -> the_index, (the_batch) -> true);
+      fail("reader failure not reported");
+    } catch (final IllegalStateException e) {
+      assertTrue(e.getCause() instanceof AssertionError);
+    }
+  }
+
+  /**
+   * An iterator that counts the records read through it, and that can fail
+   * after a number of them.
+   */
+  private static class CountingIterator implements Iterator<CSVRecord> {
+    /**
+     * The underlying iterator.
+     */
+    private final Iterator<CSVRecord> my_records;
+
+    /**
+     * The number of records after which to fail, or -1 never to fail.
+     */
+    private final int my_failure_count;
+
+    /**
+     * The number of records read.
+     */
+    private final AtomicInteger my_count = new AtomicInteger();
+
+    /**
+     * Constructs a new CountingIterator.
+     *
+     * @param the_records The underlying iterator.
+     * @param the_failure_count The number of records after which to fail,
+     * or -1 never to fail.
+     */
+    CountingIterator(final Iterator<CSVRecord> the_records, final int the_failure_count) {
+      my_records = the_records;
+      my_failure_count = the_failure_count;
+    }
+
+    /**
+     * @return the number of records read.
+     */
+    int count() {
+      return my_count.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+      return my_records.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CSVRecord next() {
+      if (my_count.get() == my_failure_count) {
+        throw new AssertionError("reader failed");
+      }
+      my_count.incrementAndGet();
+      return my_records.next();
+    }
+  }
+}
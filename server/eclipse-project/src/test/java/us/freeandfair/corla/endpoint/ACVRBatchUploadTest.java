@@ -0,0 +1,176 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import static org.testng.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.json.AuditCVRSubmissionResult;
+import us.freeandfair.corla.json.SubmittedAuditCVR;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.CountyDashboard;
+
+/**
+ * A test case for the ACVRBatchUpload endpoint's handling of batches, with
+ * the CVR lookup and audit CVR recording replaced so that no database is
+ * needed.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class ACVRBatchUploadTest {
+  /**
+   * The county.
+   */
+  private static final County COUNTY = new County("Adams", 1L);
+
+  /**
+   * Tests that each entry of a batch is validated on its own, that rejected
+   * entries do not prevent the others from being recorded, and that the
+   * results are in submission order.
+   */
+  @Test()
+  public void testPartialRejection() {
+    final CountyDashboard cdb = new CountyDashboard(COUNTY);
+    cdb.startRound(3, 3, 0, Arrays.asList(10L, 11L, 12L), Arrays.asList(10L, 11L, 12L));
+    final TestUpload upload = new TestUpload();
+    upload.my_cvrs.put(10L, cvr(RecordType.UPLOADED, 100));
+    upload.my_cvrs.put(11L, cvr(RecordType.UPLOADED, 101));
+    upload.my_cvrs.put(12L, cvr(RecordType.UPLOADED, 102));
+
+    final List<AuditCVRSubmissionResult> results =
+        upload.submitAll(cdb,
+                         new SubmittedAuditCVR(10L, cvr(RecordType.AUDITOR_ENTERED, 100)),
+                         null,
+                         new SubmittedAuditCVR(null, cvr(RecordType.AUDITOR_ENTERED, 101)),
+                         new SubmittedAuditCVR(11L, null),
+                         new SubmittedAuditCVR(99L, cvr(RecordType.AUDITOR_ENTERED, 101)),
+                         new SubmittedAuditCVR(11L, cvr(RecordType.AUDITOR_ENTERED, 999)),
+                         new SubmittedAuditCVR(12L, cvr(RecordType.AUDITOR_ENTERED, 102)));
+
+    assertEquals(results.size(), 7);
+    final boolean[] accepted = {true, false, false, false, false, false, true};
+    for (int i = 0; i < accepted.length; i++) {
+      assertEquals(results.get(i).accepted(), accepted[i], "entry " + i);
+    }
+    assertEquals(results.get(0).cvrID(), Long.valueOf(10L));
+    assertEquals(results.get(0).result(), "ACVR submitted");
+    assertNull(results.get(1).cvrID());
+    assertEquals(results.get(1).result(), "empty audit CVR upload");
+    assertEquals(results.get(2).result(), "empty audit CVR upload");
+    assertEquals(results.get(3).result(), "empty audit CVR upload");
+    assertEquals(results.get(4).result(), "could not find original CVR");
+    assertEquals(results.get(5).cvrID(), Long.valueOf(11L));
+    assertEquals(results.get(5).result(), "invalid audit CVR uploaded");
+
+    // only the accepted entries were recorded, as new auditor-entered CVRs
+    assertEquals(upload.my_recorded.size(), 2);
+    assertEquals(upload.my_recorded.get(0).cvrNumber(), Integer.valueOf(100));
+    assertEquals(upload.my_recorded.get(1).cvrNumber(), Integer.valueOf(102));
+    for (final CastVoteRecord acvr : upload.my_recorded) {
+      assertEquals(acvr.recordType(), RecordType.AUDITOR_ENTERED);
+    }
+  }
+
+  /**
+   * Tests that a batch for a county with no ballots remaining in its round
+   * is rejected entry by entry, without looking up or recording anything.
+   */
+  @Test()
+  public void testNoRemainingBallots() {
+    final CountyDashboard cdb = new CountyDashboard(COUNTY);
+    final TestUpload upload = new TestUpload();
+    upload.my_cvrs.put(10L, cvr(RecordType.UPLOADED, 100));
+
+    final List<AuditCVRSubmissionResult> results =
+        upload.submitAll(cdb,
+                         new SubmittedAuditCVR(10L, cvr(RecordType.AUDITOR_ENTERED, 100)),
+                         new SubmittedAuditCVR(10L, cvr(RecordType.AUDITOR_ENTERED, 100)));
+
+    assertEquals(results.size(), 2);
+    for (final AuditCVRSubmissionResult result : results) {
+      assertFalse(result.accepted());
+      assertEquals(result.result(), "ballot submission with no remaining ballots in round");
+    }
+    assertTrue(upload.my_looked_up.isEmpty());
+    assertTrue(upload.my_recorded.isEmpty());
+  }
+
+  /**
+   * Makes a CVR.
+   *
+   * @param the_type The record type.
+   * @param the_cvr_number The CVR number.
+   * @return the CVR.
+   */
+  private CastVoteRecord cvr(final RecordType the_type, final int the_cvr_number) {
+    return new CastVoteRecord(the_type, Instant.now(), COUNTY.id(), the_cvr_number,
+                              null, 1, "1", the_cvr_number, "1-1-" + the_cvr_number,
+                              "ballot type", null);
+  }
+
+  /**
+   * An ACVRBatchUpload that looks up CVRs in a map, and records an audit CVR
+   * if it has the CVR number of the CVR under audit.
+   */
+  private static class TestUpload extends ACVRBatchUpload {
+    /**
+     * The CVRs under audit, by ID.
+     */
+    protected final Map<Long, CastVoteRecord> my_cvrs = new HashMap<>();
+
+    /**
+     * The IDs of the CVRs looked up.
+     */
+    protected final List<Long> my_looked_up = new ArrayList<>();
+
+    /**
+     * The recorded audit CVRs.
+     */
+    protected final List<CastVoteRecord> my_recorded = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    CastVoteRecord cvrUnderAudit(final Long the_cvr_id) {
+      my_looked_up.add(the_cvr_id);
+      return my_cvrs.get(the_cvr_id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean record(final CountyDashboard the_cdb, final CastVoteRecord the_cvr_under_audit,
+                   final CastVoteRecord the_audit_cvr) {
+      final boolean result =
+          the_cvr_under_audit.cvrNumber().equals(the_audit_cvr.cvrNumber());
+      if (result) {
+        my_recorded.add(the_audit_cvr);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+/**
+ * A test case for the If-None-Match matching of EntityTags.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class EntityTagsTest {
+  /**
+   * A tag.
+   */
+  private static final String TAG = "W/\"abc-county-1-2\"";
+
+  /**
+   * Checks that tags match with the weak comparison.
+   */
+  @Test()
+  public void testMatches() {
+    assertTrue(EntityTags.matches(TAG, TAG));
+    assertTrue(EntityTags.matches("\"abc-county-1-2\"", TAG));
+    assertTrue(EntityTags.matches("\"x\", W/\"abc-county-1-2\"", TAG));
+    assertTrue(EntityTags.matches("*", TAG));
+  }
+
+  /**
+   * Checks that other tags and missing headers do not match.
+   */
+  @Test()
+  public void testDoesNotMatch() {
+    assertFalse(EntityTags.matches(null, TAG));
+    assertFalse(EntityTags.matches("", TAG));
+    assertFalse(EntityTags.matches("W/\"abc-county-1-3\"", TAG));
+    assertFalse(EntityTags.matches("W/\"abc-county-1\"", TAG));
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+/**
+ * A test case for the BallotAuditMap.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class BallotAuditMapTest {
+  /**
+   * Checks that the selected and audited bitmaps are independent, and that
+   * each bit is set without disturbing its neighbours.
+   */
+  @Test()
+  public void testBits() {
+    final BallotAuditMap map = new BallotAuditMap(1L, 19);
+    map.setSelected(0);
+    map.setSelected(7);
+    map.setSelected(8);
+    map.setAudited(18);
+    for (int i = 0; i < 19; i++) {
+      assertEquals(map.selected(i), i == 0 || i == 7 || i == 8, "selected " + i);
+      assertEquals(map.audited(i), i == 18, "audited " + i);
+    }
+    assertFalse(map.selected(-1));
+    assertFalse(map.audited(19));
+
+    map.reset(40);
+    assertEquals(map.cvrCount(), 40);
+    assertFalse(map.selected(0));
+    assertFalse(map.audited(18));
+    map.setAudited(39);
+    assertTrue(map.audited(39));
+  }
+
+  /**
+   * Checks that bits beyond the CVR count cannot be set.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOutOfRange() {
+    new BallotAuditMap(1L, 19).setSelected(19);
+  }
+}
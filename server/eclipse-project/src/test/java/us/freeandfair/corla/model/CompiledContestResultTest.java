@@ -0,0 +1,184 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.testng.annotations.Test;
+
+/**
+ * A property-based test case for the CompiledContestResult, checking that
+ * discrepancies computed with bit operations are identical to those computed
+ * with sets for random contests and ballots.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class CompiledContestResultTest {
+  /**
+   * The number of random contests to try.
+   */
+  private static final int CONTESTS = 500;
+
+  /**
+   * The number of random ballot pairs to try per contest.
+   */
+  private static final int BALLOTS = 200;
+
+  /**
+   * Checks random contests of up to 8 choices, where winners and losers may
+   * overlap or be empty and ballots may include unknown names, duplicates
+   * and overvotes.
+   */
+  @Test()
+  public void testSmallContests() {
+    check(new Random(20_171_017L), 8);
+  }
+
+  /**
+   * Checks random contests with more winners and losers than fit in a mask.
+   */
+  @Test()
+  public void testLargeContests() {
+    check(new Random(42L), 80);
+  }
+
+  /**
+   * Checks the discrepancies of phantom ballots.
+   */
+  @Test()
+  public void testPhantomDiscrepancy() {
+    final Set<String> winners = set("A");
+    final Set<String> losers = set("B", "C");
+    final CompiledContestResult result = new CompiledContestResult("c", 1, winners, losers);
+    assertEquals(result.phantomDiscrepancy(new ArrayList<>()), 1);
+    assertEquals(result.phantomDiscrepancy(list("B", "C")), 1);
+    assertEquals(result.phantomDiscrepancy(list("B", "A")), 2);
+    assertEquals(result.phantomDiscrepancy(list("Write-in")), 2);
+  }
+
+  /**
+   * Checks random contests and ballots.
+   *
+   * @param the_random The random number generator.
+   * @param the_choices The largest number of choices in a contest.
+   */
+  private void check(final Random the_random, final int the_choices) {
+    for (int c = 0; c < CONTESTS; c++) {
+      final int choices = 1 + the_random.nextInt(the_choices);
+      final List<String> names = new ArrayList<>();
+      for (int i = 0; i < choices; i++) {
+        names.add("choice " + i);
+      }
+      final Set<String> winners = new HashSet<>();
+      final Set<String> losers = new HashSet<>();
+      for (final String name : names) {
+        final int role = the_random.nextInt(10);
+        if (role < 3) {
+          winners.add(name);
+        } else if (role < 9) {
+          losers.add(name);
+        } else {
+          // occasionally a choice is both, or neither
+          if (the_random.nextBoolean()) {
+            winners.add(name);
+            losers.add(name);
+          }
+        }
+      }
+      // names that are in neither set appear on ballots too
+      names.add("Write-in");
+      names.add("");
+      final int votes_allowed = 1 + the_random.nextInt(3);
+      final CompiledContestResult result =
+          new CompiledContestResult("contest " + c, votes_allowed, winners, losers);
+      for (int b = 0; b < BALLOTS; b++) {
+        final List<String> cvr = ballot(the_random, names, votes_allowed);
+        final List<String> acvr;
+        if (the_random.nextInt(4) == 0) {
+          acvr = new ArrayList<>(cvr);
+        } else {
+          acvr = ballot(the_random, names, votes_allowed);
+        }
+        assertEquals(outcome(() -> result.discrepancy(cvr, acvr)),
+                     outcome(() -> result.discrepancyBySets(cvr, acvr)),
+                     "winners " + winners + ", losers " + losers + ", votes allowed " +
+                     votes_allowed + ", cvr " + cvr + ", acvr " + acvr);
+      }
+    }
+  }
+
+  /**
+   * Makes a random ballot, which may have duplicate choices and overvotes.
+   *
+   * @param the_random The random number generator.
+   * @param the_names The names to choose from.
+   * @param the_votes_allowed The number of votes allowed.
+   * @return the ballot's choices.
+   */
+  private List<String> ballot(final Random the_random, final List<String> the_names,
+                              final int the_votes_allowed) {
+    final int count = the_random.nextInt(the_votes_allowed + 2);
+    final List<String> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(the_names.get(the_random.nextInt(the_names.size())));
+    }
+    return result;
+  }
+
+  /**
+   * Describes the outcome of a discrepancy computation, including an
+   * exception, so that outcomes can be compared.
+   *
+   * @param the_computation The computation.
+   * @return the description.
+   */
+  private String outcome(final Supplier<OptionalInt> the_computation) {
+    String result;
+    try {
+      result = the_computation.get().toString();
+    } catch (final IllegalStateException e) {
+      result = e.toString();
+    }
+    return result;
+  }
+
+  /**
+   * @param the_names Some names.
+   * @return a set of the names.
+   */
+  private Set<String> set(final String... the_names) {
+    return new HashSet<>(list(the_names));
+  }
+
+  /**
+   * @param the_names Some names.
+   * @return a list of the names.
+   */
+  private List<String> list(final String... the_names) {
+    final List<String> result = new ArrayList<>();
+    for (final String name : the_names) {
+      result.add(name);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+
+/**
+ * A JMH benchmark comparing sample size computation through RiskMath with
+ * the original computation, which took five logarithms at DECIMAL128
+ * precision on every call. Each benchmark operation computes one sample size
+ * for a pseudorandom diluted margin and set of discrepancy counts, so scores
+ * are in computations per second.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *   org.openjdk.jmh.Main RiskMath
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class RiskMathBenchmark {
+  /**
+   * The risk limit.
+   */
+  static final BigDecimal RISK_LIMIT = BigDecimal.valueOf(0.05);
+
+  /**
+   * The number of distinct inputs.
+   */
+  @Param("1024")
+  public int inputs;
+
+  /**
+   * The diluted margins.
+   */
+  private BigDecimal[] my_margins;
+
+  /**
+   * The discrepancy counts, four per input.
+   */
+  private int[] my_counts;
+
+  /**
+   * The index of the next input.
+   */
+  private int my_index;
+
+  /**
+   * Builds the inputs.
+   */
+  @Setup
+  public void setup() {
+    final Random random = new Random(1L);
+    my_margins = new BigDecimal[inputs];
+    my_counts = new int[4 * inputs];
+    for (int i = 0; i < inputs; i++) {
+      final int ballots = 1000 + random.nextInt(500_000);
+      final int margin = 1 + random.nextInt(ballots / 4);
+      my_margins[i] = BigDecimal.valueOf(margin).divide(BigDecimal.valueOf(ballots),
+                                                        MathContext.DECIMAL128);
+      for (int j = 0; j < 4; j++) {
+        my_counts[4 * i + j] = random.nextInt(4);
+      }
+    }
+  }
+
+  /**
+   * @return the number of inputs.
+   */
+  int size() {
+    return inputs;
+  }
+
+  /**
+   * @param the_index The input index.
+   * @return the diluted margin of the input.
+   */
+  BigDecimal margin(final int the_index) {
+    return my_margins[the_index];
+  }
+
+  /**
+   * @param the_index The input index.
+   * @param the_type The discrepancy type, from 0 (two-vote understatements)
+   * to 3 (two-vote overstatements).
+   * @return the discrepancy count of the input.
+   */
+  int count(final int the_index, final int the_type) {
+    return my_counts[4 * the_index + the_type];
+  }
+
+  /**
+   * Computes a sample size through RiskMath.
+   *
+   * @return the sample size.
+   */
+  @Benchmark
+  public BigDecimal kernel() {
+    final int i = my_index;
+    my_index = (my_index + 1) % inputs;
+    return RiskMath.forParameters(CountyContestComparisonAudit.GAMMA, RISK_LIMIT).
+        optimisticSamplesToAudit(my_margins[i], my_counts[4 * i], my_counts[4 * i + 1],
+                                 my_counts[4 * i + 2], my_counts[4 * i + 3]);
+  }
+
+  /**
+   * Computes a sample size through RiskMath, in decimal arithmetic only.
+   *
+   * @return the sample size.
+   */
+  @Benchmark
+  public BigDecimal kernelExact() {
+    final int i = my_index;
+    my_index = (my_index + 1) % inputs;
+    return RiskMath.forParameters(CountyContestComparisonAudit.GAMMA, RISK_LIMIT).
+        exactSamplesToAudit(my_margins[i], my_counts[4 * i], my_counts[4 * i + 1],
+                            my_counts[4 * i + 2], my_counts[4 * i + 3]);
+  }
+
+  /**
+   * Computes a sample size the original way.
+   *
+   * @return the sample size.
+   */
+  @Benchmark
+  public BigDecimal original() {
+    final int i = my_index;
+    my_index = (my_index + 1) % inputs;
+    return original(CountyContestComparisonAudit.GAMMA, RISK_LIMIT, my_margins[i],
+                    my_counts[4 * i], my_counts[4 * i + 1],
+                    my_counts[4 * i + 2], my_counts[4 * i + 3]);
+  }
+
+  /**
+   * Computes a sample size the way CountyContestComparisonAudit did
+   * before RiskMath.
+   *
+   * @param the_gamma The gamma.
+   * @param the_risk_limit The risk limit.
+   * @param the_diluted_margin The diluted margin.
+   * @param the_two_under The two-vote understatements.
+   * @param the_one_under The one-vote understatements.
+   * @param the_one_over The one-vote overstatements.
+   * @param the_two_over The two-vote overstatements.
+   * @return the sample size.
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  static BigDecimal original(final BigDecimal the_gamma,
+                             final BigDecimal the_risk_limit,
+                             final BigDecimal the_diluted_margin,
+                             final int the_two_under,
+                             final int the_one_under,
+                             final int the_one_over,
+                             final int the_two_over) {
+    final BigDecimal invgamma = BigDecimal.ONE.divide(the_gamma, MathContext.DECIMAL128);
+    final BigDecimal twogamma = BigDecimal.valueOf(2).multiply(the_gamma);
+    final BigDecimal invtwogamma =
+        BigDecimal.ONE.divide(twogamma, MathContext.DECIMAL128);
+    final BigDecimal two_under_bd = BigDecimal.valueOf(the_two_under);
+    final BigDecimal one_under_bd = BigDecimal.valueOf(the_one_under);
+    final BigDecimal one_over_bd = BigDecimal.valueOf(the_one_over);
+    final BigDecimal two_over_bd = BigDecimal.valueOf(the_two_over);
+
+    final BigDecimal over_under_sum =
+        two_under_bd.add(one_under_bd).add(one_over_bd).add(two_over_bd);
+    final BigDecimal two_under =
+        two_under_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.add(invgamma),
+                                                 MathContext.DECIMAL128));
+    final BigDecimal one_under =
+        one_under_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.add(invtwogamma),
+                                                 MathContext.DECIMAL128));
+    final BigDecimal one_over =
+        one_over_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.subtract(invtwogamma),
+                                                MathContext.DECIMAL128));
+    final BigDecimal two_over =
+        two_over_bd.multiply(BigDecimalMath.log(BigDecimal.ONE.subtract(invgamma),
+                                                MathContext.DECIMAL128));
+    final BigDecimal numerator =
+        twogamma.negate().
+        multiply(BigDecimalMath.log(the_risk_limit, MathContext.DECIMAL128).
+                 add(two_under.add(one_under).add(one_over).add(two_over)));
+    final BigDecimal ceil =
+        numerator.divide(the_diluted_margin,
+                         MathContext.DECIMAL128).setScale(0, RoundingMode.CEILING);
+    return ceil.max(over_under_sum);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.model;
+
+import static org.testng.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.testng.annotations.Test;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+
+/**
+ * A test case for RiskMath.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class RiskMathTest {
+  /**
+   * Checks that sample sizes match the original computation, value and
+   * scale, for both gammas and several risk limits.
+   */
+  @Test()
+  public void testMatchesOriginal() {
+    final RiskMathBenchmark benchmark = new RiskMathBenchmark();
+    benchmark.inputs = 2000;
+    benchmark.setup();
+    final BigDecimal[] gammas = {CountyContestComparisonAudit.STARK_GAMMA,
+                                 CountyContestComparisonAudit.COLORADO_GAMMA};
+    final BigDecimal[] risk_limits = {BigDecimal.valueOf(0.01),
+                                      RiskMathBenchmark.RISK_LIMIT,
+                                      BigDecimal.valueOf(0.1)};
+    for (final BigDecimal gamma : gammas) {
+      for (final BigDecimal risk_limit : risk_limits) {
+        final RiskMath kernel = RiskMath.forParameters(gamma, risk_limit);
+        for (int i = 0; i < benchmark.size(); i++) {
+          final BigDecimal expected =
+              RiskMathBenchmark.original(gamma, risk_limit, benchmark.margin(i),
+                                         benchmark.count(i, 0), benchmark.count(i, 1),
+                                         benchmark.count(i, 2), benchmark.count(i, 3));
+          final BigDecimal actual =
+              kernel.optimisticSamplesToAudit(benchmark.margin(i),
+                                              benchmark.count(i, 0), benchmark.count(i, 1),
+                                              benchmark.count(i, 2), benchmark.count(i, 3));
+          assertEquals(actual, expected, "input " + i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks that a sample size that is exactly an integer is not computed
+   * in double precision, and that large discrepancy counts bound the
+   * sample size below.
+   */
+  @Test()
+  public void testBoundaries() {
+    final BigDecimal gamma = CountyContestComparisonAudit.COLORADO_GAMMA;
+    final BigDecimal risk_limit = RiskMathBenchmark.RISK_LIMIT;
+    final RiskMath kernel = RiskMath.forParameters(gamma, risk_limit);
+    assertSame(RiskMath.forParameters(gamma, risk_limit), kernel);
+
+    // the margin for which the sample size with no discrepancies is 100
+    final BigDecimal exact_margin =
+        BigDecimal.valueOf(2).multiply(gamma).negate().
+        multiply(BigDecimalMath.log(risk_limit, MathContext.DECIMAL128)).
+        divide(BigDecimal.valueOf(100), MathContext.DECIMAL128);
+    assertFalse(kernel.approximateCeiling(exact_margin, 0, 0, 0, 0).isPresent());
+    assertEquals(kernel.optimisticSamplesToAudit(exact_margin, 0, 0, 0, 0),
+                 RiskMathBenchmark.original(gamma, risk_limit, exact_margin, 0, 0, 0, 0));
+
+    final BigDecimal wide_margin = BigDecimal.valueOf(0.9);
+    assertEquals(kernel.optimisticSamplesToAudit(wide_margin, 0, 0, 0, 50),
+                 RiskMathBenchmark.original(gamma, risk_limit, wide_margin, 0, 0, 0, 50));
+    assertEquals(kernel.optimisticSamplesToAudit(wide_margin, 500, 0, 0, 0),
+                 BigDecimal.valueOf(500));
+  }
+}
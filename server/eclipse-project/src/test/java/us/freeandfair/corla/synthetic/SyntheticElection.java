@@ -0,0 +1,926 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.synthetic;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * A generator of synthetic, internally consistent statewide elections, for
+ * load and scale testing. For each county it writes a Dominion CVR export,
+ * a Colorado ballot manifest describing the same batches, an "audit" export
+ * in the same Dominion format with the votes an audit board would find
+ * (the CVRs with discrepancies injected at a configurable rate), and a list
+ * of the injected discrepancies.
+ *
+ * <p>Every ballot has one of a configurable number of ballot styles. All
+ * styles contain every statewide contest; the first style contains every
+ * county contest, and each other style omits a few of them. Votes favor
+ * the earlier choices in each contest, so every contest has a clear
+ * winner, and a configurable fraction of contests are undervoted.</p>
+ *
+ * <p>The election is configured with the properties named by the *_PROPERTY
+ * constants. Generation is deterministic for a given configuration, and
+ * counties are generated independently, so any subset of the counties of a
+ * large election can be regenerated on its own. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *   us.freeandfair.corla.synthetic.SyntheticElection output-dir [properties-file]
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.TooManyFields", "PMD.TooManyMethods"})
+public class SyntheticElection {
+  /**
+   * The property listing the IDs of the counties to generate, separated by
+   * commas; by default, all the counties in county_ids.properties.
+   */
+  public static final String COUNTIES_PROPERTY = "counties";
+
+  /**
+   * The property specifying the number of ballots in each county.
+   */
+  public static final String BALLOTS_PROPERTY = "ballots_per_county";
+
+  /**
+   * The prefix of properties specifying the number of ballots in particular
+   * counties, which is followed by the county ID (e.g., "ballots.16").
+   */
+  public static final String COUNTY_BALLOTS_PREFIX = "ballots.";
+
+  /**
+   * The property specifying the number of statewide contests.
+   */
+  public static final String STATEWIDE_CONTESTS_PROPERTY = "statewide_contests";
+
+  /**
+   * The property specifying the number of contests in each county.
+   */
+  public static final String COUNTY_CONTESTS_PROPERTY = "county_contests";
+
+  /**
+   * The property specifying the number of choices in each contest.
+   */
+  public static final String CHOICES_PROPERTY = "choices_per_contest";
+
+  /**
+   * The property specifying the number of votes allowed in each contest.
+   */
+  public static final String VOTE_FOR_PROPERTY = "vote_for";
+
+  /**
+   * The property specifying the number of ballot styles in each county.
+   */
+  public static final String BALLOT_STYLES_PROPERTY = "ballot_styles";
+
+  /**
+   * The property specifying the number of ballots in each batch.
+   */
+  public static final String BATCH_SIZE_PROPERTY = "batch_size";
+
+  /**
+   * The property specifying the number of batches scanned by each tabulator.
+   */
+  public static final String BATCHES_PER_TABULATOR_PROPERTY = "batches_per_tabulator";
+
+  /**
+   * The property specifying the fraction of contests left blank by voters.
+   */
+  public static final String UNDERVOTE_RATE_PROPERTY = "undervote_rate";
+
+  /**
+   * The property specifying the fraction of ballots whose audited votes
+   * differ from their CVRs.
+   */
+  public static final String DISCREPANCY_RATE_PROPERTY = "discrepancy_rate";
+
+  /**
+   * The property specifying the random seed.
+   */
+  public static final String SEED_PROPERTY = "seed";
+
+  /**
+   * The resource listing the Colorado counties.
+   */
+  public static final String COUNTY_IDS_RESOURCE =
+      "us/freeandfair/corla/county_ids.properties";
+
+  /**
+   * The suffix of generated CVR exports.
+   */
+  public static final String CVR_EXPORT_SUFFIX = "-CVR_Export.csv";
+
+  /**
+   * The suffix of generated ballot manifests.
+   */
+  public static final String MANIFEST_SUFFIX = "-manifest.csv";
+
+  /**
+   * The suffix of generated audited ballot exports.
+   */
+  public static final String ACVR_EXPORT_SUFFIX = "-ACVR_Export.csv";
+
+  /**
+   * The suffix of generated discrepancy lists.
+   */
+  public static final String DISCREPANCIES_SUFFIX = "-discrepancies.csv";
+
+  /**
+   * The header of generated ballot manifests.
+   */
+  public static final String MANIFEST_HEADER =
+      "CountyID,ScannerID,BatchID,NumBallots,StorageLocation";
+
+  /**
+   * The header of generated discrepancy lists.
+   */
+  public static final String DISCREPANCIES_HEADER =
+      "ImprintedId,Contest,CvrChoices,AcvrChoices";
+
+  /**
+   * The column headings that precede the contest columns of a CVR export.
+   */
+  private static final String[] HEADINGS = {
+      "CvrNumber", "TabulatorNum", "BatchId", "RecordId", "ImprintedId",
+      "PrecinctPortion", "BallotType"
+  };
+
+  /**
+   * The party codes assigned to choices, in order.
+   */
+  private static final String[] PARTIES = {"DEM", "REP", "LBR", "GRN", "UAF", "ACN"};
+
+  /**
+   * The version of the tabulation system written to CVR exports.
+   */
+  private static final String TABULATOR_VERSION = "5.2.13.9";
+
+  /**
+   * A multiplier used to derive independent per-county random seeds.
+   */
+  private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  /**
+   * A blank vote mark, for a contest that is not on a ballot.
+   */
+  private static final byte BLANK = -1;
+
+  /**
+   * The default number of ballots in each county.
+   */
+  private static final int DEFAULT_BALLOTS = 10_000;
+
+  /**
+   * The default number of statewide contests.
+   */
+  private static final int DEFAULT_STATEWIDE_CONTESTS = 5;
+
+  /**
+   * The default number of contests in each county.
+   */
+  private static final int DEFAULT_COUNTY_CONTESTS = 10;
+
+  /**
+   * The default number of choices in each contest.
+   */
+  private static final int DEFAULT_CHOICES = 4;
+
+  /**
+   * The default number of ballot styles in each county.
+   */
+  private static final int DEFAULT_BALLOT_STYLES = 8;
+
+  /**
+   * The default number of ballots in each batch.
+   */
+  private static final int DEFAULT_BATCH_SIZE = 200;
+
+  /**
+   * The default number of batches scanned by each tabulator.
+   */
+  private static final int DEFAULT_BATCHES_PER_TABULATOR = 25;
+
+  /**
+   * The default undervote rate.
+   */
+  private static final double DEFAULT_UNDERVOTE_RATE = 0.02;
+
+  /**
+   * The default discrepancy rate.
+   */
+  private static final double DEFAULT_DISCREPANCY_RATE = 0.001;
+
+  /**
+   * The names of the counties to generate, by ID.
+   */
+  private final SortedMap<Long, String> my_counties = new TreeMap<>();
+
+  /**
+   * The configuration.
+   */
+  private final Properties my_properties;
+
+  /**
+   * The number of statewide contests.
+   */
+  private final int my_statewide_contests;
+
+  /**
+   * The number of contests in each county.
+   */
+  private final int my_county_contests;
+
+  /**
+   * The number of choices in each contest.
+   */
+  private final int my_choices;
+
+  /**
+   * The number of votes allowed in each contest.
+   */
+  private final int my_vote_for;
+
+  /**
+   * The number of ballot styles.
+   */
+  private final int my_ballot_styles;
+
+  /**
+   * The number of ballots in each batch.
+   */
+  private final int my_batch_size;
+
+  /**
+   * The number of batches scanned by each tabulator.
+   */
+  private final int my_batches_per_tabulator;
+
+  /**
+   * The undervote rate.
+   */
+  private final double my_undervote_rate;
+
+  /**
+   * The discrepancy rate.
+   */
+  private final double my_discrepancy_rate;
+
+  /**
+   * The random seed.
+   */
+  private final long my_seed;
+
+  /**
+   * Constructs a new SyntheticElection.
+   *
+   * @param the_properties The configuration.
+   * @exception IllegalArgumentException if the configuration is invalid.
+   */
+  public SyntheticElection(final Properties the_properties) {
+    my_properties = the_properties;
+    my_statewide_contests = intProperty(STATEWIDE_CONTESTS_PROPERTY,
+                                        DEFAULT_STATEWIDE_CONTESTS, 0);
+    my_county_contests = intProperty(COUNTY_CONTESTS_PROPERTY, DEFAULT_COUNTY_CONTESTS, 0);
+    my_choices = intProperty(CHOICES_PROPERTY, DEFAULT_CHOICES, 2);
+    my_vote_for = intProperty(VOTE_FOR_PROPERTY, 1, 1);
+    my_ballot_styles = intProperty(BALLOT_STYLES_PROPERTY, DEFAULT_BALLOT_STYLES, 1);
+    my_batch_size = intProperty(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE, 1);
+    my_batches_per_tabulator = intProperty(BATCHES_PER_TABULATOR_PROPERTY,
+                                           DEFAULT_BATCHES_PER_TABULATOR, 1);
+    my_undervote_rate = rateProperty(UNDERVOTE_RATE_PROPERTY, DEFAULT_UNDERVOTE_RATE);
+    my_discrepancy_rate = rateProperty(DISCREPANCY_RATE_PROPERTY, DEFAULT_DISCREPANCY_RATE);
+    my_seed = Long.parseLong(the_properties.getProperty(SEED_PROPERTY, "1").trim());
+    if (my_statewide_contests + my_county_contests == 0) {
+      throw new IllegalArgumentException("an election needs at least one contest");
+    }
+    if (my_vote_for >= my_choices) {
+      throw new IllegalArgumentException(VOTE_FOR_PROPERTY + " must be less than " +
+                                         CHOICES_PROPERTY);
+    }
+
+    final SortedMap<Long, String> colorado = coloradoCounties();
+    final String ids = the_properties.getProperty(COUNTIES_PROPERTY, "").trim();
+    if (ids.isEmpty()) {
+      my_counties.putAll(colorado);
+    } else {
+      for (final String s : ids.split(",")) {
+        final Long id = Long.valueOf(s.trim());
+        if (!colorado.containsKey(id)) {
+          throw new IllegalArgumentException("unknown county " + id);
+        }
+        my_counties.put(id, colorado.get(id));
+      }
+    }
+  }
+
+  /**
+   * Generates the files for all the configured counties in a directory.
+   *
+   * @param the_args The output directory and, optionally, a properties file
+   * containing the configuration.
+   * @exception IOException if the files cannot be written.
+   */
+  public static void main(final String... the_args) throws IOException {
+    if (the_args.length < 1) {
+      System.err.println("usage: SyntheticElection output-dir [properties-file]");
+      return;
+    }
+    final Properties properties = new Properties();
+    if (the_args.length > 1) {
+      try (Reader reader = Files.newBufferedReader(Paths.get(the_args[1]),
+                                                   StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      }
+    }
+    final SyntheticElection election = new SyntheticElection(properties);
+    final long start = System.nanoTime();
+    final List<CountySummary> summaries = election.generateAll(Paths.get(the_args[0]));
+    long ballots = 0;
+    long discrepancies = 0;
+    for (final CountySummary s : summaries) {
+      ballots = ballots + s.ballots();
+      discrepancies = discrepancies + s.discrepancies();
+    }
+    System.out.println(String.format(Locale.US, "generated %d ballots with %d " +
+                                     "discrepancies in %d counties in %.1fs",
+                                     ballots, discrepancies, summaries.size(),
+                                     (System.nanoTime() - start) / 1e9));
+  }
+
+  /**
+   * @return the Colorado counties, by ID.
+   */
+  public static SortedMap<Long, String> coloradoCounties() {
+    final Properties properties = new Properties();
+    try (InputStream stream =
+             SyntheticElection.class.getClassLoader().
+             getResourceAsStream(COUNTY_IDS_RESOURCE)) {
+      properties.load(stream);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    final SortedMap<Long, String> result = new TreeMap<>();
+    for (final String s : properties.stringPropertyNames()) {
+      result.put(Long.valueOf(s), properties.getProperty(s));
+    }
+    return result;
+  }
+
+  /**
+   * @return the names of the configured counties, by ID.
+   */
+  public SortedMap<Long, String> counties() {
+    return Collections.unmodifiableSortedMap(my_counties);
+  }
+
+  /**
+   * The number of ballots in a county.
+   *
+   * @param the_county_id The county ID.
+   * @return the number of ballots.
+   */
+  public int ballots(final Long the_county_id) {
+    final int ballots = intProperty(BALLOTS_PROPERTY, DEFAULT_BALLOTS, 1);
+    return intProperty(COUNTY_BALLOTS_PREFIX + the_county_id, ballots, 1);
+  }
+
+  /**
+   * The base name of the files generated for a county.
+   *
+   * @param the_county_id The county ID.
+   * @return the base name.
+   */
+  public String baseName(final Long the_county_id) {
+    return the_county_id + "-" +
+           my_counties.get(the_county_id).toLowerCase(Locale.US).replace(' ', '-');
+  }
+
+  /**
+   * Generates the files for all the configured counties, in parallel.
+   *
+   * @param the_directory The output directory, which is created if necessary.
+   * @return summaries of the generated counties, in county ID order.
+   * @exception IOException if the files cannot be written.
+   */
+  public List<CountySummary> generateAll(final Path the_directory) throws IOException {
+    Files.createDirectories(the_directory);
+    try {
+      final List<CountySummary> result = new ArrayList<>();
+      my_counties.keySet().parallelStream().map(id -> {
+        try {
+          return generate(id, the_directory);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).forEachOrdered(result::add);
+      return result;
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Generates the files for one county: the CVR export, the ballot manifest,
+   * the audited ballot export, and the discrepancy list. Their names start
+   * with baseName() and end with the *_SUFFIX constants.
+   *
+   * @param the_county_id The county ID.
+   * @param the_directory The output directory.
+   * @return a summary of the generated county.
+   * @exception IOException if the files cannot be written.
+   */
+  public CountySummary generate(final Long the_county_id, final Path the_directory)
+      throws IOException {
+    if (!my_counties.containsKey(the_county_id)) {
+      throw new IllegalArgumentException("unconfigured county " + the_county_id);
+    }
+    final String base = baseName(the_county_id);
+    try (Writer cvrs = writer(the_directory.resolve(base + CVR_EXPORT_SUFFIX));
+         Writer manifest = writer(the_directory.resolve(base + MANIFEST_SUFFIX));
+         Writer acvrs = writer(the_directory.resolve(base + ACVR_EXPORT_SUFFIX));
+         Writer discrepancies = writer(the_directory.resolve(base + DISCREPANCIES_SUFFIX))) {
+      return new CountyGenerator(the_county_id).generate(cvrs, manifest, acvrs,
+                                                         discrepancies);
+    }
+  }
+
+  /**
+   * Opens a file for writing.
+   *
+   * @param the_path The path of the file.
+   * @return a writer for the file.
+   * @exception IOException if the file cannot be opened.
+   */
+  private static BufferedWriter writer(final Path the_path) throws IOException {
+    return Files.newBufferedWriter(the_path, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads an integer property.
+   *
+   * @param the_name The property name.
+   * @param the_default The default value.
+   * @param the_min The minimum value.
+   * @return the value.
+   * @exception IllegalArgumentException if the value is less than the minimum.
+   */
+  private int intProperty(final String the_name, final int the_default, final int the_min) {
+    final String value = my_properties.getProperty(the_name);
+    final int result;
+    if (value == null) {
+      result = the_default;
+    } else {
+      result = Integer.parseInt(value.trim());
+    }
+    if (result < the_min) {
+      throw new IllegalArgumentException(the_name + " must be at least " + the_min);
+    }
+    return result;
+  }
+
+  /**
+   * Reads a rate property.
+   *
+   * @param the_name The property name.
+   * @param the_default The default value.
+   * @return the value.
+   * @exception IllegalArgumentException if the value is not between 0 and 1.
+   */
+  private double rateProperty(final String the_name, final double the_default) {
+    final String value = my_properties.getProperty(the_name);
+    final double result;
+    if (value == null) {
+      result = the_default;
+    } else {
+      result = Double.parseDouble(value.trim());
+    }
+    if (result < 0 || result > 1) {
+      throw new IllegalArgumentException(the_name + " must be between 0 and 1");
+    }
+    return result;
+  }
+
+  /**
+   * A summary of a generated county.
+   */
+  public static class CountySummary {
+    /**
+     * The county ID.
+     */
+    private final Long my_county_id;
+
+    /**
+     * The number of ballots.
+     */
+    private final int my_ballots;
+
+    /**
+     * The number of batches.
+     */
+    private final int my_batches;
+
+    /**
+     * The number of injected discrepancies.
+     */
+    private final int my_discrepancies;
+
+    /**
+     * Constructs a new CountySummary.
+     *
+     * @param the_county_id The county ID.
+     * @param the_ballots The number of ballots.
+     * @param the_batches The number of batches.
+     * @param the_discrepancies The number of injected discrepancies.
+     */
+    public CountySummary(final Long the_county_id, final int the_ballots,
+                         final int the_batches, final int the_discrepancies) {
+      my_county_id = the_county_id;
+      my_ballots = the_ballots;
+      my_batches = the_batches;
+      my_discrepancies = the_discrepancies;
+    }
+
+    /**
+     * @return the county ID.
+     */
+    public Long countyID() {
+      return my_county_id;
+    }
+
+    /**
+     * @return the number of ballots.
+     */
+    public int ballots() {
+      return my_ballots;
+    }
+
+    /**
+     * @return the number of batches.
+     */
+    public int batches() {
+      return my_batches;
+    }
+
+    /**
+     * @return the number of injected discrepancies.
+     */
+    public int discrepancies() {
+      return my_discrepancies;
+    }
+  }
+
+  /**
+   * The generator of a single county's files.
+   */
+  private class CountyGenerator {
+    /**
+     * The county ID.
+     */
+    private final Long my_county_id;
+
+    /**
+     * The random number generator.
+     */
+    private final SplittableRandom my_random;
+
+    /**
+     * The contest names, including their "(Vote For=" suffixes.
+     */
+    private final String[] my_contests;
+
+    /**
+     * The ballot styles; my_styles[s][c] is true if contest c is on style s.
+     */
+    private final boolean[][] my_styles;
+
+    /**
+     * The votes on the current ballot, one per choice column: 1 or 0 for
+     * contests on the ballot, BLANK for others.
+     */
+    private final byte[] my_marks;
+
+    /**
+     * The audited votes on the current ballot.
+     */
+    private final byte[] my_audited_marks;
+
+    /**
+     * A buffer for building lines.
+     */
+    private final StringBuilder my_line = new StringBuilder();
+
+    /**
+     * Constructs a new CountyGenerator.
+     *
+     * @param the_county_id The county ID.
+     */
+    CountyGenerator(final Long the_county_id) {
+      my_county_id = the_county_id;
+      my_random = new SplittableRandom(my_seed ^ the_county_id * SEED_MULTIPLIER);
+      final int contests = my_statewide_contests + my_county_contests;
+      my_contests = new String[contests];
+      for (int c = 0; c < contests; c++) {
+        final String name;
+        if (c < my_statewide_contests) {
+          name = "Statewide Contest " + (c + 1);
+        } else {
+          name = my_counties.get(the_county_id) + " County Contest " +
+                 (c - my_statewide_contests + 1);
+        }
+        my_contests[c] = name + " (Vote For=" + my_vote_for + ")";
+      }
+      my_styles = new boolean[my_ballot_styles][contests];
+      for (int s = 0; s < my_ballot_styles; s++) {
+        for (int c = 0; c < contests; c++) {
+          // every style after the first omits the county contests that
+          // are congruent to it modulo the number of styles
+          my_styles[s][c] = s == 0 || c < my_statewide_contests ||
+                            (c - my_statewide_contests) % my_ballot_styles != s;
+        }
+      }
+      my_marks = new byte[contests * my_choices];
+      my_audited_marks = new byte[my_marks.length];
+    }
+
+    /**
+     * Generates the county's files.
+     *
+     * @param the_cvrs The writer for the CVR export.
+     * @param the_manifest The writer for the ballot manifest.
+     * @param the_acvrs The writer for the audited ballot export.
+     * @param the_discrepancies The writer for the discrepancy list.
+     * @return a summary of the county.
+     * @exception IOException if the files cannot be written.
+     */
+    CountySummary generate(final Writer the_cvrs, final Writer the_manifest,
+                           final Writer the_acvrs, final Writer the_discrepancies)
+        throws IOException {
+      writeHeaders(the_cvrs);
+      writeHeaders(the_acvrs);
+      the_manifest.write(MANIFEST_HEADER);
+      the_manifest.write('\n');
+      the_discrepancies.write(DISCREPANCIES_HEADER);
+      the_discrepancies.write('\n');
+
+      final int ballots = ballots(my_county_id);
+      final int batches = (ballots + my_batch_size - 1) / my_batch_size;
+      int cvr_number = 0;
+      int discrepancies = 0;
+      for (int batch = 1; batch <= batches; batch++) {
+        final int tabulator = (batch - 1) / my_batches_per_tabulator + 1;
+        final int size = Math.min(my_batch_size, ballots - cvr_number);
+        the_manifest.write(my_counties.get(my_county_id) + ",\"" + tabulator + "\",\"" +
+                           batch + "\"," + size + ",Bin " + tabulator + '\n');
+        for (int record = 1; record <= size; record++) {
+          cvr_number = cvr_number + 1;
+          final int style = my_random.nextInt(my_ballot_styles);
+          final String imprinted_id = tabulator + "-" + batch + "-" + record;
+          vote(style);
+          System.arraycopy(my_marks, 0, my_audited_marks, 0, my_marks.length);
+          if (my_random.nextDouble() < my_discrepancy_rate) {
+            discrepancies = discrepancies + 1;
+            injectDiscrepancy(style, imprinted_id, the_discrepancies);
+          }
+          final String prefix = "=\"" + cvr_number + "\",=\"" + tabulator + "\",=\"" +
+                                batch + "\",=\"" + record + "\",=\"" + imprinted_id +
+                                "\",=\"Precinct " + (style + 1) + "\",=\"" + (style + 1) +
+                                "\"";
+          writeRow(the_cvrs, prefix, my_marks);
+          writeRow(the_acvrs, prefix, my_audited_marks);
+        }
+      }
+      return new CountySummary(my_county_id, ballots, batches, discrepancies);
+    }
+
+    /**
+     * Writes the four header lines of a Dominion CVR export.
+     *
+     * @param the_writer The writer.
+     * @exception IOException if the headers cannot be written.
+     */
+    private void writeHeaders(final Writer the_writer) throws IOException {
+      final String[] election = new String[HEADINGS.length + my_marks.length];
+      Arrays.fill(election, "");
+      election[0] = my_counties.get(my_county_id) + " Synthetic General Election";
+      election[1] = TABULATOR_VERSION;
+      writeLine(the_writer, election);
+
+      final String[] contests = new String[election.length];
+      final String[] choices = new String[election.length];
+      final String[] headings = new String[election.length];
+      Arrays.fill(contests, "");
+      Arrays.fill(choices, "");
+      System.arraycopy(HEADINGS, 0, headings, 0, HEADINGS.length);
+      for (int c = 0; c < my_contests.length; c++) {
+        for (int i = 0; i < my_choices; i++) {
+          final int column = HEADINGS.length + c * my_choices + i;
+          contests[column] = my_contests[c];
+          choices[column] = "Choice " + (i + 1);
+          headings[column] = PARTIES[i % PARTIES.length];
+        }
+      }
+      writeLine(the_writer, contests);
+      writeLine(the_writer, choices);
+      writeLine(the_writer, headings);
+    }
+
+    /**
+     * Writes a line of quoted fields.
+     *
+     * @param the_writer The writer.
+     * @param the_fields The fields.
+     * @exception IOException if the line cannot be written.
+     */
+    private void writeLine(final Writer the_writer, final String... the_fields)
+        throws IOException {
+      my_line.setLength(0);
+      for (int i = 0; i < the_fields.length; i++) {
+        if (i > 0) {
+          my_line.append(',');
+        }
+        my_line.append('"').append(the_fields[i].replace("\"", "\"\"")).append('"');
+      }
+      my_line.append("\r\n");
+      the_writer.append(my_line);
+    }
+
+    /**
+     * Writes a cast vote record row.
+     *
+     * @param the_writer The writer.
+     * @param the_prefix The fields that precede the vote marks.
+     * @param the_marks The vote marks.
+     * @exception IOException if the row cannot be written.
+     */
+    private void writeRow(final Writer the_writer, final String the_prefix,
+                          final byte... the_marks) throws IOException {
+      my_line.setLength(0);
+      my_line.append(the_prefix);
+      for (final byte mark : the_marks) {
+        if (mark == BLANK) {
+          my_line.append(",\"\"");
+        } else {
+          my_line.append(",\"").append((int) mark).append('"');
+        }
+      }
+      my_line.append("\r\n");
+      the_writer.append(my_line);
+    }
+
+    /**
+     * Fills in the votes on a ballot.
+     *
+     * @param the_style The ballot style.
+     */
+    private void vote(final int the_style) {
+      for (int c = 0; c < my_contests.length; c++) {
+        final int start = c * my_choices;
+        if (my_styles[the_style][c]) {
+          Arrays.fill(my_marks, start, start + my_choices, (byte) 0);
+          if (my_random.nextDouble() >= my_undervote_rate) {
+            for (int v = 0; v < my_vote_for; v++) {
+              my_marks[start + unmarkedChoice(my_marks, start)] = 1;
+            }
+          }
+        } else {
+          Arrays.fill(my_marks, start, start + my_choices, BLANK);
+        }
+      }
+    }
+
+    /**
+     * Picks a choice that is not yet marked in a contest, favoring earlier
+     * choices: choice i is picked with weight (number of choices - i).
+     *
+     * @param the_marks The vote marks.
+     * @param the_start The index of the contest's first choice column.
+     * @return the index of the choice within the contest.
+     */
+    private int unmarkedChoice(final byte[] the_marks, final int the_start) {
+      int total = 0;
+      for (int i = 0; i < my_choices; i++) {
+        if (the_marks[the_start + i] == 0) {
+          total = total + my_choices - i;
+        }
+      }
+      int pick = my_random.nextInt(total);
+      int result = 0;
+      while (the_marks[the_start + result] != 0 || pick >= my_choices - result) {
+        if (the_marks[the_start + result] == 0) {
+          pick = pick - (my_choices - result);
+        }
+        result = result + 1;
+      }
+      return result;
+    }
+
+    /**
+     * Injects a discrepancy into the audited votes of a ballot, by changing
+     * the votes in one of its contests, and records it.
+     *
+     * @param the_style The ballot style.
+     * @param the_imprinted_id The ballot's imprinted ID.
+     * @param the_writer The writer for the discrepancy list.
+     * @exception IOException if the discrepancy cannot be recorded.
+     */
+    private void injectDiscrepancy(final int the_style, final String the_imprinted_id,
+                                   final Writer the_writer)
+        throws IOException {
+      int contest;
+      do {
+        contest = my_random.nextInt(my_contests.length);
+      } while (!my_styles[the_style][contest]);
+      final int start = contest * my_choices;
+      final int marked = count(my_audited_marks, start);
+      if (marked == 0 || marked < my_vote_for && my_random.nextBoolean()) {
+        // the audit board found a vote the tabulator missed
+        my_audited_marks[start + unmarkedChoice(my_audited_marks, start)] = 1;
+      } else {
+        // the audit board found one of the votes for a different choice,
+        // or for no choice at all
+        int unmark = my_random.nextInt(marked);
+        for (int i = 0; i < my_choices; i++) {
+          if (my_audited_marks[start + i] == 1) {
+            if (unmark == 0) {
+              my_audited_marks[start + i] = 0;
+            }
+            unmark = unmark - 1;
+          }
+        }
+        if (my_random.nextBoolean()) {
+          // none of the choices marked on the CVR, including the one just
+          // unmarked, is unmarked in my_marks
+          my_audited_marks[start + unmarkedChoice(my_marks, start)] = 1;
+        }
+      }
+      writeLine(the_writer, the_imprinted_id, my_contests[contest],
+                choiceNames(my_marks, start), choiceNames(my_audited_marks, start));
+    }
+
+    /**
+     * Counts the marked choices in a contest.
+     *
+     * @param the_marks The vote marks.
+     * @param the_start The index of the contest's first choice column.
+     * @return the number of marked choices.
+     */
+    private int count(final byte[] the_marks, final int the_start) {
+      int result = 0;
+      for (int i = 0; i < my_choices; i++) {
+        if (the_marks[the_start + i] == 1) {
+          result = result + 1;
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Describes the marked choices in a contest.
+     *
+     * @param the_marks The vote marks.
+     * @param the_start The index of the contest's first choice column.
+     * @return the names of the marked choices, separated by semicolons.
+     */
+    private String choiceNames(final byte[] the_marks, final int the_start) {
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < my_choices; i++) {
+        if (the_marks[the_start + i] == 1) {
+          if (sb.length() > 0) {
+            sb.append(';');
+          }
+          sb.append("Choice ").append(i + 1);
+        }
+      }
+      return sb.toString();
+    }
+  }
+}
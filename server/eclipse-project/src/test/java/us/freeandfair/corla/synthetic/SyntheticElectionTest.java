@@ -0,0 +1,216 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.synthetic;
+
+import static org.testng.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.csv.DominionCVRExportValidator;
+import us.freeandfair.corla.synthetic.SyntheticElection.CountySummary;
+
+/**
+ * A test case for the SyntheticElection generator.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class SyntheticElectionTest {
+  /**
+   * The number of ballots in each generated county.
+   */
+  private static final int BALLOTS = 1234;
+
+  /**
+   * The number of header lines in a Dominion export.
+   */
+  private static final int HEADER_LINES = 4;
+
+  /**
+   * The index of the ImprintedId column.
+   */
+  private static final int IMPRINTED_ID_COLUMN = 4;
+
+  /**
+   * @return a small election configuration.
+   */
+  private Properties configuration() {
+    final Properties result = new Properties();
+    result.setProperty(SyntheticElection.COUNTIES_PROPERTY, "3, 16");
+    result.setProperty(SyntheticElection.BALLOTS_PROPERTY, String.valueOf(BALLOTS));
+    result.setProperty(SyntheticElection.COUNTY_BALLOTS_PREFIX + "16", "500");
+    result.setProperty(SyntheticElection.VOTE_FOR_PROPERTY, "2");
+    result.setProperty(SyntheticElection.BATCH_SIZE_PROPERTY, "100");
+    result.setProperty(SyntheticElection.BATCHES_PER_TABULATOR_PROPERTY, "4");
+    result.setProperty(SyntheticElection.DISCREPANCY_RATE_PROPERTY, "0.05");
+    return result;
+  }
+
+  /**
+   * Reads a CSV file.
+   *
+   * @param the_path The file.
+   * @return the records in the file.
+   * @exception IOException if the file cannot be read.
+   */
+  private List<CSVRecord> read(final Path the_path) throws IOException {
+    try (Reader reader = Files.newBufferedReader(the_path, StandardCharsets.UTF_8);
+         CSVParser parser = new CSVParser(reader, CSVFormat.DEFAULT)) {
+      return parser.getRecords();
+    }
+  }
+
+  /**
+   * @param the_record A CSV record.
+   * @return the values in the record.
+   */
+  private List<String> values(final CSVRecord the_record) {
+    final List<String> result = new ArrayList<>();
+    the_record.forEach(result::add);
+    return result;
+  }
+
+  /**
+   * Validates a generated Dominion export.
+   *
+   * @param the_path The file.
+   * @return the number of CVRs in the file.
+   * @exception IOException if the file cannot be read.
+   */
+  private int validate(final Path the_path) throws IOException {
+    try (InputStream stream = Files.newInputStream(the_path)) {
+      final DominionCVRExportValidator validator = new DominionCVRExportValidator(stream);
+      assertTrue(validator.validate(), validator.summary(1));
+      return validator.recordCount();
+    }
+  }
+
+  /**
+   * Deletes a directory and its contents.
+   *
+   * @param the_directory The directory.
+   * @exception IOException if the directory cannot be deleted.
+   */
+  private void delete(final Path the_directory) throws IOException {
+    try (Stream<Path> files = Files.list(the_directory)) {
+      for (final Path p : (Iterable<Path>) files::iterator) {
+        Files.delete(p);
+      }
+    }
+    Files.delete(the_directory);
+  }
+
+  /**
+   * Tests that the generated files are valid and consistent with each other:
+   * the exports pass validation, the manifest describes exactly the batches
+   * in the CVR export, and the audited export differs from the CVR export
+   * in exactly the listed discrepancies.
+   *
+   * @exception IOException if the files cannot be written or read.
+   */
+  @Test()
+  public void testConsistency() throws IOException {
+    final SyntheticElection election = new SyntheticElection(configuration());
+    final Path directory = Files.createTempDirectory("synthetic");
+    try {
+      final List<CountySummary> summaries = election.generateAll(directory);
+      assertEquals(summaries.size(), 2);
+      assertEquals(summaries.get(0).ballots(), BALLOTS);
+      assertEquals(summaries.get(1).ballots(), 500);
+
+      for (final CountySummary summary : summaries) {
+        final String base = election.baseName(summary.countyID());
+        final Path cvr_path = directory.resolve(base + SyntheticElection.CVR_EXPORT_SUFFIX);
+        final Path acvr_path = directory.resolve(base + SyntheticElection.ACVR_EXPORT_SUFFIX);
+        assertEquals(validate(cvr_path), summary.ballots());
+        assertEquals(validate(acvr_path), summary.ballots());
+
+        // the manifest batches must match the CVR batches
+        final List<CSVRecord> cvrs = read(cvr_path);
+        final Map<String, Integer> batches = new HashMap<>();
+        for (final CSVRecord r : cvrs.subList(HEADER_LINES, cvrs.size())) {
+          batches.merge(r.get(1).replace("=", "").replace("\"", "") + "/" +
+                        r.get(2).replace("=", "").replace("\"", ""), 1, Integer::sum);
+        }
+        final List<CSVRecord> manifest =
+            read(directory.resolve(base + SyntheticElection.MANIFEST_SUFFIX));
+        assertEquals(manifest.size() - 1, summary.batches());
+        assertEquals(batches.size(), summary.batches());
+        for (final CSVRecord r : manifest.subList(1, manifest.size())) {
+          assertEquals(r.get(0), election.counties().get(summary.countyID()));
+          assertEquals(batches.get(r.get(1) + "/" + r.get(2)), Integer.valueOf(r.get(3)));
+        }
+
+        // the audited export must differ in exactly the listed ballots
+        final List<CSVRecord> acvrs = read(acvr_path);
+        final List<String> differing = new ArrayList<>();
+        for (int i = HEADER_LINES; i < cvrs.size(); i++) {
+          if (!values(cvrs.get(i)).equals(values(acvrs.get(i)))) {
+            differing.add(cvrs.get(i).get(IMPRINTED_ID_COLUMN));
+          }
+        }
+        final List<CSVRecord> discrepancies =
+            read(directory.resolve(base + SyntheticElection.DISCREPANCIES_SUFFIX));
+        final List<String> listed = new ArrayList<>();
+        for (final CSVRecord r : discrepancies.subList(1, discrepancies.size())) {
+          listed.add("=\"" + r.get(0) + "\"");
+          assertNotEquals(r.get(2), r.get(3));
+        }
+        assertEquals(differing, listed);
+        assertEquals(listed.size(), summary.discrepancies());
+        assertTrue(summary.discrepancies() > 0);
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  /**
+   * Tests that generation is deterministic.
+   *
+   * @exception IOException if the files cannot be written or read.
+   */
+  @Test()
+  public void testDeterminism() throws IOException {
+    final SyntheticElection election = new SyntheticElection(configuration());
+    final Path first = Files.createTempDirectory("synthetic");
+    final Path second = Files.createTempDirectory("synthetic");
+    try {
+      election.generate(3L, first);
+      new SyntheticElection(configuration()).generate(3L, second);
+      final String cvrs = election.baseName(3L) + SyntheticElection.CVR_EXPORT_SUFFIX;
+      assertEquals(Files.readAllBytes(first.resolve(cvrs)),
+                   Files.readAllBytes(second.resolve(cvrs)));
+    } finally {
+      delete(first);
+      delete(second);
+    }
+  }
+}
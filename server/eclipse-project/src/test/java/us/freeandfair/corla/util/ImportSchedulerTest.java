@@ -0,0 +1,137 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import static org.testng.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.util.ImportScheduler.Kind;
+
+/**
+ * A test case for the ImportScheduler.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.DoNotUseThreads"})
+public class ImportSchedulerTest {
+  /**
+   * The maximum time to wait for an import, in seconds.
+   */
+  private static final long WAIT_SECONDS = 10;
+
+  /**
+   * The size of each imported file.
+   */
+  private static final long SIZE = 1000;
+
+  /**
+   * Tests that imports wait for a free worker, report their queue positions
+   * and increasing completion estimates while waiting, and run in order.
+   *
+   * @exception InterruptedException if the test is interrupted.
+   */
+  @Test()
+  public void testQueue() throws InterruptedException {
+    final ImportScheduler scheduler = new ImportScheduler(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(3);
+    final List<Long> order = Collections.synchronizedList(new ArrayList<>());
+    try {
+      for (long county = 0; county < 3; county++) {
+        final Long id = county;
+        assertTrue(scheduler.submit(id, Kind.CVR_EXPORT, SIZE, () -> {
+          try {
+            release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+          } catch (final InterruptedException e) {
+            // the test will fail on the order
+          }
+          order.add(id);
+          done.countDown();
+        }));
+      }
+      // a county cannot queue a second import of the same kind
+      assertFalse(scheduler.submit(1L, Kind.CVR_EXPORT, SIZE, () -> { }));
+      assertTrue(scheduler.scheduled(2L, Kind.CVR_EXPORT));
+      assertNull(scheduler.status(3L, Kind.CVR_EXPORT));
+
+      Instant last = null;
+      for (int county = 0; county < 3; county++) {
+        final Pair<Integer, Instant> status = scheduler.status((long) county,
+                                                               Kind.CVR_EXPORT);
+        assertEquals(status.first().intValue(), county);
+        if (last != null) {
+          assertTrue(status.second().isAfter(last));
+        }
+        last = status.second();
+      }
+
+      release.countDown();
+      assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+      assertEquals(order, Arrays.asList(0L, 1L, 2L));
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * Tests that the listener is told about every county whose queue position
+   * changes when an import is submitted or finishes.
+   *
+   * @exception InterruptedException if the test is interrupted.
+   */
+  @Test()
+  public void testListener() throws InterruptedException {
+    final ImportScheduler scheduler = new ImportScheduler(1);
+    final Set<Long> notified = Collections.synchronizedSet(new HashSet<>());
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    scheduler.setListener(notified::add);
+    try {
+      assertTrue(scheduler.submit(1L, Kind.CVR_EXPORT, SIZE, () -> {
+        try {
+          release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+          // the test will fail on the notifications
+        }
+      }));
+      assertTrue(scheduler.submit(2L, Kind.CVR_EXPORT, SIZE, done::countDown));
+      assertEquals(notified, new HashSet<>(Arrays.asList(1L, 2L)));
+
+      // when county 1's import finishes, county 2's starts
+      notified.clear();
+      release.countDown();
+      assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+      final long deadline = System.currentTimeMillis() + WAIT_SECONDS * 1000;
+      // the notifications follow the imports, so wait for them
+      while (!notified.containsAll(Arrays.asList(1L, 2L)) &&
+             System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertTrue(notified.containsAll(Arrays.asList(1L, 2L)));
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import static org.testng.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.crypto.HashChecker;
+
+/**
+ * A test case for the IngestOutputStream.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class IngestOutputStreamTest {
+  /**
+   * The text to ingest, with every kind of line terminator.
+   */
+  private static final String TEXT = "Colorado\nRLA\r\nCVR\rexport\r\r\n\nlast";
+
+  /**
+   * The number of line terminators in the text.
+   */
+  private static final int TERMINATORS = 6;
+
+  /**
+   * Tests that a single pass ingest, with small buffers, copies the bytes to
+   * both streams, produces the same hash as re-reading them, and counts "\n",
+   * "\r" and "\r\n" as one line terminator each.
+   *
+   * @exception IOException never.
+   * @exception NoSuchAlgorithmException never.
+   */
+  @Test()
+  public void testIngest() throws IOException, NoSuchAlgorithmException {
+    final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+    final ByteArrayOutputStream primary = new ByteArrayOutputStream();
+    final ByteArrayOutputStream secondary = new ByteArrayOutputStream();
+    final IngestOutputStream ios =
+        new IngestOutputStream(primary, secondary,
+                               MessageDigest.getInstance(HashChecker.ALGORITHM));
+    FileHelper.bufferedCopy(new ByteArrayInputStream(bytes), ios, 3, Integer.MAX_VALUE);
+    ios.close();
+
+    assertEquals(primary.toByteArray(), bytes);
+    assertEquals(secondary.toByteArray(), bytes);
+    assertFalse(ios.secondaryFailed());
+
+    final MessageDigest md = MessageDigest.getInstance(HashChecker.ALGORITHM);
+    md.update(bytes);
+    assertEquals(ios.hash(), HashChecker.hexDigest(md));
+    assertEquals(ios.lineCount(), TERMINATORS);
+  }
+
+  /**
+   * Tests that a failing secondary stream is abandoned without failing the
+   * ingest.
+   *
+   * @exception IOException never.
+   * @exception NoSuchAlgorithmException never.
+   */
+  @Test()
+  public void testSecondaryFailure() throws IOException, NoSuchAlgorithmException {
+    final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+    final ByteArrayOutputStream primary = new ByteArrayOutputStream();
+    final OutputStream failing = new OutputStream() {
+      @Override
+      public void write(final int the_byte) throws IOException {
+        throw new IOException("disk full");
+      }
+    };
+    final IngestOutputStream ios =
+        new IngestOutputStream(primary, failing,
+                               MessageDigest.getInstance(HashChecker.ALGORITHM));
+    FileHelper.bufferedCopy(new ByteArrayInputStream(bytes), ios, 3, Integer.MAX_VALUE);
+    ios.close();
+
+    assertEquals(primary.toByteArray(), bytes);
+    assertTrue(ios.secondaryFailed());
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import static org.testng.Assert.*;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * A test case for JsonMergePatch.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class JsonMergePatchTest {
+  /**
+   * The number of random document pairs to try.
+   */
+  private static final int PAIRS = 2000;
+
+  /**
+   * Checks a patch with changed, added, removed and nested members.
+   */
+  @Test()
+  public void testDiff() {
+    final JsonElement source =
+        parse("{\"a\": 1, \"b\": {\"c\": [1, 2], \"d\": \"x\"}, \"e\": true}");
+    final JsonElement target =
+        parse("{\"a\": 1, \"b\": {\"c\": [1, 3], \"f\": 2}, \"g\": {\"h\": 1}}");
+    assertEquals(JsonMergePatch.diff(source, target),
+                 parse("{\"b\": {\"c\": [1, 3], \"d\": null, \"f\": 2}, " +
+                       "\"e\": null, \"g\": {\"h\": 1}}"));
+    assertNull(JsonMergePatch.diff(source, parse(source.toString())));
+  }
+
+  /**
+   * Checks that applying the patch between random documents to the first
+   * yields the second, and leaves the first unchanged.
+   */
+  @Test()
+  public void testRoundTrip() {
+    final Random random = new Random(20_261_017L);
+    for (int i = 0; i < PAIRS; i++) {
+      final JsonElement source = randomElement(random, 3);
+      final JsonElement target;
+      if (random.nextInt(4) == 0) {
+        target = parse(source.toString());
+      } else {
+        target = randomElement(random, 3);
+      }
+      final String original = source.toString();
+      final JsonElement patch = JsonMergePatch.diff(source, target);
+      if (patch == null) {
+        assertEquals(source, target);
+      } else {
+        assertEquals(JsonMergePatch.apply(source, patch), target,
+                     "source " + source + ", patch " + patch);
+        // patches are sent as text, so they must survive a round trip
+        assertEquals(JsonMergePatch.apply(source, parse(patch.toString())), target);
+      }
+      assertEquals(source.toString(), original);
+    }
+  }
+
+  /**
+   * Makes a random JSON element without null members.
+   *
+   * @param the_random The random number generator.
+   * @param the_depth The maximum nesting depth.
+   * @return the element.
+   */
+  private JsonElement randomElement(final Random the_random, final int the_depth) {
+    final int kind;
+    if (the_depth == 0) {
+      kind = 2 + the_random.nextInt(3);
+    } else {
+      // objects are most common, as in dashboards
+      kind = the_random.nextInt(6) % 5;
+    }
+    final JsonElement result;
+    switch (kind) {
+      case 0:
+        final JsonObject object = new JsonObject();
+        final int members = the_random.nextInt(5);
+        for (int i = 0; i < members; i++) {
+          object.add("m" + the_random.nextInt(6), randomElement(the_random, the_depth - 1));
+        }
+        result = object;
+        break;
+
+      case 1:
+        final JsonArray array = new JsonArray();
+        final int elements = the_random.nextInt(3);
+        for (int i = 0; i < elements; i++) {
+          array.add(randomElement(the_random, the_depth - 1));
+        }
+        result = array;
+        break;
+
+      case 2:
+        result = new JsonPrimitive(the_random.nextInt(3));
+        break;
+
+      case 3:
+        result = new JsonPrimitive(the_random.nextBoolean());
+        break;
+
+      default:
+        result = new JsonPrimitive("s" + the_random.nextInt(3));
+    }
+    return result;
+  }
+
+  /**
+   * @param the_json Some JSON text.
+   * @return the parsed element.
+   */
+  private JsonElement parse(final String the_json) {
+    return new JsonParser().parse(the_json);
+  }
+}
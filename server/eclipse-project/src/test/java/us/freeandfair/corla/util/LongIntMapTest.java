@@ -0,0 +1,70 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import static org.testng.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+/**
+ * A test case for the LongIntMap.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class LongIntMapTest {
+  /**
+   * Checks that counting keys, with the map growing from a tiny capacity,
+   * gives the same counts as a HashMap, with the entries in insertion order.
+   */
+  @Test()
+  public void testCounts() {
+    final Random random = new Random(17);
+    final LongIntMap map = new LongIntMap(0);
+    final Map<Long, Integer> expected = new HashMap<>();
+    final long[] order = new long[10000];
+    int distinct = 0;
+    for (int i = 0; i < 20000; i++) {
+      // keys far apart, and keys differing only in their high bits
+      final long key = (random.nextInt(5000) + 1) * (1L << 33) * (i % 2 == 0 ? 1 : -1);
+      final int count = expected.merge(key, 1, Integer::sum);
+      if (count == 1) {
+        order[distinct] = key;
+        distinct = distinct + 1;
+      }
+      assertEquals(map.add(key, 1), count);
+    }
+    assertEquals(map.size(), expected.size());
+    for (int i = 0; i < map.size(); i++) {
+      assertEquals(map.key(i), order[i]);
+      assertEquals(map.value(i), (int) expected.get(map.key(i)));
+      assertEquals(map.get(map.key(i)), map.value(i));
+    }
+    assertEquals(map.get(12345L), 0);
+  }
+
+  /**
+   * Checks that entry indexes are checked.
+   */
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void testIndexCheck() {
+    final LongIntMap map = new LongIntMap();
+    map.add(1, 1);
+    map.key(1);
+  }
+}
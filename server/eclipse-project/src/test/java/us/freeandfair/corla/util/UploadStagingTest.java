@@ -0,0 +1,143 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 17, 2026
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator agent <agent@local>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import static org.testng.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import us.freeandfair.corla.crypto.HashChecker;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.UploadedFile;
+import us.freeandfair.corla.model.UploadedFile.FileStatus;
+import us.freeandfair.corla.model.UploadedFile.HashStatus;
+
+/**
+ * A test case for UploadStaging.
+ *
+ * @author agent <agent@local>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class UploadStagingTest {
+  /**
+   * The county that uploads the files.
+   */
+  private static final County COUNTY = new County("Adams", 1L);
+
+  /**
+   * Discards everything staged by a test.
+   */
+  @AfterMethod()
+  public void clear() {
+    UploadStaging.clear();
+  }
+
+  /**
+   * Tests that a staged copy is claimed only once, by its own file, and that
+   * a county's oldest staged copies are deleted when it stages too many.
+   *
+   * @exception IOException if a copy cannot be written.
+   */
+  @Test()
+  public void testStageAndClaim() throws IOException {
+    final File manifest = copy("manifest");
+    final UploadedFile manifest_file = uploaded(1L, COUNTY, manifest);
+    final File cvrs = copy("cvrs");
+    final UploadedFile cvr_file = uploaded(2L, COUNTY, cvrs);
+    UploadStaging.stage(manifest_file, manifest);
+    UploadStaging.stage(cvr_file, cvrs);
+
+    // another county's upload does not displace this county's
+    final File other = copy("other");
+    final UploadedFile other_file = uploaded(3L, new County("Alamosa", 2L), other);
+    UploadStaging.stage(other_file, other);
+
+    assertEquals(UploadStaging.claim(cvr_file), cvrs);
+    assertNull(UploadStaging.claim(cvr_file));
+    assertTrue(cvrs.exists());
+    UploadStaging.delete(cvrs);
+
+    // a third upload by the county replaces its oldest staged copy
+    final File again = copy("again");
+    final UploadedFile again_file = uploaded(4L, COUNTY, again);
+    final File last = copy("last");
+    final UploadedFile last_file = uploaded(5L, COUNTY, last);
+    UploadStaging.stage(again_file, again);
+    UploadStaging.stage(last_file, last);
+    assertFalse(manifest.exists());
+    assertNull(UploadStaging.claim(manifest_file));
+    assertTrue(again.exists());
+
+    UploadStaging.discard(again_file);
+    assertFalse(again.exists());
+    assertEquals(UploadStaging.claim(other_file), other);
+    UploadStaging.delete(other);
+  }
+
+  /**
+   * Tests that a staged copy whose contents no longer match the uploaded
+   * file's hash is deleted instead of being claimed, even if its size does.
+   *
+   * @exception IOException if a copy cannot be written.
+   */
+  @Test()
+  public void testClaimChecksHash() throws IOException {
+    final File cvrs = copy("cvrs");
+    final UploadedFile cvr_file = uploaded(1L, COUNTY, cvrs);
+    UploadStaging.stage(cvr_file, cvrs);
+    Files.write(cvrs.toPath(), "CVRS".getBytes(StandardCharsets.UTF_8));
+
+    assertNull(UploadStaging.claim(cvr_file));
+    assertFalse(cvrs.exists());
+  }
+
+  /**
+   * Writes a local copy of an upload.
+   *
+   * @param the_contents The contents.
+   * @return the copy.
+   * @exception IOException if the copy cannot be written.
+   */
+  private File copy(final String the_contents) throws IOException {
+    final File result = File.createTempFile("staging", ".csv");
+    result.deleteOnExit();
+    Files.write(result.toPath(), the_contents.getBytes(StandardCharsets.UTF_8));
+    return result;
+  }
+
+  /**
+   * Makes an uploaded file with the size and hash of a local copy.
+   *
+   * @param the_id The uploaded file ID.
+   * @param the_county The county.
+   * @param the_copy The local copy.
+   * @return the uploaded file.
+   */
+  private UploadedFile uploaded(final Long the_id, final County the_county,
+                                final File the_copy) {
+    final UploadedFile result =
+        new UploadedFile(Instant.now(), the_county, the_copy.getName(),
+                         FileStatus.NOT_IMPORTED, HashChecker.hashFile(the_copy),
+                         HashStatus.VERIFIED, null, the_copy.length(), 1);
+    result.setID(the_id);
+    return result;
+  }
+}
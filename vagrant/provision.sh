@@ -56,6 +56,8 @@ cat << 'EOF'
     Require all granted
   </Location>
 
+  # the dashboard push WebSocket (needs mod_proxy_wstunnel) must precede /api/
+  ProxyPass /api/dashboard-push ws://localhost:8888/dashboard-push
   ProxyPass /api/ http://localhost:8888/
   ProxyPassReverse /api/ http://localhost:8888/
 </VirtualHost>